@@ -50,6 +50,7 @@ public final class PrestoHeaders
     public static final String PRESTO_PAGE_TOKEN = "X-Presto-Page-Sequence-Id";
     public static final String PRESTO_PAGE_NEXT_TOKEN = "X-Presto-Page-End-Sequence-Id";
     public static final String PRESTO_BUFFER_COMPLETE = "X-Presto-Buffer-Complete";
+    public static final String PRESTO_DYNAMIC_FILTERS_VERSION = "X-Presto-Dynamic-Filters-Version";
 
     private PrestoHeaders() {}
 }
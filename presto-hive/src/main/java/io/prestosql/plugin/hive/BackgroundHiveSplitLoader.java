@@ -14,6 +14,7 @@
 package io.prestosql.plugin.hive;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterators;
@@ -21,6 +22,8 @@ import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Streams;
 import com.google.common.io.CharStreams;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import io.airlift.units.DataSize;
 import io.prestosql.plugin.hive.HdfsEnvironment.HdfsContext;
 import io.prestosql.plugin.hive.HiveSplit.BucketConversion;
 import io.prestosql.plugin.hive.metastore.Column;
@@ -36,6 +39,8 @@ import io.prestosql.plugin.hive.util.ResumableTasks;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ConnectorSession;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.NullableValue;
 import io.prestosql.spi.predicate.TupleDomain;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileStatus;
@@ -64,14 +69,17 @@ import java.util.Arrays;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.IntPredicate;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -79,6 +87,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static io.airlift.concurrent.MoreFutures.addExceptionCallback;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_BAD_DATA;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_FILESYSTEM_ERROR;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_INVALID_BUCKET_FILES;
@@ -101,6 +110,7 @@ import static io.prestosql.spi.StandardErrorCode.NOT_SUPPORTED;
 import static java.lang.Integer.parseInt;
 import static java.lang.Math.max;
 import static java.lang.String.format;
+import static java.util.Collections.emptyIterator;
 import static java.util.Objects.requireNonNull;
 import static org.apache.hadoop.hive.common.FileUtils.HIDDEN_FILES_PATH_FILTER;
 
@@ -119,28 +129,35 @@ public class BackgroundHiveSplitLoader
 
     private final Table table;
     private final TupleDomain<? extends ColumnHandle> compactEffectivePredicate;
+    private final Supplier<TupleDomain<ColumnHandle>> dynamicFilter;
     private final Optional<BucketSplitInfo> tableBucketInfo;
     private final HdfsEnvironment hdfsEnvironment;
     private final HdfsContext hdfsContext;
     private final NamenodeStats namenodeStats;
     private final DirectoryLister directoryLister;
     private final int loaderConcurrency;
+    private final int listingConcurrency;
+    private final long maxPrefetchedSplitsSize;
     private final boolean recursiveDirWalkerEnabled;
     private final boolean ignoreAbsentPartitions;
     private final Executor executor;
     private final ConnectorSession session;
     private final ConcurrentLazyQueue<HivePartitionMetadata> partitions;
     private final Deque<Iterator<InternalHiveSplit>> fileIterators = new ConcurrentLinkedDeque<>();
+    // directory listings started ahead of loading their splits, in partition order
+    private final Deque<ListenableFuture<Iterator<InternalHiveSplit>>> pendingListings = new ConcurrentLinkedDeque<>();
+    // estimated size of the splits listed ahead which were not queued yet
+    private final AtomicLong prefetchedSplitsSize = new AtomicLong();
     private final Optional<ValidWriteIdList> validWriteIds;
 
     // Purpose of this lock:
-    // * Write lock: when you need a consistent view across partitions, fileIterators, and hiveSplitSource.
+    // * Write lock: when you need a consistent view across partitions, fileIterators, pendingListings, and hiveSplitSource.
     // * Read lock: when you need to modify any of the above.
     //   Make sure the lock is held throughout the period during which they may not be consistent with each other.
     // Details:
     // * When write lock is acquired, except the holder, no one can do any of the following:
     // ** poll from (or check empty) partitions
-    // ** poll from (or check empty) or push to fileIterators
+    // ** poll from (or check empty) or push to fileIterators or pendingListings
     // ** push to hiveSplitSource
     // * When any of the above three operations is carried out, either a read lock or a write lock must be held.
     // * When a series of operations involving two or more of the above three operations are carried out, the lock
@@ -157,6 +174,7 @@ public class BackgroundHiveSplitLoader
             Table table,
             Iterable<HivePartitionMetadata> partitions,
             TupleDomain<? extends ColumnHandle> compactEffectivePredicate,
+            Supplier<TupleDomain<ColumnHandle>> dynamicFilter,
             Optional<BucketSplitInfo> tableBucketInfo,
             ConnectorSession session,
             HdfsEnvironment hdfsEnvironment,
@@ -164,14 +182,19 @@ public class BackgroundHiveSplitLoader
             DirectoryLister directoryLister,
             Executor executor,
             int loaderConcurrency,
+            int listingConcurrency,
+            DataSize maxPrefetchedSplitsSize,
             boolean recursiveDirWalkerEnabled,
             boolean ignoreAbsentPartitions,
             Optional<ValidWriteIdList> validWriteIds)
     {
         this.table = table;
         this.compactEffectivePredicate = compactEffectivePredicate;
+        this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null");
         this.tableBucketInfo = tableBucketInfo;
         this.loaderConcurrency = loaderConcurrency;
+        this.listingConcurrency = listingConcurrency;
+        this.maxPrefetchedSplitsSize = requireNonNull(maxPrefetchedSplitsSize, "maxPrefetchedSplitsSize is null").toBytes();
         this.session = session;
         this.hdfsEnvironment = hdfsEnvironment;
         this.namenodeStats = namenodeStats;
@@ -198,6 +221,7 @@ public class BackgroundHiveSplitLoader
     public void stop()
     {
         stopped = true;
+        pendingListings.forEach(listing -> listing.cancel(true));
     }
 
     private class HiveSplitLoaderTask
@@ -244,7 +268,7 @@ public class BackgroundHiveSplitLoader
         taskExecutionLock.readLock().lock();
         try {
             // This is an opportunistic check to avoid getting the write lock unnecessarily
-            if (!partitions.isEmpty() || !fileIterators.isEmpty()) {
+            if (!partitions.isEmpty() || !fileIterators.isEmpty() || !pendingListings.isEmpty()) {
                 return;
             }
         }
@@ -259,8 +283,8 @@ public class BackgroundHiveSplitLoader
 
         taskExecutionLock.writeLock().lock();
         try {
-            // the write lock guarantees that no one is operating on the partitions, fileIterators, or hiveSplitSource, or half way through doing so.
-            if (partitions.isEmpty() && fileIterators.isEmpty()) {
+            // the write lock guarantees that no one is operating on the partitions, fileIterators, pendingListings, or hiveSplitSource, or half way through doing so.
+            if (partitions.isEmpty() && fileIterators.isEmpty() && pendingListings.isEmpty()) {
                 // It is legal to call `noMoreSplits` multiple times or after `stop` was called.
                 // Nothing bad will happen if `noMoreSplits` implementation calls methods that will try to obtain a read lock because the lock is re-entrant.
                 hiveSplitSource.noMoreSplits();
@@ -278,13 +302,29 @@ public class BackgroundHiveSplitLoader
     private ListenableFuture<?> loadSplits()
             throws IOException
     {
+        // keep listing partitions ahead, up to the listing concurrency and the size of the listed splits
+        if (pendingListings.size() < listingConcurrency && prefetchedSplitsSize.get() < maxPrefetchedSplitsSize) {
+            HivePartitionMetadata partition = partitions.poll();
+            if (partition != null) {
+                return loadPartition(partition);
+            }
+        }
+
         Iterator<InternalHiveSplit> splits = fileIterators.poll();
         if (splits == null) {
-            HivePartitionMetadata partition = partitions.poll();
-            if (partition == null) {
-                return COMPLETED_FUTURE;
+            ListenableFuture<Iterator<InternalHiveSplit>> listing = pendingListings.poll();
+            if (listing == null) {
+                HivePartitionMetadata partition = partitions.poll();
+                if (partition == null) {
+                    return COMPLETED_FUTURE;
+                }
+                return loadPartition(partition);
             }
-            return loadPartition(partition);
+            if (!listing.isDone()) {
+                pendingListings.addFirst(listing);
+                return listing;
+            }
+            splits = getFutureValue(listing);
         }
 
         while (splits.hasNext() && !stopped) {
@@ -299,10 +339,32 @@ public class BackgroundHiveSplitLoader
         return COMPLETED_FUTURE;
     }
 
+    private static boolean partitionMatches(HivePartition partition, TupleDomain<ColumnHandle> dynamicFilter)
+    {
+        if (dynamicFilter.isNone()) {
+            return false;
+        }
+        Map<ColumnHandle, Domain> domains = dynamicFilter.getDomains().get();
+        for (Map.Entry<ColumnHandle, NullableValue> partitionKey : partition.getKeys().entrySet()) {
+            Domain allowedDomain = domains.get(partitionKey.getKey());
+            if (allowedDomain != null && !allowedDomain.includesNullableValue(partitionKey.getValue().getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private ListenableFuture<?> loadPartition(HivePartitionMetadata partition)
             throws IOException
     {
-        String partitionName = partition.getHivePartition().getPartitionId();
+        HivePartition hivePartition = partition.getHivePartition();
+        String partitionName = hivePartition.getPartitionId();
+
+        // skip partitions which were pruned by a dynamic filter collected after the split enumeration started
+        if (!partitionMatches(hivePartition, dynamicFilter.get())) {
+            return COMPLETED_FUTURE;
+        }
+
         Properties schema = getPartitionSchema(table, partition.getPartition());
         List<HivePartitionKey> partitionKeys = getPartitionKeys(table, partition.getPartition());
         TupleDomain<HiveColumnHandle> effectivePredicate = compactEffectivePredicate.transform(HiveColumnHandle.class::cast);
@@ -477,12 +539,57 @@ public class BackgroundHiveSplitLoader
         boolean splittable = getHeaderCount(schema) == 0 && getFooterCount(schema) == 0 && !s3SelectPushdownEnabled;
 
         for (Path readPath : readPaths) {
-            fileIterators.addLast(createInternalHiveSplitIterator(readPath, fs, splitFactory, splittable, deleteDeltaLocations));
+            Iterator<InternalHiveSplit> splits = createInternalHiveSplitIterator(readPath, fs, splitFactory, splittable, deleteDeltaLocations);
+            if (listingConcurrency == 0) {
+                fileIterators.addLast(splits);
+            }
+            else {
+                ListenableFutureTask<Iterator<InternalHiveSplit>> listing = ListenableFutureTask.create(() -> prefetchSplits(hivePartition, splits));
+                pendingListings.addLast(listing);
+                executor.execute(listing);
+            }
         }
 
         return COMPLETED_FUTURE;
     }
 
+    /**
+     * Lists the splits of a partition ahead of queueing them, until the splits listed ahead for
+     * all partitions reach the maximum size. The remaining splits are listed as they are queued.
+     */
+    private Iterator<InternalHiveSplit> prefetchSplits(HivePartition partition, Iterator<InternalHiveSplit> splits)
+    {
+        // the partition may have been pruned by a dynamic filter collected while the listing waited to start
+        if (!partitionMatches(partition, dynamicFilter.get())) {
+            return emptyIterator();
+        }
+
+        ImmutableList.Builder<InternalHiveSplit> prefetchedSplits = ImmutableList.builder();
+        while (!stopped && splits.hasNext() && prefetchedSplitsSize.get() < maxPrefetchedSplitsSize) {
+            InternalHiveSplit split = splits.next();
+            prefetchedSplitsSize.addAndGet(split.getEstimatedSizeInBytes());
+            prefetchedSplits.add(split);
+        }
+
+        Iterator<InternalHiveSplit> prefetched = prefetchedSplits.build().iterator();
+        return new AbstractIterator<InternalHiveSplit>()
+        {
+            @Override
+            protected InternalHiveSplit computeNext()
+            {
+                if (prefetched.hasNext()) {
+                    InternalHiveSplit split = prefetched.next();
+                    prefetchedSplitsSize.addAndGet(-split.getEstimatedSizeInBytes());
+                    return split;
+                }
+                if (splits.hasNext()) {
+                    return splits.next();
+                }
+                return endOfData();
+            }
+        };
+    }
+
     private ListenableFuture<?> addSplitsToSource(InputSplit[] targetSplits, InternalHiveSplitFactory splitFactory)
             throws IOException
     {
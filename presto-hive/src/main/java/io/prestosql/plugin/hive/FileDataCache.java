@@ -0,0 +1,415 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import io.airlift.units.DataSize;
+import org.weakref.jmx.Managed;
+import sun.misc.Unsafe;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Caches the data of ORC and Parquet files in off-heap memory, so that data read
+ * repeatedly from remote storage is read from the storage only once. Files are
+ * cached in blocks aligned to the block size. Entries are keyed by the file path,
+ * length and modification time, so a rewritten file is never served stale data.
+ * <p>
+ * The off-heap memory of a block is freed as soon as the block is evicted and no
+ * longer read, rather than when the garbage collector finds it unreachable. Reads
+ * much smaller than a block only read the requested range of missing blocks, so
+ * that small reads, such as footers, do not pull whole blocks from the storage.
+ */
+public class FileDataCache
+{
+    private static final FileDataCache DISABLED = new FileDataCache(DataSize.ofBytes(0), DataSize.of(1, MEGABYTE));
+
+    // reads of at most this fraction of a block are not extended to whole blocks
+    private static final int SMALL_READ_FRACTION = 8;
+
+    private static final Unsafe unsafe;
+
+    static {
+        try {
+            Field field = Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = (Unsafe) field.get(null);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private final boolean enabled;
+    private final int blockSize;
+    private final Cache<BlockKey, CacheBlock> cache;
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private final AtomicLong smallReadCount = new AtomicLong();
+
+    @Inject
+    public FileDataCache(HiveConfig hiveConfig)
+    {
+        this(hiveConfig.getFileDataCacheMaxSize(), hiveConfig.getFileDataCacheBlockSize());
+    }
+
+    public FileDataCache(DataSize maxSize, DataSize blockSize)
+    {
+        this.enabled = maxSize.toBytes() > 0;
+        this.blockSize = toIntExact(blockSize.toBytes());
+        checkArgument(this.blockSize > 0, "blockSize must be positive");
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Weigher<BlockKey, CacheBlock>) (key, value) -> value.getLength())
+                .removalListener(FileDataCache::releaseBlock)
+                .recordStats()
+                .build();
+    }
+
+    public static FileDataCache disabled()
+    {
+        return DISABLED;
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Reads the given range of the file, using cached blocks where present. Blocks
+     * which are not cached are read with the given reader, using one read for each
+     * run of adjacent missing blocks, and added to the cache. When the read is much
+     * smaller than a block, only the requested range of the missing blocks is read,
+     * and it is not cached.
+     */
+    public void readFully(String path, long fileSize, long modificationTime, long position, byte[] buffer, int bufferOffset, int bufferLength, RangeReader reader)
+            throws IOException
+    {
+        if (!enabled || bufferLength == 0 || position + bufferLength > fileSize) {
+            reader.readFully(position, buffer, bufferOffset, bufferLength);
+            return;
+        }
+
+        FileKey fileKey = new FileKey(path, fileSize, modificationTime);
+        long end = position + bufferLength;
+        long firstBlock = position / blockSize;
+        boolean smallRead = (long) bufferLength * SMALL_READ_FRACTION <= blockSize;
+        CacheBlock[] blocks = new CacheBlock[toIntExact((end - 1) / blockSize - firstBlock + 1)];
+        for (int i = 0; i < blocks.length; i++) {
+            CacheBlock block = cache.getIfPresent(new BlockKey(fileKey, firstBlock + i));
+            // the block may be evicted and freed before it is retained
+            if (block != null && block.retain()) {
+                blocks[i] = block;
+            }
+        }
+
+        try {
+            int i = 0;
+            while (i < blocks.length) {
+                CacheBlock cachedBlock = blocks[i];
+                if (cachedBlock != null) {
+                    blocks[i] = null;
+                    try {
+                        copyToBuffer(cachedBlock.getData(), (firstBlock + i) * blockSize, position, end, buffer, bufferOffset);
+                    }
+                    finally {
+                        cachedBlock.release();
+                    }
+                    i++;
+                    continue;
+                }
+
+                // read the run of adjacent missing blocks at once
+                int missingEnd = i + 1;
+                while (missingEnd < blocks.length && blocks[missingEnd] == null) {
+                    missingEnd++;
+                }
+                long runStart = (firstBlock + i) * blockSize;
+                long runEnd = min((firstBlock + missingEnd) * blockSize, fileSize);
+                if (smallRead) {
+                    long readStart = max(position, runStart);
+                    long readEnd = min(end, runEnd);
+                    reader.readFully(readStart, buffer, bufferOffset + toIntExact(readStart - position), toIntExact(readEnd - readStart));
+                    smallReadCount.incrementAndGet();
+                    i = missingEnd;
+                    continue;
+                }
+
+                byte[] run = new byte[toIntExact(runEnd - runStart)];
+                reader.readFully(runStart, run, 0, run.length);
+
+                for (int block = i; block < missingEnd; block++) {
+                    int blockOffset = (block - i) * blockSize;
+                    int blockLength = min(blockSize, run.length - blockOffset);
+                    CacheBlock data = allocateBlock(blockLength);
+                    data.getData().setBytes(0, run, blockOffset, blockLength);
+                    cache.put(new BlockKey(fileKey, firstBlock + block), data);
+                }
+                copyToBuffer(Slices.wrappedBuffer(run), runStart, position, end, buffer, bufferOffset);
+                i = missingEnd;
+            }
+        }
+        finally {
+            // release the blocks which were not read, e.g. when reading a missing block failed
+            for (CacheBlock block : blocks) {
+                if (block != null) {
+                    block.release();
+                }
+            }
+        }
+    }
+
+    private CacheBlock allocateBlock(int length)
+    {
+        allocatedBytes.addAndGet(length);
+        return new CacheBlock(ByteBuffer.allocateDirect(length), allocatedBytes);
+    }
+
+    private static void releaseBlock(RemovalNotification<BlockKey, CacheBlock> notification)
+    {
+        // release the reference held by the cache
+        notification.getValue().release();
+    }
+
+    private static void copyToBuffer(Slice data, long dataPosition, long position, long end, byte[] buffer, int bufferOffset)
+    {
+        long copyStart = max(position, dataPosition);
+        long copyEnd = min(end, dataPosition + data.length());
+        data.getBytes(
+                toIntExact(copyStart - dataPosition),
+                buffer,
+                bufferOffset + toIntExact(copyStart - position),
+                toIntExact(copyEnd - copyStart));
+    }
+
+    @Managed
+    public void flushCache()
+    {
+        cache.invalidateAll();
+    }
+
+    @Managed
+    public long getSize()
+    {
+        return cache.size();
+    }
+
+    @Managed
+    public long getAllocatedBytes()
+    {
+        return allocatedBytes.get();
+    }
+
+    @Managed
+    public long getSmallReadCount()
+    {
+        return smallReadCount.get();
+    }
+
+    @Managed
+    public double getHitRate()
+    {
+        return cache.stats().hitRate();
+    }
+
+    @Managed
+    public double getMissRate()
+    {
+        return cache.stats().missRate();
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return cache.stats().hitCount();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return cache.stats().missCount();
+    }
+
+    @Managed
+    public long getRequestCount()
+    {
+        return cache.stats().requestCount();
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return cache.stats().evictionCount();
+    }
+
+    public interface RangeReader
+    {
+        void readFully(long position, byte[] buffer, int bufferOffset, int bufferLength)
+                throws IOException;
+    }
+
+    private static final class CacheBlock
+    {
+        private final ByteBuffer buffer;
+        private final Slice data;
+        private final AtomicLong allocatedBytes;
+
+        // the cache holds a reference until the block is removed
+        @GuardedBy("this")
+        private int references = 1;
+
+        public CacheBlock(ByteBuffer buffer, AtomicLong allocatedBytes)
+        {
+            this.buffer = requireNonNull(buffer, "buffer is null");
+            this.data = Slices.wrappedBuffer(buffer);
+            this.allocatedBytes = requireNonNull(allocatedBytes, "allocatedBytes is null");
+        }
+
+        public Slice getData()
+        {
+            return data;
+        }
+
+        public int getLength()
+        {
+            return data.length();
+        }
+
+        public synchronized boolean retain()
+        {
+            if (references == 0) {
+                return false;
+            }
+            references++;
+            return true;
+        }
+
+        public synchronized void release()
+        {
+            checkState(references > 0, "block is already freed");
+            references--;
+            if (references == 0) {
+                unsafe.invokeCleaner(buffer);
+                allocatedBytes.addAndGet(-data.length());
+            }
+        }
+    }
+
+    private static final class FileKey
+    {
+        private final String path;
+        private final long fileSize;
+        private final long modificationTime;
+
+        public FileKey(String path, long fileSize, long modificationTime)
+        {
+            this.path = requireNonNull(path, "path is null");
+            this.fileSize = fileSize;
+            this.modificationTime = modificationTime;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            FileKey other = (FileKey) o;
+            return fileSize == other.fileSize &&
+                    modificationTime == other.modificationTime &&
+                    path.equals(other.path);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(path, fileSize, modificationTime);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("path", path)
+                    .add("fileSize", fileSize)
+                    .add("modificationTime", modificationTime)
+                    .toString();
+        }
+    }
+
+    private static final class BlockKey
+    {
+        private final FileKey fileKey;
+        private final long block;
+
+        public BlockKey(FileKey fileKey, long block)
+        {
+            this.fileKey = requireNonNull(fileKey, "fileKey is null");
+            this.block = block;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            BlockKey other = (BlockKey) o;
+            return block == other.block &&
+                    fileKey.equals(other.fileKey);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(fileKey, block);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("fileKey", fileKey)
+                    .add("block", block)
+                    .toString();
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import io.airlift.units.DataSize;
+import io.prestosql.orc.OrcFileTail;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.weakref.jmx.Managed;
+
+import javax.inject.Inject;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Caches the decoded footers of ORC and Parquet files, so that the splits of a file
+ * do not each have to read and decode the footer again. Entries are keyed by the
+ * file path, length and modification time, so a rewritten file is never served a
+ * stale footer.
+ */
+public class FileMetadataCache
+{
+    // rough size of a decoded Parquet column chunk, including its statistics
+    private static final long ESTIMATED_PARQUET_COLUMN_CHUNK_SIZE = 512;
+    private static final long ESTIMATED_PARQUET_SCHEMA_COLUMN_SIZE = 256;
+
+    private final boolean enabled;
+    private final Cache<FileKey, CachedMetadata> cache;
+
+    @Inject
+    public FileMetadataCache(HiveConfig hiveConfig)
+    {
+        this(hiveConfig.getFileMetadataCacheMaxSize());
+    }
+
+    public FileMetadataCache(DataSize maxSize)
+    {
+        this.enabled = maxSize.toBytes() > 0;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Weigher<FileKey, CachedMetadata>) (key, value) -> (int) min(value.getRetainedSizeInBytes(), Integer.MAX_VALUE))
+                .recordStats()
+                .build();
+    }
+
+    public Optional<OrcFileTail> getOrcFileTail(Path path, long fileSize, long modificationTime)
+    {
+        return get(path, fileSize, modificationTime, OrcFileTail.class);
+    }
+
+    public void putOrcFileTail(Path path, long fileSize, long modificationTime, OrcFileTail fileTail)
+    {
+        put(path, fileSize, modificationTime, new CachedMetadata(fileTail, fileTail.getRetainedSizeInBytes()));
+    }
+
+    public Optional<ParquetMetadata> getParquetMetadata(Path path, long fileSize, long modificationTime)
+    {
+        return get(path, fileSize, modificationTime, ParquetMetadata.class);
+    }
+
+    public void putParquetMetadata(Path path, long fileSize, long modificationTime, ParquetMetadata parquetMetadata)
+    {
+        put(path, fileSize, modificationTime, new CachedMetadata(parquetMetadata, estimateRetainedSize(parquetMetadata)));
+    }
+
+    private <T> Optional<T> get(Path path, long fileSize, long modificationTime, Class<T> metadataClass)
+    {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        CachedMetadata cachedMetadata = cache.getIfPresent(new FileKey(path, fileSize, modificationTime));
+        if (cachedMetadata == null || !metadataClass.isInstance(cachedMetadata.getMetadata())) {
+            return Optional.empty();
+        }
+        return Optional.of(metadataClass.cast(cachedMetadata.getMetadata()));
+    }
+
+    private void put(Path path, long fileSize, long modificationTime, CachedMetadata cachedMetadata)
+    {
+        if (enabled) {
+            cache.put(new FileKey(path, fileSize, modificationTime), cachedMetadata);
+        }
+    }
+
+    private static long estimateRetainedSize(ParquetMetadata parquetMetadata)
+    {
+        long columnChunks = parquetMetadata.getBlocks().stream()
+                .mapToLong(block -> block.getColumns().size())
+                .sum();
+        return columnChunks * ESTIMATED_PARQUET_COLUMN_CHUNK_SIZE +
+                parquetMetadata.getFileMetaData().getSchema().getColumns().size() * ESTIMATED_PARQUET_SCHEMA_COLUMN_SIZE;
+    }
+
+    @Managed
+    public void flushCache()
+    {
+        cache.invalidateAll();
+    }
+
+    @Managed
+    public long getSize()
+    {
+        return cache.size();
+    }
+
+    @Managed
+    public Double getHitRate()
+    {
+        return cache.stats().hitRate();
+    }
+
+    @Managed
+    public Double getMissRate()
+    {
+        return cache.stats().missRate();
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return cache.stats().hitCount();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return cache.stats().missCount();
+    }
+
+    @Managed
+    public long getRequestCount()
+    {
+        return cache.stats().requestCount();
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return cache.stats().evictionCount();
+    }
+
+    private static final class FileKey
+    {
+        private final String path;
+        private final long fileSize;
+        private final long modificationTime;
+
+        public FileKey(Path path, long fileSize, long modificationTime)
+        {
+            this.path = requireNonNull(path, "path is null").toString();
+            this.fileSize = fileSize;
+            this.modificationTime = modificationTime;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            FileKey that = (FileKey) o;
+            return fileSize == that.fileSize &&
+                    modificationTime == that.modificationTime &&
+                    path.equals(that.path);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(path, fileSize, modificationTime);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("path", path)
+                    .add("fileSize", fileSize)
+                    .add("modificationTime", modificationTime)
+                    .toString();
+        }
+    }
+
+    private static final class CachedMetadata
+    {
+        private final Object metadata;
+        private final long retainedSizeInBytes;
+
+        public CachedMetadata(Object metadata, long retainedSizeInBytes)
+        {
+            this.metadata = requireNonNull(metadata, "metadata is null");
+            this.retainedSizeInBytes = retainedSizeInBytes;
+        }
+
+        public Object getMetadata()
+        {
+            return metadata;
+        }
+
+        public long getRetainedSizeInBytes()
+        {
+            return retainedSizeInBytes;
+        }
+    }
+}
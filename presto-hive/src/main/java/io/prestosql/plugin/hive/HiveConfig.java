@@ -26,6 +26,8 @@ import io.airlift.units.MinDataSize;
 import org.joda.time.DateTimeZone;
 
 import javax.annotation.Nullable;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
@@ -61,6 +63,7 @@ public class HiveConfig
     private int maxPartitionBatchSize = 100;
     private int maxInitialSplits = 200;
     private int splitLoaderConcurrency = 4;
+    private int partitionListingConcurrency;
     private Integer maxSplitsPerSecond;
     private DataSize maxInitialSplitSize;
     private int domainCompactionThreshold = 100;
@@ -120,6 +123,9 @@ public class HiveConfig
     private Duration fileStatusCacheExpireAfterWrite = new Duration(1, MINUTES);
     private long fileStatusCacheMaxSize = 1000 * 1000;
     private List<String> fileStatusCacheTables = ImmutableList.of();
+    private DataSize fileMetadataCacheMaxSize = DataSize.ofBytes(0);
+    private DataSize fileDataCacheMaxSize = DataSize.ofBytes(0);
+    private DataSize fileDataCacheBlockSize = DataSize.of(1, MEGABYTE);
     private boolean translateHiveViews;
 
     private Optional<Duration> hiveTransactionHeartbeatInterval = Optional.empty();
@@ -129,6 +135,9 @@ public class HiveConfig
     private boolean queryPartitionFilterRequired;
     private boolean partitionUseColumnNames;
 
+    private boolean sizeBasedSplitWeightsEnabled = true;
+    private double minimumAssignedSplitWeight = 0.05;
+
     public int getMaxInitialSplits()
     {
         return maxInitialSplits;
@@ -169,6 +178,20 @@ public class HiveConfig
         return this;
     }
 
+    @Min(0)
+    public int getPartitionListingConcurrency()
+    {
+        return partitionListingConcurrency;
+    }
+
+    @Config("hive.partition-listing-concurrency")
+    @ConfigDescription("Number of partition directories listed ahead in parallel by each split loader. 0 lists each directory while its splits are loaded")
+    public HiveConfig setPartitionListingConcurrency(int partitionListingConcurrency)
+    {
+        this.partitionListingConcurrency = partitionListingConcurrency;
+        return this;
+    }
+
     @Min(1)
     @Nullable
     public Integer getMaxSplitsPerSecond()
@@ -635,6 +658,50 @@ public class HiveConfig
         return this;
     }
 
+    @NotNull
+    public DataSize getFileMetadataCacheMaxSize()
+    {
+        return fileMetadataCacheMaxSize;
+    }
+
+    @Config("hive.file-metadata-cache.max-size")
+    @ConfigDescription("Maximum size of the decoded ORC and Parquet file footers cached on each worker")
+    public HiveConfig setFileMetadataCacheMaxSize(DataSize fileMetadataCacheMaxSize)
+    {
+        this.fileMetadataCacheMaxSize = fileMetadataCacheMaxSize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getFileDataCacheMaxSize()
+    {
+        return fileDataCacheMaxSize;
+    }
+
+    @Config("hive.file-data-cache.max-size")
+    @ConfigDescription("Maximum size of the ORC and Parquet file data cached in off-heap memory on each worker")
+    public HiveConfig setFileDataCacheMaxSize(DataSize fileDataCacheMaxSize)
+    {
+        this.fileDataCacheMaxSize = fileDataCacheMaxSize;
+        return this;
+    }
+
+    @MinDataSize("4kB")
+    @MaxDataSize("64MB")
+    @NotNull
+    public DataSize getFileDataCacheBlockSize()
+    {
+        return fileDataCacheBlockSize;
+    }
+
+    @Config("hive.file-data-cache.block-size")
+    @ConfigDescription("Size of the aligned blocks in which file data is cached")
+    public HiveConfig setFileDataCacheBlockSize(DataSize fileDataCacheBlockSize)
+    {
+        this.fileDataCacheBlockSize = fileDataCacheBlockSize;
+        return this;
+    }
+
     public boolean isSkipDeletionForAlter()
     {
         return skipDeletionForAlter;
@@ -922,4 +989,32 @@ public class HiveConfig
         this.partitionUseColumnNames = partitionUseColumnNames;
         return this;
     }
+
+    @Config("hive.size-based-split-weights-enabled")
+    @ConfigDescription("Assign weights to splits based on their size, so that more small splits can be scheduled to each worker")
+    public HiveConfig setSizeBasedSplitWeightsEnabled(boolean sizeBasedSplitWeightsEnabled)
+    {
+        this.sizeBasedSplitWeightsEnabled = sizeBasedSplitWeightsEnabled;
+        return this;
+    }
+
+    public boolean isSizeBasedSplitWeightsEnabled()
+    {
+        return sizeBasedSplitWeightsEnabled;
+    }
+
+    @Config("hive.minimum-assigned-split-weight")
+    @ConfigDescription("Minimum weight assigned to a split when size based split weights are enabled")
+    public HiveConfig setMinimumAssignedSplitWeight(double minimumAssignedSplitWeight)
+    {
+        this.minimumAssignedSplitWeight = minimumAssignedSplitWeight;
+        return this;
+    }
+
+    @DecimalMax("1")
+    @DecimalMin(value = "0", inclusive = false)
+    public double getMinimumAssignedSplitWeight()
+    {
+        return minimumAssignedSplitWeight;
+    }
 }
@@ -178,6 +178,7 @@ public class HivePageSourceProvider
                     start,
                     length,
                     fileSize,
+                    fileModifiedTime,
                     schema,
                     desiredColumns,
                     effectivePredicate,
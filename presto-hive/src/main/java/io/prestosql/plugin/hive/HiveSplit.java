@@ -19,6 +19,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.prestosql.plugin.hive.util.HiveBucketing.BucketingVersion;
 import io.prestosql.spi.HostAddress;
+import io.prestosql.spi.SplitWeight;
 import io.prestosql.spi.connector.ConnectorSplit;
 
 import java.util.List;
@@ -29,6 +30,7 @@ import java.util.Properties;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
 public class HiveSplit
@@ -51,6 +53,7 @@ public class HiveSplit
     private final Optional<BucketConversion> bucketConversion;
     private final boolean s3SelectPushdownEnabled;
     private final Optional<DeleteDeltaLocations> deleteDeltaLocations;
+    private final SplitWeight splitWeight;
 
     @JsonCreator
     public HiveSplit(
@@ -70,7 +73,8 @@ public class HiveSplit
             @JsonProperty("tableToPartitionMapping") TableToPartitionMapping tableToPartitionMapping,
             @JsonProperty("bucketConversion") Optional<BucketConversion> bucketConversion,
             @JsonProperty("s3SelectPushdownEnabled") boolean s3SelectPushdownEnabled,
-            @JsonProperty("deleteDeltaLocations") Optional<DeleteDeltaLocations> deleteDeltaLocations)
+            @JsonProperty("deleteDeltaLocations") Optional<DeleteDeltaLocations> deleteDeltaLocations,
+            @JsonProperty("splitWeight") SplitWeight splitWeight)
     {
         checkArgument(start >= 0, "start must be positive");
         checkArgument(length >= 0, "length must be positive");
@@ -104,6 +108,7 @@ public class HiveSplit
         this.bucketConversion = bucketConversion;
         this.s3SelectPushdownEnabled = s3SelectPushdownEnabled;
         this.deleteDeltaLocations = deleteDeltaLocations;
+        this.splitWeight = requireNonNull(splitWeight, "splitWeight is null");
     }
 
     @JsonProperty
@@ -215,6 +220,30 @@ public class HiveSplit
         return deleteDeltaLocations;
     }
 
+    @JsonProperty
+    @Override
+    public SplitWeight getSplitWeight()
+    {
+        return splitWeight;
+    }
+
+    @Override
+    public Optional<String> getSplitIdentity()
+    {
+        if (deleteDeltaLocations.isPresent()) {
+            // rows of the file can be deleted without changing it
+            return Optional.empty();
+        }
+        // data files are replaced rather than modified in place
+        return Optional.of(format("%s:%s:%s:%s", path, start, length, fileModifiedTime));
+    }
+
+    @Override
+    public Optional<String> getAffinityKey()
+    {
+        return Optional.of(path);
+    }
+
     @Override
     public Object getInfo()
     {
@@ -56,6 +56,8 @@ import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_FILE_NOT_FOUND;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_UNKNOWN_ERROR;
 import static io.prestosql.plugin.hive.HiveSessionProperties.getMaxInitialSplitSize;
 import static io.prestosql.plugin.hive.HiveSessionProperties.getMaxSplitSize;
+import static io.prestosql.plugin.hive.HiveSessionProperties.getMinimumAssignedSplitWeight;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isSizeBasedSplitWeightsEnabled;
 import static io.prestosql.plugin.hive.HiveSplitSource.StateKind.CLOSED;
 import static io.prestosql.plugin.hive.HiveSplitSource.StateKind.FAILED;
 import static io.prestosql.plugin.hive.HiveSplitSource.StateKind.INITIAL;
@@ -78,6 +80,7 @@ class HiveSplitSource
     private final long maxOutstandingSplitsBytes;
 
     private final DataSize maxSplitSize;
+    private final HiveSplitWeightProvider splitWeightProvider;
     private final DataSize maxInitialSplitSize;
     private final AtomicInteger remainingInitialSplits;
 
@@ -111,6 +114,9 @@ class HiveSplitSource
         this.highMemorySplitSourceCounter = requireNonNull(highMemorySplitSourceCounter, "highMemorySplitSourceCounter is null");
 
         this.maxSplitSize = getMaxSplitSize(session);
+        this.splitWeightProvider = isSizeBasedSplitWeightsEnabled(session)
+                ? new SizeBasedSplitWeightProvider(getMinimumAssignedSplitWeight(session), maxSplitSize)
+                : HiveSplitWeightProvider.uniformStandardWeightProvider();
         this.maxInitialSplitSize = getMaxInitialSplitSize(session);
         this.remainingInitialSplits = new AtomicInteger(maxInitialSplits);
     }
@@ -370,7 +376,8 @@ class HiveSplitSource
                         internalSplit.getTableToPartitionMapping(),
                         internalSplit.getBucketConversion(),
                         internalSplit.isS3SelectPushdownEnabled(),
-                        internalSplit.getDeleteDeltaLocations()));
+                        internalSplit.getDeleteDeltaLocations(),
+                        splitWeightProvider.weightForSplitSizeInBytes(splitBytes)));
 
                 internalSplit.increaseStart(splitBytes);
 
@@ -44,6 +44,7 @@ import static com.google.common.base.MoreObjects.toStringHelper;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_WRITER_CLOSE_ERROR;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_WRITER_DATA_ERROR;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_WRITE_VALIDATION_FAILED;
+import static io.prestosql.plugin.hive.util.MemoryAwareOutputStream.getOutputStreamRetainedSize;
 import static java.util.Objects.requireNonNull;
 
 public class RcFileFileWriter
@@ -52,6 +53,7 @@ public class RcFileFileWriter
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(RcFileFileWriter.class).instanceSize();
     private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
 
+    private final OutputStream fileOutputStream;
     private final CountingOutputStream outputStream;
     private final RcFileWriter rcFileWriter;
     private final Callable<Void> rollbackAction;
@@ -72,6 +74,7 @@ public class RcFileFileWriter
             Optional<Supplier<RcFileDataSource>> validationInputFactory)
             throws IOException
     {
+        this.fileOutputStream = requireNonNull(outputStream, "outputStream is null");
         this.outputStream = new CountingOutputStream(outputStream);
         rcFileWriter = new RcFileWriter(
                 new OutputStreamSliceOutput(this.outputStream),
@@ -104,7 +107,7 @@ public class RcFileFileWriter
     @Override
     public long getSystemMemoryUsage()
     {
-        return INSTANCE_SIZE + rcFileWriter.getRetainedSizeInBytes();
+        return INSTANCE_SIZE + rcFileWriter.getRetainedSizeInBytes() + getOutputStreamRetainedSize(fileOutputStream);
     }
 
     @Override
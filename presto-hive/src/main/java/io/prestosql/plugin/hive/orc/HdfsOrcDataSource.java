@@ -16,6 +16,7 @@ package io.prestosql.plugin.hive.orc;
 import io.prestosql.orc.AbstractOrcDataSource;
 import io.prestosql.orc.OrcDataSourceId;
 import io.prestosql.orc.OrcReaderOptions;
+import io.prestosql.plugin.hive.FileDataCache;
 import io.prestosql.plugin.hive.FileFormatDataSourceStats;
 import io.prestosql.spi.PrestoException;
 import org.apache.hadoop.fs.FSDataInputStream;
@@ -34,6 +35,8 @@ public class HdfsOrcDataSource
 {
     private final FSDataInputStream inputStream;
     private final FileFormatDataSourceStats stats;
+    private final long modificationTime;
+    private final FileDataCache dataCache;
 
     public HdfsOrcDataSource(
             OrcDataSourceId id,
@@ -41,10 +44,24 @@ public class HdfsOrcDataSource
             OrcReaderOptions options,
             FSDataInputStream inputStream,
             FileFormatDataSourceStats stats)
+    {
+        this(id, size, 0, options, inputStream, stats, FileDataCache.disabled());
+    }
+
+    public HdfsOrcDataSource(
+            OrcDataSourceId id,
+            long size,
+            long modificationTime,
+            OrcReaderOptions options,
+            FSDataInputStream inputStream,
+            FileFormatDataSourceStats stats,
+            FileDataCache dataCache)
     {
         super(id, size, options);
         this.inputStream = requireNonNull(inputStream, "inputStream is null");
         this.stats = requireNonNull(stats, "stats is null");
+        this.modificationTime = modificationTime;
+        this.dataCache = requireNonNull(dataCache, "dataCache is null");
     }
 
     @Override
@@ -58,9 +75,7 @@ public class HdfsOrcDataSource
     protected void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
     {
         try {
-            long readStart = System.nanoTime();
-            inputStream.readFully(position, buffer, bufferOffset, bufferLength);
-            stats.readDataBytesPerSecond(bufferLength, System.nanoTime() - readStart);
+            dataCache.readFully(getId().toString(), getSize(), modificationTime, position, buffer, bufferOffset, bufferLength, this::readFromStream);
         }
         catch (PrestoException e) {
             // just in case there is a Presto wrapper or hook
@@ -77,4 +92,12 @@ public class HdfsOrcDataSource
             throw new PrestoException(HIVE_UNKNOWN_ERROR, message, e);
         }
     }
+
+    private void readFromStream(long position, byte[] buffer, int bufferOffset, int bufferLength)
+            throws IOException
+    {
+        long readStart = System.nanoTime();
+        inputStream.readFully(position, buffer, bufferOffset, bufferLength);
+        stats.readDataBytesPerSecond(bufferLength, System.nanoTime() - readStart);
+    }
 }
@@ -45,6 +45,7 @@ import org.weakref.jmx.Managed;
 import javax.inject.Inject;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
@@ -66,6 +67,7 @@ import static io.prestosql.plugin.hive.HiveSessionProperties.getOrcStringStatist
 import static io.prestosql.plugin.hive.HiveSessionProperties.isOrcOptimizedWriterValidate;
 import static io.prestosql.plugin.hive.util.HiveUtil.getColumnNames;
 import static io.prestosql.plugin.hive.util.HiveUtil.getColumnTypes;
+import static io.prestosql.plugin.hive.util.MemoryAwareOutputStream.getOutputStreamRetainedSize;
 import static java.util.Locale.ENGLISH;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
@@ -211,7 +213,16 @@ public class OrcFileWriterFactory
     public static OrcDataSink createOrcDataSink(FileSystem fileSystem, Path path)
             throws IOException
     {
-        return new OutputStreamOrcDataSink(fileSystem.create(path));
+        OutputStream outputStream = fileSystem.create(path);
+        return new OutputStreamOrcDataSink(outputStream)
+        {
+            @Override
+            public long getRetainedSizeInBytes()
+            {
+                // the file system may hold the written data in memory while it is uploaded
+                return super.getRetainedSizeInBytes() + getOutputStreamRetainedSize(outputStream);
+            }
+        };
     }
 
     private static CompressionKind getCompression(Properties schema, JobConf configuration)
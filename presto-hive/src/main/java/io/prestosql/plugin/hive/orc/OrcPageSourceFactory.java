@@ -16,10 +16,12 @@ package io.prestosql.plugin.hive.orc;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
+import io.airlift.units.DataSize;
 import io.prestosql.memory.context.AggregatedMemoryContext;
 import io.prestosql.orc.OrcColumn;
 import io.prestosql.orc.OrcDataSource;
 import io.prestosql.orc.OrcDataSourceId;
+import io.prestosql.orc.OrcFileTail;
 import io.prestosql.orc.OrcReader;
 import io.prestosql.orc.OrcReaderOptions;
 import io.prestosql.orc.OrcRecordReader;
@@ -27,7 +29,9 @@ import io.prestosql.orc.TupleDomainOrcPredicate;
 import io.prestosql.orc.TupleDomainOrcPredicate.TupleDomainOrcPredicateBuilder;
 import io.prestosql.orc.metadata.OrcType.OrcTypeKind;
 import io.prestosql.plugin.hive.DeleteDeltaLocations;
+import io.prestosql.plugin.hive.FileDataCache;
 import io.prestosql.plugin.hive.FileFormatDataSourceStats;
+import io.prestosql.plugin.hive.FileMetadataCache;
 import io.prestosql.plugin.hive.HdfsEnvironment;
 import io.prestosql.plugin.hive.HiveColumnHandle;
 import io.prestosql.plugin.hive.HivePageSourceFactory;
@@ -107,21 +111,40 @@ public class OrcPageSourceFactory
     private final OrcReaderOptions orcReaderOptions;
     private final HdfsEnvironment hdfsEnvironment;
     private final FileFormatDataSourceStats stats;
+    private final FileMetadataCache fileMetadataCache;
+    private final FileDataCache fileDataCache;
 
     @Inject
-    public OrcPageSourceFactory(OrcReaderConfig config, HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats)
+    public OrcPageSourceFactory(
+            OrcReaderConfig config,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            FileMetadataCache fileMetadataCache,
+            FileDataCache fileDataCache)
     {
-        this(config.toOrcReaderOptions(), hdfsEnvironment, stats);
+        this(config.toOrcReaderOptions(), hdfsEnvironment, stats, fileMetadataCache, fileDataCache);
     }
 
     public OrcPageSourceFactory(
             OrcReaderOptions orcReaderOptions,
             HdfsEnvironment hdfsEnvironment,
             FileFormatDataSourceStats stats)
+    {
+        this(orcReaderOptions, hdfsEnvironment, stats, new FileMetadataCache(DataSize.ofBytes(0)), FileDataCache.disabled());
+    }
+
+    public OrcPageSourceFactory(
+            OrcReaderOptions orcReaderOptions,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            FileMetadataCache fileMetadataCache,
+            FileDataCache fileDataCache)
     {
         this.orcReaderOptions = requireNonNull(orcReaderOptions, "orcReaderOptions is null");
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.stats = requireNonNull(stats, "stats is null");
+        this.fileMetadataCache = requireNonNull(fileMetadataCache, "fileMetadataCache is null");
+        this.fileDataCache = requireNonNull(fileDataCache, "fileDataCache is null");
     }
 
     @Override
@@ -132,6 +155,7 @@ public class OrcPageSourceFactory
             long start,
             long length,
             long fileSize,
+            long fileModifiedTime,
             Properties schema,
             List<HiveColumnHandle> columns,
             TupleDomain<HiveColumnHandle> effectivePredicate,
@@ -159,6 +183,7 @@ public class OrcPageSourceFactory
                 start,
                 length,
                 fileSize,
+                fileModifiedTime,
                 projectedReaderColumns
                         .map(ReaderProjections::getReaderColumns)
                         .orElse(columns),
@@ -176,7 +201,9 @@ public class OrcPageSourceFactory
                         .withNestedLazy(isOrcNestedLazy(session))
                         .withBloomFiltersEnabled(isOrcBloomFiltersEnabled(session)),
                 deleteDeltaLocations,
-                stats);
+                stats,
+                fileMetadataCache,
+                fileDataCache);
 
         return Optional.of(new ReaderPageSourceWithProjections(orcPageSource, projectedReaderColumns));
     }
@@ -189,6 +216,7 @@ public class OrcPageSourceFactory
             long start,
             long length,
             long fileSize,
+            long fileModifiedTime,
             List<HiveColumnHandle> columns,
             boolean useOrcColumnNames,
             boolean isFullAcid,
@@ -196,7 +224,9 @@ public class OrcPageSourceFactory
             DateTimeZone hiveStorageTimeZone,
             OrcReaderOptions options,
             Optional<DeleteDeltaLocations> deleteDeltaLocations,
-            FileFormatDataSourceStats stats)
+            FileFormatDataSourceStats stats,
+            FileMetadataCache fileMetadataCache,
+            FileDataCache fileDataCache)
     {
         for (HiveColumnHandle column : columns) {
             checkArgument(column.getColumnType() == REGULAR, "column type must be regular: %s", column);
@@ -210,9 +240,11 @@ public class OrcPageSourceFactory
             orcDataSource = new HdfsOrcDataSource(
                     new OrcDataSourceId(path.toString()),
                     fileSize,
+                    fileModifiedTime,
                     options,
                     inputStream,
-                    stats);
+                    stats,
+                    fileDataCache);
         }
         catch (Exception e) {
             if (nullToEmpty(e.getMessage()).trim().equals("Filesystem closed") ||
@@ -224,7 +256,15 @@ public class OrcPageSourceFactory
 
         AggregatedMemoryContext systemMemoryUsage = newSimpleAggregatedMemoryContext();
         try {
-            OrcReader reader = new OrcReader(orcDataSource, options);
+            OrcReader reader;
+            Optional<OrcFileTail> fileTail = fileMetadataCache.getOrcFileTail(path, fileSize, fileModifiedTime);
+            if (fileTail.isPresent()) {
+                reader = new OrcReader(orcDataSource, options, fileTail.get());
+            }
+            else {
+                reader = new OrcReader(orcDataSource, options);
+                fileMetadataCache.putOrcFileTail(path, fileSize, fileModifiedTime, reader.getFileTail());
+            }
 
             List<OrcColumn> fileColumns = reader.getRootColumn().getNestedColumns();
             List<OrcColumn> fileReadColumns = new ArrayList<>(columns.size() + (isFullAcid ? 3 : 0));
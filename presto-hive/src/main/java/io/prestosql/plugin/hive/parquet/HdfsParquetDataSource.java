@@ -23,6 +23,7 @@ import io.prestosql.parquet.DiskRange;
 import io.prestosql.parquet.ParquetDataSource;
 import io.prestosql.parquet.ParquetDataSourceId;
 import io.prestosql.parquet.ParquetReaderOptions;
+import io.prestosql.plugin.hive.FileDataCache;
 import io.prestosql.plugin.hive.FileFormatDataSourceStats;
 import io.prestosql.spi.PrestoException;
 import org.apache.hadoop.fs.FSDataInputStream;
@@ -52,6 +53,8 @@ public class HdfsParquetDataSource
     private long readBytes;
     private final FileFormatDataSourceStats stats;
     private final ParquetReaderOptions options;
+    private final long modificationTime;
+    private final FileDataCache dataCache;
 
     public HdfsParquetDataSource(
             ParquetDataSourceId id,
@@ -59,12 +62,26 @@ public class HdfsParquetDataSource
             FSDataInputStream inputStream,
             FileFormatDataSourceStats stats,
             ParquetReaderOptions options)
+    {
+        this(id, size, 0, inputStream, stats, options, FileDataCache.disabled());
+    }
+
+    public HdfsParquetDataSource(
+            ParquetDataSourceId id,
+            long size,
+            long modificationTime,
+            FSDataInputStream inputStream,
+            FileFormatDataSourceStats stats,
+            ParquetReaderOptions options,
+            FileDataCache dataCache)
     {
         this.id = requireNonNull(id, "id is null");
         this.size = size;
+        this.modificationTime = modificationTime;
         this.inputStream = inputStream;
         this.stats = stats;
         this.options = requireNonNull(options, "options is null");
+        this.dataCache = requireNonNull(dataCache, "dataCache is null");
     }
 
     @Override
@@ -109,9 +126,8 @@ public class HdfsParquetDataSource
     {
         readBytes += bufferLength;
 
-        long start = System.nanoTime();
         try {
-            inputStream.readFully(position, buffer, bufferOffset, bufferLength);
+            dataCache.readFully(id.toString(), size, modificationTime, position, buffer, bufferOffset, bufferLength, this::readFromStream);
         }
         catch (PrestoException e) {
             // just in case there is a Presto wrapper or hook
@@ -120,6 +136,13 @@ public class HdfsParquetDataSource
         catch (Exception e) {
             throw new PrestoException(HIVE_FILESYSTEM_ERROR, format("Error reading from %s at position %s", id, position), e);
         }
+    }
+
+    private void readFromStream(long position, byte[] buffer, int bufferOffset, int bufferLength)
+            throws IOException
+    {
+        long start = System.nanoTime();
+        inputStream.readFully(position, buffer, bufferOffset, bufferLength);
         long currentReadTimeNanos = System.nanoTime() - start;
 
         readTimeNanos += currentReadTimeNanos;
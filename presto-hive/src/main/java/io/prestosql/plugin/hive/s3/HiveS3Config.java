@@ -20,6 +20,7 @@ import io.airlift.configuration.ConfigSecuritySensitive;
 import io.airlift.configuration.DefunctConfig;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
+import io.airlift.units.MaxDataSize;
 import io.airlift.units.MinDataSize;
 import io.airlift.units.MinDuration;
 
@@ -59,6 +60,9 @@ public class HiveS3Config
     private File s3StagingDirectory = new File(StandardSystemProperty.JAVA_IO_TMPDIR.value());
     private DataSize s3MultipartMinFileSize = DataSize.of(16, MEGABYTE);
     private DataSize s3MultipartMinPartSize = DataSize.of(5, MEGABYTE);
+    private boolean s3StreamingUploadEnabled;
+    private DataSize s3StreamingPartSize = DataSize.of(16, MEGABYTE);
+    private int s3StreamingMaxConcurrentPartUploads = 2;
     private boolean pinS3ClientToCurrentRegion;
     private String s3UserAgentPrefix = "";
     private PrestoS3AclType s3AclType = PrestoS3AclType.PRIVATE;
@@ -396,6 +400,49 @@ public class HiveS3Config
         return this;
     }
 
+    public boolean isS3StreamingUploadEnabled()
+    {
+        return s3StreamingUploadEnabled;
+    }
+
+    @Config("hive.s3.streaming.enabled")
+    @ConfigDescription("Upload files to S3 in parts while they are written, instead of staging them on local disk")
+    public HiveS3Config setS3StreamingUploadEnabled(boolean s3StreamingUploadEnabled)
+    {
+        this.s3StreamingUploadEnabled = s3StreamingUploadEnabled;
+        return this;
+    }
+
+    @NotNull
+    @MinDataSize("5MB")
+    @MaxDataSize("256MB")
+    public DataSize getS3StreamingPartSize()
+    {
+        return s3StreamingPartSize;
+    }
+
+    @Config("hive.s3.streaming.part-size")
+    @ConfigDescription("Part size for S3 streaming uploads")
+    public HiveS3Config setS3StreamingPartSize(DataSize s3StreamingPartSize)
+    {
+        this.s3StreamingPartSize = s3StreamingPartSize;
+        return this;
+    }
+
+    @Min(1)
+    public int getS3StreamingMaxConcurrentPartUploads()
+    {
+        return s3StreamingMaxConcurrentPartUploads;
+    }
+
+    @Config("hive.s3.streaming.max-concurrent-part-uploads")
+    @ConfigDescription("Maximum number of parts each S3 streaming upload sends concurrently")
+    public HiveS3Config setS3StreamingMaxConcurrentPartUploads(int s3StreamingMaxConcurrentPartUploads)
+    {
+        this.s3StreamingMaxConcurrentPartUploads = s3StreamingMaxConcurrentPartUploads;
+        return this;
+    }
+
     public boolean isPinS3ClientToCurrentRegion()
     {
         return pinS3ClientToCurrentRegion;
@@ -51,6 +51,9 @@ import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_SSE_TYPE;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_SSL_ENABLED;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_STAGING_DIRECTORY;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_STORAGE_CLASS;
+import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_STREAMING_UPLOAD_ENABLED;
+import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_STREAMING_UPLOAD_MAX_CONCURRENT_PARTS;
+import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_STREAMING_UPLOAD_PART_SIZE;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_USER_AGENT_PREFIX;
 
 public class PrestoS3ConfigurationInitializer
@@ -79,6 +82,9 @@ public class PrestoS3ConfigurationInitializer
     private final int maxConnections;
     private final DataSize multipartMinFileSize;
     private final DataSize multipartMinPartSize;
+    private final boolean streamingUploadEnabled;
+    private final DataSize streamingPartSize;
+    private final int streamingMaxConcurrentPartUploads;
     private final File stagingDirectory;
     private final boolean pinClientToCurrentRegion;
     private final String userAgentPrefix;
@@ -114,6 +120,9 @@ public class PrestoS3ConfigurationInitializer
         this.maxConnections = config.getS3MaxConnections();
         this.multipartMinFileSize = config.getS3MultipartMinFileSize();
         this.multipartMinPartSize = config.getS3MultipartMinPartSize();
+        this.streamingUploadEnabled = config.isS3StreamingUploadEnabled();
+        this.streamingPartSize = config.getS3StreamingPartSize();
+        this.streamingMaxConcurrentPartUploads = config.getS3StreamingMaxConcurrentPartUploads();
         this.stagingDirectory = config.getS3StagingDirectory();
         this.pinClientToCurrentRegion = config.isPinS3ClientToCurrentRegion();
         this.userAgentPrefix = config.getS3UserAgentPrefix();
@@ -175,6 +184,9 @@ public class PrestoS3ConfigurationInitializer
         config.setInt(S3_MAX_CONNECTIONS, maxConnections);
         config.setLong(S3_MULTIPART_MIN_FILE_SIZE, multipartMinFileSize.toBytes());
         config.setLong(S3_MULTIPART_MIN_PART_SIZE, multipartMinPartSize.toBytes());
+        config.setBoolean(S3_STREAMING_UPLOAD_ENABLED, streamingUploadEnabled);
+        config.setLong(S3_STREAMING_UPLOAD_PART_SIZE, streamingPartSize.toBytes());
+        config.setInt(S3_STREAMING_UPLOAD_MAX_CONCURRENT_PARTS, streamingMaxConcurrentPartUploads);
         config.setBoolean(S3_PIN_CLIENT_TO_CURRENT_REGION, pinClientToCurrentRegion);
         config.set(S3_USER_AGENT_PREFIX, userAgentPrefix);
         config.set(S3_ACL_TYPE, aclType.name());
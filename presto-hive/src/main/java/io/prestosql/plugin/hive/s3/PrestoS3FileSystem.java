@@ -38,22 +38,27 @@ import com.amazonaws.services.s3.AmazonS3Client;
 import com.amazonaws.services.s3.AmazonS3EncryptionClient;
 import com.amazonaws.services.s3.Headers;
 import com.amazonaws.services.s3.internal.Constants;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.CannedAccessControlList;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
 import com.amazonaws.services.s3.model.CopyObjectRequest;
 import com.amazonaws.services.s3.model.DeleteObjectRequest;
 import com.amazonaws.services.s3.model.EncryptionMaterialsProvider;
 import com.amazonaws.services.s3.model.GetObjectMetadataRequest;
 import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
 import com.amazonaws.services.s3.model.KMSEncryptionMaterialsProvider;
 import com.amazonaws.services.s3.model.ListObjectsV2Request;
 import com.amazonaws.services.s3.model.ListObjectsV2Result;
 import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
 import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.model.S3ObjectInputStream;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.amazonaws.services.s3.model.SSEAwsKeyManagementParams;
 import com.amazonaws.services.s3.model.StorageClass;
+import com.amazonaws.services.s3.model.UploadPartRequest;
 import com.amazonaws.services.s3.transfer.Transfer;
 import com.amazonaws.services.s3.transfer.TransferManager;
 import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
@@ -66,6 +71,7 @@ import com.google.common.io.Closer;
 import io.airlift.log.Logger;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
+import io.prestosql.plugin.hive.util.MemoryAwareOutputStream;
 import org.apache.hadoop.conf.Configurable;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.BlockLocation;
@@ -92,16 +98,22 @@ import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.amazonaws.regions.Regions.US_EAST_1;
 import static com.amazonaws.services.s3.Headers.SERVER_SIDE_ENCRYPTION;
@@ -115,10 +127,12 @@ import static com.google.common.base.Throwables.throwIfInstanceOf;
 import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.Iterables.toArray;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.plugin.hive.aws.AwsCurrentRegionHolder.getCurrentRegionFromEC2Metadata;
 import static io.prestosql.plugin.hive.util.RetryDriver.retry;
 import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
 import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
@@ -127,6 +141,7 @@ import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
 import static java.nio.file.Files.createDirectories;
 import static java.nio.file.Files.createTempFile;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.apache.hadoop.fs.FSExceptionMessages.CANNOT_SEEK_PAST_EOF;
 import static org.apache.hadoop.fs.FSExceptionMessages.NEGATIVE_SEEK;
@@ -168,6 +183,9 @@ public class PrestoS3FileSystem
     public static final String S3_SKIP_GLACIER_OBJECTS = "presto.s3.skip-glacier-objects";
     public static final String S3_REQUESTER_PAYS_ENABLED = "presto.s3.requester-pays.enabled";
     public static final String S3_STORAGE_CLASS = "presto.s3.storage-class";
+    public static final String S3_STREAMING_UPLOAD_ENABLED = "presto.s3.streaming.enabled";
+    public static final String S3_STREAMING_UPLOAD_PART_SIZE = "presto.s3.streaming.part-size";
+    public static final String S3_STREAMING_UPLOAD_MAX_CONCURRENT_PARTS = "presto.s3.streaming.max-concurrent-part-uploads";
 
     static final String S3_DIRECTORY_OBJECT_CONTENT_TYPE = "application/x-directory";
 
@@ -203,6 +221,10 @@ public class PrestoS3FileSystem
     private boolean skipGlacierObjects;
     private boolean requesterPaysEnabled;
     private PrestoS3StorageClass s3StorageClass;
+    private boolean streamingUploadEnabled;
+    private int streamingUploadPartSize;
+    private int streamingUploadMaxConcurrentParts;
+    private ExecutorService uploadExecutor;
 
     @Override
     public void initialize(URI uri, Configuration conf)
@@ -247,6 +269,12 @@ public class PrestoS3FileSystem
         this.skipGlacierObjects = conf.getBoolean(S3_SKIP_GLACIER_OBJECTS, defaults.isSkipGlacierObjects());
         this.requesterPaysEnabled = conf.getBoolean(S3_REQUESTER_PAYS_ENABLED, defaults.isRequesterPaysEnabled());
         this.s3StorageClass = conf.getEnum(S3_STORAGE_CLASS, defaults.getS3StorageClass());
+        this.streamingUploadEnabled = conf.getBoolean(S3_STREAMING_UPLOAD_ENABLED, defaults.isS3StreamingUploadEnabled());
+        this.streamingUploadPartSize = toIntExact(conf.getLong(S3_STREAMING_UPLOAD_PART_SIZE, defaults.getS3StreamingPartSize().toBytes()));
+        this.streamingUploadMaxConcurrentParts = conf.getInt(S3_STREAMING_UPLOAD_MAX_CONCURRENT_PARTS, defaults.getS3StreamingMaxConcurrentPartUploads());
+        if (streamingUploadEnabled) {
+            this.uploadExecutor = newCachedThreadPool(daemonThreadsNamed("s3-streaming-upload-%s"));
+        }
 
         ClientConfiguration configuration = new ClientConfiguration()
                 .withMaxErrorRetry(maxErrorRetries)
@@ -271,6 +299,9 @@ public class PrestoS3FileSystem
                 closer.register((Closeable) credentialsProvider);
             }
             closer.register(s3::shutdown);
+            if (uploadExecutor != null) {
+                closer.register(uploadExecutor::shutdownNow);
+            }
         }
     }
 
@@ -309,10 +340,25 @@ public class PrestoS3FileSystem
     public RemoteIterator<LocatedFileStatus> listLocatedStatus(Path path)
     {
         STATS.newListLocatedStatusCall();
+        return remoteIterator(listPrefix(path, false));
+    }
+
+    @Override
+    public RemoteIterator<LocatedFileStatus> listFiles(Path path, boolean recursive)
+            throws IOException
+    {
+        if (!recursive) {
+            return super.listFiles(path, false);
+        }
+        // list all objects below the prefix at once, instead of walking the directories one by one
+        STATS.newListLocatedStatusCall();
+        return remoteIterator(listPrefix(path, true));
+    }
+
+    private static RemoteIterator<LocatedFileStatus> remoteIterator(Iterator<LocatedFileStatus> iterator)
+    {
         return new RemoteIterator<LocatedFileStatus>()
         {
-            private final Iterator<LocatedFileStatus> iterator = listPrefix(path);
-
             @Override
             public boolean hasNext()
                     throws IOException
@@ -355,7 +401,7 @@ public class PrestoS3FileSystem
 
         if (metadata == null) {
             // check if this path is a directory
-            Iterator<LocatedFileStatus> iterator = listPrefix(path);
+            Iterator<LocatedFileStatus> iterator = listPrefix(path, false);
             if (iterator.hasNext()) {
                 return new FileStatus(0, true, 1, 0, 0, qualifiedPath(path));
             }
@@ -398,6 +444,13 @@ public class PrestoS3FileSystem
         // Ignore the overwrite flag, since Presto always writes to unique file names.
         // Checking for file existence can break read-after-write consistency.
 
+        if (streamingUploadEnabled) {
+            String key = keyFromPath(qualifiedPath(path));
+            return new FSDataOutputStream(
+                    new PrestoS3StreamingOutputStream(s3, getBucketName(uri), key, sseEnabled, sseType, sseKmsKeyId, s3AclType, requesterPaysEnabled, s3StorageClass, streamingUploadPartSize, streamingUploadMaxConcurrentParts, uploadExecutor),
+                    statistics);
+        }
+
         if (!stagingDirectory.exists()) {
             createDirectories(stagingDirectory.toPath());
         }
@@ -517,7 +570,7 @@ public class PrestoS3FileSystem
         return true;
     }
 
-    private Iterator<LocatedFileStatus> listPrefix(Path path)
+    private Iterator<LocatedFileStatus> listPrefix(Path path, boolean recursive)
     {
         String key = keyFromPath(path);
         if (!key.isEmpty()) {
@@ -527,7 +580,7 @@ public class PrestoS3FileSystem
         ListObjectsV2Request request = new ListObjectsV2Request()
                 .withBucketName(getBucketName(uri))
                 .withPrefix(key)
-                .withDelimiter(PATH_SEPARATOR)
+                .withDelimiter(recursive ? null : PATH_SEPARATOR)
                 .withRequesterPays(requesterPaysEnabled);
 
         STATS.newListObjectsCall();
@@ -1330,6 +1383,284 @@ public class PrestoS3FileSystem
         }
     }
 
+    /**
+     * Uploads the file in parts while it is written. Each full part buffer is sent in the
+     * background, and at most {@code maxConcurrentPartUploads} parts are in flight, which
+     * bounds the memory held by the stream. Files smaller than a part are sent in a single
+     * request on close. If any request fails, the multipart upload is aborted.
+     */
+    private static class PrestoS3StreamingOutputStream
+            extends OutputStream
+            implements MemoryAwareOutputStream
+    {
+        private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+        private final AmazonS3 s3;
+        private final String host;
+        private final String key;
+        private final boolean sseEnabled;
+        private final PrestoS3SseType sseType;
+        private final String sseKmsKeyId;
+        private final CannedAccessControlList aclType;
+        private final boolean requesterPaysEnabled;
+        private final StorageClass s3StorageClass;
+        private final int partSize;
+        private final int maxConcurrentPartUploads;
+        private final ExecutorService uploadExecutor;
+
+        private final List<Future<PartETag>> parts = new ArrayList<>();
+        // size of the part buffers held by uploads in flight
+        private final AtomicLong uploadingBytes = new AtomicLong();
+        private Optional<String> uploadId = Optional.empty();
+        private byte[] buffer = new byte[0];
+        private int bufferSize;
+        private boolean closed;
+        private IOException failure;
+
+        public PrestoS3StreamingOutputStream(
+                AmazonS3 s3,
+                String host,
+                String key,
+                boolean sseEnabled,
+                PrestoS3SseType sseType,
+                String sseKmsKeyId,
+                PrestoS3AclType aclType,
+                boolean requesterPaysEnabled,
+                PrestoS3StorageClass s3StorageClass,
+                int partSize,
+                int maxConcurrentPartUploads,
+                ExecutorService uploadExecutor)
+        {
+            this.s3 = requireNonNull(s3, "s3 is null");
+            this.host = requireNonNull(host, "host is null");
+            this.key = requireNonNull(key, "key is null");
+            this.sseEnabled = sseEnabled;
+            this.sseType = requireNonNull(sseType, "sseType is null");
+            this.sseKmsKeyId = sseKmsKeyId;
+            this.aclType = requireNonNull(aclType, "aclType is null").getCannedACL();
+            this.requesterPaysEnabled = requesterPaysEnabled;
+            this.s3StorageClass = requireNonNull(s3StorageClass, "s3StorageClass is null").getS3StorageClass();
+            checkArgument(partSize > 0, "partSize must be positive");
+            checkArgument(maxConcurrentPartUploads > 0, "maxConcurrentPartUploads must be positive");
+            this.partSize = partSize;
+            this.maxConcurrentPartUploads = maxConcurrentPartUploads;
+            this.uploadExecutor = requireNonNull(uploadExecutor, "uploadExecutor is null");
+        }
+
+        @Override
+        public void write(int b)
+                throws IOException
+        {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length)
+                throws IOException
+        {
+            checkPositionIndexes(offset, offset + length, bytes.length);
+            if (failure != null) {
+                throw failure;
+            }
+            if (closed) {
+                throw new IOException(STREAM_IS_CLOSED);
+            }
+
+            while (length > 0) {
+                ensureCapacity(length);
+                int chunk = min(length, buffer.length - bufferSize);
+                System.arraycopy(bytes, offset, buffer, bufferSize, chunk);
+                bufferSize += chunk;
+                offset += chunk;
+                length -= chunk;
+
+                if (bufferSize == partSize) {
+                    try {
+                        uploadPart();
+                    }
+                    catch (IOException | RuntimeException e) {
+                        throw abortUpload(e);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void close()
+                throws IOException
+        {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (failure != null) {
+                // the file was not uploaded, which must not look like a successful close
+                buffer = null;
+                throw failure;
+            }
+
+            try {
+                if (uploadId.isPresent()) {
+                    if (bufferSize > 0) {
+                        uploadPart();
+                    }
+                    List<PartETag> partETags = new ArrayList<>();
+                    for (Future<PartETag> part : parts) {
+                        partETags.add(getPartETag(part));
+                    }
+                    s3.completeMultipartUpload(new CompleteMultipartUploadRequest(host, key, uploadId.get(), partETags)
+                            .withRequesterPays(requesterPaysEnabled));
+                }
+                else {
+                    putObject();
+                }
+                STATS.uploadSuccessful();
+                log.debug("Completed streaming upload for host: %s, key: %s", host, key);
+            }
+            catch (IOException | RuntimeException e) {
+                throw abortUpload(e);
+            }
+            finally {
+                buffer = null;
+            }
+        }
+
+        @Override
+        public long getRetainedSizeInBytes()
+        {
+            if (buffer == null || failure != null) {
+                // the parts still in flight after a failure are cancelled
+                return 0;
+            }
+            return buffer.length + uploadingBytes.get();
+        }
+
+        private void ensureCapacity(int length)
+        {
+            int required = min(partSize, bufferSize + length);
+            if (required > buffer.length) {
+                buffer = Arrays.copyOf(buffer, min(partSize, max(required, max(buffer.length * 2, INITIAL_BUFFER_SIZE))));
+            }
+        }
+
+        private void uploadPart()
+                throws IOException
+        {
+            if (!uploadId.isPresent()) {
+                log.debug("Starting streaming upload for host: %s, key: %s", host, key);
+                STATS.uploadStarted();
+                InitiateMultipartUploadRequest request = new InitiateMultipartUploadRequest(host, key, createObjectMetadata())
+                        .withCannedACL(aclType)
+                        .withStorageClass(s3StorageClass)
+                        .withRequesterPays(requesterPaysEnabled);
+                createSseParams().ifPresent(request::withSSEAwsKeyManagementParams);
+                uploadId = Optional.of(s3.initiateMultipartUpload(request).getUploadId());
+            }
+
+            // bound the number of part buffers held by uploads in flight
+            if (parts.size() >= maxConcurrentPartUploads) {
+                getPartETag(parts.get(parts.size() - maxConcurrentPartUploads));
+            }
+
+            UploadPartRequest request = new UploadPartRequest()
+                    .withBucketName(host)
+                    .withKey(key)
+                    .withUploadId(uploadId.get())
+                    .withPartNumber(parts.size() + 1)
+                    .withInputStream(new ByteArrayInputStream(buffer, 0, bufferSize))
+                    .withPartSize(bufferSize)
+                    .withRequesterPays(requesterPaysEnabled);
+            long partBufferSize = buffer.length;
+            uploadingBytes.addAndGet(partBufferSize);
+            parts.add(uploadExecutor.submit(() -> {
+                try {
+                    return s3.uploadPart(request).getPartETag();
+                }
+                finally {
+                    uploadingBytes.addAndGet(-partBufferSize);
+                }
+            }));
+
+            // the buffer is owned by the upload now
+            buffer = new byte[partSize];
+            bufferSize = 0;
+        }
+
+        private void putObject()
+        {
+            log.debug("Starting upload for host: %s, key: %s, size: %s", host, key, bufferSize);
+            STATS.uploadStarted();
+            ObjectMetadata metadata = createObjectMetadata();
+            metadata.setContentLength(bufferSize);
+            PutObjectRequest request = new PutObjectRequest(host, key, new ByteArrayInputStream(buffer, 0, bufferSize), metadata)
+                    .withCannedAcl(aclType)
+                    .withStorageClass(s3StorageClass)
+                    .withRequesterPays(requesterPaysEnabled);
+            createSseParams().ifPresent(request::withSSEAwsKeyManagementParams);
+            s3.putObject(request);
+        }
+
+        private ObjectMetadata createObjectMetadata()
+        {
+            ObjectMetadata metadata = new ObjectMetadata();
+            if (sseEnabled && sseType == PrestoS3SseType.S3) {
+                metadata.setSSEAlgorithm(ObjectMetadata.AES_256_SERVER_SIDE_ENCRYPTION);
+            }
+            return metadata;
+        }
+
+        private Optional<SSEAwsKeyManagementParams> createSseParams()
+        {
+            if (!sseEnabled || sseType != PrestoS3SseType.KMS) {
+                return Optional.empty();
+            }
+            if (sseKmsKeyId != null) {
+                return Optional.of(new SSEAwsKeyManagementParams(sseKmsKeyId));
+            }
+            return Optional.of(new SSEAwsKeyManagementParams());
+        }
+
+        private IOException abortUpload(Throwable throwable)
+        {
+            failure = toIOException(throwable);
+            STATS.uploadFailed();
+            parts.forEach(part -> part.cancel(true));
+            uploadId.ifPresent(id -> {
+                try {
+                    s3.abortMultipartUpload(new AbortMultipartUploadRequest(host, key, id)
+                            .withRequesterPays(requesterPaysEnabled));
+                }
+                catch (RuntimeException e) {
+                    log.warn(e, "Failed to abort multipart upload %s for host: %s, key: %s", id, host, key);
+                }
+            });
+            return failure;
+        }
+
+        private static PartETag getPartETag(Future<PartETag> part)
+                throws IOException
+        {
+            try {
+                return part.get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            catch (ExecutionException e) {
+                throw toIOException(e.getCause());
+            }
+        }
+
+        private static IOException toIOException(Throwable throwable)
+        {
+            if (throwable instanceof IOException) {
+                return (IOException) throwable;
+            }
+            return new IOException(throwable);
+        }
+    }
+
     @VisibleForTesting
     AmazonS3 getS3Client()
     {
@@ -18,6 +18,7 @@ import io.airlift.stats.TimeStat;
 import io.prestosql.plugin.hive.DirectoryLister;
 import io.prestosql.plugin.hive.NamenodeStats;
 import io.prestosql.plugin.hive.metastore.Table;
+import io.prestosql.plugin.hive.s3.PrestoS3FileSystem;
 import io.prestosql.spi.PrestoException;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.LocatedFileStatus;
@@ -32,6 +33,7 @@ import java.util.Iterator;
 
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_FILESYSTEM_ERROR;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_FILE_NOT_FOUND;
+import static io.prestosql.plugin.hive.util.HiveWriteUtils.getRawFileSystem;
 import static java.util.Collections.emptyIterator;
 import static java.util.Objects.requireNonNull;
 
@@ -45,6 +47,7 @@ public class HiveFileIterator
         FAIL
     }
 
+    private final Path rootPath;
     private final Deque<Path> paths = new ArrayDeque<>();
     private final Table table;
     private final FileSystem fileSystem;
@@ -52,6 +55,7 @@ public class HiveFileIterator
     private final NamenodeStats namenodeStats;
     private final NestedDirectoryPolicy nestedDirectoryPolicy;
     private final boolean ignoreAbsentPartitions;
+    private final boolean flatListing;
 
     private Iterator<LocatedFileStatus> remoteIterator = emptyIterator();
 
@@ -64,13 +68,16 @@ public class HiveFileIterator
             NestedDirectoryPolicy nestedDirectoryPolicy,
             boolean ignoreAbsentPartitions)
     {
-        paths.addLast(requireNonNull(path, "path is null"));
+        this.rootPath = requireNonNull(path, "path is null");
+        paths.addLast(path);
         this.table = requireNonNull(table, "table is null");
         this.fileSystem = requireNonNull(fileSystem, "fileSystem is null");
         this.directoryLister = requireNonNull(directoryLister, "directoryLister is null");
         this.namenodeStats = requireNonNull(namenodeStats, "namenodeStats is null");
         this.nestedDirectoryPolicy = requireNonNull(nestedDirectoryPolicy, "nestedDirectoryPolicy is null");
         this.ignoreAbsentPartitions = ignoreAbsentPartitions;
+        // S3 can list all files under a prefix at once, rather than one request per nested directory
+        this.flatListing = nestedDirectoryPolicy == NestedDirectoryPolicy.RECURSE && getRawFileSystem(fileSystem) instanceof PrestoS3FileSystem;
     }
 
     @Override
@@ -81,8 +88,7 @@ public class HiveFileIterator
                 LocatedFileStatus status = getLocatedFileStatus(remoteIterator);
 
                 // Ignore hidden files and directories. Hive ignores files starting with _ and . as well.
-                String fileName = status.getPath().getName();
-                if (fileName.startsWith("_") || fileName.startsWith(".")) {
+                if (isHidden(status.getPath())) {
                     continue;
                 }
 
@@ -114,10 +120,26 @@ public class HiveFileIterator
             if (ignoreAbsentPartitions && !exists(path)) {
                 return emptyIterator();
             }
-            return new FileStatusIterator(table, path, fileSystem, directoryLister, namenodeStats);
+            if (flatListing) {
+                return new FileStatusIterator(path, () -> fileSystem.listFiles(path, true), namenodeStats);
+            }
+            return new FileStatusIterator(path, () -> directoryLister.list(fileSystem, table, path), namenodeStats);
         }
     }
 
+    private boolean isHidden(Path path)
+    {
+        // a flat listing also returns files from nested directories, so check every directory below the root as well
+        int rootDepth = flatListing ? rootPath.depth() : path.depth() - 1;
+        for (Path current = path; current != null && current.depth() > rootDepth; current = current.getParent()) {
+            String name = current.getName();
+            if (name.startsWith("_") || name.startsWith(".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private boolean exists(Path path)
     {
         try {
@@ -142,12 +164,12 @@ public class HiveFileIterator
         private final NamenodeStats namenodeStats;
         private final RemoteIterator<LocatedFileStatus> fileStatusIterator;
 
-        private FileStatusIterator(Table table, Path path, FileSystem fileSystem, DirectoryLister directoryLister, NamenodeStats namenodeStats)
+        private FileStatusIterator(Path path, Lister lister, NamenodeStats namenodeStats)
         {
             this.path = path;
             this.namenodeStats = namenodeStats;
             try {
-                this.fileStatusIterator = directoryLister.list(fileSystem, table, path);
+                this.fileStatusIterator = lister.list();
             }
             catch (IOException e) {
                 throw processException(e);
@@ -186,6 +208,12 @@ public class HiveFileIterator
         }
     }
 
+    private interface Lister
+    {
+        RemoteIterator<LocatedFileStatus> list()
+                throws IOException;
+    }
+
     public static class NestedDirectoryNotAllowedException
             extends RuntimeException
     {
@@ -0,0 +1,42 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.util;
+
+import org.apache.hadoop.fs.FSDataOutputStream;
+
+import java.io.OutputStream;
+
+/**
+ * An output stream which holds written data in memory, for example while it is
+ * uploaded, so that file writers can include that memory in their memory usage.
+ */
+public interface MemoryAwareOutputStream
+{
+    long getRetainedSizeInBytes();
+
+    /**
+     * Returns the memory retained by the stream, looking through the streams
+     * wrapped by the Hadoop file systems, or zero if the stream does not report it.
+     */
+    static long getOutputStreamRetainedSize(OutputStream outputStream)
+    {
+        while (outputStream instanceof FSDataOutputStream) {
+            outputStream = ((FSDataOutputStream) outputStream).getWrappedStream();
+        }
+        if (outputStream instanceof MemoryAwareOutputStream) {
+            return ((MemoryAwareOutputStream) outputStream).getRetainedSizeInBytes();
+        }
+        return 0;
+    }
+}
@@ -784,6 +784,7 @@ public abstract class AbstractTestHive
                 hiveConfig.getMaxPartitionBatchSize(),
                 hiveConfig.getMaxInitialSplits(),
                 hiveConfig.getSplitLoaderConcurrency(),
+                hiveConfig.getPartitionListingConcurrency(),
                 hiveConfig.getMaxSplitsPerSecond(),
                 false);
         pageSinkProvider = new HivePageSinkProvider(
@@ -0,0 +1,246 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.stats.CounterStat;
+import io.airlift.units.DataSize;
+import io.prestosql.plugin.hive.authentication.NoHdfsAuthentication;
+import io.prestosql.plugin.hive.metastore.Column;
+import io.prestosql.plugin.hive.metastore.Partition;
+import io.prestosql.plugin.hive.metastore.StorageFormat;
+import io.prestosql.plugin.hive.metastore.Table;
+import io.prestosql.spi.connector.ConnectorSplit;
+import io.prestosql.spi.connector.SchemaTableName;
+import io.prestosql.spi.predicate.TupleDomain;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.FilterFileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.apache.hadoop.hive.metastore.TableType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.google.common.util.concurrent.Uninterruptibles.sleepUninterruptibly;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.prestosql.plugin.hive.HiveStorageFormat.ORC;
+import static io.prestosql.plugin.hive.HiveTestUtils.SESSION;
+import static io.prestosql.plugin.hive.HiveType.HIVE_STRING;
+import static io.prestosql.spi.connector.NotPartitionedPartitionHandle.NOT_PARTITIONED;
+import static java.nio.file.Files.createTempDirectory;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Measures how long it takes to enumerate the splits of a partitioned table when
+ * every directory listing has the latency of a remote file system.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkBackgroundHiveSplitLoader
+{
+    private static final int PARTITION_COUNT = 200;
+    private static final int FILES_PER_PARTITION = 4;
+    private static final int LISTING_LATENCY_MILLIS = 5;
+
+    @Param({"0", "4", "16"})
+    private int listingConcurrency;
+
+    private File tempDirectory;
+    private ExecutorService executor;
+    private Table table;
+    private List<HivePartitionMetadata> partitions;
+
+    @Setup
+    public void setup()
+            throws IOException
+    {
+        tempDirectory = createTempDirectory(null).toFile();
+        executor = newCachedThreadPool(daemonThreadsNamed("benchmark-split-loader-%s"));
+
+        Column partitionColumn = new Column("ds", HIVE_STRING, Optional.empty());
+        table = Table.builder()
+                .setDatabaseName("test_schema")
+                .setTableName("test_table")
+                .setOwner("test_owner")
+                .setTableType(TableType.MANAGED_TABLE.toString())
+                .setDataColumns(ImmutableList.of(new Column("col1", HIVE_STRING, Optional.empty())))
+                .setPartitionColumns(ImmutableList.of(partitionColumn))
+                .withStorage(storage -> storage
+                        .setStorageFormat(StorageFormat.fromHiveStorageFormat(ORC))
+                        .setLocation(tempDirectory.toURI().toString()))
+                .build();
+
+        ImmutableList.Builder<HivePartitionMetadata> partitions = ImmutableList.builder();
+        for (int i = 0; i < PARTITION_COUNT; i++) {
+            String partitionName = "ds=" + i;
+            File partitionDirectory = new File(tempDirectory, partitionName);
+            if (!partitionDirectory.mkdir()) {
+                throw new IOException("Failed to create directory " + partitionDirectory);
+            }
+            for (int file = 0; file < FILES_PER_PARTITION; file++) {
+                if (!new File(partitionDirectory, "file_" + file).createNewFile()) {
+                    throw new IOException("Failed to create file in " + partitionDirectory);
+                }
+            }
+
+            Partition partition = Partition.builder()
+                    .setDatabaseName(table.getDatabaseName())
+                    .setTableName(table.getTableName())
+                    .setColumns(table.getDataColumns())
+                    .setValues(ImmutableList.of(String.valueOf(i)))
+                    .withStorage(storage -> storage
+                            .setStorageFormat(StorageFormat.fromHiveStorageFormat(ORC))
+                            .setLocation(partitionDirectory.toURI().toString()))
+                    .build();
+            partitions.add(new HivePartitionMetadata(
+                    new HivePartition(new SchemaTableName(table.getDatabaseName(), table.getTableName()), partitionName, ImmutableMap.of()),
+                    Optional.of(partition),
+                    TableToPartitionMapping.empty()));
+        }
+        this.partitions = partitions.build();
+    }
+
+    @TearDown
+    public void tearDown()
+            throws IOException
+    {
+        executor.shutdownNow();
+        deleteRecursively(tempDirectory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Benchmark
+    public int loadSplits()
+            throws Exception
+    {
+        BackgroundHiveSplitLoader splitLoader = new BackgroundHiveSplitLoader(
+                table,
+                partitions,
+                TupleDomain.all(),
+                TupleDomain::all,
+                Optional.empty(),
+                SESSION,
+                new LatencyInjectingHdfsEnvironment(),
+                new NamenodeStats(),
+                new CachingDirectoryLister(new HiveConfig()),
+                executor,
+                4,
+                listingConcurrency,
+                DataSize.of(32, MEGABYTE),
+                false,
+                false,
+                Optional.empty());
+        HiveSplitSource splitSource = HiveSplitSource.allAtOnce(
+                SESSION,
+                table.getDatabaseName(),
+                table.getTableName(),
+                1,
+                1,
+                DataSize.of(32, MEGABYTE),
+                Integer.MAX_VALUE,
+                splitLoader,
+                executor,
+                new CounterStat());
+        splitLoader.start(splitSource);
+
+        int splitCount = 0;
+        while (!splitSource.isFinished()) {
+            List<ConnectorSplit> splits = splitSource.getNextBatch(NOT_PARTITIONED, 1000).get().getSplits();
+            splitCount += splits.size();
+        }
+        return splitCount;
+    }
+
+    private static class LatencyInjectingHdfsEnvironment
+            extends HdfsEnvironment
+    {
+        public LatencyInjectingHdfsEnvironment()
+        {
+            super(
+                    new HiveHdfsConfiguration(new HdfsConfigurationInitializer(new HdfsConfig()), ImmutableSet.of()),
+                    new HdfsConfig(),
+                    new NoHdfsAuthentication());
+        }
+
+        @Override
+        public FileSystem getFileSystem(String user, Path path, Configuration configuration)
+                throws IOException
+        {
+            FileSystem fileSystem = new LatencyInjectingFileSystem(new RawLocalFileSystem());
+            fileSystem.initialize(URI.create("file:///"), configuration);
+            return fileSystem;
+        }
+    }
+
+    private static class LatencyInjectingFileSystem
+            extends FilterFileSystem
+    {
+        public LatencyInjectingFileSystem(FileSystem fileSystem)
+        {
+            super(fileSystem);
+        }
+
+        @Override
+        public RemoteIterator<LocatedFileStatus> listLocatedStatus(Path path)
+                throws IOException
+        {
+            sleepUninterruptibly(LISTING_LATENCY_MILLIS, MILLISECONDS);
+            return super.listLocatedStatus(path);
+        }
+    }
+
+    public static void main(String[] args)
+            throws Throwable
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkBackgroundHiveSplitLoader.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
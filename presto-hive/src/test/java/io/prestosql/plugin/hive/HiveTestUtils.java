@@ -109,7 +109,7 @@ public final class HiveTestUtils
         FileFormatDataSourceStats stats = new FileFormatDataSourceStats();
         return ImmutableSet.<HivePageSourceFactory>builder()
                 .add(new RcFilePageSourceFactory(TYPE_MANAGER, hdfsEnvironment, stats))
-                .add(new OrcPageSourceFactory(new OrcReaderConfig(), hdfsEnvironment, stats))
+                .add(new OrcPageSourceFactory(new OrcReaderConfig(), hdfsEnvironment, stats, new FileMetadataCache(new HiveConfig()), new FileDataCache(new HiveConfig())))
                 .add(new ParquetPageSourceFactory(hdfsEnvironment, stats, new ParquetReaderConfig()))
                 .build();
     }
@@ -27,9 +27,11 @@ import io.prestosql.plugin.hive.metastore.StorageFormat;
 import io.prestosql.plugin.hive.metastore.Table;
 import io.prestosql.plugin.hive.util.HiveBucketing.HiveBucketFilter;
 import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ConnectorSession;
 import io.prestosql.spi.connector.SchemaTableName;
 import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.NullableValue;
 import io.prestosql.spi.predicate.TupleDomain;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.BlockLocation;
@@ -64,6 +66,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableList.toImmutableList;
@@ -194,6 +197,90 @@ public class TestBackgroundHiveSplitLoader
         assertEquals(paths.get(0), RETURNED_PATH.toString());
     }
 
+    @Test
+    public void testDynamicFilterPartitionPruning()
+            throws Exception
+    {
+        HiveColumnHandle partitionColumn = createBaseColumn("partitionColumn", 0, HIVE_INT, INTEGER, ColumnType.PARTITION_KEY, Optional.empty());
+        List<HivePartitionMetadata> partitions = ImmutableList.of(
+                new HivePartitionMetadata(
+                        new HivePartition(
+                                new SchemaTableName("testSchema", "table_name"),
+                                "partitionColumn=1",
+                                ImmutableMap.of(partitionColumn, NullableValue.of(INTEGER, 1L))),
+                        Optional.empty(),
+                        TableToPartitionMapping.empty()));
+
+        BackgroundHiveSplitLoader backgroundHiveSplitLoader = backgroundHiveSplitLoader(
+                partitions,
+                () -> withColumnDomains(ImmutableMap.of(partitionColumn, Domain.singleValue(INTEGER, 1L))));
+        HiveSplitSource hiveSplitSource = hiveSplitSource(backgroundHiveSplitLoader);
+        backgroundHiveSplitLoader.start(hiveSplitSource);
+        assertEquals(drain(hiveSplitSource).size(), 2);
+
+        backgroundHiveSplitLoader = backgroundHiveSplitLoader(
+                partitions,
+                () -> withColumnDomains(ImmutableMap.of(partitionColumn, Domain.singleValue(INTEGER, 2L))));
+        hiveSplitSource = hiveSplitSource(backgroundHiveSplitLoader);
+        backgroundHiveSplitLoader.start(hiveSplitSource);
+        assertEquals(drain(hiveSplitSource).size(), 0);
+    }
+
+    @Test
+    public void testPartitionListingConcurrency()
+            throws Exception
+    {
+        HiveColumnHandle partitionColumn = createBaseColumn("partitionColumn", 0, HIVE_INT, INTEGER, ColumnType.PARTITION_KEY, Optional.empty());
+        ImmutableList.Builder<HivePartitionMetadata> partitions = ImmutableList.builder();
+        for (int i = 0; i < 20; i++) {
+            partitions.add(new HivePartitionMetadata(
+                    new HivePartition(
+                            new SchemaTableName("testSchema", "table_name"),
+                            "partitionColumn=" + i,
+                            ImmutableMap.of(partitionColumn, NullableValue.of(INTEGER, (long) i))),
+                    Optional.empty(),
+                    TableToPartitionMapping.empty()));
+        }
+
+        for (int listingConcurrency : ImmutableList.of(1, 4, 32)) {
+            // the size of the splits listed ahead is limited, and the remaining splits are listed as they are queued
+            for (DataSize maxPrefetchedSplitsSize : ImmutableList.of(DataSize.ofBytes(1), DataSize.of(32, MEGABYTE))) {
+                BackgroundHiveSplitLoader backgroundHiveSplitLoader = backgroundHiveSplitLoader(partitions.build(), TupleDomain::all, listingConcurrency, maxPrefetchedSplitsSize);
+                HiveSplitSource hiveSplitSource = hiveSplitSource(backgroundHiveSplitLoader);
+                backgroundHiveSplitLoader.start(hiveSplitSource);
+
+                List<HiveSplit> splits = drainSplits(hiveSplitSource);
+                assertEquals(splits.size(), 40);
+                assertEquals(splits.stream().map(HiveSplit::getPartitionName).distinct().count(), 20);
+            }
+        }
+    }
+
+    @Test
+    public void testPartitionListingDynamicFilter()
+            throws Exception
+    {
+        HiveColumnHandle partitionColumn = createBaseColumn("partitionColumn", 0, HIVE_INT, INTEGER, ColumnType.PARTITION_KEY, Optional.empty());
+        List<HivePartitionMetadata> partitions = ImmutableList.of(
+                new HivePartitionMetadata(
+                        new HivePartition(
+                                new SchemaTableName("testSchema", "table_name"),
+                                "partitionColumn=1",
+                                ImmutableMap.of(partitionColumn, NullableValue.of(INTEGER, 1L))),
+                        Optional.empty(),
+                        TableToPartitionMapping.empty()));
+
+        // the dynamic filter is collected after the partition was picked, but before its listing starts
+        AtomicBoolean dynamicFilterCollected = new AtomicBoolean();
+        Supplier<TupleDomain<ColumnHandle>> dynamicFilter = () -> dynamicFilterCollected.getAndSet(true)
+                ? withColumnDomains(ImmutableMap.of(partitionColumn, Domain.singleValue(INTEGER, 2L)))
+                : TupleDomain.all();
+        BackgroundHiveSplitLoader backgroundHiveSplitLoader = backgroundHiveSplitLoader(partitions, dynamicFilter, 1, DataSize.of(32, MEGABYTE));
+        HiveSplitSource hiveSplitSource = hiveSplitSource(backgroundHiveSplitLoader);
+        backgroundHiveSplitLoader.start(hiveSplitSource);
+        assertEquals(drain(hiveSplitSource).size(), 0);
+    }
+
     @Test
     public void testPathFilterOneBucketMatchPartitionedTable()
             throws Exception
@@ -351,6 +438,7 @@ public class TestBackgroundHiveSplitLoader
                     }
                 },
                 TupleDomain.all(),
+                TupleDomain::all,
                 createBucketSplitInfo(Optional.empty(), Optional.empty()),
                 SESSION,
                 new TestingHdfsEnvironment(TEST_FILES),
@@ -358,6 +446,8 @@ public class TestBackgroundHiveSplitLoader
                 new CachingDirectoryLister(new HiveConfig()),
                 EXECUTOR,
                 threads,
+                0,
+                DataSize.of(32, MEGABYTE),
                 false,
                 false,
                 Optional.empty());
@@ -618,6 +708,7 @@ public class TestBackgroundHiveSplitLoader
                 table,
                 hivePartitionMetadatas,
                 compactEffectivePredicate,
+                TupleDomain::all,
                 createBucketSplitInfo(bucketHandle, hiveBucketFilter),
                 SESSION,
                 hdfsEnvironment,
@@ -625,6 +716,8 @@ public class TestBackgroundHiveSplitLoader
                 new CachingDirectoryLister(new HiveConfig()),
                 EXECUTOR,
                 2,
+                0,
+                DataSize.of(32, MEGABYTE),
                 false,
                 false,
                 validWriteIds);
@@ -645,6 +738,7 @@ public class TestBackgroundHiveSplitLoader
                 SIMPLE_TABLE,
                 hivePartitionMetadatas,
                 TupleDomain.none(),
+                TupleDomain::all,
                 Optional.empty(),
                 connectorSession,
                 new TestingHdfsEnvironment(files),
@@ -652,6 +746,38 @@ public class TestBackgroundHiveSplitLoader
                 directoryLister,
                 EXECUTOR,
                 2,
+                0,
+                DataSize.of(32, MEGABYTE),
+                false,
+                false,
+                Optional.empty());
+    }
+
+    private static BackgroundHiveSplitLoader backgroundHiveSplitLoader(List<HivePartitionMetadata> partitions, Supplier<TupleDomain<ColumnHandle>> dynamicFilter)
+    {
+        return backgroundHiveSplitLoader(partitions, dynamicFilter, 0, DataSize.of(32, MEGABYTE));
+    }
+
+    private static BackgroundHiveSplitLoader backgroundHiveSplitLoader(
+            List<HivePartitionMetadata> partitions,
+            Supplier<TupleDomain<ColumnHandle>> dynamicFilter,
+            int listingConcurrency,
+            DataSize maxPrefetchedSplitsSize)
+    {
+        return new BackgroundHiveSplitLoader(
+                SIMPLE_TABLE,
+                partitions,
+                TupleDomain.all(),
+                dynamicFilter,
+                Optional.empty(),
+                SESSION,
+                new TestingHdfsEnvironment(TEST_FILES),
+                new NamenodeStats(),
+                new CachingDirectoryLister(new HiveConfig()),
+                EXECUTOR,
+                2,
+                listingConcurrency,
+                maxPrefetchedSplitsSize,
                 false,
                 false,
                 Optional.empty());
@@ -666,6 +792,7 @@ public class TestBackgroundHiveSplitLoader
                 SIMPLE_TABLE,
                 createPartitionMetadataWithOfflinePartitions(),
                 TupleDomain.all(),
+                TupleDomain::all,
                 createBucketSplitInfo(Optional.empty(), Optional.empty()),
                 connectorSession,
                 new TestingHdfsEnvironment(TEST_FILES),
@@ -673,6 +800,8 @@ public class TestBackgroundHiveSplitLoader
                 new CachingDirectoryLister(new HiveConfig()),
                 directExecutor(),
                 2,
+                0,
+                DataSize.of(32, MEGABYTE),
                 false,
                 false,
                 Optional.empty());
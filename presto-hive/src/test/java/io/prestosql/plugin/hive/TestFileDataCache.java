@@ -0,0 +1,186 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestFileDataCache
+{
+    private static final String PATH = "s3://bucket/table/file.orc";
+    private static final int FILE_SIZE = 10_000;
+
+    @Test
+    public void testCache()
+            throws Exception
+    {
+        FileDataCache cache = new FileDataCache(DataSize.of(1, KILOBYTE), DataSize.ofBytes(100));
+        TestingFile file = new TestingFile();
+
+        // the range is read once, extended to whole blocks
+        assertRead(cache, file, 1, 150, 120);
+        assertEquals(file.getReads(), ImmutableList.of("100:200"));
+
+        // cached blocks are not read again
+        assertRead(cache, file, 1, 160, 30);
+        assertRead(cache, file, 1, 100, 200);
+        assertEquals(file.getReads().size(), 1);
+
+        // the missing blocks around a cached block are read separately
+        assertRead(cache, file, 1, 0, 400);
+        assertEquals(file.getReads().size(), 3);
+        assertEquals(file.getReads().get(1), "0:100");
+        assertEquals(file.getReads().get(2), "300:100");
+
+        // the last block of the file is shorter than the block size
+        assertRead(cache, file, 1, 9_950, 50);
+        assertEquals(file.getReads().get(3), "9900:100");
+
+        // a modified file does not match the cached blocks
+        assertRead(cache, file, 2, 150, 120);
+        assertEquals(file.getReads().size(), 5);
+
+        assertEquals(cache.getAllocatedBytes(), cache.getSize() * 100);
+
+        // flushed blocks are freed
+        cache.flushCache();
+        assertEquals(cache.getSize(), 0);
+        assertEquals(cache.getAllocatedBytes(), 0);
+    }
+
+    @Test
+    public void testSmallRead()
+            throws Exception
+    {
+        FileDataCache cache = new FileDataCache(DataSize.of(10, KILOBYTE), DataSize.ofBytes(1000));
+        TestingFile file = new TestingFile();
+
+        // only the requested range is read, and it is not cached
+        assertRead(cache, file, 1, 1_100, 100);
+        assertRead(cache, file, 1, 1_100, 100);
+        assertEquals(file.getReads(), ImmutableList.of("1100:100", "1100:100"));
+        assertEquals(cache.getSmallReadCount(), 2);
+        assertEquals(cache.getSize(), 0);
+
+        // a large read caches whole blocks, which then also serve small reads
+        assertRead(cache, file, 1, 1_000, 1_000);
+        assertRead(cache, file, 1, 1_100, 100);
+        assertEquals(file.getReads().size(), 3);
+        assertEquals(file.getReads().get(2), "1000:1000");
+        assertEquals(cache.getSmallReadCount(), 2);
+
+        // a small read of a missing block next to a cached block only reads the missing range
+        assertRead(cache, file, 1, 1_950, 100);
+        assertEquals(file.getReads().get(3), "2000:50");
+    }
+
+    @Test
+    public void testEviction()
+            throws Exception
+    {
+        FileDataCache cache = new FileDataCache(DataSize.ofBytes(500), DataSize.ofBytes(100));
+        TestingFile file = new TestingFile();
+
+        assertRead(cache, file, 1, 0, 2_000);
+        assertEquals(file.getReads().size(), 1);
+        assertTrue(cache.getSize() <= 5);
+
+        // evicted blocks are freed
+        assertEquals(cache.getAllocatedBytes(), cache.getSize() * 100);
+    }
+
+    @Test
+    public void testFailedRead()
+            throws Exception
+    {
+        FileDataCache cache = new FileDataCache(DataSize.of(1, KILOBYTE), DataSize.ofBytes(100));
+        TestingFile file = new TestingFile();
+        assertRead(cache, file, 1, 100, 100);
+        assertRead(cache, file, 1, 300, 100);
+        assertEquals(cache.getAllocatedBytes(), 200);
+
+        // the cached blocks after the failed read are released
+        byte[] buffer = new byte[400];
+        assertThatThrownBy(() -> cache.readFully(PATH, FILE_SIZE, 1, 0, buffer, 0, buffer.length, (position, readBuffer, bufferOffset, bufferLength) -> {
+            throw new IOException("read failed");
+        }))
+                .isInstanceOf(IOException.class)
+                .hasMessage("read failed");
+        assertEquals(cache.getSize(), 2);
+
+        cache.flushCache();
+        assertEquals(cache.getAllocatedBytes(), 0);
+    }
+
+    @Test
+    public void testDisabled()
+            throws Exception
+    {
+        FileDataCache cache = new FileDataCache(new HiveConfig());
+        TestingFile file = new TestingFile();
+
+        assertRead(cache, file, 1, 150, 120);
+        assertRead(cache, file, 1, 150, 120);
+        assertEquals(file.getReads().size(), 2);
+        assertEquals(file.getReads().get(0), "150:120");
+        assertEquals(cache.getSize(), 0);
+        assertEquals(cache.getRequestCount(), 0);
+    }
+
+    private static void assertRead(FileDataCache cache, TestingFile file, long modificationTime, long position, int length)
+            throws Exception
+    {
+        byte[] buffer = new byte[length + 2];
+        cache.readFully(PATH, FILE_SIZE, modificationTime, position, buffer, 1, length, file::readFully);
+        assertEquals(buffer[0], 0);
+        assertEquals(buffer[length + 1], 0);
+        for (int i = 0; i < length; i++) {
+            assertEquals(buffer[i + 1], valueAt(position + i));
+        }
+    }
+
+    private static byte valueAt(long position)
+    {
+        // never zero, so that unwritten bytes are detected
+        return (byte) (position % 127 + 1);
+    }
+
+    private static class TestingFile
+    {
+        private final List<String> reads = new ArrayList<>();
+
+        public void readFully(long position, byte[] buffer, int bufferOffset, int bufferLength)
+        {
+            reads.add(position + ":" + bufferLength);
+            for (int i = 0; i < bufferLength; i++) {
+                buffer[bufferOffset + i] = valueAt(position + i);
+            }
+        }
+
+        public List<String> getReads()
+        {
+            return reads;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.hadoop.metadata.FileMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT64;
+import static org.apache.parquet.schema.Type.Repetition.OPTIONAL;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+
+public class TestFileMetadataCache
+{
+    private static final Path PATH = new Path("s3://bucket/table/file.parquet");
+
+    @Test
+    public void testCache()
+    {
+        FileMetadataCache cache = new FileMetadataCache(DataSize.of(1, MEGABYTE));
+        ParquetMetadata parquetMetadata = createParquetMetadata();
+
+        assertFalse(cache.getParquetMetadata(PATH, 100, 1).isPresent());
+        cache.putParquetMetadata(PATH, 100, 1, parquetMetadata);
+        assertSame(cache.getParquetMetadata(PATH, 100, 1).get(), parquetMetadata);
+        assertEquals(cache.getHitCount(), 1);
+        assertEquals(cache.getMissCount(), 1);
+
+        // a modified file does not match the cached footer
+        assertFalse(cache.getParquetMetadata(PATH, 100, 2).isPresent());
+        assertFalse(cache.getParquetMetadata(PATH, 200, 1).isPresent());
+        assertFalse(cache.getParquetMetadata(new Path("s3://bucket/table/other.parquet"), 100, 1).isPresent());
+
+        // the footer is not returned for another file format
+        assertEquals(cache.getOrcFileTail(PATH, 100, 1), Optional.empty());
+
+        cache.flushCache();
+        assertFalse(cache.getParquetMetadata(PATH, 100, 1).isPresent());
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        FileMetadataCache cache = new FileMetadataCache(new HiveConfig());
+        cache.putParquetMetadata(PATH, 100, 1, createParquetMetadata());
+        assertFalse(cache.getParquetMetadata(PATH, 100, 1).isPresent());
+        assertEquals(cache.getSize(), 0);
+        assertEquals(cache.getRequestCount(), 0);
+    }
+
+    private static ParquetMetadata createParquetMetadata()
+    {
+        MessageType schema = new MessageType("test", new PrimitiveType(OPTIONAL, INT64, "value"));
+        return new ParquetMetadata(new FileMetaData(schema, ImmutableMap.of(), "test"), ImmutableList.of());
+    }
+}
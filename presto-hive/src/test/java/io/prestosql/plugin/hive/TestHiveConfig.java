@@ -47,6 +47,7 @@ public class TestHiveConfig
                 .setMaxInitialSplits(200)
                 .setMaxInitialSplitSize(DataSize.of(32, Unit.MEGABYTE))
                 .setSplitLoaderConcurrency(4)
+                .setPartitionListingConcurrency(0)
                 .setMaxSplitsPerSecond(null)
                 .setDomainCompactionThreshold(100)
                 .setWriterSortBufferSize(DataSize.of(64, Unit.MEGABYTE))
@@ -88,12 +89,17 @@ public class TestHiveConfig
                 .setFileStatusCacheExpireAfterWrite(new Duration(1, TimeUnit.MINUTES))
                 .setFileStatusCacheMaxSize(1000 * 1000)
                 .setFileStatusCacheTables("")
+                .setFileMetadataCacheMaxSize(DataSize.ofBytes(0))
+                .setFileDataCacheMaxSize(DataSize.ofBytes(0))
+                .setFileDataCacheBlockSize(DataSize.of(1, Unit.MEGABYTE))
                 .setTranslateHiveViews(false)
                 .setHiveTransactionHeartbeatInterval(null)
                 .setHiveTransactionHeartbeatThreads(5)
                 .setAllowRegisterPartition(false)
                 .setQueryPartitionFilterRequired(false)
-                .setPartitionUseColumnNames(false));
+                .setPartitionUseColumnNames(false)
+                .setSizeBasedSplitWeightsEnabled(true)
+                .setMinimumAssignedSplitWeight(0.05));
     }
 
     @Test
@@ -113,6 +119,7 @@ public class TestHiveConfig
                 .put("hive.max-initial-splits", "10")
                 .put("hive.max-initial-split-size", "16MB")
                 .put("hive.split-loader-concurrency", "1")
+                .put("hive.partition-listing-concurrency", "16")
                 .put("hive.max-splits-per-second", "1")
                 .put("hive.domain-compaction-threshold", "42")
                 .put("hive.writer-sort-buffer-size", "13MB")
@@ -154,12 +161,17 @@ public class TestHiveConfig
                 .put("hive.file-status-cache-tables", "foo.bar1, foo.bar2")
                 .put("hive.file-status-cache-size", "1000")
                 .put("hive.file-status-cache-expire-time", "30m")
+                .put("hive.file-metadata-cache.max-size", "64MB")
+                .put("hive.file-data-cache.max-size", "4GB")
+                .put("hive.file-data-cache.block-size", "4MB")
                 .put("hive.translate-hive-views", "true")
                 .put("hive.transaction-heartbeat-interval", "10s")
                 .put("hive.transaction-heartbeat-threads", "10")
                 .put("hive.allow-register-partition-procedure", "true")
                 .put("hive.query-partition-filter-required", "true")
                 .put("hive.partition-use-column-names", "true")
+                .put("hive.size-based-split-weights-enabled", "false")
+                .put("hive.minimum-assigned-split-weight", "1.0")
                 .build();
 
         HiveConfig expected = new HiveConfig()
@@ -176,6 +188,7 @@ public class TestHiveConfig
                 .setMaxInitialSplits(10)
                 .setMaxInitialSplitSize(DataSize.of(16, Unit.MEGABYTE))
                 .setSplitLoaderConcurrency(1)
+                .setPartitionListingConcurrency(16)
                 .setMaxSplitsPerSecond(1)
                 .setDomainCompactionThreshold(42)
                 .setWriterSortBufferSize(DataSize.of(13, Unit.MEGABYTE))
@@ -217,12 +230,17 @@ public class TestHiveConfig
                 .setFileStatusCacheTables("foo.bar1,foo.bar2")
                 .setFileStatusCacheMaxSize(1000)
                 .setFileStatusCacheExpireAfterWrite(new Duration(30, TimeUnit.MINUTES))
+                .setFileMetadataCacheMaxSize(DataSize.of(64, Unit.MEGABYTE))
+                .setFileDataCacheMaxSize(DataSize.of(4, Unit.GIGABYTE))
+                .setFileDataCacheBlockSize(DataSize.of(4, Unit.MEGABYTE))
                 .setTranslateHiveViews(true)
                 .setHiveTransactionHeartbeatInterval(new Duration(10, TimeUnit.SECONDS))
                 .setHiveTransactionHeartbeatThreads(10)
                 .setAllowRegisterPartition(true)
                 .setQueryPartitionFilterRequired(true)
-                .setPartitionUseColumnNames(true);
+                .setPartitionUseColumnNames(true)
+                .setSizeBasedSplitWeightsEnabled(false)
+                .setMinimumAssignedSplitWeight(1.0);
 
         assertFullMapping(properties, expected);
     }
@@ -20,6 +20,7 @@ import io.airlift.json.JsonCodecFactory;
 import io.airlift.json.ObjectMapperProvider;
 import io.prestosql.plugin.hive.HiveColumnHandle.ColumnType;
 import io.prestosql.spi.HostAddress;
+import io.prestosql.spi.SplitWeight;
 import io.prestosql.spi.type.TestingTypeManager;
 import io.prestosql.spi.type.Type;
 import org.apache.hadoop.fs.Path;
@@ -78,7 +79,8 @@ public class TestHiveSplit
                         16,
                         ImmutableList.of(createBaseColumn("col", 5, HIVE_LONG, BIGINT, ColumnType.REGULAR, Optional.of("comment"))))),
                 false,
-                Optional.of(deleteDeltaLocations));
+                Optional.of(deleteDeltaLocations),
+                SplitWeight.fromProportion(2.0)); // some non-standard value
 
         String json = codec.toJson(expected);
         HiveSplit actual = codec.fromJson(json);
@@ -99,5 +101,7 @@ public class TestHiveSplit
         assertEquals(actual.isForceLocalScheduling(), expected.isForceLocalScheduling());
         assertEquals(actual.isS3SelectPushdownEnabled(), expected.isS3SelectPushdownEnabled());
         assertEquals(actual.getDeleteDeltaLocations().get(), expected.getDeleteDeltaLocations().get());
+        assertEquals(actual.getSplitWeight(), expected.getSplitWeight());
+        assertEquals(actual.getSplitIdentity(), expected.getSplitIdentity());
     }
 }
@@ -0,0 +1,53 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive;
+
+import io.airlift.units.DataSize;
+import io.prestosql.spi.SplitWeight;
+import org.testng.annotations.Test;
+
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+
+public class TestSizeBasedSplitWeightProvider
+{
+    @Test
+    public void testSimpleProportions()
+    {
+        SizeBasedSplitWeightProvider provider = new SizeBasedSplitWeightProvider(0.01, DataSize.of(64, MEGABYTE));
+        assertEquals(provider.weightForSplitSizeInBytes(DataSize.of(64, MEGABYTE).toBytes()), SplitWeight.standard());
+        assertEquals(provider.weightForSplitSizeInBytes(DataSize.of(32, MEGABYTE).toBytes()), SplitWeight.fromProportion(0.5));
+        assertEquals(provider.weightForSplitSizeInBytes(DataSize.of(16, MEGABYTE).toBytes()), SplitWeight.fromProportion(0.25));
+    }
+
+    @Test
+    public void testMinimumAndMaximumSize()
+    {
+        SizeBasedSplitWeightProvider provider = new SizeBasedSplitWeightProvider(0.05, DataSize.of(10, MEGABYTE));
+        // splits smaller than the minimum proportion get the minimum weight
+        assertEquals(provider.weightForSplitSizeInBytes(0), SplitWeight.fromProportion(0.05));
+        assertEquals(provider.weightForSplitSizeInBytes(DataSize.of(100, KILOBYTE).toBytes()), SplitWeight.fromProportion(0.05));
+        // splits larger than the target size get the standard weight
+        assertEquals(provider.weightForSplitSizeInBytes(DataSize.of(20, MEGABYTE).toBytes()), SplitWeight.standard());
+    }
+
+    @Test
+    public void testInvalidMinimumWeight()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new SizeBasedSplitWeightProvider(0, DataSize.of(64, MEGABYTE)));
+        assertThrows(IllegalArgumentException.class, () -> new SizeBasedSplitWeightProvider(1.01, DataSize.of(64, MEGABYTE)));
+    }
+}
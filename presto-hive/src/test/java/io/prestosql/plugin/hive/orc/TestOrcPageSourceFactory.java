@@ -16,8 +16,11 @@ package io.prestosql.plugin.hive.orc;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import io.airlift.units.DataSize;
 import io.prestosql.plugin.hive.DeleteDeltaLocations;
+import io.prestosql.plugin.hive.FileDataCache;
 import io.prestosql.plugin.hive.FileFormatDataSourceStats;
+import io.prestosql.plugin.hive.FileMetadataCache;
 import io.prestosql.plugin.hive.HiveColumnHandle;
 import io.prestosql.plugin.hive.HivePageSourceFactory;
 import io.prestosql.plugin.hive.HivePageSourceFactory.ReaderPageSourceWithProjections;
@@ -48,6 +51,8 @@ import java.util.function.LongPredicate;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.io.Resources.getResource;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.plugin.hive.HiveColumnHandle.ColumnType.REGULAR;
 import static io.prestosql.plugin.hive.HiveColumnHandle.createBaseColumn;
 import static io.prestosql.plugin.hive.HiveStorageFormat.ORC;
@@ -66,13 +71,16 @@ import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.TABLE
 import static org.apache.hadoop.hive.ql.io.AcidUtils.deleteDeltaSubdir;
 import static org.apache.hadoop.hive.serde.serdeConstants.SERIALIZATION_LIB;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class TestOrcPageSourceFactory
 {
     private static final HivePageSourceFactory PAGE_SOURCE_FACTORY = new OrcPageSourceFactory(
             new OrcReaderConfig(),
             HDFS_ENVIRONMENT,
-            new FileFormatDataSourceStats());
+            new FileFormatDataSourceStats(),
+            new FileMetadataCache(DataSize.ofBytes(0)),
+            FileDataCache.disabled());
 
     @Test
     public void testFullFileRead()
@@ -108,6 +116,53 @@ public class TestOrcPageSourceFactory
         assertRead(ImmutableSet.copyOf(NationColumn.values()), OptionalLong.of(5L), Optional.empty(), nationKey -> false);
     }
 
+    @Test
+    public void testCachedFileTail()
+            throws Exception
+    {
+        FileMetadataCache fileMetadataCache = new FileMetadataCache(DataSize.of(1, MEGABYTE));
+        HivePageSourceFactory pageSourceFactory = new OrcPageSourceFactory(
+                new OrcReaderConfig(),
+                HDFS_ENVIRONMENT,
+                new FileFormatDataSourceStats(),
+                fileMetadataCache,
+                FileDataCache.disabled());
+
+        assertRead(pageSourceFactory, ImmutableSet.copyOf(NationColumn.values()), OptionalLong.empty(), Optional.empty(), nationKey -> false);
+        assertEquals(fileMetadataCache.getHitCount(), 0);
+        assertEquals(fileMetadataCache.getSize(), 1);
+
+        // other splits and queries reuse the file tail
+        assertRead(pageSourceFactory, ImmutableSet.copyOf(NationColumn.values()), OptionalLong.empty(), Optional.empty(), nationKey -> false);
+        assertRead(pageSourceFactory, ImmutableSet.copyOf(NationColumn.values()), OptionalLong.of(5L), Optional.empty(), nationKey -> false);
+        assertEquals(fileMetadataCache.getHitCount(), 2);
+        assertEquals(fileMetadataCache.getSize(), 1);
+    }
+
+    @Test
+    public void testCachedFileData()
+            throws Exception
+    {
+        FileDataCache fileDataCache = new FileDataCache(DataSize.of(64, MEGABYTE), DataSize.of(64, KILOBYTE));
+        HivePageSourceFactory pageSourceFactory = new OrcPageSourceFactory(
+                new OrcReaderConfig(),
+                HDFS_ENVIRONMENT,
+                new FileFormatDataSourceStats(),
+                new FileMetadataCache(DataSize.ofBytes(0)),
+                fileDataCache);
+
+        assertRead(pageSourceFactory, ImmutableSet.copyOf(NationColumn.values()), OptionalLong.empty(), Optional.empty(), nationKey -> false);
+        assertEquals(fileDataCache.getHitCount(), 0);
+        long cachedBlocks = fileDataCache.getSize();
+        assertTrue(cachedBlocks > 0);
+
+        // the file is read from the cache
+        assertRead(pageSourceFactory, ImmutableSet.copyOf(NationColumn.values()), OptionalLong.empty(), Optional.empty(), nationKey -> false);
+        assertEquals(fileDataCache.getMissCount(), cachedBlocks);
+        assertTrue(fileDataCache.getHitCount() > 0);
+        assertEquals(fileDataCache.getSize(), cachedBlocks);
+    }
+
     @Test
     public void testDeletedRows()
             throws Exception
@@ -123,13 +178,19 @@ public class TestOrcPageSourceFactory
 
     private static void assertRead(Set<NationColumn> columns, OptionalLong nationKeyPredicate, Optional<DeleteDeltaLocations> deleteDeltaLocations, LongPredicate deletedRows)
             throws Exception
+    {
+        assertRead(PAGE_SOURCE_FACTORY, columns, nationKeyPredicate, deleteDeltaLocations, deletedRows);
+    }
+
+    private static void assertRead(HivePageSourceFactory pageSourceFactory, Set<NationColumn> columns, OptionalLong nationKeyPredicate, Optional<DeleteDeltaLocations> deleteDeltaLocations, LongPredicate deletedRows)
+            throws Exception
     {
         TupleDomain<HiveColumnHandle> tupleDomain = TupleDomain.all();
         if (nationKeyPredicate.isPresent()) {
             tupleDomain = TupleDomain.withColumnDomains(ImmutableMap.of(toHiveColumnHandle(NATION_KEY), Domain.singleValue(BIGINT, nationKeyPredicate.getAsLong())));
         }
 
-        List<Nation> actual = readFile(columns, tupleDomain, deleteDeltaLocations);
+        List<Nation> actual = readFile(pageSourceFactory, columns, tupleDomain, deleteDeltaLocations);
 
         List<Nation> expected = new ArrayList<>();
         for (Nation nation : ImmutableList.copyOf(new NationGenerator().iterator())) {
@@ -145,7 +206,7 @@ public class TestOrcPageSourceFactory
         assertEqualsByColumns(columns, actual, expected);
     }
 
-    private static List<Nation> readFile(Set<NationColumn> columns, TupleDomain<HiveColumnHandle> tupleDomain, Optional<DeleteDeltaLocations> deleteDeltaLocations)
+    private static List<Nation> readFile(HivePageSourceFactory pageSourceFactory, Set<NationColumn> columns, TupleDomain<HiveColumnHandle> tupleDomain, Optional<DeleteDeltaLocations> deleteDeltaLocations)
             throws Exception
     {
         List<HiveColumnHandle> columnHandles = columns.stream()
@@ -159,13 +220,14 @@ public class TestOrcPageSourceFactory
         // This file has the contains the TPC-H nation table which each row repeated 1000 times
         File nationFileWithReplicatedRows = new File(getResource("nationFile25kRowsSortedOnNationKey/bucket_00000").toURI());
 
-        Optional<ReaderPageSourceWithProjections> pageSourceWithProjections = PAGE_SOURCE_FACTORY.createPageSource(
+        Optional<ReaderPageSourceWithProjections> pageSourceWithProjections = pageSourceFactory.createPageSource(
                 new JobConf(new Configuration(false)),
                 SESSION,
                 new Path(nationFileWithReplicatedRows.getAbsoluteFile().toURI()),
                 0,
                 nationFileWithReplicatedRows.length(),
                 nationFileWithReplicatedRows.length(),
+                nationFileWithReplicatedRows.lastModified(),
                 createSchema(),
                 columnHandles,
                 tupleDomain,
@@ -14,20 +14,40 @@
 package io.prestosql.plugin.hive.s3;
 
 import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.CannedAccessControlList;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
 import com.amazonaws.services.s3.model.GetObjectMetadataRequest;
 import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
 import com.amazonaws.services.s3.model.ListObjectsV2Request;
 import com.amazonaws.services.s3.model.ListObjectsV2Result;
 import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
 import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.model.PutObjectResult;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.amazonaws.services.s3.model.StorageClass;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import com.google.common.io.ByteStreams;
 
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.Date;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.net.HttpURLConnection.HTTP_OK;
 
@@ -37,8 +57,14 @@ public class MockAmazonS3
     private int getObjectHttpCode = HTTP_OK;
     private int getObjectMetadataHttpCode = HTTP_OK;
     private GetObjectMetadataRequest getObjectMetadataRequest;
+    private ListObjectsV2Request listObjectsV2Request;
     private CannedAccessControlList acl;
     private boolean hasGlacierObjects;
+    private int uploadPartHttpCode = HTTP_OK;
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final Map<String, SortedMap<Integer, byte[]>> multipartUploads = new ConcurrentHashMap<>();
+    private final AtomicInteger uploadedPartCount = new AtomicInteger();
+    private final AtomicInteger abortedUploadCount = new AtomicInteger();
 
     public void setGetObjectHttpErrorCode(int getObjectHttpErrorCode)
     {
@@ -60,11 +86,36 @@ public class MockAmazonS3
         this.hasGlacierObjects = hasGlacierObjects;
     }
 
+    public void setUploadPartHttpCode(int uploadPartHttpCode)
+    {
+        this.uploadPartHttpCode = uploadPartHttpCode;
+    }
+
+    public byte[] getObjectContent(String key)
+    {
+        return objects.get(key);
+    }
+
+    public int getUploadedPartCount()
+    {
+        return uploadedPartCount.get();
+    }
+
+    public int getAbortedUploadCount()
+    {
+        return abortedUploadCount.get();
+    }
+
     public GetObjectMetadataRequest getGetObjectMetadataRequest()
     {
         return getObjectMetadataRequest;
     }
 
+    public ListObjectsV2Request getListObjectsV2Request()
+    {
+        return listObjectsV2Request;
+    }
+
     @Override
     public ObjectMetadata getObjectMetadata(GetObjectMetadataRequest getObjectMetadataRequest)
     {
@@ -92,12 +143,80 @@ public class MockAmazonS3
     public PutObjectResult putObject(PutObjectRequest putObjectRequest)
     {
         this.acl = putObjectRequest.getCannedAcl();
+        try {
+            if (putObjectRequest.getFile() != null) {
+                try (InputStream input = new FileInputStream(putObjectRequest.getFile())) {
+                    objects.put(putObjectRequest.getKey(), ByteStreams.toByteArray(input));
+                }
+            }
+            else if (putObjectRequest.getInputStream() != null) {
+                objects.put(putObjectRequest.getKey(), ByteStreams.toByteArray(putObjectRequest.getInputStream()));
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
         return new PutObjectResult();
     }
 
+    @Override
+    public InitiateMultipartUploadResult initiateMultipartUpload(InitiateMultipartUploadRequest request)
+    {
+        this.acl = request.getCannedACL();
+        String uploadId = UUID.randomUUID().toString();
+        multipartUploads.put(uploadId, new ConcurrentSkipListMap<>());
+
+        InitiateMultipartUploadResult result = new InitiateMultipartUploadResult();
+        result.setUploadId(uploadId);
+        return result;
+    }
+
+    @Override
+    public UploadPartResult uploadPart(UploadPartRequest request)
+    {
+        if (uploadPartHttpCode != HTTP_OK) {
+            AmazonS3Exception exception = new AmazonS3Exception("Failing uploadPart call with " + uploadPartHttpCode);
+            exception.setStatusCode(uploadPartHttpCode);
+            throw exception;
+        }
+        try {
+            byte[] part = ByteStreams.toByteArray(ByteStreams.limit(request.getInputStream(), request.getPartSize()));
+            multipartUploads.get(request.getUploadId()).put(request.getPartNumber(), part);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        uploadedPartCount.incrementAndGet();
+
+        UploadPartResult result = new UploadPartResult();
+        result.setPartNumber(request.getPartNumber());
+        result.setETag(String.valueOf(request.getPartNumber()));
+        return result;
+    }
+
+    @Override
+    public CompleteMultipartUploadResult completeMultipartUpload(CompleteMultipartUploadRequest request)
+    {
+        SortedMap<Integer, byte[]> parts = multipartUploads.remove(request.getUploadId());
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (PartETag partETag : request.getPartETags()) {
+            content.writeBytes(parts.get(partETag.getPartNumber()));
+        }
+        objects.put(request.getKey(), content.toByteArray());
+        return new CompleteMultipartUploadResult();
+    }
+
+    @Override
+    public void abortMultipartUpload(AbortMultipartUploadRequest request)
+    {
+        multipartUploads.remove(request.getUploadId());
+        abortedUploadCount.incrementAndGet();
+    }
+
     @Override
     public ListObjectsV2Result listObjectsV2(ListObjectsV2Request listObjectsV2Request)
     {
+        this.listObjectsV2Request = listObjectsV2Request;
         final String continuationToken = "continue";
 
         ListObjectsV2Result listingV2 = new ListObjectsV2Result();
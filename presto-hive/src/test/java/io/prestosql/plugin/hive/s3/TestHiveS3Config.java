@@ -57,6 +57,9 @@ public class TestHiveS3Config
                 .setS3SocketTimeout(new Duration(5, TimeUnit.SECONDS))
                 .setS3MultipartMinFileSize(DataSize.of(16, Unit.MEGABYTE))
                 .setS3MultipartMinPartSize(DataSize.of(5, Unit.MEGABYTE))
+                .setS3StreamingUploadEnabled(false)
+                .setS3StreamingPartSize(DataSize.of(16, Unit.MEGABYTE))
+                .setS3StreamingMaxConcurrentPartUploads(2)
                 .setS3MaxConnections(500)
                 .setS3StagingDirectory(new File(StandardSystemProperty.JAVA_IO_TMPDIR.value()))
                 .setPinS3ClientToCurrentRegion(false)
@@ -93,6 +96,9 @@ public class TestHiveS3Config
                 .put("hive.s3.socket-timeout", "4m")
                 .put("hive.s3.multipart.min-file-size", "32MB")
                 .put("hive.s3.multipart.min-part-size", "15MB")
+                .put("hive.s3.streaming.enabled", "true")
+                .put("hive.s3.streaming.part-size", "32MB")
+                .put("hive.s3.streaming.max-concurrent-part-uploads", "4")
                 .put("hive.s3.max-connections", "77")
                 .put("hive.s3.staging-directory", "/s3-staging")
                 .put("hive.s3.pin-client-to-current-region", "true")
@@ -126,6 +132,9 @@ public class TestHiveS3Config
                 .setS3SocketTimeout(new Duration(4, TimeUnit.MINUTES))
                 .setS3MultipartMinFileSize(DataSize.of(32, Unit.MEGABYTE))
                 .setS3MultipartMinPartSize(DataSize.of(15, Unit.MEGABYTE))
+                .setS3StreamingUploadEnabled(true)
+                .setS3StreamingPartSize(DataSize.of(32, Unit.MEGABYTE))
+                .setS3StreamingMaxConcurrentPartUploads(4)
                 .setS3MaxConnections(77)
                 .setS3StagingDirectory(new File("/s3-staging"))
                 .setPinS3ClientToCurrentRegion(true)
@@ -33,12 +33,15 @@ import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.securitytoken.AWSSecurityTokenService;
 import com.amazonaws.services.securitytoken.AWSSecurityTokenServiceClient;
 import com.google.common.base.VerifyException;
+import com.google.common.collect.ImmutableList;
 import io.prestosql.plugin.hive.s3.PrestoS3FileSystem.UnrecoverableS3OperationException;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.LocatedFileStatus;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
 import org.testng.SkipException;
 import org.testng.annotations.Test;
 
@@ -50,7 +53,10 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.io.MoreFiles.deleteRecursively;
@@ -74,14 +80,19 @@ import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_SECRET_KEY;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_SESSION_TOKEN;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_SKIP_GLACIER_OBJECTS;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_STAGING_DIRECTORY;
+import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_STREAMING_UPLOAD_ENABLED;
+import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_STREAMING_UPLOAD_MAX_CONCURRENT_PARTS;
+import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_STREAMING_UPLOAD_PART_SIZE;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_USER_AGENT_PREFIX;
 import static io.prestosql.plugin.hive.s3.PrestoS3FileSystem.S3_USER_AGENT_SUFFIX;
+import static io.prestosql.plugin.hive.util.MemoryAwareOutputStream.getOutputStreamRetainedSize;
 import static java.net.HttpURLConnection.HTTP_FORBIDDEN;
 import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
 import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
 import static java.nio.file.Files.createTempDirectory;
 import static java.nio.file.Files.createTempFile;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
@@ -570,6 +581,127 @@ public class TestPrestoS3FileSystem
         }
     }
 
+    @Test
+    public void testListFilesRecursive()
+            throws Exception
+    {
+        try (PrestoS3FileSystem fs = new PrestoS3FileSystem()) {
+            MockAmazonS3 s3 = new MockAmazonS3();
+            fs.initialize(new URI("s3n://test-bucket/"), new Configuration(false));
+            fs.setS3Client(s3);
+
+            RemoteIterator<LocatedFileStatus> iterator = fs.listFiles(new Path("s3n://test-bucket/test"), true);
+            List<String> names = new ArrayList<>();
+            while (iterator.hasNext()) {
+                names.add(iterator.next().getPath().getName());
+            }
+            assertEquals(names, ImmutableList.of("standardOne", "standardTwo"));
+            assertEquals(s3.getListObjectsV2Request().getPrefix(), "test/");
+            assertNull(s3.getListObjectsV2Request().getDelimiter());
+
+            assertTrue(fs.listFiles(new Path("s3n://test-bucket/test"), false).hasNext());
+            assertEquals(s3.getListObjectsV2Request().getDelimiter(), "/");
+        }
+    }
+
+    @Test
+    public void testStreamingUpload()
+            throws Exception
+    {
+        assertStreamingUpload(0, 0);
+        assertStreamingUpload(999, 0);
+        assertStreamingUpload(1000, 1);
+        assertStreamingUpload(5500, 6);
+    }
+
+    private static void assertStreamingUpload(int fileSize, int expectedPartCount)
+            throws Exception
+    {
+        Configuration conf = new Configuration(false);
+        conf.setBoolean(S3_STREAMING_UPLOAD_ENABLED, true);
+        conf.setLong(S3_STREAMING_UPLOAD_PART_SIZE, 1000);
+        conf.setInt(S3_STREAMING_UPLOAD_MAX_CONCURRENT_PARTS, 2);
+
+        byte[] data = new byte[fileSize];
+        ThreadLocalRandom.current().nextBytes(data);
+
+        try (PrestoS3FileSystem fs = new PrestoS3FileSystem()) {
+            MockAmazonS3 s3 = new MockAmazonS3();
+            fs.initialize(new URI("s3n://test-bucket/"), conf);
+            fs.setS3Client(s3);
+            try (FSDataOutputStream stream = fs.create(new Path("s3n://test-bucket/test"))) {
+                // write in chunks that do not line up with the parts
+                for (int offset = 0; offset < fileSize; offset += 333) {
+                    stream.write(data, offset, Math.min(333, fileSize - offset));
+                }
+            }
+            assertEquals(s3.getObjectContent("test"), data);
+            assertEquals(s3.getUploadedPartCount(), expectedPartCount);
+            assertEquals(s3.getAcl(), CannedAccessControlList.Private);
+        }
+    }
+
+    @Test
+    public void testStreamingUploadFailure()
+            throws Exception
+    {
+        Configuration conf = new Configuration(false);
+        conf.setBoolean(S3_STREAMING_UPLOAD_ENABLED, true);
+        conf.setLong(S3_STREAMING_UPLOAD_PART_SIZE, 1000);
+        conf.setInt(S3_STREAMING_UPLOAD_MAX_CONCURRENT_PARTS, 1);
+
+        try (PrestoS3FileSystem fs = new PrestoS3FileSystem()) {
+            MockAmazonS3 s3 = new MockAmazonS3();
+            s3.setUploadPartHttpCode(HTTP_INTERNAL_ERROR);
+            fs.initialize(new URI("s3n://test-bucket/"), conf);
+            fs.setS3Client(s3);
+            FSDataOutputStream stream = fs.create(new Path("s3n://test-bucket/test"));
+
+            // the upload of the first part fails while the second part waits for it
+            assertThatThrownBy(() -> stream.write(new byte[5000]))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("Failing uploadPart call with " + HTTP_INTERNAL_ERROR);
+
+            // closing the stream reports the failure again, rather than looking like a successful upload
+            assertThatThrownBy(stream::close)
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("Failing uploadPart call with " + HTTP_INTERNAL_ERROR);
+            stream.close();
+            assertNull(s3.getObjectContent("test"));
+            assertEquals(s3.getAbortedUploadCount(), 1);
+        }
+    }
+
+    @Test
+    public void testStreamingUploadRetainedSize()
+            throws Exception
+    {
+        Configuration conf = new Configuration(false);
+        conf.setBoolean(S3_STREAMING_UPLOAD_ENABLED, true);
+        conf.setLong(S3_STREAMING_UPLOAD_PART_SIZE, 1000);
+
+        try (PrestoS3FileSystem fs = new PrestoS3FileSystem()) {
+            MockAmazonS3 s3 = new MockAmazonS3();
+            fs.initialize(new URI("s3n://test-bucket/"), conf);
+            fs.setS3Client(s3);
+            FSDataOutputStream stream = fs.create(new Path("s3n://test-bucket/test"));
+            assertEquals(getOutputStreamRetainedSize(stream), 0);
+
+            // the buffer of the part being written is retained
+            stream.write(new byte[500]);
+            assertEquals(getOutputStreamRetainedSize(stream), 1000);
+
+            // as well as the buffers of the parts uploaded in the background
+            stream.write(new byte[1500]);
+            assertTrue(getOutputStreamRetainedSize(stream) >= 1000);
+            assertTrue(getOutputStreamRetainedSize(stream) <= 3000);
+
+            stream.close();
+            assertEquals(getOutputStreamRetainedSize(stream), 0);
+            assertEquals(s3.getUploadedPartCount(), 2);
+        }
+    }
+
     public static AWSCredentialsProvider getAwsCredentialsProvider(PrestoS3FileSystem fs)
     {
         return getFieldValue(fs.getS3Client(), "awsCredentialsProvider", AWSCredentialsProvider.class);
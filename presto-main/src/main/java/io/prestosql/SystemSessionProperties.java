@@ -37,8 +37,10 @@ import static io.prestosql.plugin.base.session.PropertyMetadataUtil.dataSizeProp
 import static io.prestosql.plugin.base.session.PropertyMetadataUtil.durationProperty;
 import static io.prestosql.spi.StandardErrorCode.INVALID_SESSION_PROPERTY;
 import static io.prestosql.spi.session.PropertyMetadata.booleanProperty;
+import static io.prestosql.spi.session.PropertyMetadata.doubleProperty;
 import static io.prestosql.spi.session.PropertyMetadata.enumProperty;
 import static io.prestosql.spi.session.PropertyMetadata.integerProperty;
+import static io.prestosql.spi.session.PropertyMetadata.longProperty;
 import static io.prestosql.spi.session.PropertyMetadata.stringProperty;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.IntegerType.INTEGER;
@@ -87,10 +89,15 @@ public final class SystemSessionProperties
     public static final String SPLIT_CONCURRENCY_ADJUSTMENT_INTERVAL = "split_concurrency_adjustment_interval";
     public static final String OPTIMIZE_METADATA_QUERIES = "optimize_metadata_queries";
     public static final String FAST_INEQUALITY_JOINS = "fast_inequality_joins";
+    public static final String RADIX_PARTITIONED_JOIN = "radix_partitioned_join";
     public static final String QUERY_PRIORITY = "query_priority";
     public static final String SPILL_ENABLED = "spill_enabled";
     public static final String SPILL_ORDER_BY = "spill_order_by";
     public static final String SPILL_WINDOW_OPERATOR = "spill_window_operator";
+    public static final String SPILL_TOPN_ROW_NUMBER = "spill_topn_row_number";
+    public static final String SPILL_ROW_NUMBER = "spill_row_number";
+    public static final String SPILL_MARK_DISTINCT = "spill_mark_distinct";
+    public static final String SPILL_DISTINCT_LIMIT = "spill_distinct_limit";
     public static final String AGGREGATION_OPERATOR_UNSPILL_MEMORY_LIMIT = "aggregation_operator_unspill_memory_limit";
     public static final String OPTIMIZE_DISTINCT_AGGREGATIONS = "optimize_mixed_distinct_aggregations";
     public static final String ITERATIVE_OPTIMIZER = "iterative_optimizer_enabled";
@@ -125,9 +132,15 @@ public final class SystemSessionProperties
     public static final String QUERY_MAX_TOTAL_MEMORY_PER_NODE = "query_max_total_memory_per_node";
     public static final String DYNAMIC_FILTERING_MAX_PER_DRIVER_ROW_COUNT = "dynamic_filtering_max_per_driver_row_count";
     public static final String DYNAMIC_FILTERING_MAX_PER_DRIVER_SIZE = "dynamic_filtering_max_per_driver_size";
+    public static final String DYNAMIC_FILTERING_BLOOM_FILTER_SIZE = "dynamic_filtering_bloom_filter_size";
+    public static final String DYNAMIC_FILTERING_WAIT_TIMEOUT = "dynamic_filtering_wait_timeout";
+    public static final String ADAPTIVE_PARTIAL_AGGREGATION_ENABLED = "adaptive_partial_aggregation_enabled";
+    public static final String ADAPTIVE_PARTIAL_AGGREGATION_MIN_ROWS = "adaptive_partial_aggregation_min_rows";
+    public static final String ADAPTIVE_PARTIAL_AGGREGATION_UNIQUE_ROWS_RATIO_THRESHOLD = "adaptive_partial_aggregation_unique_rows_ratio_threshold";
     public static final String IGNORE_DOWNSTREAM_PREFERENCES = "ignore_downstream_preferences";
     public static final String REQUIRED_WORKERS_COUNT = "required_workers_count";
     public static final String REQUIRED_WORKERS_MAX_WAIT_TIME = "required_workers_max_wait_time";
+    public static final String RESOURCE_GROUP_SCHEDULING_WEIGHT = "resource_group_scheduling_weight";
 
     private final List<PropertyMetadata<?>> sessionProperties;
 
@@ -335,6 +348,11 @@ public final class SystemSessionProperties
                         "Use faster handling of inequality join if it is possible",
                         featuresConfig.isFastInequalityJoins(),
                         false),
+                booleanProperty(
+                        RADIX_PARTITIONED_JOIN,
+                        "Partition large join hash tables into cache sized sub-tables and probe them one sub-table at a time",
+                        featuresConfig.isRadixPartitionedJoinsEnabled(),
+                        false),
                 booleanProperty(
                         COLOCATED_JOIN,
                         "Experimental: Use a colocated join when possible",
@@ -370,6 +388,26 @@ public final class SystemSessionProperties
                         "Spill in WindowOperator if spill_enabled is also set",
                         featuresConfig.isSpillWindowOperator(),
                         false),
+                booleanProperty(
+                        SPILL_TOPN_ROW_NUMBER,
+                        "Spill in TopNRowNumberOperator if spill_enabled is also set",
+                        featuresConfig.isSpillTopNRowNumber(),
+                        false),
+                booleanProperty(
+                        SPILL_ROW_NUMBER,
+                        "Spill in RowNumberOperator if spill_enabled is also set",
+                        featuresConfig.isSpillRowNumber(),
+                        false),
+                booleanProperty(
+                        SPILL_MARK_DISTINCT,
+                        "Spill in MarkDistinctOperator if spill_enabled is also set",
+                        featuresConfig.isSpillMarkDistinct(),
+                        false),
+                booleanProperty(
+                        SPILL_DISTINCT_LIMIT,
+                        "Spill in DistinctLimitOperator if spill_enabled is also set",
+                        featuresConfig.isSpillDistinctLimit(),
+                        false),
                 dataSizeProperty(
                         AGGREGATION_OPERATOR_UNSPILL_MEMORY_LIMIT,
                         "How much memory should be allocated per aggregation operator in unspilling process",
@@ -544,6 +582,31 @@ public final class SystemSessionProperties
                         "Experimental: maximum number of bytes to be collected for dynamic filtering per-driver",
                         featuresConfig.getDynamicFilteringMaxPerDriverSize(),
                         false),
+                dataSizeProperty(
+                        DYNAMIC_FILTERING_BLOOM_FILTER_SIZE,
+                        "Experimental: size of the bloom filter collected for dynamic filtering per-driver when the build side is too large (0 disables)",
+                        featuresConfig.getDynamicFilteringBloomFilterSize(),
+                        false),
+                durationProperty(
+                        DYNAMIC_FILTERING_WAIT_TIMEOUT,
+                        "Experimental: maximum time to delay scheduling of probe-side table scans of partitioned joins until dynamic filters are collected",
+                        featuresConfig.getDynamicFilteringWaitTimeout(),
+                        false),
+                booleanProperty(
+                        ADAPTIVE_PARTIAL_AGGREGATION_ENABLED,
+                        "When enabled, partial aggregation might be adaptively turned off when it does not provide any performance gain",
+                        featuresConfig.isAdaptivePartialAggregationEnabled(),
+                        false),
+                longProperty(
+                        ADAPTIVE_PARTIAL_AGGREGATION_MIN_ROWS,
+                        "Minimum number of processed rows before partial aggregation might be adaptively turned off",
+                        featuresConfig.getAdaptivePartialAggregationMinRows(),
+                        false),
+                doubleProperty(
+                        ADAPTIVE_PARTIAL_AGGREGATION_UNIQUE_ROWS_RATIO_THRESHOLD,
+                        "Ratio between aggregation output and input rows above which partial aggregation might be adaptively turned off",
+                        featuresConfig.getAdaptivePartialAggregationUniqueRowsRatioThreshold(),
+                        false),
                 booleanProperty(
                         IGNORE_DOWNSTREAM_PREFERENCES,
                         "Ignore Parent's PreferredProperties in AddExchange optimizer",
@@ -558,7 +621,16 @@ public final class SystemSessionProperties
                         REQUIRED_WORKERS_MAX_WAIT_TIME,
                         "Maximum time to wait for minimum number of workers before the query is failed",
                         queryManagerConfig.getRequiredWorkersMaxWait(),
-                        false));
+                        false),
+                new PropertyMetadata<>(
+                        RESOURCE_GROUP_SCHEDULING_WEIGHT,
+                        "Scheduling weight of the resource group of the query, used to share worker threads between queries",
+                        INTEGER,
+                        Integer.class,
+                        1,
+                        true,
+                        value -> validateIntegerValue(value, RESOURCE_GROUP_SCHEDULING_WEIGHT, 1, false),
+                        object -> object));
     }
 
     public List<PropertyMetadata<?>> getSessionProperties()
@@ -701,6 +773,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(FAST_INEQUALITY_JOINS, Boolean.class);
     }
 
+    public static boolean isRadixPartitionedJoin(Session session)
+    {
+        return session.getSystemProperty(RADIX_PARTITIONED_JOIN, Boolean.class);
+    }
+
     public static JoinReorderingStrategy getJoinReorderingStrategy(Session session)
     {
         Boolean reorderJoins = session.getSystemProperty(REORDER_JOINS, Boolean.class);
@@ -780,6 +857,26 @@ public final class SystemSessionProperties
         return session.getSystemProperty(SPILL_WINDOW_OPERATOR, Boolean.class);
     }
 
+    public static boolean isSpillTopNRowNumber(Session session)
+    {
+        return session.getSystemProperty(SPILL_TOPN_ROW_NUMBER, Boolean.class);
+    }
+
+    public static boolean isSpillRowNumber(Session session)
+    {
+        return session.getSystemProperty(SPILL_ROW_NUMBER, Boolean.class);
+    }
+
+    public static boolean isSpillMarkDistinct(Session session)
+    {
+        return session.getSystemProperty(SPILL_MARK_DISTINCT, Boolean.class);
+    }
+
+    public static boolean isSpillDistinctLimit(Session session)
+    {
+        return session.getSystemProperty(SPILL_DISTINCT_LIMIT, Boolean.class);
+    }
+
     public static DataSize getAggregationOperatorUnspillMemoryLimit(Session session)
     {
         DataSize memoryLimitForMerge = session.getSystemProperty(AGGREGATION_OPERATOR_UNSPILL_MEMORY_LIMIT, DataSize.class);
@@ -989,6 +1086,31 @@ public final class SystemSessionProperties
         return session.getSystemProperty(DYNAMIC_FILTERING_MAX_PER_DRIVER_SIZE, DataSize.class);
     }
 
+    public static DataSize getDynamicFilteringBloomFilterSize(Session session)
+    {
+        return session.getSystemProperty(DYNAMIC_FILTERING_BLOOM_FILTER_SIZE, DataSize.class);
+    }
+
+    public static Duration getDynamicFilteringWaitTimeout(Session session)
+    {
+        return session.getSystemProperty(DYNAMIC_FILTERING_WAIT_TIMEOUT, Duration.class);
+    }
+
+    public static boolean isAdaptivePartialAggregationEnabled(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION_ENABLED, Boolean.class);
+    }
+
+    public static long getAdaptivePartialAggregationMinRows(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION_MIN_ROWS, Long.class);
+    }
+
+    public static double getAdaptivePartialAggregationUniqueRowsRatioThreshold(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION_UNIQUE_ROWS_RATIO_THRESHOLD, Double.class);
+    }
+
     public static boolean ignoreDownStreamPreferences(Session session)
     {
         return session.getSystemProperty(IGNORE_DOWNSTREAM_PREFERENCES, Boolean.class);
@@ -1003,4 +1125,9 @@ public final class SystemSessionProperties
     {
         return session.getSystemProperty(REQUIRED_WORKERS_MAX_WAIT_TIME, Duration.class);
     }
+
+    public static int getResourceGroupSchedulingWeight(Session session)
+    {
+        return session.getSystemProperty(RESOURCE_GROUP_SCHEDULING_WEIGHT, Integer.class);
+    }
 }
@@ -13,6 +13,7 @@
  */
 package io.prestosql.dispatcher;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.AbstractFuture;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.prestosql.Session;
@@ -50,6 +51,9 @@ import java.util.concurrent.Executor;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static io.prestosql.SystemSessionProperties.RESOURCE_GROUP_SCHEDULING_WEIGHT;
+import static io.prestosql.execution.resourcegroups.InternalResourceGroup.DEFAULT_WEIGHT;
+import static io.prestosql.spi.StandardErrorCode.INVALID_SESSION_PROPERTY;
 import static io.prestosql.spi.StandardErrorCode.QUERY_TEXT_TOO_LARGE;
 import static io.prestosql.util.StatementUtils.getQueryType;
 import static io.prestosql.util.StatementUtils.isTransactionControlStatement;
@@ -169,6 +173,9 @@ public class DispatchManager
 
             // decode session
             session = sessionSupplier.createSession(queryId, sessionContext);
+            if (session.getSystemProperties().containsKey(RESOURCE_GROUP_SCHEDULING_WEIGHT)) {
+                throw new PrestoException(INVALID_SESSION_PROPERTY, format("%s is set from the resource group and cannot be set by the client", RESOURCE_GROUP_SCHEDULING_WEIGHT));
+            }
 
             // check query execute permissions
             accessControl.checkCanExecuteQuery(sessionContext.getIdentity());
@@ -190,6 +197,13 @@ public class DispatchManager
             // apply system default session properties (does not override user set properties)
             session = sessionPropertyDefaults.newSessionWithDefaultProperties(session, queryType, selectionContext.getResourceGroupId());
 
+            // let workers share their threads between queries according to the resource group weight
+            // (session properties cannot be changed once a transaction is active)
+            int schedulingWeight = resourceGroupManager.getSchedulingWeight(selectionContext, queryExecutor);
+            if (schedulingWeight != DEFAULT_WEIGHT && !session.getTransactionId().isPresent()) {
+                session = session.withDefaultProperties(ImmutableMap.of(RESOURCE_GROUP_SCHEDULING_WEIGHT, String.valueOf(schedulingWeight)), ImmutableMap.of());
+            }
+
             // mark existing transaction as active
             transactionManager.activateTransaction(session, isTransactionControlStatement(preparedQuery.getStatement()), accessControl);
 
@@ -24,7 +24,8 @@ import javax.inject.Inject;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.IntConsumer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static java.util.Objects.requireNonNull;
@@ -47,9 +48,9 @@ public class NodeTaskMap
         createOrGetNodeTasks(node).addTask(task);
     }
 
-    public int getPartitionedSplitsOnNode(InternalNode node)
+    public PartitionedSplitsInfo getPartitionedSplitsOnNode(InternalNode node)
     {
-        return createOrGetNodeTasks(node).getPartitionedSplitCount();
+        return createOrGetNodeTasks(node).getPartitionedSplitsInfo();
     }
 
     public PartitionedSplitCountTracker createPartitionedSplitCountTracker(InternalNode node, TaskId taskId)
@@ -80,6 +81,7 @@ public class NodeTaskMap
     {
         private final Set<RemoteTask> remoteTasks = Sets.newConcurrentHashSet();
         private final AtomicInteger nodeTotalPartitionedSplitCount = new AtomicInteger();
+        private final AtomicLong nodeTotalPartitionedSplitWeight = new AtomicLong();
         private final FinalizerService finalizerService;
 
         public NodeTasks(FinalizerService finalizerService)
@@ -87,9 +89,9 @@ public class NodeTaskMap
             this.finalizerService = requireNonNull(finalizerService, "finalizerService is null");
         }
 
-        private int getPartitionedSplitCount()
+        private PartitionedSplitsInfo getPartitionedSplitsInfo()
         {
-            return nodeTotalPartitionedSplitCount.get();
+            return PartitionedSplitsInfo.forSplitCountAndWeightSum(nodeTotalPartitionedSplitCount.get(), nodeTotalPartitionedSplitWeight.get());
         }
 
         private void addTask(RemoteTask task)
@@ -113,7 +115,7 @@ public class NodeTaskMap
             requireNonNull(taskId, "taskId is null");
 
             TaskPartitionedSplitCountTracker tracker = new TaskPartitionedSplitCountTracker(taskId);
-            PartitionedSplitCountTracker partitionedSplitCountTracker = new PartitionedSplitCountTracker(tracker::setPartitionedSplitCount);
+            PartitionedSplitCountTracker partitionedSplitCountTracker = new PartitionedSplitCountTracker(tracker::setPartitionedSplits);
 
             // when partitionedSplitCountTracker is garbage collected, run the cleanup method on the tracker
             // Note: tracker cannot have a reference to partitionedSplitCountTracker
@@ -127,37 +129,41 @@ public class NodeTaskMap
         {
             private final TaskId taskId;
             private final AtomicInteger localPartitionedSplitCount = new AtomicInteger();
+            private final AtomicLong localPartitionedSplitWeight = new AtomicLong();
 
             public TaskPartitionedSplitCountTracker(TaskId taskId)
             {
                 this.taskId = requireNonNull(taskId, "taskId is null");
             }
 
-            public synchronized void setPartitionedSplitCount(int partitionedSplitCount)
+            public synchronized void setPartitionedSplits(PartitionedSplitsInfo partitionedSplits)
             {
-                if (partitionedSplitCount < 0) {
-                    int oldValue = localPartitionedSplitCount.getAndSet(0);
-                    nodeTotalPartitionedSplitCount.addAndGet(-oldValue);
-                    throw new IllegalArgumentException("partitionedSplitCount is negative");
-                }
+                int newCount = partitionedSplits.getCount();
+                long newWeight = partitionedSplits.getWeightSum();
+
+                int oldCount = localPartitionedSplitCount.getAndSet(newCount);
+                nodeTotalPartitionedSplitCount.addAndGet(newCount - oldCount);
 
-                int oldValue = localPartitionedSplitCount.getAndSet(partitionedSplitCount);
-                nodeTotalPartitionedSplitCount.addAndGet(partitionedSplitCount - oldValue);
+                long oldWeight = localPartitionedSplitWeight.getAndSet(newWeight);
+                nodeTotalPartitionedSplitWeight.addAndGet(newWeight - oldWeight);
             }
 
             public void cleanup()
             {
                 int leakedSplits = localPartitionedSplitCount.getAndSet(0);
-                if (leakedSplits == 0) {
+                long leakedWeight = localPartitionedSplitWeight.getAndSet(0);
+                if (leakedSplits == 0 && leakedWeight == 0) {
                     return;
                 }
 
-                log.error("BUG! %s for %s leaked with %s partitioned splits.  Cleaning up so server can continue to function.",
+                log.error("BUG! %s for %s leaked with %s partitioned splits (weight: %s).  Cleaning up so server can continue to function.",
                         getClass().getName(),
                         taskId,
-                        leakedSplits);
+                        leakedSplits,
+                        leakedWeight);
 
                 nodeTotalPartitionedSplitCount.addAndGet(-leakedSplits);
+                nodeTotalPartitionedSplitWeight.addAndGet(-leakedWeight);
             }
 
             @Override
@@ -166,6 +172,7 @@ public class NodeTaskMap
                 return toStringHelper(this)
                         .add("taskId", taskId)
                         .add("splits", localPartitionedSplitCount)
+                        .add("weight", localPartitionedSplitWeight)
                         .toString();
             }
         }
@@ -173,16 +180,16 @@ public class NodeTaskMap
 
     public static class PartitionedSplitCountTracker
     {
-        private final IntConsumer splitSetter;
+        private final Consumer<PartitionedSplitsInfo> splitSetter;
 
-        public PartitionedSplitCountTracker(IntConsumer splitSetter)
+        public PartitionedSplitCountTracker(Consumer<PartitionedSplitsInfo> splitSetter)
         {
             this.splitSetter = requireNonNull(splitSetter, "splitSetter is null");
         }
 
-        public void setPartitionedSplitCount(int partitionedSplitCount)
+        public void setPartitionedSplits(PartitionedSplitsInfo partitionedSplits)
         {
-            splitSetter.accept(partitionedSplitCount);
+            splitSetter.accept(requireNonNull(partitionedSplits, "partitionedSplits is null"));
         }
 
         @Override
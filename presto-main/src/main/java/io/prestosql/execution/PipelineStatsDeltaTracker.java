@@ -0,0 +1,98 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution;
+
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.operator.PipelineStats;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.function.Function.identity;
+
+/**
+ * Versions the pipeline stats of a task, so a client that already has the pipeline stats
+ * of the last version only needs the pipelines which made progress since.
+ * <p>
+ * Only the pipeline stats of the last version are retained, so deltas are only produced
+ * for a single client. Any other client gets all the pipelines.
+ */
+@ThreadSafe
+class PipelineStatsDeltaTracker
+{
+    @GuardedBy("this")
+    private long version;
+    @GuardedBy("this")
+    private Map<Integer, PipelineStats> pipelines = ImmutableMap.of();
+
+    /**
+     * Returns the task info with a new version of its pipeline stats. If the specified base
+     * version is the last version, the task info is a delta which only contains the pipelines
+     * that made progress since.
+     */
+    public synchronized TaskInfo toDelta(TaskInfo taskInfo, long baseVersion)
+    {
+        boolean lastVersion = baseVersion > 0 && baseVersion == version;
+        version++;
+        List<PipelineStats> currentPipelines = taskInfo.getStats().getPipelines();
+
+        if (taskInfo.getTaskStatus().getState().isDone()) {
+            // the final info is always sent in full, and nothing is needed for the next one
+            pipelines = ImmutableMap.of();
+            return taskInfo.withPipelineStats(currentPipelines, version, OptionalLong.empty());
+        }
+
+        Map<Integer, PipelineStats> basePipelines = pipelines;
+        pipelines = currentPipelines.stream()
+                .collect(toImmutableMap(PipelineStats::getPipelineId, identity()));
+
+        if (!lastVersion) {
+            return taskInfo.withPipelineStats(currentPipelines, version, OptionalLong.empty());
+        }
+
+        List<PipelineStats> changedPipelines = currentPipelines.stream()
+                .filter(pipeline -> hasProgressed(basePipelines.get(pipeline.getPipelineId()), pipeline))
+                .collect(toImmutableList());
+        return taskInfo.withPipelineStats(changedPipelines, version, OptionalLong.of(baseVersion));
+    }
+
+    private static boolean hasProgressed(PipelineStats previous, PipelineStats current)
+    {
+        if (previous == null) {
+            return true;
+        }
+        // every driver or operator update of a pipeline changes its driver counts or adds to its times
+        return previous.getTotalDrivers() != current.getTotalDrivers() ||
+                previous.getQueuedDrivers() != current.getQueuedDrivers() ||
+                previous.getRunningDrivers() != current.getRunningDrivers() ||
+                previous.getBlockedDrivers() != current.getBlockedDrivers() ||
+                previous.getCompletedDrivers() != current.getCompletedDrivers() ||
+                previous.isFullyBlocked() != current.isFullyBlocked() ||
+                !previous.getBlockedReasons().equals(current.getBlockedReasons()) ||
+                !Objects.equals(previous.getLastEndTime(), current.getLastEndTime()) ||
+                previous.getTotalScheduledTime().roundTo(NANOSECONDS) != current.getTotalScheduledTime().roundTo(NANOSECONDS) ||
+                previous.getTotalBlockedTime().roundTo(NANOSECONDS) != current.getTotalBlockedTime().roundTo(NANOSECONDS) ||
+                previous.getUserMemoryReservation().toBytes() != current.getUserMemoryReservation().toBytes() ||
+                previous.getRevocableMemoryReservation().toBytes() != current.getRevocableMemoryReservation().toBytes() ||
+                previous.getSystemMemoryReservation().toBytes() != current.getSystemMemoryReservation().toBytes();
+    }
+}
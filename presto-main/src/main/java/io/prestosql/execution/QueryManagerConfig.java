@@ -45,6 +45,7 @@ public class QueryManagerConfig
     private int initialHashPartitions = 100;
     private Duration minQueryExpireAge = new Duration(15, TimeUnit.MINUTES);
     private int maxQueryHistory = 100;
+    private int preparedStatementCacheSize;
     private int maxQueryLength = 1_000_000;
     private int maxStageCount = 100;
     private int stageCountWarningThreshold = 50;
@@ -160,6 +161,20 @@ public class QueryManagerConfig
         return this;
     }
 
+    @Min(0)
+    public int getPreparedStatementCacheSize()
+    {
+        return preparedStatementCacheSize;
+    }
+
+    @Config("query.prepared-statement-cache-size")
+    @ConfigDescription("Number of parsed prepared statements to reuse for EXECUTE; 0 disables the cache")
+    public QueryManagerConfig setPreparedStatementCacheSize(int preparedStatementCacheSize)
+    {
+        this.preparedStatementCacheSize = preparedStatementCacheSize;
+        return this;
+    }
+
     @Min(0)
     @Max(1_000_000_000)
     public int getMaxQueryLength()
@@ -13,11 +13,15 @@
  */
 package io.prestosql.execution;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import io.prestosql.Session;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.resourcegroups.QueryType;
 import io.prestosql.sql.parser.ParsingException;
+import io.prestosql.sql.parser.ParsingOptions;
+import io.prestosql.sql.parser.ParsingOptions.DecimalLiteralTreatment;
 import io.prestosql.sql.parser.SqlParser;
 import io.prestosql.sql.tree.Execute;
 import io.prestosql.sql.tree.Explain;
@@ -28,6 +32,7 @@ import io.prestosql.util.StatementUtils;
 import javax.inject.Inject;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import static io.prestosql.execution.ParameterExtractor.getParameterCount;
@@ -42,11 +47,31 @@ import static java.util.Objects.requireNonNull;
 public class QueryPreparer
 {
     private final SqlParser sqlParser;
+    // statements are immutable, so a prepared statement parsed once can be shared by every execution
+    private final Optional<Cache<PreparedStatementKey, Statement>> preparedStatementCache;
 
     @Inject
+    public QueryPreparer(SqlParser sqlParser, QueryManagerConfig queryManagerConfig)
+    {
+        this(sqlParser, requireNonNull(queryManagerConfig, "queryManagerConfig is null").getPreparedStatementCacheSize());
+    }
+
     public QueryPreparer(SqlParser sqlParser)
+    {
+        this(sqlParser, 0);
+    }
+
+    public QueryPreparer(SqlParser sqlParser, int preparedStatementCacheSize)
     {
         this.sqlParser = requireNonNull(sqlParser, "sqlParser is null");
+        if (preparedStatementCacheSize > 0) {
+            this.preparedStatementCache = Optional.of(CacheBuilder.newBuilder()
+                    .maximumSize(preparedStatementCacheSize)
+                    .build());
+        }
+        else {
+            this.preparedStatementCache = Optional.empty();
+        }
     }
 
     public PreparedQuery prepareQuery(Session session, String query)
@@ -63,7 +88,7 @@ public class QueryPreparer
         Optional<String> prepareSql = Optional.empty();
         if (statement instanceof Execute) {
             prepareSql = Optional.of(session.getPreparedStatementFromExecute((Execute) statement));
-            statement = sqlParser.createStatement(prepareSql.get(), createParsingOptions(session));
+            statement = parsePreparedStatement(prepareSql.get(), createParsingOptions(session));
         }
 
         if (statement instanceof Explain && ((Explain) statement).isAnalyze()) {
@@ -81,6 +106,21 @@ public class QueryPreparer
         return new PreparedQuery(statement, parameters, prepareSql);
     }
 
+    private Statement parsePreparedStatement(String sql, ParsingOptions parsingOptions)
+    {
+        if (!preparedStatementCache.isPresent()) {
+            return sqlParser.createStatement(sql, parsingOptions);
+        }
+        PreparedStatementKey key = new PreparedStatementKey(sql, parsingOptions.getDecimalLiteralTreatment());
+        Statement statement = preparedStatementCache.get().getIfPresent(key);
+        if (statement == null) {
+            // parsing failures are not cached
+            statement = sqlParser.createStatement(sql, parsingOptions);
+            preparedStatementCache.get().put(key, statement);
+        }
+        return statement;
+    }
+
     private static void validateParameters(Statement node, List<Expression> parameterValues)
     {
         int parameterCount = getParameterCount(node);
@@ -92,6 +132,37 @@ public class QueryPreparer
         }
     }
 
+    private static class PreparedStatementKey
+    {
+        private final String sql;
+        private final DecimalLiteralTreatment decimalLiteralTreatment;
+
+        public PreparedStatementKey(String sql, DecimalLiteralTreatment decimalLiteralTreatment)
+        {
+            this.sql = requireNonNull(sql, "sql is null");
+            this.decimalLiteralTreatment = requireNonNull(decimalLiteralTreatment, "decimalLiteralTreatment is null");
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PreparedStatementKey that = (PreparedStatementKey) o;
+            return sql.equals(that.sql) && decimalLiteralTreatment == that.decimalLiteralTreatment;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(sql, decimalLiteralTreatment);
+        }
+    }
+
     public static class PreparedQuery
     {
         private final Statement statement;
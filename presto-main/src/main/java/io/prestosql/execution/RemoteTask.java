@@ -18,8 +18,11 @@ import com.google.common.util.concurrent.ListenableFuture;
 import io.prestosql.execution.StateMachine.StateChangeListener;
 import io.prestosql.execution.buffer.OutputBuffers;
 import io.prestosql.metadata.Split;
+import io.prestosql.spi.predicate.Domain;
 import io.prestosql.sql.planner.plan.PlanNodeId;
 
+import java.util.Map;
+
 public interface RemoteTask
 {
     TaskId getTaskId();
@@ -40,6 +43,12 @@ public interface RemoteTask
 
     void setOutputBuffers(OutputBuffers outputBuffers);
 
+    /**
+     * Sends dynamic filter domains collected by the coordinator to the task.
+     * Domains are keyed by dynamic filter id.
+     */
+    void addDynamicFilterDomains(Map<String, Domain> dynamicFilterDomains);
+
     /**
      * Listener is always notified asynchronously using a dedicated notification thread pool so, care should
      * be taken to avoid leaking {@code this} when adding a listener in a constructor. Additionally, it is
@@ -55,13 +64,17 @@ public interface RemoteTask
      */
     void addFinalTaskInfoListener(StateChangeListener<TaskInfo> stateChangeListener);
 
-    ListenableFuture<?> whenSplitQueueHasSpace(int threshold);
+    /**
+     * Returns a future that completes when the total weight of the queued splits of the task
+     * is below the specified raw {@link io.prestosql.spi.SplitWeight} threshold.
+     */
+    ListenableFuture<?> whenSplitQueueHasSpace(long weightThreshold);
 
     void cancel();
 
     void abort();
 
-    int getPartitionedSplitCount();
+    PartitionedSplitsInfo getPartitionedSplitsInfo();
 
-    int getQueuedPartitionedSplitCount();
+    PartitionedSplitsInfo getQueuedPartitionedSplitsInfo();
 }
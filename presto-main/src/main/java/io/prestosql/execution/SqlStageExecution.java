@@ -19,6 +19,8 @@ import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.units.Duration;
 import io.prestosql.Session;
 import io.prestosql.execution.StateMachine.StateChangeListener;
@@ -28,9 +30,11 @@ import io.prestosql.failuredetector.FailureDetector;
 import io.prestosql.metadata.InternalNode;
 import io.prestosql.metadata.Split;
 import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.predicate.Domain;
 import io.prestosql.split.RemoteSplit;
 import io.prestosql.sql.planner.PlanFragment;
 import io.prestosql.sql.planner.plan.PlanFragmentId;
+import io.prestosql.sql.planner.plan.PlanNode;
 import io.prestosql.sql.planner.plan.PlanNodeId;
 import io.prestosql.sql.planner.plan.RemoteSourceNode;
 
@@ -40,6 +44,7 @@ import javax.annotation.concurrent.ThreadSafe;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -59,12 +64,17 @@ import java.util.function.Consumer;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.collect.Sets.newConcurrentHashSet;
 import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
+import static io.prestosql.execution.TaskStatus.INITIAL_DYNAMIC_FILTERS_VERSION;
 import static io.prestosql.failuredetector.FailureDetector.State.GONE;
 import static io.prestosql.operator.ExchangeOperator.REMOTE_CONNECTOR_ID;
 import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static io.prestosql.spi.StandardErrorCode.REMOTE_HOST_GONE;
+import static io.prestosql.sql.DynamicFilters.getConsumedDynamicFilters;
+import static io.prestosql.sql.DynamicFilters.getProducedDynamicFilters;
+import static io.prestosql.sql.DynamicFilters.getRemoteDynamicFilters;
 import static java.util.Objects.requireNonNull;
 
 @ThreadSafe
@@ -103,6 +113,21 @@ public final class SqlStageExecution
 
     private final ListenerManager<Set<Lifespan>> completedLifespansChangeListeners = new ListenerManager<>();
 
+    private final Set<String> producedDynamicFilters;
+    private final Set<String> consumedDynamicFilters;
+    @GuardedBy("this")
+    private final Map<TaskId, Map<String, Domain>> taskDynamicFilterDomains = new HashMap<>();
+    @GuardedBy("this")
+    private final Map<TaskId, Long> taskDynamicFiltersVersions = new HashMap<>();
+    @GuardedBy("this")
+    private final Set<String> completedDynamicFilters = new HashSet<>();
+    @GuardedBy("this")
+    private final Map<String, Domain> dynamicFilterDomains = new HashMap<>();
+    private final ListenerManager<Map<String, Domain>> dynamicFiltersListeners = new ListenerManager<>();
+    // dynamic filters consumed by this stage, which are produced by other stages
+    private final Set<String> remoteConsumedDynamicFilters;
+    private final SettableFuture<?> remoteDynamicFiltersCollected = SettableFuture.create();
+
     public static SqlStageExecution createSqlStageExecution(
             StageId stageId,
             PlanFragment fragment,
@@ -152,6 +177,14 @@ public final class SqlStageExecution
             }
         }
         this.exchangeSources = fragmentToExchangeSource.build();
+
+        PlanNode root = stateMachine.getFragment().getRoot();
+        this.producedDynamicFilters = getRemoteDynamicFilters(root);
+        this.consumedDynamicFilters = getConsumedDynamicFilters(root);
+        this.remoteConsumedDynamicFilters = ImmutableSet.copyOf(Sets.difference(consumedDynamicFilters, getProducedDynamicFilters(root)));
+        if (remoteConsumedDynamicFilters.isEmpty()) {
+            remoteDynamicFiltersCollected.set(null);
+        }
     }
 
     // this is a separate method to ensure that the `this` reference is not leaked during construction
@@ -195,6 +228,25 @@ public final class SqlStageExecution
         completedLifespansChangeListeners.addListener(newlyCompletedDriverGroupConsumer);
     }
 
+    /**
+     * Add a listener for dynamic filters produced by this stage. The listener is notified
+     * with the union of the domains reported by all tasks of the stage, once every task
+     * has reported a given dynamic filter.
+     */
+    public void addDynamicFiltersListener(Consumer<Map<String, Domain>> dynamicFiltersListener)
+    {
+        dynamicFiltersListeners.addListener(dynamicFiltersListener);
+    }
+
+    /**
+     * Returns a future which completes once all dynamic filters consumed by this stage,
+     * but produced by other stages, have been collected.
+     */
+    public ListenableFuture<?> getRemoteDynamicFiltersCollected()
+    {
+        return remoteDynamicFiltersCollected;
+    }
+
     public PlanFragment getFragment()
     {
         return stateMachine.getFragment();
@@ -227,6 +279,7 @@ public final class SqlStageExecution
         if (finishedTasks.containsAll(allTasks)) {
             stateMachine.transitionToFinished();
         }
+        checkDynamicFiltersCompleted();
 
         for (PlanNodeId partitionedSource : stateMachine.getFragment().getPartitionedSources()) {
             schedulingComplete(partitionedSource);
@@ -342,6 +395,26 @@ public final class SqlStageExecution
         }
     }
 
+    public synchronized void addDynamicFilterDomains(Map<String, Domain> dynamicFilterDomains)
+    {
+        requireNonNull(dynamicFilterDomains, "dynamicFilterDomains is null");
+
+        Map<String, Domain> consumed = dynamicFilterDomains.entrySet().stream()
+                .filter(entry -> consumedDynamicFilters.contains(entry.getKey()))
+                .collect(toImmutableMap(Entry::getKey, Entry::getValue));
+        if (consumed.isEmpty()) {
+            return;
+        }
+
+        this.dynamicFilterDomains.putAll(consumed);
+        for (RemoteTask task : getAllTasks()) {
+            task.addDynamicFilterDomains(consumed);
+        }
+        if (this.dynamicFilterDomains.keySet().containsAll(remoteConsumedDynamicFilters)) {
+            remoteDynamicFiltersCollected.set(null);
+        }
+    }
+
     // do not synchronize
     // this is used for query info building which should be independent of scheduling work
     public boolean hasTasks()
@@ -436,6 +509,9 @@ public final class SqlStageExecution
                 summarizeTaskInfo);
 
         completeSources.forEach(task::noMoreSplits);
+        if (!dynamicFilterDomains.isEmpty()) {
+            task.addDynamicFilterDomains(ImmutableMap.copyOf(dynamicFilterDomains));
+        }
 
         allTasks.add(taskId);
         tasks.computeIfAbsent(node, key -> newConcurrentHashSet()).add(task);
@@ -480,6 +556,13 @@ public final class SqlStageExecution
                 return;
             }
 
+            // status updates can be observed out of order, so only newer domains replace the known ones
+            long knownDynamicFiltersVersion = taskDynamicFiltersVersions.getOrDefault(taskStatus.getTaskId(), INITIAL_DYNAMIC_FILTERS_VERSION);
+            if (taskStatus.getDynamicFiltersVersion() > knownDynamicFiltersVersion && !taskStatus.getDynamicFilterDomains().isEmpty()) {
+                taskDynamicFiltersVersions.put(taskStatus.getTaskId(), taskStatus.getDynamicFiltersVersion());
+                taskDynamicFilterDomains.put(taskStatus.getTaskId(), taskStatus.getDynamicFilterDomains());
+            }
+
             TaskState taskState = taskStatus.getState();
             if (taskState == TaskState.FAILED) {
                 RuntimeException failure = taskStatus.getFailures().stream()
@@ -509,7 +592,43 @@ public final class SqlStageExecution
         finally {
             // after updating state, check if all tasks have final status information
             checkAllTaskFinal();
+            checkDynamicFiltersCompleted();
+        }
+    }
+
+    private synchronized void checkDynamicFiltersCompleted()
+    {
+        if (producedDynamicFilters.isEmpty() || completedDynamicFilters.containsAll(producedDynamicFilters)) {
+            return;
+        }
+
+        // tasks can still be added while the stage is scheduling
+        StageState state = stateMachine.getState();
+        if (state != StageState.SCHEDULED && state != StageState.RUNNING && state != StageState.FINISHED) {
+            return;
+        }
+
+        ImmutableMap.Builder<String, Domain> newDynamicFilters = ImmutableMap.builder();
+        for (String filterId : Sets.difference(producedDynamicFilters, completedDynamicFilters)) {
+            List<Domain> domains = new ArrayList<>();
+            for (TaskId taskId : allTasks) {
+                Domain domain = taskDynamicFilterDomains.getOrDefault(taskId, ImmutableMap.of()).get(filterId);
+                if (domain == null) {
+                    break;
+                }
+                domains.add(domain);
+            }
+            if (!domains.isEmpty() && domains.size() == allTasks.size()) {
+                newDynamicFilters.put(filterId, Domain.union(domains));
+            }
+        }
+
+        Map<String, Domain> completed = newDynamicFilters.build();
+        if (completed.isEmpty()) {
+            return;
         }
+        completedDynamicFilters.addAll(completed.keySet());
+        dynamicFiltersListeners.invoke(completed, executor);
     }
 
     private synchronized void updateFinalTaskInfo(TaskInfo finalTaskInfo)
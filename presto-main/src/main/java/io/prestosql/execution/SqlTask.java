@@ -14,6 +14,7 @@
 package io.prestosql.execution;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -34,6 +35,8 @@ import io.prestosql.operator.PipelineContext;
 import io.prestosql.operator.PipelineStatus;
 import io.prestosql.operator.TaskContext;
 import io.prestosql.operator.TaskStats;
+import io.prestosql.spi.SplitWeight;
+import io.prestosql.spi.predicate.Domain;
 import io.prestosql.sql.planner.PlanFragment;
 import io.prestosql.sql.planner.plan.PlanNodeId;
 import org.joda.time.DateTime;
@@ -42,6 +45,7 @@ import javax.annotation.Nullable;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Set;
@@ -59,6 +63,7 @@ import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.airlift.units.DataSize.succinctBytes;
 import static io.prestosql.execution.TaskState.ABORTED;
 import static io.prestosql.execution.TaskState.FAILED;
+import static io.prestosql.execution.TaskStatus.INITIAL_DYNAMIC_FILTERS_VERSION;
 import static io.prestosql.util.Failures.toFailures;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -83,6 +88,8 @@ public class SqlTask
     private final AtomicReference<TaskHolder> taskHolderReference = new AtomicReference<>(new TaskHolder());
     private final AtomicBoolean needsPlan = new AtomicBoolean(true);
 
+    private final PipelineStatsDeltaTracker pipelineStatsDeltaTracker = new PipelineStatsDeltaTracker();
+
     public static SqlTask createSqlTask(
             TaskId taskId,
             URI location,
@@ -212,6 +219,11 @@ public class SqlTask
         }
     }
 
+    public TaskInfo toPipelineStatsDelta(TaskInfo taskInfo, long pipelineStatsBaseVersion)
+    {
+        return pipelineStatsDeltaTracker.toDelta(taskInfo, pipelineStatsBaseVersion);
+    }
+
     public TaskStatus getTaskStatus()
     {
         try (SetThreadName ignored = new SetThreadName("Task-%s", taskId)) {
@@ -233,6 +245,8 @@ public class SqlTask
 
         int queuedPartitionedDrivers = 0;
         int runningPartitionedDrivers = 0;
+        long queuedPartitionedSplitsWeight = 0;
+        long runningPartitionedSplitsWeight = 0;
         DataSize physicalWrittenDataSize = DataSize.ofBytes(0);
         DataSize userMemoryReservation = DataSize.ofBytes(0);
         DataSize systemMemoryReservation = DataSize.ofBytes(0);
@@ -241,16 +255,23 @@ public class SqlTask
         Set<Lifespan> completedDriverGroups = ImmutableSet.of();
         long fullGcCount = 0;
         Duration fullGcTime = new Duration(0, MILLISECONDS);
+        long dynamicFiltersVersion = INITIAL_DYNAMIC_FILTERS_VERSION;
+        Map<String, Domain> dynamicFilterDomains = ImmutableMap.of();
         if (taskHolder.getFinalTaskInfo() != null) {
             TaskStats taskStats = taskHolder.getFinalTaskInfo().getStats();
             queuedPartitionedDrivers = taskStats.getQueuedPartitionedDrivers();
             runningPartitionedDrivers = taskStats.getRunningPartitionedDrivers();
+            // the weights of the drivers are not retained in the final stats
+            queuedPartitionedSplitsWeight = SplitWeight.rawValueForStandardSplitCount(queuedPartitionedDrivers);
+            runningPartitionedSplitsWeight = SplitWeight.rawValueForStandardSplitCount(runningPartitionedDrivers);
             physicalWrittenDataSize = taskStats.getPhysicalWrittenDataSize();
             userMemoryReservation = taskStats.getUserMemoryReservation();
             systemMemoryReservation = taskStats.getSystemMemoryReservation();
             revocableMemoryReservation = taskStats.getRevocableMemoryReservation();
             fullGcCount = taskStats.getFullGcCount();
             fullGcTime = taskStats.getFullGcTime();
+            dynamicFiltersVersion = taskHolder.getFinalTaskInfo().getTaskStatus().getDynamicFiltersVersion();
+            dynamicFilterDomains = taskHolder.getFinalTaskInfo().getTaskStatus().getDynamicFilterDomains();
         }
         else if (taskHolder.getTaskExecution() != null) {
             long physicalWrittenBytes = 0;
@@ -259,6 +280,8 @@ public class SqlTask
                 PipelineStatus pipelineStatus = pipelineContext.getPipelineStatus();
                 queuedPartitionedDrivers += pipelineStatus.getQueuedPartitionedDrivers();
                 runningPartitionedDrivers += pipelineStatus.getRunningPartitionedDrivers();
+                queuedPartitionedSplitsWeight += pipelineStatus.getQueuedPartitionedSplitsWeight();
+                runningPartitionedSplitsWeight += pipelineStatus.getRunningPartitionedSplitsWeight();
                 physicalWrittenBytes += pipelineContext.getPhysicalWrittenDataSize();
             }
             physicalWrittenDataSize = succinctBytes(physicalWrittenBytes);
@@ -268,6 +291,9 @@ public class SqlTask
             completedDriverGroups = taskContext.getCompletedDriverGroups();
             fullGcCount = taskContext.getFullGcCount();
             fullGcTime = taskContext.getFullGcTime();
+            // read the version first, so that the domains are never older than the reported version
+            dynamicFiltersVersion = taskContext.getDynamicFiltersVersion();
+            dynamicFilterDomains = taskContext.getDynamicFilterDomains();
         }
 
         return new TaskStatus(taskStateMachine.getTaskId(),
@@ -280,13 +306,17 @@ public class SqlTask
                 failures,
                 queuedPartitionedDrivers,
                 runningPartitionedDrivers,
+                queuedPartitionedSplitsWeight,
+                runningPartitionedSplitsWeight,
                 isOutputBufferOverutilized(),
                 physicalWrittenDataSize,
                 userMemoryReservation,
                 systemMemoryReservation,
                 revocableMemoryReservation,
                 fullGcCount,
-                fullGcTime);
+                fullGcTime,
+                dynamicFiltersVersion,
+                dynamicFilterDomains);
     }
 
     private TaskStats getTaskStats(TaskHolder taskHolder)
@@ -360,7 +390,13 @@ public class SqlTask
         return Futures.transform(futureTaskState, input -> getTaskInfo(), directExecutor());
     }
 
-    public TaskInfo updateTask(Session session, Optional<PlanFragment> fragment, List<TaskSource> sources, OutputBuffers outputBuffers, OptionalInt totalPartitions)
+    public TaskInfo updateTask(
+            Session session,
+            Optional<PlanFragment> fragment,
+            List<TaskSource> sources,
+            OutputBuffers outputBuffers,
+            OptionalInt totalPartitions,
+            Map<String, Domain> dynamicFilterDomains)
     {
         try {
             // The LazyOutput buffer does not support write methods, so the actual
@@ -386,6 +422,9 @@ public class SqlTask
             }
 
             if (taskExecution != null) {
+                if (!dynamicFilterDomains.isEmpty()) {
+                    taskExecution.getTaskContext().addRemoteDynamicFilterDomains(dynamicFilterDomains);
+                }
                 taskExecution.addSources(sources);
             }
         }
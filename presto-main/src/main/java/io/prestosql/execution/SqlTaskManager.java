@@ -39,8 +39,12 @@ import io.prestosql.memory.MemoryPoolAssignment;
 import io.prestosql.memory.MemoryPoolAssignmentsRequest;
 import io.prestosql.memory.NodeMemoryConfig;
 import io.prestosql.memory.QueryContext;
+import io.prestosql.memory.VoidTraversingQueryContextVisitor;
+import io.prestosql.operator.OperatorContext;
+import io.prestosql.operator.TaskContext;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.QueryId;
+import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spiller.LocalSpillManager;
 import io.prestosql.spiller.NodeSpillConfig;
 import io.prestosql.sql.planner.LocalExecutionPlanner;
@@ -56,10 +60,13 @@ import javax.annotation.concurrent.GuardedBy;
 import javax.inject.Inject;
 
 import java.io.Closeable;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -109,6 +116,8 @@ public class SqlTaskManager
     private long currentMemoryPoolAssignmentVersion;
     @GuardedBy("this")
     private String coordinatorId;
+    @GuardedBy("this")
+    private final Set<QueryId> memoryRevokingQueries = new HashSet<>();
 
     private final CounterStat failedTasks = new CounterStat();
 
@@ -194,6 +203,16 @@ public class SqlTaskManager
     @Override
     public synchronized void updateMemoryPoolAssignments(MemoryPoolAssignmentsRequest assignments)
     {
+        // the coordinator sends the queries selected for revoking with every request until the memory pressure goes away,
+        // so revoking is only requested when a query is selected again after that
+        memoryRevokingQueries.retainAll(assignments.getMemoryRevokingQueries());
+        for (QueryId queryId : assignments.getMemoryRevokingQueries()) {
+            QueryContext queryContext = queryContexts.getIfPresent(queryId);
+            if (queryContext != null && memoryRevokingQueries.add(queryId)) {
+                requestMemoryRevoking(queryId, queryContext);
+            }
+        }
+
         if (coordinatorId != null && coordinatorId.equals(assignments.getCoordinatorId()) && assignments.getVersion() <= currentMemoryPoolAssignmentVersion) {
             return;
         }
@@ -218,6 +237,31 @@ public class SqlTaskManager
         }
     }
 
+    private static void requestMemoryRevoking(QueryId queryId, QueryContext queryContext)
+    {
+        queryContext.accept(new VoidTraversingQueryContextVisitor<Void>()
+        {
+            @Override
+            public Void visitTaskContext(TaskContext taskContext, Void context)
+            {
+                if (taskContext.getState() != TaskState.RUNNING) {
+                    return null;
+                }
+                return super.visitTaskContext(taskContext, context);
+            }
+
+            @Override
+            public Void visitOperatorContext(OperatorContext operatorContext, Void context)
+            {
+                long revokedBytes = operatorContext.requestMemoryRevoking();
+                if (revokedBytes > 0) {
+                    log.debug("%s: requested revoking %s on request of the coordinator", queryId, revokedBytes);
+                }
+                return null;
+            }
+        }, null);
+    }
+
     @PostConstruct
     public void start()
     {
@@ -334,6 +378,15 @@ public class SqlTaskManager
         return sqlTask.getTaskInfo(currentState);
     }
 
+    @Override
+    public TaskInfo toPipelineStatsDelta(TaskId taskId, TaskInfo taskInfo, long pipelineStatsBaseVersion)
+    {
+        requireNonNull(taskId, "taskId is null");
+        requireNonNull(taskInfo, "taskInfo is null");
+
+        return tasks.getUnchecked(taskId).toPipelineStatsDelta(taskInfo, pipelineStatsBaseVersion);
+    }
+
     @Override
     public String getTaskInstanceId(TaskId taskId)
     {
@@ -354,13 +407,21 @@ public class SqlTaskManager
     }
 
     @Override
-    public TaskInfo updateTask(Session session, TaskId taskId, Optional<PlanFragment> fragment, List<TaskSource> sources, OutputBuffers outputBuffers, OptionalInt totalPartitions)
+    public TaskInfo updateTask(
+            Session session,
+            TaskId taskId,
+            Optional<PlanFragment> fragment,
+            List<TaskSource> sources,
+            OutputBuffers outputBuffers,
+            OptionalInt totalPartitions,
+            Map<String, Domain> dynamicFilterDomains)
     {
         requireNonNull(session, "session is null");
         requireNonNull(taskId, "taskId is null");
         requireNonNull(fragment, "fragment is null");
         requireNonNull(sources, "sources is null");
         requireNonNull(outputBuffers, "outputBuffers is null");
+        requireNonNull(dynamicFilterDomains, "dynamicFilterDomains is null");
 
         long sessionQueryMaxMemoryPerNode = getQueryMaxMemoryPerNode(session).toBytes();
         long sessionQueryTotalMaxMemoryPerNode = getQueryMaxTotalMemoryPerNode(session).toBytes();
@@ -380,7 +441,7 @@ public class SqlTaskManager
 
         SqlTask sqlTask = tasks.getUnchecked(taskId);
         sqlTask.recordHeartbeat();
-        return sqlTask.updateTask(session, fragment, sources, outputBuffers, totalPartitions);
+        return sqlTask.updateTask(session, fragment, sources, outputBuffers, totalPartitions, dynamicFilterDomains);
     }
 
     @Override
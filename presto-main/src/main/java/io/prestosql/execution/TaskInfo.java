@@ -15,9 +15,11 @@ package io.prestosql.execution;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import io.prestosql.execution.buffer.BufferInfo;
 import io.prestosql.execution.buffer.OutputBufferInfo;
+import io.prestosql.operator.PipelineStats;
 import io.prestosql.operator.TaskStats;
 import io.prestosql.sql.planner.plan.PlanNodeId;
 import org.joda.time.DateTime;
@@ -26,12 +28,18 @@ import javax.annotation.concurrent.Immutable;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
 import java.util.Set;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static io.prestosql.execution.TaskStatus.initialTaskStatus;
 import static io.prestosql.execution.buffer.BufferState.OPEN;
 import static java.util.Objects.requireNonNull;
+import static java.util.function.Function.identity;
 
 @Immutable
 public class TaskInfo
@@ -44,13 +52,29 @@ public class TaskInfo
 
     private final boolean needsPlan;
 
+    private final long pipelineStatsVersion;
+    private final OptionalLong pipelineStatsBaseVersion;
+
+    public TaskInfo(
+            TaskStatus taskStatus,
+            DateTime lastHeartbeat,
+            OutputBufferInfo outputBuffers,
+            Set<PlanNodeId> noMoreSplits,
+            TaskStats stats,
+            boolean needsPlan)
+    {
+        this(taskStatus, lastHeartbeat, outputBuffers, noMoreSplits, stats, needsPlan, 0, OptionalLong.empty());
+    }
+
     @JsonCreator
     public TaskInfo(@JsonProperty("taskStatus") TaskStatus taskStatus,
             @JsonProperty("lastHeartbeat") DateTime lastHeartbeat,
             @JsonProperty("outputBuffers") OutputBufferInfo outputBuffers,
             @JsonProperty("noMoreSplits") Set<PlanNodeId> noMoreSplits,
             @JsonProperty("stats") TaskStats stats,
-            @JsonProperty("needsPlan") boolean needsPlan)
+            @JsonProperty("needsPlan") boolean needsPlan,
+            @JsonProperty("pipelineStatsVersion") long pipelineStatsVersion,
+            @JsonProperty("pipelineStatsBaseVersion") OptionalLong pipelineStatsBaseVersion)
     {
         this.taskStatus = requireNonNull(taskStatus, "taskStatus is null");
         this.lastHeartbeat = requireNonNull(lastHeartbeat, "lastHeartbeat is null");
@@ -59,6 +83,10 @@ public class TaskInfo
         this.stats = requireNonNull(stats, "stats is null");
 
         this.needsPlan = needsPlan;
+
+        checkArgument(pipelineStatsVersion >= 0, "pipelineStatsVersion is negative");
+        this.pipelineStatsVersion = pipelineStatsVersion;
+        this.pipelineStatsBaseVersion = requireNonNull(pipelineStatsBaseVersion, "pipelineStatsBaseVersion is null");
     }
 
     @JsonProperty
@@ -97,6 +125,25 @@ public class TaskInfo
         return needsPlan;
     }
 
+    /**
+     * Version of the pipeline stats in this task info, or zero if the task did not version them.
+     */
+    @JsonProperty
+    public long getPipelineStatsVersion()
+    {
+        return pipelineStatsVersion;
+    }
+
+    /**
+     * Present if this task info is a delta, in which case the stats only contain the pipelines
+     * that changed since the pipeline stats of this version.
+     */
+    @JsonProperty
+    public OptionalLong getPipelineStatsBaseVersion()
+    {
+        return pipelineStatsBaseVersion;
+    }
+
     public TaskInfo summarize()
     {
         if (taskStatus.getState().isDone()) {
@@ -127,6 +174,37 @@ public class TaskInfo
 
     public TaskInfo withTaskStatus(TaskStatus newTaskStatus)
     {
-        return new TaskInfo(newTaskStatus, lastHeartbeat, outputBuffers, noMoreSplits, stats, needsPlan);
+        return new TaskInfo(newTaskStatus, lastHeartbeat, outputBuffers, noMoreSplits, stats, needsPlan, pipelineStatsVersion, pipelineStatsBaseVersion);
+    }
+
+    public TaskInfo withPipelineStats(List<PipelineStats> pipelines, long pipelineStatsVersion, OptionalLong pipelineStatsBaseVersion)
+    {
+        return new TaskInfo(taskStatus, lastHeartbeat, outputBuffers, noMoreSplits, stats.withPipelines(pipelines), needsPlan, pipelineStatsVersion, pipelineStatsBaseVersion);
+    }
+
+    /**
+     * Applies the specified delta to this task info, which must contain the pipeline stats of
+     * the base version of the delta or of a later time. The pipelines missing from the delta
+     * are taken from this task info.
+     */
+    public TaskInfo mergePipelineStatsDelta(TaskInfo delta)
+    {
+        checkArgument(delta.getPipelineStatsBaseVersion().isPresent(), "not a delta: %s", delta);
+
+        Map<Integer, PipelineStats> changedPipelines = delta.getStats().getPipelines().stream()
+                .collect(toImmutableMap(PipelineStats::getPipelineId, identity()));
+        ImmutableList.Builder<PipelineStats> pipelines = ImmutableList.builder();
+        for (PipelineStats pipeline : stats.getPipelines()) {
+            pipelines.add(changedPipelines.getOrDefault(pipeline.getPipelineId(), pipeline));
+        }
+        // pipelines are never removed, but the delta may contain pipelines created since the base version
+        Set<Integer> knownPipelines = stats.getPipelines().stream()
+                .map(PipelineStats::getPipelineId)
+                .collect(toImmutableSet());
+        delta.getStats().getPipelines().stream()
+                .filter(pipeline -> !knownPipelines.contains(pipeline.getPipelineId()))
+                .forEach(pipelines::add);
+
+        return delta.withPipelineStats(pipelines.build(), delta.getPipelineStatsVersion(), OptionalLong.empty());
     }
 }
@@ -21,9 +21,11 @@ import io.prestosql.execution.buffer.BufferResult;
 import io.prestosql.execution.buffer.OutputBuffers;
 import io.prestosql.execution.buffer.OutputBuffers.OutputBufferId;
 import io.prestosql.memory.MemoryPoolAssignmentsRequest;
+import io.prestosql.spi.predicate.Domain;
 import io.prestosql.sql.planner.PlanFragment;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
 
@@ -60,6 +62,13 @@ public interface TaskManager
      */
     ListenableFuture<TaskInfo> getTaskInfo(TaskId taskId, TaskState currentState);
 
+    /**
+     * Versions the pipeline stats of the specified info of a task. If the specified
+     * base version is the last version returned for the task, the returned info only
+     * contains the pipelines that made progress since that version.
+     */
+    TaskInfo toPipelineStatsDelta(TaskId taskId, TaskInfo taskInfo, long pipelineStatsBaseVersion);
+
     /**
      * Gets the unique instance id of a task.  This can be used to detect a task
      * that was destroyed and recreated.
@@ -80,10 +89,17 @@ public interface TaskManager
     void updateMemoryPoolAssignments(MemoryPoolAssignmentsRequest assignments);
 
     /**
-     * Updates the task plan, sources and output buffers.  If the task does not
-     * already exist, is is created and then updated.
+     * Updates the task plan, sources, output buffers and dynamic filters collected
+     * by the coordinator.  If the task does not already exist, is is created and then updated.
      */
-    TaskInfo updateTask(Session session, TaskId taskId, Optional<PlanFragment> fragment, List<TaskSource> sources, OutputBuffers outputBuffers, OptionalInt totalPartitions);
+    TaskInfo updateTask(
+            Session session,
+            TaskId taskId,
+            Optional<PlanFragment> fragment,
+            List<TaskSource> sources,
+            OutputBuffers outputBuffers,
+            OptionalInt totalPartitions,
+            Map<String, Domain> dynamicFilterDomains);
 
     /**
      * Cancels a task.  If the task does not already exist, is is created and then
@@ -63,6 +63,7 @@ public class TaskManagerConfig
 
     private Duration statusRefreshMaxWait = new Duration(1, TimeUnit.SECONDS);
     private Duration infoUpdateInterval = new Duration(3, TimeUnit.SECONDS);
+    private int infoMaxDeltaUpdates;
 
     private int writerCount = 1;
     private int taskConcurrency = 16;
@@ -73,6 +74,7 @@ public class TaskManagerConfig
     private int taskYieldThreads = 3;
 
     private BigDecimal levelTimeMultiplier = new BigDecimal(2.0);
+    private boolean queryFairSchedulingEnabled;
 
     @MinDuration("1ms")
     @MaxDuration("10s")
@@ -105,6 +107,20 @@ public class TaskManagerConfig
         return this;
     }
 
+    @Min(0)
+    public int getInfoMaxDeltaUpdates()
+    {
+        return infoMaxDeltaUpdates;
+    }
+
+    @Config("task.info-max-delta-updates")
+    @ConfigDescription("Maximum number of consecutive task data updates with only the changed pipelines, before a full update. Zero disables delta updates")
+    public TaskManagerConfig setInfoMaxDeltaUpdates(int infoMaxDeltaUpdates)
+    {
+        this.infoMaxDeltaUpdates = infoMaxDeltaUpdates;
+        return this;
+    }
+
     public boolean isPerOperatorCpuTimerEnabled()
     {
         return perOperatorCpuTimerEnabled;
@@ -208,6 +224,19 @@ public class TaskManagerConfig
         return this;
     }
 
+    public boolean isQueryFairSchedulingEnabled()
+    {
+        return queryFairSchedulingEnabled;
+    }
+
+    @Config("task.query-fair-scheduling-enabled")
+    @ConfigDescription("Share runner threads between queries, weighted by resource group scheduling weight, rather than between tasks")
+    public TaskManagerConfig setQueryFairSchedulingEnabled(boolean queryFairSchedulingEnabled)
+    {
+        this.queryFairSchedulingEnabled = queryFairSchedulingEnabled;
+        return this;
+    }
+
     @Min(1)
     public int getMaxWorkerThreads()
     {
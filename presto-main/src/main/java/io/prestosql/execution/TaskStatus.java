@@ -16,12 +16,15 @@ package io.prestosql.execution;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
+import io.prestosql.spi.predicate.Domain;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -50,6 +53,11 @@ public class TaskStatus
      */
     private static final long MAX_VERSION = Long.MAX_VALUE;
 
+    /**
+     * The version of the dynamic filters of a task that has not collected any.
+     */
+    public static final long INITIAL_DYNAMIC_FILTERS_VERSION = 0;
+
     private final TaskId taskId;
     private final String taskInstanceId;
     private final long version;
@@ -60,6 +68,8 @@ public class TaskStatus
 
     private final int queuedPartitionedDrivers;
     private final int runningPartitionedDrivers;
+    private final long queuedPartitionedSplitsWeight;
+    private final long runningPartitionedSplitsWeight;
     private final boolean outputBufferOverutilized;
     private final DataSize physicalWrittenDataSize;
     private final DataSize memoryReservation;
@@ -71,6 +81,9 @@ public class TaskStatus
 
     private final List<ExecutionFailureInfo> failures;
 
+    private final long dynamicFiltersVersion;
+    private final Map<String, Domain> dynamicFilterDomains;
+
     @JsonCreator
     public TaskStatus(
             @JsonProperty("taskId") TaskId taskId,
@@ -83,13 +96,17 @@ public class TaskStatus
             @JsonProperty("failures") List<ExecutionFailureInfo> failures,
             @JsonProperty("queuedPartitionedDrivers") int queuedPartitionedDrivers,
             @JsonProperty("runningPartitionedDrivers") int runningPartitionedDrivers,
+            @JsonProperty("queuedPartitionedSplitsWeight") long queuedPartitionedSplitsWeight,
+            @JsonProperty("runningPartitionedSplitsWeight") long runningPartitionedSplitsWeight,
             @JsonProperty("outputBufferOverutilized") boolean outputBufferOverutilized,
             @JsonProperty("physicalWrittenDataSize") DataSize physicalWrittenDataSize,
             @JsonProperty("memoryReservation") DataSize memoryReservation,
             @JsonProperty("systemMemoryReservation") DataSize systemMemoryReservation,
             @JsonProperty("revocableMemoryReservation") DataSize revocableMemoryReservation,
             @JsonProperty("fullGcCount") long fullGcCount,
-            @JsonProperty("fullGcTime") Duration fullGcTime)
+            @JsonProperty("fullGcTime") Duration fullGcTime,
+            @JsonProperty("dynamicFiltersVersion") long dynamicFiltersVersion,
+            @JsonProperty("dynamicFilterDomains") Map<String, Domain> dynamicFilterDomains)
     {
         this.taskId = requireNonNull(taskId, "taskId is null");
         this.taskInstanceId = requireNonNull(taskInstanceId, "taskInstanceId is null");
@@ -107,6 +124,12 @@ public class TaskStatus
         checkArgument(runningPartitionedDrivers >= 0, "runningPartitionedDrivers must be positive");
         this.runningPartitionedDrivers = runningPartitionedDrivers;
 
+        checkArgument(queuedPartitionedSplitsWeight >= 0, "queuedPartitionedSplitsWeight must be positive");
+        this.queuedPartitionedSplitsWeight = queuedPartitionedSplitsWeight;
+
+        checkArgument(runningPartitionedSplitsWeight >= 0, "runningPartitionedSplitsWeight must be positive");
+        this.runningPartitionedSplitsWeight = runningPartitionedSplitsWeight;
+
         this.outputBufferOverutilized = outputBufferOverutilized;
 
         this.physicalWrittenDataSize = requireNonNull(physicalWrittenDataSize, "physicalWrittenDataSize is null");
@@ -119,6 +142,9 @@ public class TaskStatus
         checkArgument(fullGcCount >= 0, "fullGcCount is negative");
         this.fullGcCount = fullGcCount;
         this.fullGcTime = requireNonNull(fullGcTime, "fullGcTime is null");
+        checkArgument(dynamicFiltersVersion >= INITIAL_DYNAMIC_FILTERS_VERSION, "dynamicFiltersVersion is negative");
+        this.dynamicFiltersVersion = dynamicFiltersVersion;
+        this.dynamicFilterDomains = ImmutableMap.copyOf(requireNonNull(dynamicFilterDomains, "dynamicFilterDomains is null"));
     }
 
     @JsonProperty
@@ -181,6 +207,18 @@ public class TaskStatus
         return runningPartitionedDrivers;
     }
 
+    @JsonProperty
+    public long getQueuedPartitionedSplitsWeight()
+    {
+        return queuedPartitionedSplitsWeight;
+    }
+
+    @JsonProperty
+    public long getRunningPartitionedSplitsWeight()
+    {
+        return runningPartitionedSplitsWeight;
+    }
+
     @JsonProperty
     public DataSize getPhysicalWrittenDataSize()
     {
@@ -223,6 +261,26 @@ public class TaskStatus
         return fullGcTime;
     }
 
+    /**
+     * Version of the dynamic filters collected by the task. It is incremented every time
+     * the collected domains change.
+     */
+    @JsonProperty
+    public long getDynamicFiltersVersion()
+    {
+        return dynamicFiltersVersion;
+    }
+
+    /**
+     * Dynamic filters collected by the task for join builds whose probe side runs in a different stage.
+     * The domains are omitted when the requester has already seen the current {@link #getDynamicFiltersVersion() version}.
+     */
+    @JsonProperty
+    public Map<String, Domain> getDynamicFilterDomains()
+    {
+        return dynamicFilterDomains;
+    }
+
     @Override
     public String toString()
     {
@@ -245,13 +303,17 @@ public class TaskStatus
                 ImmutableList.of(),
                 0,
                 0,
+                0,
+                0,
                 false,
                 DataSize.ofBytes(0),
                 DataSize.ofBytes(0),
                 DataSize.ofBytes(0),
                 DataSize.ofBytes(0),
                 0,
-                new Duration(0, MILLISECONDS));
+                new Duration(0, MILLISECONDS),
+                INITIAL_DYNAMIC_FILTERS_VERSION,
+                ImmutableMap.of());
     }
 
     public static TaskStatus failWith(TaskStatus taskStatus, TaskState state, List<ExecutionFailureInfo> exceptions)
@@ -267,12 +329,45 @@ public class TaskStatus
                 exceptions,
                 taskStatus.getQueuedPartitionedDrivers(),
                 taskStatus.getRunningPartitionedDrivers(),
+                taskStatus.getQueuedPartitionedSplitsWeight(),
+                taskStatus.getRunningPartitionedSplitsWeight(),
+                taskStatus.isOutputBufferOverutilized(),
+                taskStatus.getPhysicalWrittenDataSize(),
+                taskStatus.getMemoryReservation(),
+                taskStatus.getSystemMemoryReservation(),
+                taskStatus.getRevocableMemoryReservation(),
+                taskStatus.getFullGcCount(),
+                taskStatus.getFullGcTime(),
+                taskStatus.getDynamicFiltersVersion(),
+                taskStatus.getDynamicFilterDomains());
+    }
+
+    public static TaskStatus withoutDynamicFilterDomains(TaskStatus taskStatus)
+    {
+        if (taskStatus.getDynamicFilterDomains().isEmpty()) {
+            return taskStatus;
+        }
+        return new TaskStatus(
+                taskStatus.getTaskId(),
+                taskStatus.getTaskInstanceId(),
+                taskStatus.getVersion(),
+                taskStatus.getState(),
+                taskStatus.getSelf(),
+                taskStatus.getNodeId(),
+                taskStatus.getCompletedDriverGroups(),
+                taskStatus.getFailures(),
+                taskStatus.getQueuedPartitionedDrivers(),
+                taskStatus.getRunningPartitionedDrivers(),
+                taskStatus.getQueuedPartitionedSplitsWeight(),
+                taskStatus.getRunningPartitionedSplitsWeight(),
                 taskStatus.isOutputBufferOverutilized(),
                 taskStatus.getPhysicalWrittenDataSize(),
                 taskStatus.getMemoryReservation(),
                 taskStatus.getSystemMemoryReservation(),
                 taskStatus.getRevocableMemoryReservation(),
                 taskStatus.getFullGcCount(),
-                taskStatus.getFullGcTime());
+                taskStatus.getFullGcTime(),
+                taskStatus.getDynamicFiltersVersion(),
+                ImmutableMap.of());
     }
 }
@@ -17,23 +17,25 @@ import io.airlift.compress.Compressor;
 import io.airlift.compress.Decompressor;
 import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
-import io.airlift.slice.SliceOutput;
 import io.airlift.slice.Slices;
 import io.prestosql.execution.buffer.PageCodecMarker.MarkerSet;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.BlockEncodingSerde;
 import io.prestosql.spiller.SpillCipher;
 
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
 import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.SizeOf.sizeOf;
 import static io.prestosql.execution.buffer.PageCodecMarker.COMPRESSED;
 import static io.prestosql.execution.buffer.PageCodecMarker.ENCRYPTED;
 import static io.prestosql.execution.buffer.PagesSerdeUtil.readRawPage;
 import static io.prestosql.execution.buffer.PagesSerdeUtil.writeRawPage;
+import static io.prestosql.spi.block.PageBuilderStatus.DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
@@ -41,12 +43,21 @@ import static java.util.Objects.requireNonNull;
 public class PagesSerde
 {
     private static final double MINIMUM_COMPRESSION_RATIO = 0.8;
+    private static final int MAX_RETAINED_BUFFER_SIZE_IN_BYTES = 4 * DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
+    private static final byte[] EMPTY_BUFFER = new byte[0];
 
     private final BlockEncodingSerde blockEncodingSerde;
     private final Optional<Compressor> compressor;
     private final Optional<Decompressor> decompressor;
     private final Optional<SpillCipher> spillCipher;
 
+    // buffers reused across pages, so that only the final slice of each page is allocated
+    @Nullable
+    private DynamicSliceOutput serializationBuffer;
+    private byte[] compressionBuffer = EMPTY_BUFFER;
+    private byte[] encryptionBuffer = EMPTY_BUFFER;
+    private byte[] decryptionBuffer = EMPTY_BUFFER;
+
     public PagesSerde(BlockEncodingSerde blockEncodingSerde, Optional<Compressor> compressor, Optional<Decompressor> decompressor, Optional<SpillCipher> spillCipher)
     {
         this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
@@ -58,44 +69,47 @@ public class PagesSerde
 
     public SerializedPage serialize(Page page)
     {
-        SliceOutput serializationBuffer = new DynamicSliceOutput(toIntExact(page.getSizeInBytes() + Integer.BYTES)); // block length is an int
+        if (serializationBuffer == null) {
+            serializationBuffer = new DynamicSliceOutput(toIntExact(page.getSizeInBytes() + Integer.BYTES)); // block length is an int
+        }
+        serializationBuffer.reset();
         writeRawPage(page, serializationBuffer, blockEncodingSerde);
         Slice slice = serializationBuffer.slice();
         int uncompressedSize = serializationBuffer.size();
         MarkerSet markers = MarkerSet.empty();
 
         if (compressor.isPresent()) {
-            byte[] compressed = new byte[compressor.get().maxCompressedLength(uncompressedSize)];
+            compressionBuffer = ensureCapacity(compressionBuffer, compressor.get().maxCompressedLength(uncompressedSize));
             int compressedSize = compressor.get().compress(
                     slice.byteArray(),
                     slice.byteArrayOffset(),
                     uncompressedSize,
-                    compressed,
+                    compressionBuffer,
                     0,
-                    compressed.length);
+                    compressionBuffer.length);
 
             if ((((double) compressedSize) / uncompressedSize) <= MINIMUM_COMPRESSION_RATIO) {
-                slice = Slices.wrappedBuffer(compressed, 0, compressedSize);
+                slice = Slices.wrappedBuffer(compressionBuffer, 0, compressedSize);
                 markers.add(COMPRESSED);
             }
         }
 
         if (spillCipher.isPresent()) {
-            byte[] encrypted = new byte[spillCipher.get().encryptedMaxLength(slice.length())];
+            encryptionBuffer = ensureCapacity(encryptionBuffer, spillCipher.get().encryptedMaxLength(slice.length()));
             int encryptedSize = spillCipher.get().encrypt(
                     slice.byteArray(),
                     slice.byteArrayOffset(),
                     slice.length(),
-                    encrypted,
+                    encryptionBuffer,
                     0);
 
-            slice = Slices.wrappedBuffer(encrypted, 0, encryptedSize);
+            slice = Slices.wrappedBuffer(encryptionBuffer, 0, encryptedSize);
             markers.add(ENCRYPTED);
         }
 
-        if (!slice.isCompact()) {
-            slice = Slices.copyOf(slice);
-        }
+        // the buffers are reused for the next page, so the serialized page gets its own copy
+        slice = Slices.copyOf(slice);
+        releaseLargeBuffers();
 
         return new SerializedPage(slice, markers, page.getPositionCount(), uncompressedSize);
     }
@@ -109,7 +123,17 @@ public class PagesSerde
         if (serializedPage.isEncrypted()) {
             checkState(spillCipher.isPresent(), "Page is encrypted, but spill cipher is missing");
 
-            byte[] decrypted = new byte[spillCipher.get().decryptedMaxLength(slice.length())];
+            int decryptedMaxLength = spillCipher.get().decryptedMaxLength(slice.length());
+            byte[] decrypted;
+            if (serializedPage.isCompressed()) {
+                // the decrypted page is only needed until it is decompressed
+                decryptionBuffer = ensureCapacity(decryptionBuffer, decryptedMaxLength);
+                decrypted = decryptionBuffer;
+            }
+            else {
+                // the blocks of the deserialized page can reference the decrypted page
+                decrypted = new byte[decryptedMaxLength];
+            }
             int decryptedSize = spillCipher.get().decrypt(
                     slice.byteArray(),
                     slice.byteArrayOffset(),
@@ -135,7 +159,50 @@ public class PagesSerde
 
             slice = Slices.wrappedBuffer(decompressed);
         }
+        releaseLargeBuffers();
 
         return readRawPage(serializedPage.getPositionCount(), slice.getInput(), blockEncodingSerde);
     }
+
+    /**
+     * Returns the size of the buffers which are retained to be reused by the next pages.
+     */
+    public long getRetainedSizeInBytes()
+    {
+        return (serializationBuffer == null ? 0 : serializationBuffer.getRetainedSize()) +
+                getBufferRetainedSize(compressionBuffer) +
+                getBufferRetainedSize(encryptionBuffer) +
+                getBufferRetainedSize(decryptionBuffer);
+    }
+
+    private static long getBufferRetainedSize(byte[] buffer)
+    {
+        // the empty buffer is shared by all serdes
+        return buffer == EMPTY_BUFFER ? 0 : sizeOf(buffer);
+    }
+
+    private static byte[] ensureCapacity(byte[] buffer, int capacity)
+    {
+        if (buffer.length < capacity) {
+            return new byte[capacity];
+        }
+        return buffer;
+    }
+
+    private void releaseLargeBuffers()
+    {
+        // buffers used by unusually large pages are not kept, to bound the memory retained by idle serdes
+        if (serializationBuffer != null && serializationBuffer.getRetainedSize() > MAX_RETAINED_BUFFER_SIZE_IN_BYTES) {
+            serializationBuffer = null;
+        }
+        if (compressionBuffer.length > MAX_RETAINED_BUFFER_SIZE_IN_BYTES) {
+            compressionBuffer = EMPTY_BUFFER;
+        }
+        if (encryptionBuffer.length > MAX_RETAINED_BUFFER_SIZE_IN_BYTES) {
+            encryptionBuffer = EMPTY_BUFFER;
+        }
+        if (decryptionBuffer.length > MAX_RETAINED_BUFFER_SIZE_IN_BYTES) {
+            decryptionBuffer = EMPTY_BUFFER;
+        }
+    }
 }
@@ -14,14 +14,21 @@
 package io.prestosql.execution.buffer;
 
 import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
 import io.airlift.slice.Slice;
 import io.airlift.slice.SliceInput;
 import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.BlockEncodingSerde;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Iterator;
+import java.util.List;
 
 import static io.prestosql.block.BlockSerdeUtil.readBlock;
 import static io.prestosql.block.BlockSerdeUtil.writeBlock;
@@ -30,6 +37,9 @@ import static java.util.Objects.requireNonNull;
 
 public final class PagesSerdeUtil
 {
+    // position count, codec markers, uncompressed size and size
+    private static final int SERIALIZED_PAGE_HEADER_SIZE = Integer.BYTES + Byte.BYTES + Integer.BYTES + Integer.BYTES;
+
     private PagesSerdeUtil() {}
 
     static void writeRawPage(Page page, SliceOutput output, BlockEncodingSerde serde)
@@ -131,6 +141,38 @@ public final class PagesSerdeUtil
         return new SerializedPageReader(sliceInput);
     }
 
+    /**
+     * Reads all serialized pages from the stream. Unlike reading through an
+     * {@link io.airlift.slice.InputStreamSliceInput}, the data of each page is read
+     * directly into the slice referenced by the page, without staging it in an
+     * intermediate buffer first.
+     */
+    public static List<SerializedPage> readSerializedPages(InputStream inputStream)
+            throws IOException
+    {
+        ImmutableList.Builder<SerializedPage> pages = ImmutableList.builder();
+        byte[] header = new byte[SERIALIZED_PAGE_HEADER_SIZE];
+        Slice headerSlice = Slices.wrappedBuffer(header);
+        while (true) {
+            int headerSize = ByteStreams.read(inputStream, header, 0, header.length);
+            if (headerSize == 0) {
+                return pages.build();
+            }
+            if (headerSize < header.length) {
+                throw new EOFException("Unexpected end of stream while reading serialized page header");
+            }
+
+            int positionCount = headerSlice.getInt(0);
+            PageCodecMarker.MarkerSet markers = PageCodecMarker.MarkerSet.fromByteValue(headerSlice.getByte(Integer.BYTES));
+            int uncompressedSizeInBytes = headerSlice.getInt(Integer.BYTES + Byte.BYTES);
+            int sizeInBytes = headerSlice.getInt(Integer.BYTES + Byte.BYTES + Integer.BYTES);
+
+            byte[] data = new byte[sizeInBytes];
+            ByteStreams.readFully(inputStream, data);
+            pages.add(new SerializedPage(Slices.wrappedBuffer(data), markers, positionCount, uncompressedSizeInBytes));
+        }
+    }
+
     private static class SerializedPageReader
             extends AbstractIterator<SerializedPage>
     {
@@ -216,6 +216,19 @@ public class MultilevelSplitQueue
      */
     public Priority updatePriority(Priority oldPriority, long quantaNanos, long scheduledNanos)
     {
+        return updatePriority(oldPriority, quantaNanos, scheduledNanos, 1);
+    }
+
+    /**
+     * Charges the quanta run time as {@link #updatePriority(Priority, long, long)}, except that the
+     * priority within the level only accrues the quanta divided by the weight. The level and the
+     * level scheduled time are based on the actual run time.
+     *
+     * @return the new priority for the task
+     */
+    public Priority updatePriority(Priority oldPriority, long quantaNanos, long scheduledNanos, int weight)
+    {
+        checkArgument(weight > 0, "weight must be positive");
         int oldLevel = oldPriority.getLevel();
         int newLevel = computeLevel(scheduledNanos);
 
@@ -223,7 +236,7 @@ public class MultilevelSplitQueue
 
         if (oldLevel == newLevel) {
             addLevelTime(oldLevel, levelContribution);
-            return new Priority(oldLevel, oldPriority.getLevelPriority() + quantaNanos);
+            return new Priority(oldLevel, oldPriority.getLevelPriority() + quantaNanos / weight);
         }
 
         long remainingLevelContribution = levelContribution;
@@ -241,7 +254,7 @@ public class MultilevelSplitQueue
 
         addLevelTime(newLevel, remainingLevelContribution);
         long newLevelMinPriority = getLevelMinPriority(newLevel, scheduledNanos);
-        return new Priority(newLevel, newLevelMinPriority + remainingTaskTime);
+        return new Priority(newLevel, newLevelMinPriority + remainingTaskTime / weight);
     }
 
     public void remove(PrioritizedSplitRunner split)
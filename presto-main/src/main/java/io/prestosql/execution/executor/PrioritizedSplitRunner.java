@@ -178,6 +178,7 @@ public class PrioritizedSplitRunner
 
             long quantaCpuNanos = elapsed.getCpu().roundTo(NANOSECONDS);
             cpuTimeNanos.addAndGet(quantaCpuNanos);
+            taskHandle.getQueryHandle().addCpuNanos(quantaCpuNanos);
 
             globalCpuTimeMicros.update(quantaCpuNanos / 1000);
             globalScheduledTimeMicros.update(quantaScheduledNanos / 1000);
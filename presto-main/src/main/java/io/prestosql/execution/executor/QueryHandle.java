@@ -0,0 +1,145 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.executor;
+
+import io.prestosql.spi.QueryId;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Scheduling state shared by all tasks of a query running on this worker.
+ * <p>
+ * When query fair scheduling is enabled, the tasks of a query share a single
+ * {@link Priority} that is charged the scheduled time of every task. Queries with
+ * many tasks or drivers on this worker therefore do not get proportionally more
+ * runner thread time. The level of the query and the time charged to the level are
+ * based on the actual scheduled time, while the priority within the level accrues
+ * the scheduled time divided by the scheduling weight, so that queries with a larger
+ * weight are picked more often than other queries of the same level.
+ */
+@ThreadSafe
+public class QueryHandle
+{
+    private final QueryId queryId;
+    private final int schedulingWeight;
+    private final MultilevelSplitQueue splitQueue;
+
+    @GuardedBy("this")
+    private long levelScheduledNanos;
+    @GuardedBy("this")
+    private int taskCount;
+
+    private final AtomicLong scheduledNanos = new AtomicLong();
+    private final AtomicLong cpuNanos = new AtomicLong();
+    private final AtomicReference<Priority> priority = new AtomicReference<>(new Priority(0, 0));
+
+    public QueryHandle(QueryId queryId, int schedulingWeight, MultilevelSplitQueue splitQueue)
+    {
+        checkArgument(schedulingWeight > 0, "schedulingWeight must be positive");
+        this.queryId = requireNonNull(queryId, "queryId is null");
+        this.schedulingWeight = schedulingWeight;
+        this.splitQueue = requireNonNull(splitQueue, "splitQueue is null");
+    }
+
+    public QueryId getQueryId()
+    {
+        return queryId;
+    }
+
+    public int getSchedulingWeight()
+    {
+        return schedulingWeight;
+    }
+
+    public void addScheduledNanos(long durationNanos)
+    {
+        scheduledNanos.addAndGet(durationNanos);
+    }
+
+    public void addCpuNanos(long durationNanos)
+    {
+        cpuNanos.addAndGet(durationNanos);
+    }
+
+    /**
+     * Charges the scheduled time of a task of this query to the shared priority.
+     *
+     * @return the new priority for the query
+     */
+    public synchronized Priority updatePriority(long durationNanos)
+    {
+        levelScheduledNanos += durationNanos;
+
+        Priority newPriority = splitQueue.updatePriority(priority.get(), durationNanos, levelScheduledNanos, schedulingWeight);
+
+        priority.set(newPriority);
+        return newPriority;
+    }
+
+    public synchronized Priority resetLevelPriority()
+    {
+        long levelMinPriority = splitQueue.getLevelMinPriority(priority.get().getLevel(), levelScheduledNanos);
+        if (priority.get().getLevelPriority() < levelMinPriority) {
+            Priority newPriority = new Priority(priority.get().getLevel(), levelMinPriority);
+            priority.set(newPriority);
+            return newPriority;
+        }
+
+        return priority.get();
+    }
+
+    public Priority getPriority()
+    {
+        return priority.get();
+    }
+
+    public long getScheduledNanos()
+    {
+        return scheduledNanos.get();
+    }
+
+    public long getCpuNanos()
+    {
+        return cpuNanos.get();
+    }
+
+    synchronized void taskAdded()
+    {
+        taskCount++;
+    }
+
+    // Returns true if this was the last task of the query
+    synchronized boolean taskRemoved()
+    {
+        taskCount--;
+        return taskCount == 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("queryId", queryId)
+                .add("schedulingWeight", schedulingWeight)
+                .toString();
+    }
+}
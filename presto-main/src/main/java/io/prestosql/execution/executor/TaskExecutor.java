@@ -16,6 +16,7 @@ package io.prestosql.execution.executor;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Ticker;
 import com.google.common.collect.ComparisonChain;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.concurrent.SetThreadName;
 import io.airlift.concurrent.ThreadPoolExecutorMBean;
@@ -29,6 +30,7 @@ import io.prestosql.execution.TaskId;
 import io.prestosql.execution.TaskManagerConfig;
 import io.prestosql.server.ServerConfig;
 import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.QueryId;
 import io.prestosql.version.EmbedVersion;
 import org.weakref.jmx.Managed;
 import org.weakref.jmx.Nested;
@@ -40,8 +42,10 @@ import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -63,6 +67,7 @@ import java.util.function.DoubleSupplier;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Sets.newConcurrentHashSet;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.concurrent.Threads.threadsNamed;
@@ -83,6 +88,9 @@ public class TaskExecutor
     // print out split call stack if it has been running for a certain amount of time
     private static final Duration LONG_SPLIT_WARNING_THRESHOLD = new Duration(600, TimeUnit.SECONDS);
 
+    // keep the scheduling state of a query for a while after its last task on this worker is removed
+    private static final Duration IDLE_QUERY_EXPIRATION = new Duration(1, TimeUnit.MINUTES);
+
     private static final AtomicLong NEXT_RUNNER_ID = new AtomicLong();
 
     private final ExecutorService executor;
@@ -93,6 +101,7 @@ public class TaskExecutor
     private final int guaranteedNumberOfDriversPerTask;
     private final int maximumNumberOfDriversPerTask;
     private final EmbedVersion embedVersion;
+    private final boolean queryFairScheduling;
 
     private final Ticker ticker;
 
@@ -102,6 +111,21 @@ public class TaskExecutor
     @GuardedBy("this")
     private final List<TaskHandle> tasks;
 
+    /**
+     * Scheduling state of the queries with tasks registered with the task executor, and of the
+     * queries whose last task was removed less than {@link #IDLE_QUERY_EXPIRATION} ago.
+     */
+    @GuardedBy("this")
+    private final Map<QueryId, QueryHandle> queries = new HashMap<>();
+
+    /**
+     * Expiration times of the queries without tasks, in expiration order. The workers are not told when
+     * a query completes, so the scheduled time of a query is kept for a while after its last task is
+     * removed, in case the query schedules more tasks on this worker.
+     */
+    @GuardedBy("this")
+    private final Map<QueryId, Long> idleQueryExpirations = new LinkedHashMap<>();
+
     /**
      * All splits registered with the task executor.
      */
@@ -165,19 +189,26 @@ public class TaskExecutor
                 config.getMaxDriversPerTask(),
                 embedVersion,
                 splitQueue,
+                config.isQueryFairSchedulingEnabled(),
                 Ticker.systemTicker());
     }
 
     @VisibleForTesting
     public TaskExecutor(int runnerThreads, int minDrivers, int guaranteedNumberOfDriversPerTask, int maximumNumberOfDriversPerTask, Ticker ticker)
     {
-        this(runnerThreads, minDrivers, guaranteedNumberOfDriversPerTask, maximumNumberOfDriversPerTask, new EmbedVersion(new ServerConfig()), new MultilevelSplitQueue(2), ticker);
+        this(runnerThreads, minDrivers, guaranteedNumberOfDriversPerTask, maximumNumberOfDriversPerTask, new EmbedVersion(new ServerConfig()), new MultilevelSplitQueue(2), false, ticker);
     }
 
     @VisibleForTesting
     public TaskExecutor(int runnerThreads, int minDrivers, int guaranteedNumberOfDriversPerTask, int maximumNumberOfDriversPerTask, MultilevelSplitQueue splitQueue, Ticker ticker)
     {
-        this(runnerThreads, minDrivers, guaranteedNumberOfDriversPerTask, maximumNumberOfDriversPerTask, new EmbedVersion(new ServerConfig()), splitQueue, ticker);
+        this(runnerThreads, minDrivers, guaranteedNumberOfDriversPerTask, maximumNumberOfDriversPerTask, new EmbedVersion(new ServerConfig()), splitQueue, false, ticker);
+    }
+
+    @VisibleForTesting
+    public TaskExecutor(int runnerThreads, int minDrivers, int guaranteedNumberOfDriversPerTask, int maximumNumberOfDriversPerTask, boolean queryFairScheduling, Ticker ticker)
+    {
+        this(runnerThreads, minDrivers, guaranteedNumberOfDriversPerTask, maximumNumberOfDriversPerTask, new EmbedVersion(new ServerConfig()), new MultilevelSplitQueue(2), queryFairScheduling, ticker);
     }
 
     @VisibleForTesting
@@ -188,6 +219,7 @@ public class TaskExecutor
             int maximumNumberOfDriversPerTask,
             EmbedVersion embedVersion,
             MultilevelSplitQueue splitQueue,
+            boolean queryFairScheduling,
             Ticker ticker)
     {
         checkArgument(runnerThreads > 0, "runnerThreads must be at least 1");
@@ -207,6 +239,7 @@ public class TaskExecutor
         this.guaranteedNumberOfDriversPerTask = guaranteedNumberOfDriversPerTask;
         this.maximumNumberOfDriversPerTask = maximumNumberOfDriversPerTask;
         this.waitingSplits = requireNonNull(splitQueue, "splitQueue is null");
+        this.queryFairScheduling = queryFairScheduling;
         this.tasks = new LinkedList<>();
     }
 
@@ -240,6 +273,21 @@ public class TaskExecutor
                 .toString();
     }
 
+    @GuardedBy("this")
+    private void expireIdleQueries()
+    {
+        long now = ticker.read();
+        Iterator<Map.Entry<QueryId, Long>> iterator = idleQueryExpirations.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<QueryId, Long> entry = iterator.next();
+            if (entry.getValue() - now > 0) {
+                break;
+            }
+            queries.remove(entry.getKey());
+            iterator.remove();
+        }
+    }
+
     private synchronized void addRunnerThread()
     {
         try {
@@ -249,12 +297,23 @@ public class TaskExecutor
         }
     }
 
-    public synchronized TaskHandle addTask(
+    public TaskHandle addTask(
             TaskId taskId,
             DoubleSupplier utilizationSupplier,
             int initialSplitConcurrency,
             Duration splitConcurrencyAdjustFrequency,
             OptionalInt maxDriversPerTask)
+    {
+        return addTask(taskId, utilizationSupplier, initialSplitConcurrency, splitConcurrencyAdjustFrequency, maxDriversPerTask, 1);
+    }
+
+    public synchronized TaskHandle addTask(
+            TaskId taskId,
+            DoubleSupplier utilizationSupplier,
+            int initialSplitConcurrency,
+            Duration splitConcurrencyAdjustFrequency,
+            OptionalInt maxDriversPerTask,
+            int schedulingWeight)
     {
         requireNonNull(taskId, "taskId is null");
         requireNonNull(utilizationSupplier, "utilizationSupplier is null");
@@ -263,7 +322,22 @@ public class TaskExecutor
 
         log.debug("Task scheduled " + taskId);
 
-        TaskHandle taskHandle = new TaskHandle(taskId, waitingSplits, utilizationSupplier, initialSplitConcurrency, splitConcurrencyAdjustFrequency, maxDriversPerTask);
+        expireIdleQueries();
+        idleQueryExpirations.remove(taskId.getQueryId());
+
+        // the weight of the first task wins, all tasks of a query are expected to have the same weight
+        QueryHandle queryHandle = queries.computeIfAbsent(taskId.getQueryId(), queryId -> new QueryHandle(queryId, schedulingWeight, waitingSplits));
+        queryHandle.taskAdded();
+
+        TaskHandle taskHandle = new TaskHandle(
+                taskId,
+                queryHandle,
+                queryFairScheduling,
+                waitingSplits,
+                utilizationSupplier,
+                initialSplitConcurrency,
+                splitConcurrencyAdjustFrequency,
+                maxDriversPerTask);
 
         tasks.add(taskHandle);
         return taskHandle;
@@ -283,7 +357,10 @@ public class TaskExecutor
     {
         List<PrioritizedSplitRunner> splits;
         synchronized (this) {
-            tasks.remove(taskHandle);
+            if (tasks.remove(taskHandle) && taskHandle.getQueryHandle().taskRemoved()) {
+                idleQueryExpirations.put(taskHandle.getTaskId().getQueryId(), ticker.read() + IDLE_QUERY_EXPIRATION.roundTo(NANOSECONDS));
+            }
+            expireIdleQueries();
             splits = taskHandle.destroy();
 
             // stop tracking splits (especially blocked splits which may never unblock)
@@ -541,6 +618,32 @@ public class TaskExecutor
         return tasks.size();
     }
 
+    @Managed
+    public synchronized int getQueries()
+    {
+        return queries.size() - idleQueryExpirations.size();
+    }
+
+    /**
+     * Returns the fraction of the CPU time used by the queries currently running on this
+     * worker that was spent on each query.
+     */
+    public synchronized Map<QueryId, Double> getQueryCpuShares()
+    {
+        List<QueryHandle> runningQueries = queries.values().stream()
+                .filter(query -> !idleQueryExpirations.containsKey(query.getQueryId()))
+                .collect(toImmutableList());
+        long totalCpuNanos = runningQueries.stream()
+                .mapToLong(QueryHandle::getCpuNanos)
+                .sum();
+
+        ImmutableMap.Builder<QueryId, Double> shares = ImmutableMap.builder();
+        for (QueryHandle query : runningQueries) {
+            shares.put(query.getQueryId(), totalCpuNanos == 0 ? 0 : query.getCpuNanos() / (double) totalCpuNanos);
+        }
+        return shares.build();
+    }
+
     @Managed
     public int getRunnerThreads()
     {
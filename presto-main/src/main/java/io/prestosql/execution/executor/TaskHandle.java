@@ -38,6 +38,8 @@ import static java.util.Objects.requireNonNull;
 public class TaskHandle
 {
     private final TaskId taskId;
+    private final QueryHandle queryHandle;
+    private final boolean queryFairScheduling;
     protected final DoubleSupplier utilizationSupplier;
 
     @GuardedBy("this")
@@ -61,6 +63,8 @@ public class TaskHandle
 
     public TaskHandle(
             TaskId taskId,
+            QueryHandle queryHandle,
+            boolean queryFairScheduling,
             MultilevelSplitQueue splitQueue,
             DoubleSupplier utilizationSupplier,
             int initialSplitConcurrency,
@@ -68,6 +72,8 @@ public class TaskHandle
             OptionalInt maxDriversPerTask)
     {
         this.taskId = requireNonNull(taskId, "taskId is null");
+        this.queryHandle = requireNonNull(queryHandle, "queryHandle is null");
+        this.queryFairScheduling = queryFairScheduling;
         this.splitQueue = requireNonNull(splitQueue, "splitQueue is null");
         this.utilizationSupplier = requireNonNull(utilizationSupplier, "utilizationSupplier is null");
         this.maxDriversPerTask = requireNonNull(maxDriversPerTask, "maxDriversPerTask is null");
@@ -80,6 +86,11 @@ public class TaskHandle
     {
         concurrencyController.update(durationNanos, utilizationSupplier.getAsDouble(), runningLeafSplits.size());
         scheduledNanos += durationNanos;
+        queryHandle.addScheduledNanos(durationNanos);
+
+        if (queryFairScheduling) {
+            return queryHandle.updatePriority(durationNanos);
+        }
 
         Priority newPriority = splitQueue.updatePriority(priority.get(), durationNanos, scheduledNanos);
 
@@ -89,6 +100,10 @@ public class TaskHandle
 
     public synchronized Priority resetLevelPriority()
     {
+        if (queryFairScheduling) {
+            return queryHandle.resetLevelPriority();
+        }
+
         long levelMinPriority = splitQueue.getLevelMinPriority(priority.get().getLevel(), scheduledNanos);
         if (priority.get().getLevelPriority() < levelMinPriority) {
             Priority newPriority = new Priority(priority.get().getLevel(), levelMinPriority);
@@ -106,6 +121,9 @@ public class TaskHandle
 
     public Priority getPriority()
     {
+        if (queryFairScheduling) {
+            return queryHandle.getPriority();
+        }
         return priority.get();
     }
 
@@ -114,6 +132,11 @@ public class TaskHandle
         return taskId;
     }
 
+    public QueryHandle getQueryHandle()
+    {
+        return queryHandle;
+    }
+
     public OptionalInt getMaxDriversPerTask()
     {
         return maxDriversPerTask;
@@ -36,6 +36,12 @@ public final class NoOpResourceGroupManager
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public int getSchedulingWeight(SelectionContext<Void> selectionContext, Executor executor)
+    {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public Optional<ResourceGroupInfo> tryGetResourceGroupInfo(ResourceGroupId id)
     {
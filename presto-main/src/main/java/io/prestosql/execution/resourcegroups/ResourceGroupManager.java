@@ -37,6 +37,11 @@ public interface ResourceGroupManager<C>
 
     SelectionContext<C> selectGroup(SelectionCriteria criteria);
 
+    /**
+     * Returns the scheduling weight of the selected resource group, creating the group if necessary.
+     */
+    int getSchedulingWeight(SelectionContext<C> selectionContext, Executor executor);
+
     Optional<ResourceGroupInfo> tryGetResourceGroupInfo(ResourceGroupId id);
 
     Optional<List<ResourceGroupInfo>> tryGetPathToRoot(ResourceGroupId id);
@@ -0,0 +1,74 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.scheduler;
+
+import com.google.common.collect.ImmutableSortedMap;
+import io.airlift.slice.XxHash64;
+import io.prestosql.metadata.InternalNode;
+
+import javax.annotation.concurrent.Immutable;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.Slices.utf8Slice;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Maps keys to nodes using consistent hashing. Each node is placed on the ring
+ * at several points derived from its node identifier, so adding or removing a
+ * node only moves the keys owned by that node.
+ */
+@Immutable
+final class ConsistentHashRing
+{
+    private final ImmutableSortedMap<Long, InternalNode> ring;
+
+    public ConsistentHashRing(Collection<InternalNode> nodes, int virtualNodesPerNode)
+    {
+        requireNonNull(nodes, "nodes is null");
+        checkArgument(virtualNodesPerNode > 0, "virtualNodesPerNode must be positive");
+
+        // a hash collision between virtual nodes is practically impossible and simply overwrites the earlier entry
+        SortedMap<Long, InternalNode> ring = new TreeMap<>();
+        for (InternalNode node : nodes) {
+            for (int i = 0; i < virtualNodesPerNode; i++) {
+                ring.put(hash(node.getNodeIdentifier() + "#" + i), node);
+            }
+        }
+        this.ring = ImmutableSortedMap.copyOfSorted(ring);
+    }
+
+    public Optional<InternalNode> getNode(String key)
+    {
+        requireNonNull(key, "key is null");
+        if (ring.isEmpty()) {
+            return Optional.empty();
+        }
+        Map.Entry<Long, InternalNode> entry = ring.ceilingEntry(hash(key));
+        if (entry == null) {
+            entry = ring.firstEntry();
+        }
+        return Optional.of(entry.getValue());
+    }
+
+    private static long hash(String value)
+    {
+        return XxHash64.hash(utf8Slice(value));
+    }
+}
@@ -16,52 +16,55 @@ package io.prestosql.execution.scheduler;
 import io.prestosql.execution.NodeTaskMap;
 import io.prestosql.execution.RemoteTask;
 import io.prestosql.metadata.InternalNode;
+import io.prestosql.spi.SplitWeight;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.addExact;
 import static java.util.Objects.requireNonNull;
 
 public final class NodeAssignmentStats
 {
     private final NodeTaskMap nodeTaskMap;
-    private final Map<InternalNode, Integer> assignmentCount = new HashMap<>();
-    private final Map<InternalNode, Integer> splitCountByNode = new HashMap<>();
-    private final Map<String, Integer> queuedSplitCountByNode = new HashMap<>();
+    private final Map<InternalNode, Long> assignmentWeight = new HashMap<>();
+    private final Map<InternalNode, Long> splitsWeightByNode = new HashMap<>();
+    private final Map<String, Long> queuedSplitsWeightByNode = new HashMap<>();
 
     public NodeAssignmentStats(NodeTaskMap nodeTaskMap, NodeMap nodeMap, List<RemoteTask> existingTasks)
     {
         this.nodeTaskMap = requireNonNull(nodeTaskMap, "nodeTaskMap is null");
 
-        // pre-populate the assignment counts with zeros. This makes getOrDefault() faster
+        // pre-populate the assignment weights with zeros. This makes getOrDefault() faster
         for (InternalNode node : nodeMap.getNodesByHostAndPort().values()) {
-            assignmentCount.put(node, 0);
+            assignmentWeight.put(node, 0L);
         }
 
         for (RemoteTask task : existingTasks) {
-            checkArgument(queuedSplitCountByNode.put(task.getNodeId(), task.getQueuedPartitionedSplitCount()) == null, "A single stage may not have multiple tasks running on the same node");
+            checkArgument(queuedSplitsWeightByNode.put(task.getNodeId(), task.getQueuedPartitionedSplitsInfo().getWeightSum()) == null, "A single stage may not have multiple tasks running on the same node");
         }
     }
 
-    public int getTotalSplitCount(InternalNode node)
+    public long getTotalSplitsWeight(InternalNode node)
     {
-        return assignmentCount.getOrDefault(node, 0) + splitCountByNode.computeIfAbsent(node, nodeTaskMap::getPartitionedSplitsOnNode);
+        long nodeSplitsWeight = splitsWeightByNode.computeIfAbsent(node, key -> nodeTaskMap.getPartitionedSplitsOnNode(key).getWeightSum());
+        return addExact(assignmentWeight.getOrDefault(node, 0L), nodeSplitsWeight);
     }
 
-    public int getQueuedSplitCountForStage(InternalNode node)
+    public long getQueuedSplitsWeightForStage(InternalNode node)
     {
-        return queuedSplitCountByNode.getOrDefault(node.getNodeIdentifier(), 0) + assignmentCount.getOrDefault(node, 0);
+        return addExact(queuedSplitsWeightByNode.getOrDefault(node.getNodeIdentifier(), 0L), assignmentWeight.getOrDefault(node, 0L));
     }
 
-    public void addAssignedSplit(InternalNode node)
+    public void addAssignedSplit(InternalNode node, SplitWeight splitWeight)
     {
-        assignmentCount.merge(node, 1, (x, y) -> x + y);
+        assignmentWeight.merge(node, splitWeight.getRawValue(), Math::addExact);
     }
 
-    public void removeAssignedSplit(InternalNode node)
+    public void removeAssignedSplit(InternalNode node, SplitWeight splitWeight)
     {
-        assignmentCount.merge(node, 1, (x, y) -> x - y);
+        assignmentWeight.merge(node, splitWeight.getRawValue(), (x, y) -> x - y);
     }
 }
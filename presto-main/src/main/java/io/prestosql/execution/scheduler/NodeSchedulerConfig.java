@@ -36,6 +36,7 @@ public class NodeSchedulerConfig
     private int maxPendingSplitsPerTask = 10;
     private NodeSchedulerPolicy nodeSchedulerPolicy = NodeSchedulerPolicy.UNIFORM;
     private boolean optimizedLocalScheduling = true;
+    private boolean softAffinityScheduling;
 
     @NotNull
     public NodeSchedulerPolicy getNodeSchedulerPolicy()
@@ -127,4 +128,16 @@ public class NodeSchedulerConfig
         this.optimizedLocalScheduling = optimizedLocalScheduling;
         return this;
     }
+
+    public boolean isSoftAffinityScheduling()
+    {
+        return softAffinityScheduling;
+    }
+
+    @Config("node-scheduler.soft-affinity-scheduling")
+    public NodeSchedulerConfig setSoftAffinityScheduling(boolean softAffinityScheduling)
+    {
+        this.softAffinityScheduling = softAffinityScheduling;
+        return this;
+    }
 }
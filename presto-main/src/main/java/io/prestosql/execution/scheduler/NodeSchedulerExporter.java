@@ -35,7 +35,7 @@ public final class NodeSchedulerExporter
     private final List<MBeanExport> mbeanExports = new ArrayList<>();
 
     @Inject
-    public NodeSchedulerExporter(TopologyAwareNodeSelectorFactory nodeSelectorFactory, MBeanExporter exporter)
+    public NodeSchedulerExporter(NodeSelectorFactory nodeSelectorFactory, MBeanExporter exporter)
     {
         requireNonNull(nodeSelectorFactory, "nodeSelectorFactory is null");
         requireNonNull(exporter, "exporter is null");
@@ -13,11 +13,22 @@
  */
 package io.prestosql.execution.scheduler;
 
+import com.google.common.collect.ImmutableMap;
+import io.airlift.stats.CounterStat;
 import io.prestosql.connector.CatalogName;
 
+import java.util.Map;
 import java.util.Optional;
 
 public interface NodeSelectorFactory
 {
     NodeSelector createNodeSelector(Optional<CatalogName> catalogName);
+
+    /**
+     * Counters of split placements, exported by {@link NodeSchedulerExporter}.
+     */
+    default Map<String, CounterStat> getPlacementCountersByName()
+    {
+        return ImmutableMap.of();
+    }
 }
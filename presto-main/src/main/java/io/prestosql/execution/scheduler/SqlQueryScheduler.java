@@ -41,8 +41,10 @@ import io.prestosql.execution.buffer.OutputBuffers;
 import io.prestosql.execution.buffer.OutputBuffers.OutputBufferId;
 import io.prestosql.failuredetector.FailureDetector;
 import io.prestosql.metadata.InternalNode;
+import io.prestosql.server.DynamicFilterService;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.connector.ConnectorPartitionHandle;
+import io.prestosql.spi.predicate.Domain;
 import io.prestosql.split.SplitSource;
 import io.prestosql.sql.planner.NodePartitionMap;
 import io.prestosql.sql.planner.NodePartitioningManager;
@@ -77,11 +79,13 @@ import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.Sets.newConcurrentHashSet;
+import static com.google.common.util.concurrent.Futures.nonCancellationPropagating;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.airlift.concurrent.MoreFutures.tryGetFutureValue;
 import static io.airlift.concurrent.MoreFutures.whenAnyComplete;
 import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
 import static io.prestosql.SystemSessionProperties.getConcurrentLifespansPerNode;
+import static io.prestosql.SystemSessionProperties.getDynamicFilteringWaitTimeout;
 import static io.prestosql.SystemSessionProperties.getWriterMinSize;
 import static io.prestosql.connector.CatalogName.isInternalSystemConnector;
 import static io.prestosql.execution.BasicStageStats.aggregateBasicStageStats;
@@ -104,6 +108,7 @@ import static io.prestosql.util.Failures.checkCondition;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.toList;
@@ -120,6 +125,7 @@ public class SqlQueryScheduler
     private final Map<StageId, StageLinkage> stageLinkages;
     private final SplitSchedulerStats schedulerStats;
     private final boolean summarizeTaskInfo;
+    private final DynamicFilterService dynamicFilterService;
     private final AtomicBoolean started = new AtomicBoolean();
 
     public static SqlQueryScheduler createSqlQueryScheduler(
@@ -138,7 +144,8 @@ public class SqlQueryScheduler
             OutputBuffers rootOutputBuffers,
             NodeTaskMap nodeTaskMap,
             ExecutionPolicy executionPolicy,
-            SplitSchedulerStats schedulerStats)
+            SplitSchedulerStats schedulerStats,
+            DynamicFilterService dynamicFilterService)
     {
         SqlQueryScheduler sqlQueryScheduler = new SqlQueryScheduler(
                 queryStateMachine,
@@ -156,7 +163,8 @@ public class SqlQueryScheduler
                 rootOutputBuffers,
                 nodeTaskMap,
                 executionPolicy,
-                schedulerStats);
+                schedulerStats,
+                dynamicFilterService);
         sqlQueryScheduler.initialize();
         return sqlQueryScheduler;
     }
@@ -177,12 +185,14 @@ public class SqlQueryScheduler
             OutputBuffers rootOutputBuffers,
             NodeTaskMap nodeTaskMap,
             ExecutionPolicy executionPolicy,
-            SplitSchedulerStats schedulerStats)
+            SplitSchedulerStats schedulerStats,
+            DynamicFilterService dynamicFilterService)
     {
         this.queryStateMachine = requireNonNull(queryStateMachine, "queryStateMachine is null");
         this.executionPolicy = requireNonNull(executionPolicy, "schedulerPolicyFactory is null");
         this.schedulerStats = requireNonNull(schedulerStats, "schedulerStats is null");
         this.summarizeTaskInfo = summarizeTaskInfo;
+        this.dynamicFilterService = requireNonNull(dynamicFilterService, "dynamicFilterService is null");
 
         // todo come up with a better way to build this, or eliminate this map
         ImmutableMap.Builder<StageId, StageScheduler> stageSchedulers = ImmutableMap.builder();
@@ -257,6 +267,11 @@ public class SqlQueryScheduler
             });
         }
 
+        // merged dynamic filters are sent to the stages which consume them and are used for split enumeration
+        for (SqlStageExecution stage : stages.values()) {
+            stage.addDynamicFiltersListener(this::updateDynamicFilters);
+        }
+
         // when query is done or any time a stage completes, attempt to transition query to "final query info ready"
         queryStateMachine.addStateChangeListener(newState -> {
             if (newState.isDone()) {
@@ -268,6 +283,17 @@ public class SqlQueryScheduler
         }
     }
 
+    private void updateDynamicFilters(Map<String, Domain> dynamicFilterDomains)
+    {
+        if (queryStateMachine.isDone()) {
+            return;
+        }
+        dynamicFilterService.addDynamicFilterSummaries(queryStateMachine.getQueryId(), dynamicFilterDomains);
+        for (SqlStageExecution stage : stages.values()) {
+            stage.addDynamicFilterDomains(dynamicFilterDomains);
+        }
+    }
+
     private static void updateQueryOutputLocations(QueryStateMachine queryStateMachine, OutputBufferId rootBufferId, Set<RemoteTask> tasks, boolean noMoreExchangeLocations)
     {
         Set<URI> bufferLocations = tasks.stream()
@@ -529,12 +555,24 @@ public class SqlQueryScheduler
     {
         try (SetThreadName ignored = new SetThreadName("Query-%s", queryStateMachine.getQueryId())) {
             Set<StageId> completedStages = new HashSet<>();
+            long dynamicFilteringWaitTimeoutNanos = getDynamicFilteringWaitTimeout(queryStateMachine.getSession()).roundTo(NANOSECONDS);
+            Map<StageId, Long> dynamicFilteringWaitDeadlines = new HashMap<>();
             ExecutionSchedule executionSchedule = executionPolicy.createExecutionSchedule(stages.values());
             while (!executionSchedule.isFinished()) {
                 List<ListenableFuture<?>> blockedStages = new ArrayList<>();
                 for (SqlStageExecution stage : executionSchedule.getStagesToSchedule()) {
                     stage.beginScheduling();
 
+                    // delay the table scans of the probe side of partitioned joins, until the dynamic filters from the build side are collected
+                    ListenableFuture<?> dynamicFiltersCollected = stage.getRemoteDynamicFiltersCollected();
+                    if (!dynamicFiltersCollected.isDone()) {
+                        long deadline = dynamicFilteringWaitDeadlines.computeIfAbsent(stage.getStageId(), stageId -> System.nanoTime() + dynamicFilteringWaitTimeoutNanos);
+                        if (System.nanoTime() < deadline) {
+                            blockedStages.add(nonCancellationPropagating(dynamicFiltersCollected));
+                            continue;
+                        }
+                    }
+
                     // perform some scheduling work
                     ScheduleResult result = stageSchedulers.get(stage.getStageId())
                             .schedule();
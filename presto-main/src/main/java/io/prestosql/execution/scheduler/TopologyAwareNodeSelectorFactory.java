@@ -27,6 +27,7 @@ import io.prestosql.execution.NodeTaskMap;
 import io.prestosql.metadata.InternalNode;
 import io.prestosql.metadata.InternalNodeManager;
 import io.prestosql.spi.HostAddress;
+import io.prestosql.spi.SplitWeight;
 
 import javax.inject.Inject;
 
@@ -105,6 +106,7 @@ public class TopologyAwareNodeSelectorFactory
         this.placementCountersByName = placementCountersByName.build();
     }
 
+    @Override
     public Map<String, CounterStat> getPlacementCountersByName()
     {
         return placementCountersByName;
@@ -127,8 +129,8 @@ public class TopologyAwareNodeSelectorFactory
                 includeCoordinator,
                 nodeMap,
                 minCandidates,
-                maxSplitsPerNode,
-                maxPendingSplitsPerTask,
+                SplitWeight.rawValueForStandardSplitCount(maxSplitsPerNode),
+                SplitWeight.rawValueForStandardSplitCount(maxPendingSplitsPerTask),
                 placementCounters,
                 networkTopology);
     }
@@ -21,6 +21,7 @@ import com.google.common.collect.Multimap;
 import com.google.common.collect.SetMultimap;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.log.Logger;
+import io.airlift.stats.CounterStat;
 import io.prestosql.execution.NodeTaskMap;
 import io.prestosql.execution.RemoteTask;
 import io.prestosql.execution.resourcegroups.IndexedPriorityQueue;
@@ -29,6 +30,9 @@ import io.prestosql.metadata.InternalNodeManager;
 import io.prestosql.metadata.Split;
 import io.prestosql.spi.HostAddress;
 import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.SplitWeight;
+
+import javax.annotation.concurrent.GuardedBy;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
@@ -50,22 +54,31 @@ import static io.prestosql.execution.scheduler.NodeScheduler.selectExactNodes;
 import static io.prestosql.execution.scheduler.NodeScheduler.selectNodes;
 import static io.prestosql.execution.scheduler.NodeScheduler.toWhenHasSplitQueueSpaceFuture;
 import static io.prestosql.spi.StandardErrorCode.NO_NODES_AVAILABLE;
-import static java.util.Comparator.comparingInt;
+import static java.util.Comparator.comparingLong;
 import static java.util.Objects.requireNonNull;
 
 public class UniformNodeSelector
         implements NodeSelector
 {
     private static final Logger log = Logger.get(UniformNodeSelector.class);
+    private static final int AFFINITY_VIRTUAL_NODES_PER_NODE = 100;
 
     private final InternalNodeManager nodeManager;
     private final NodeTaskMap nodeTaskMap;
     private final boolean includeCoordinator;
     private final AtomicReference<Supplier<NodeMap>> nodeMap;
     private final int minCandidates;
-    private final int maxSplitsPerNode;
-    private final int maxPendingSplitsPerTask;
+    private final long maxSplitsWeightPerNode;
+    private final long maxPendingSplitsWeightPerTask;
     private final boolean optimizedLocalScheduling;
+    private final boolean softAffinityScheduling;
+    private final CounterStat affinityHits;
+    private final CounterStat affinityMisses;
+
+    @GuardedBy("this")
+    private NodeMap affinityRingNodeMap;
+    @GuardedBy("this")
+    private ConsistentHashRing affinityRing;
 
     public UniformNodeSelector(
             InternalNodeManager nodeManager,
@@ -73,18 +86,24 @@ public class UniformNodeSelector
             boolean includeCoordinator,
             Supplier<NodeMap> nodeMap,
             int minCandidates,
-            int maxSplitsPerNode,
-            int maxPendingSplitsPerTask,
-            boolean optimizedLocalScheduling)
+            long maxSplitsWeightPerNode,
+            long maxPendingSplitsWeightPerTask,
+            boolean optimizedLocalScheduling,
+            boolean softAffinityScheduling,
+            CounterStat affinityHits,
+            CounterStat affinityMisses)
     {
         this.nodeManager = requireNonNull(nodeManager, "nodeManager is null");
         this.nodeTaskMap = requireNonNull(nodeTaskMap, "nodeTaskMap is null");
         this.includeCoordinator = includeCoordinator;
         this.nodeMap = new AtomicReference<>(nodeMap);
         this.minCandidates = minCandidates;
-        this.maxSplitsPerNode = maxSplitsPerNode;
-        this.maxPendingSplitsPerTask = maxPendingSplitsPerTask;
+        this.maxSplitsWeightPerNode = maxSplitsWeightPerNode;
+        this.maxPendingSplitsWeightPerTask = maxPendingSplitsWeightPerTask;
         this.optimizedLocalScheduling = optimizedLocalScheduling;
+        this.softAffinityScheduling = softAffinityScheduling;
+        this.affinityHits = requireNonNull(affinityHits, "affinityHits is null");
+        this.affinityMisses = requireNonNull(affinityMisses, "affinityMisses is null");
     }
 
     @Override
@@ -133,12 +152,12 @@ public class UniformNodeSelector
                     List<InternalNode> candidateNodes = selectExactNodes(nodeMap, split.getAddresses(), includeCoordinator);
 
                     Optional<InternalNode> chosenNode = candidateNodes.stream()
-                            .filter(ownerNode -> assignmentStats.getTotalSplitCount(ownerNode) < maxSplitsPerNode)
-                            .min(comparingInt(assignmentStats::getTotalSplitCount));
+                            .filter(ownerNode -> assignmentStats.getTotalSplitsWeight(ownerNode) < maxSplitsWeightPerNode)
+                            .min(comparingLong(assignmentStats::getTotalSplitsWeight));
 
                     if (chosenNode.isPresent()) {
                         assignment.put(chosenNode.get(), split);
-                        assignmentStats.addAssignedSplit(chosenNode.get());
+                        assignmentStats.addAssignedSplit(chosenNode.get(), split.getSplitWeight());
                         splitsToBeRedistributed = true;
                         continue;
                     }
@@ -150,7 +169,28 @@ public class UniformNodeSelector
             remainingSplits = splits;
         }
 
+        // softAffinityScheduling prefers the node that owns the affinity key of a split, so that splits reading
+        // the same data are scheduled on the same node across queries and node-local caches are reused
+        ConsistentHashRing affinityRing = softAffinityScheduling ? getAffinityRing(nodeMap) : null;
+        long hits = 0;
+        long misses = 0;
+
         for (Split split : remainingSplits) {
+            if (affinityRing != null && split.isRemotelyAccessible()) {
+                Optional<String> affinityKey = split.getAffinityKey();
+                if (affinityKey.isPresent()) {
+                    Optional<InternalNode> preferredNode = affinityRing.getNode(affinityKey.get());
+                    if (preferredNode.isPresent() && assignmentStats.getTotalSplitsWeight(preferredNode.get()) < maxSplitsWeightPerNode) {
+                        assignment.put(preferredNode.get(), split);
+                        assignmentStats.addAssignedSplit(preferredNode.get(), split.getSplitWeight());
+                        hits++;
+                        continue;
+                    }
+                    // preferred node is over its split budget, fall back to the least loaded candidate
+                    misses++;
+                }
+            }
+
             randomCandidates.reset();
 
             List<InternalNode> candidateNodes;
@@ -166,28 +206,28 @@ public class UniformNodeSelector
             }
 
             InternalNode chosenNode = null;
-            int min = Integer.MAX_VALUE;
+            long minWeight = Long.MAX_VALUE;
 
             for (InternalNode node : candidateNodes) {
-                int totalSplitCount = assignmentStats.getTotalSplitCount(node);
-                if (totalSplitCount < min && totalSplitCount < maxSplitsPerNode) {
+                long totalSplitsWeight = assignmentStats.getTotalSplitsWeight(node);
+                if (totalSplitsWeight < minWeight && totalSplitsWeight < maxSplitsWeightPerNode) {
                     chosenNode = node;
-                    min = totalSplitCount;
+                    minWeight = totalSplitsWeight;
                 }
             }
             if (chosenNode == null) {
-                // min is guaranteed to be MAX_VALUE at this line
+                // minWeight is guaranteed to be MAX_VALUE at this line
                 for (InternalNode node : candidateNodes) {
-                    int totalSplitCount = assignmentStats.getQueuedSplitCountForStage(node);
-                    if (totalSplitCount < min && totalSplitCount < maxPendingSplitsPerTask) {
+                    long queuedSplitsWeight = assignmentStats.getQueuedSplitsWeightForStage(node);
+                    if (queuedSplitsWeight < minWeight && queuedSplitsWeight < maxPendingSplitsWeightPerTask) {
                         chosenNode = node;
-                        min = totalSplitCount;
+                        minWeight = queuedSplitsWeight;
                     }
                 }
             }
             if (chosenNode != null) {
                 assignment.put(chosenNode, split);
-                assignmentStats.addAssignedSplit(chosenNode);
+                assignmentStats.addAssignedSplit(chosenNode, split.getSplitWeight());
             }
             else {
                 if (split.isRemotelyAccessible()) {
@@ -200,12 +240,19 @@ public class UniformNodeSelector
             }
         }
 
+        if (hits > 0) {
+            affinityHits.update(hits);
+        }
+        if (misses > 0) {
+            affinityMisses.update(misses);
+        }
+
         ListenableFuture<?> blocked;
         if (splitWaitingForAnyNode) {
-            blocked = toWhenHasSplitQueueSpaceFuture(existingTasks, calculateLowWatermark(maxPendingSplitsPerTask));
+            blocked = toWhenHasSplitQueueSpaceFuture(existingTasks, calculateLowWatermark(maxPendingSplitsWeightPerTask));
         }
         else {
-            blocked = toWhenHasSplitQueueSpaceFuture(blockedExactNodes, existingTasks, calculateLowWatermark(maxPendingSplitsPerTask));
+            blocked = toWhenHasSplitQueueSpaceFuture(blockedExactNodes, existingTasks, calculateLowWatermark(maxPendingSplitsWeightPerTask));
         }
 
         if (splitsToBeRedistributed) {
@@ -217,12 +264,22 @@ public class UniformNodeSelector
     @Override
     public SplitPlacementResult computeAssignments(Set<Split> splits, List<RemoteTask> existingTasks, BucketNodeMap bucketNodeMap)
     {
-        return selectDistributionNodes(nodeMap.get().get(), nodeTaskMap, maxSplitsPerNode, maxPendingSplitsPerTask, splits, existingTasks, bucketNodeMap);
+        return selectDistributionNodes(nodeMap.get().get(), nodeTaskMap, maxSplitsWeightPerNode, maxPendingSplitsWeightPerTask, splits, existingTasks, bucketNodeMap);
+    }
+
+    private synchronized ConsistentHashRing getAffinityRing(NodeMap nodeMap)
+    {
+        // the node map is refreshed periodically, so rebuild the ring only when it changes
+        if (affinityRingNodeMap != nodeMap) {
+            affinityRing = new ConsistentHashRing(getAllNodes(nodeMap, includeCoordinator), AFFINITY_VIRTUAL_NODES_PER_NODE);
+            affinityRingNodeMap = nodeMap;
+        }
+        return affinityRing;
     }
 
     /**
      * The method tries to make the distribution of splits more uniform. All nodes are arranged into a maxHeap and a minHeap
-     * based on the number of splits that are assigned to them. Splits are redistributed, one at a time, from a maxNode to a
+     * based on the total weight of the splits that are assigned to them. Splits are redistributed, one at a time, from a maxNode to a
      * minNode until we have as uniform a distribution as possible.
      * @param assignment the node-splits multimap after the first and the second stage
      * @param assignmentStats required to obtain info regarding splits assigned to a node outside the current batch of assignment
@@ -244,12 +301,12 @@ public class UniformNodeSelector
 
         IndexedPriorityQueue<InternalNode> maxNodes = new IndexedPriorityQueue<>();
         for (InternalNode node : assignment.keySet()) {
-            maxNodes.addOrUpdate(node, assignmentStats.getTotalSplitCount(node));
+            maxNodes.addOrUpdate(node, assignmentStats.getTotalSplitsWeight(node));
         }
 
         IndexedPriorityQueue<InternalNode> minNodes = new IndexedPriorityQueue<>();
         for (InternalNode node : allNodes) {
-            minNodes.addOrUpdate(node, Long.MAX_VALUE - assignmentStats.getTotalSplitCount(node));
+            minNodes.addOrUpdate(node, Long.MAX_VALUE - assignmentStats.getTotalSplitsWeight(node));
         }
 
         while (true) {
@@ -261,24 +318,24 @@ public class UniformNodeSelector
             InternalNode maxNode = maxNodes.poll();
             InternalNode minNode = minNodes.poll();
 
-            if (assignmentStats.getTotalSplitCount(maxNode) - assignmentStats.getTotalSplitCount(minNode) <= 1) {
+            if (assignmentStats.getTotalSplitsWeight(maxNode) - assignmentStats.getTotalSplitsWeight(minNode) <= SplitWeight.rawValueForStandardSplitCount(1)) {
                 return;
             }
 
             // move split from max to min
-            redistributeSplit(assignment, maxNode, minNode, nodeMap.getNodesByHost());
-            assignmentStats.removeAssignedSplit(maxNode);
-            assignmentStats.addAssignedSplit(minNode);
+            Split redistributedSplit = redistributeSplit(assignment, maxNode, minNode, nodeMap.getNodesByHost());
+            assignmentStats.removeAssignedSplit(maxNode, redistributedSplit.getSplitWeight());
+            assignmentStats.addAssignedSplit(minNode, redistributedSplit.getSplitWeight());
 
             // add max back into maxNodes only if it still has assignments
             if (assignment.containsKey(maxNode)) {
-                maxNodes.addOrUpdate(maxNode, assignmentStats.getTotalSplitCount(maxNode));
+                maxNodes.addOrUpdate(maxNode, assignmentStats.getTotalSplitsWeight(maxNode));
             }
 
             // Add or update both the Priority Queues with the updated node priorities
-            maxNodes.addOrUpdate(minNode, assignmentStats.getTotalSplitCount(minNode));
-            minNodes.addOrUpdate(minNode, Long.MAX_VALUE - assignmentStats.getTotalSplitCount(minNode));
-            minNodes.addOrUpdate(maxNode, Long.MAX_VALUE - assignmentStats.getTotalSplitCount(maxNode));
+            maxNodes.addOrUpdate(minNode, assignmentStats.getTotalSplitsWeight(minNode));
+            minNodes.addOrUpdate(minNode, Long.MAX_VALUE - assignmentStats.getTotalSplitsWeight(minNode));
+            minNodes.addOrUpdate(maxNode, Long.MAX_VALUE - assignmentStats.getTotalSplitsWeight(maxNode));
         }
     }
 
@@ -286,9 +343,10 @@ public class UniformNodeSelector
      * The method selects and removes a split from the fromNode and assigns it to the toNode. There is an attempt to
      * redistribute a Non-local split if possible. This case is possible when there are multiple queries running
      * simultaneously. If a Non-local split cannot be found in the maxNode, any split is selected randomly and reassigned.
+     * Returns the split that was reassigned.
      */
     @VisibleForTesting
-    public static void redistributeSplit(Multimap<InternalNode, Split> assignment, InternalNode fromNode, InternalNode toNode, SetMultimap<InetAddress, InternalNode> nodesByHost)
+    public static Split redistributeSplit(Multimap<InternalNode, Split> assignment, InternalNode fromNode, InternalNode toNode, SetMultimap<InetAddress, InternalNode> nodesByHost)
     {
         Iterator<Split> splitIterator = assignment.get(fromNode).iterator();
         Split splitToBeRedistributed = null;
@@ -307,6 +365,7 @@ public class UniformNodeSelector
         }
         splitIterator.remove();
         assignment.put(toNode, splitToBeRedistributed);
+        return splitToBeRedistributed;
     }
 
     /**
@@ -16,18 +16,22 @@ package io.prestosql.execution.scheduler;
 import com.google.common.base.Suppliers;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSetMultimap;
 import io.airlift.log.Logger;
+import io.airlift.stats.CounterStat;
 import io.prestosql.connector.CatalogName;
 import io.prestosql.execution.NodeTaskMap;
 import io.prestosql.metadata.InternalNode;
 import io.prestosql.metadata.InternalNodeManager;
 import io.prestosql.spi.HostAddress;
+import io.prestosql.spi.SplitWeight;
 
 import javax.inject.Inject;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -53,7 +57,10 @@ public class UniformNodeSelectorFactory
     private final int maxSplitsPerNode;
     private final int maxPendingSplitsPerTask;
     private final boolean optimizedLocalScheduling;
+    private final boolean softAffinityScheduling;
     private final NodeTaskMap nodeTaskMap;
+    private final CounterStat affinityHits = new CounterStat();
+    private final CounterStat affinityMisses = new CounterStat();
 
     @Inject
     public UniformNodeSelectorFactory(
@@ -71,10 +78,19 @@ public class UniformNodeSelectorFactory
         this.maxSplitsPerNode = config.getMaxSplitsPerNode();
         this.maxPendingSplitsPerTask = config.getMaxPendingSplitsPerTask();
         this.optimizedLocalScheduling = config.getOptimizedLocalScheduling();
+        this.softAffinityScheduling = config.isSoftAffinityScheduling();
         this.nodeTaskMap = requireNonNull(nodeTaskMap, "nodeTaskMap is null");
         checkArgument(maxSplitsPerNode >= maxPendingSplitsPerTask, "maxSplitsPerNode must be > maxPendingSplitsPerTask");
     }
 
+    @Override
+    public Map<String, CounterStat> getPlacementCountersByName()
+    {
+        return ImmutableMap.of(
+                "affinity_hit", affinityHits,
+                "affinity_miss", affinityMisses);
+    }
+
     @Override
     public NodeSelector createNodeSelector(Optional<CatalogName> catalogName)
     {
@@ -92,9 +108,12 @@ public class UniformNodeSelectorFactory
                 includeCoordinator,
                 nodeMap,
                 minCandidates,
-                maxSplitsPerNode,
-                maxPendingSplitsPerTask,
-                optimizedLocalScheduling);
+                SplitWeight.rawValueForStandardSplitCount(maxSplitsPerNode),
+                SplitWeight.rawValueForStandardSplitCount(maxPendingSplitsPerTask),
+                optimizedLocalScheduling,
+                softAffinityScheduling,
+                affinityHits,
+                affinityMisses);
     }
 
     private NodeMap createNodeMap(Optional<CatalogName> catalogName)
@@ -24,5 +24,6 @@ public class UniformNodeSelectorModule
     public void configure(Binder binder)
     {
         binder.bind(NodeSelectorFactory.class).to(UniformNodeSelectorFactory.class).in(Scopes.SINGLETON);
+        binder.bind(NodeSchedulerExporter.class).in(Scopes.SINGLETON);
     }
 }
@@ -54,6 +54,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
@@ -65,6 +66,7 @@ import java.util.function.Supplier;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.base.Verify.verifyNotNull;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.MoreCollectors.toOptional;
 import static com.google.common.collect.Sets.difference;
@@ -104,6 +106,7 @@ public class ClusterMemoryManager
     private final boolean enabled;
     private final LowMemoryKiller lowMemoryKiller;
     private final Duration killOnOutOfMemoryDelay;
+    private final boolean lowMemoryRevokingEnabled;
     private final String coordinatorId;
     private final AtomicLong totalAvailableProcessors = new AtomicLong();
     private final AtomicLong memoryPoolAssignmentsVersion = new AtomicLong();
@@ -111,6 +114,7 @@ public class ClusterMemoryManager
     private final AtomicLong clusterTotalMemoryReservation = new AtomicLong();
     private final AtomicLong clusterMemoryBytes = new AtomicLong();
     private final AtomicLong queriesKilledDueToOutOfMemory = new AtomicLong();
+    private final AtomicLong queriesRevokedDueToLowMemory = new AtomicLong();
     private final boolean isWorkScheduledOnCoordinator;
 
     @GuardedBy("this")
@@ -128,6 +132,9 @@ public class ClusterMemoryManager
     @GuardedBy("this")
     private QueryId lastKilledQuery;
 
+    @GuardedBy("this")
+    private final Set<QueryId> memoryRevokingQueries = new HashSet<>();
+
     @Inject
     public ClusterMemoryManager(
             @ForMemoryManager HttpClient httpClient,
@@ -159,6 +166,7 @@ public class ClusterMemoryManager
         this.coordinatorId = queryIdGenerator.getCoordinatorId();
         this.enabled = serverConfig.isCoordinator();
         this.killOnOutOfMemoryDelay = config.getKillOnOutOfMemoryDelay();
+        this.lowMemoryRevokingEnabled = config.isLowMemoryRevokingEnabled();
         this.isWorkScheduledOnCoordinator = schedulerConfig.isIncludeCoordinator();
 
         verify(maxQueryMemory.toBytes() <= maxQueryTotalMemory.toBytes(),
@@ -253,6 +261,11 @@ public class ClusterMemoryManager
         clusterUserMemoryReservation.set(totalUserMemoryBytes);
         clusterTotalMemoryReservation.set(totalMemoryBytes);
 
+        if (lowMemoryRevokingEnabled && !queryKilled) {
+            // revoking does not postpone the killer, which only acts once the nodes stay blocked for killOnOutOfMemoryDelay
+            requestMemoryRevoking(runningQueries);
+        }
+
         if (!(lowMemoryKiller instanceof NoneLowMemoryKiller) &&
                 outOfMemory &&
                 !queryKilled &&
@@ -282,11 +295,70 @@ public class ClusterMemoryManager
             // in the general pool (as they already are). In this case we create an effectively NOOP MemoryPoolAssignmentsRequest.
             // Once the reserved pool is removed we should get rid of the logic of putting queries into reserved pool including
             // this piece of code.
-            assignmentsRequest = new MemoryPoolAssignmentsRequest(coordinatorId, Long.MIN_VALUE, ImmutableList.of());
+            assignmentsRequest = new MemoryPoolAssignmentsRequest(coordinatorId, Long.MIN_VALUE, ImmutableList.of(), ImmutableSet.copyOf(memoryRevokingQueries));
         }
         updateNodes(assignmentsRequest);
     }
 
+    /**
+     * When nodes have filled their general pool, ask the queries with the most revocable memory in the
+     * cluster to spill on all nodes, until the requested revocable memory covers the memory missing on
+     * those nodes. Every query is selected at most once until the pressure goes away, so the killer
+     * is still invoked if revoking does not help. Workers request revoking once for every query selected.
+     */
+    private synchronized void requestMemoryRevoking(Iterable<QueryExecution> runningQueries)
+    {
+        long bytesToFree = nodes.values().stream()
+                .map(RemoteNodeMemory::getInfo)
+                .filter(Optional::isPresent)
+                .map(info -> info.get().getPools().get(GENERAL_POOL))
+                .filter(Objects::nonNull)
+                .filter(pool -> pool.getFreeBytes() <= 0 && pool.getReservedRevocableBytes() > 0)
+                .mapToLong(pool -> Math.max(1, -pool.getFreeBytes()))
+                .sum();
+        if (bytesToFree == 0) {
+            memoryRevokingQueries.clear();
+            return;
+        }
+
+        Set<QueryId> runningQueryIds = Streams.stream(runningQueries)
+                .map(QueryExecution::getQueryId)
+                .collect(toImmutableSet());
+        memoryRevokingQueries.retainAll(runningQueryIds);
+
+        Map<QueryId, Long> candidates = pools.get(GENERAL_POOL).getQueryMemoryRevocableReservations().entrySet().stream()
+                .filter(entry -> runningQueryIds.contains(entry.getKey()))
+                .filter(entry -> !memoryRevokingQueries.contains(entry.getKey()))
+                .collect(toImmutableMap(Entry::getKey, Entry::getValue));
+        List<QueryId> chosenQueries = chooseQueriesToRevoke(candidates, bytesToFree);
+        if (chosenQueries.isEmpty()) {
+            return;
+        }
+
+        log.info("Cluster is low on memory, requesting %s to revoke memory", chosenQueries);
+        memoryRevokingQueries.addAll(chosenQueries);
+        queriesRevokedDueToLowMemory.addAndGet(chosenQueries.size());
+    }
+
+    @VisibleForTesting
+    static List<QueryId> chooseQueriesToRevoke(Map<QueryId, Long> queryRevocableMemoryReservations, long bytesToFree)
+    {
+        ImmutableList.Builder<QueryId> chosenQueries = ImmutableList.builder();
+        long remainingBytes = bytesToFree;
+        List<Entry<QueryId, Long>> queriesByRevocableMemory = queryRevocableMemoryReservations.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Entry.<QueryId, Long>comparingByValue().reversed())
+                .collect(toImmutableList());
+        for (Entry<QueryId, Long> entry : queriesByRevocableMemory) {
+            if (remainingBytes <= 0) {
+                break;
+            }
+            chosenQueries.add(entry.getKey());
+            remainingBytes -= entry.getValue();
+        }
+        return chosenQueries.build();
+    }
+
     private synchronized void callOomKiller(Iterable<QueryExecution> runningQueries)
     {
         List<QueryMemoryInfo> queryMemoryInfoList = Streams.stream(runningQueries)
@@ -418,7 +490,7 @@ public class ClusterMemoryManager
         for (QueryExecution queryExecution : queries) {
             assignments.add(new MemoryPoolAssignment(queryExecution.getQueryId(), queryExecution.getMemoryPool().getId()));
         }
-        return new MemoryPoolAssignmentsRequest(coordinatorId, version, assignments.build());
+        return new MemoryPoolAssignmentsRequest(coordinatorId, version, assignments.build(), ImmutableSet.copyOf(memoryRevokingQueries));
     }
 
     private QueryMemoryInfo createQueryMemoryInfo(QueryExecution query)
@@ -576,4 +648,10 @@ public class ClusterMemoryManager
     {
         return queriesKilledDueToOutOfMemory.get();
     }
+
+    @Managed
+    public long getQueriesRevokedDueToLowMemory()
+    {
+        return queriesRevokedDueToLowMemory.get();
+    }
 }
@@ -41,6 +41,7 @@ public class MemoryManagerConfig
     private DataSize maxQueryTotalMemory;
     private LowMemoryKillerPolicy lowMemoryKillerPolicy = LowMemoryKillerPolicy.TOTAL_RESERVATION_ON_BLOCKED_NODES;
     private Duration killOnOutOfMemoryDelay = new Duration(5, MINUTES);
+    private boolean lowMemoryRevokingEnabled;
 
     public LowMemoryKillerPolicy getLowMemoryKillerPolicy()
     {
@@ -69,6 +70,19 @@ public class MemoryManagerConfig
         return this;
     }
 
+    public boolean isLowMemoryRevokingEnabled()
+    {
+        return lowMemoryRevokingEnabled;
+    }
+
+    @Config("query.low-memory-revoking.enabled")
+    @ConfigDescription("Request the queries with the most revocable memory to spill when the cluster runs low on memory, before invoking killer")
+    public MemoryManagerConfig setLowMemoryRevokingEnabled(boolean lowMemoryRevokingEnabled)
+    {
+        this.lowMemoryRevokingEnabled = lowMemoryRevokingEnabled;
+        return this;
+    }
+
     @NotNull
     public DataSize getMaxQueryMemory()
     {
@@ -16,8 +16,11 @@ package io.prestosql.memory;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.prestosql.spi.QueryId;
 
 import java.util.List;
+import java.util.Set;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static java.util.Objects.requireNonNull;
@@ -27,13 +30,19 @@ public class MemoryPoolAssignmentsRequest
     private final String coordinatorId;
     private final long version;
     private final List<MemoryPoolAssignment> assignments;
+    private final Set<QueryId> memoryRevokingQueries;
 
     @JsonCreator
-    public MemoryPoolAssignmentsRequest(@JsonProperty("coordinatorId") String coordinatorId, @JsonProperty("version") long version, @JsonProperty("assignments") List<MemoryPoolAssignment> assignments)
+    public MemoryPoolAssignmentsRequest(
+            @JsonProperty("coordinatorId") String coordinatorId,
+            @JsonProperty("version") long version,
+            @JsonProperty("assignments") List<MemoryPoolAssignment> assignments,
+            @JsonProperty("memoryRevokingQueries") Set<QueryId> memoryRevokingQueries)
     {
         this.coordinatorId = requireNonNull(coordinatorId, "coordinatorId is null");
         this.version = version;
         this.assignments = ImmutableList.copyOf(requireNonNull(assignments, "assignments is null"));
+        this.memoryRevokingQueries = ImmutableSet.copyOf(requireNonNull(memoryRevokingQueries, "memoryRevokingQueries is null"));
     }
 
     @JsonProperty
@@ -54,12 +63,22 @@ public class MemoryPoolAssignmentsRequest
         return assignments;
     }
 
+    /**
+     * Queries whose tasks should revoke (spill) their revocable memory.
+     */
+    @JsonProperty
+    public Set<QueryId> getMemoryRevokingQueries()
+    {
+        return memoryRevokingQueries;
+    }
+
     @Override
     public String toString()
     {
         return toStringHelper(this)
                 .add("version", version)
                 .add("assignments", assignments)
+                .add("memoryRevokingQueries", memoryRevokingQueries)
                 .toString();
     }
 }
@@ -18,9 +18,11 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import io.prestosql.connector.CatalogName;
 import io.prestosql.execution.Lifespan;
 import io.prestosql.spi.HostAddress;
+import io.prestosql.spi.SplitWeight;
 import io.prestosql.spi.connector.ConnectorSplit;
 
 import java.util.List;
+import java.util.Optional;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static java.util.Objects.requireNonNull;
@@ -75,6 +77,16 @@ public final class Split
         return connectorSplit.isRemotelyAccessible();
     }
 
+    public SplitWeight getSplitWeight()
+    {
+        return connectorSplit.getSplitWeight();
+    }
+
+    public Optional<String> getAffinityKey()
+    {
+        return connectorSplit.getAffinityKey();
+    }
+
     @Override
     public String toString()
     {
@@ -0,0 +1,168 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.type.Type;
+import org.openjdk.jol.info.ClassLayout;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Register-blocked bloom filter: all the bits of a single value are set within a single
+ * 64-bit word, so that both insertion and lookup touch exactly one memory location.
+ * <p>
+ * Used by dynamic filtering for join build sides which are too large to be collected
+ * as a set of discrete values. A value not contained in the filter is guaranteed
+ * not to have been added, while the opposite may yield false positives.
+ * Null values are never added and never match, like inner join keys.
+ */
+public final class BlockedBloomFilter
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(BlockedBloomFilter.class).instanceSize();
+
+    // each value sets up to BITS_PER_VALUE bits (6 hash bits per bit index) within a single word
+    private static final int BITS_PER_VALUE = 4;
+    private static final int BIT_INDEX_SIZE = 6;
+    private static final long BIT_INDEX_MASK = (1L << BIT_INDEX_SIZE) - 1;
+    private static final int WORD_INDEX_SHIFT = 32;
+
+    private static final int MAX_WORDS = 1 << 30;
+
+    private final Type type;
+    private final long[] words;
+    private final int wordMask;
+
+    /**
+     * Creates an empty filter, which uses at most {@code maxSizeInBytes} bytes for its bit array.
+     * The actual size is rounded down to a power of two.
+     */
+    public BlockedBloomFilter(Type type, long maxSizeInBytes)
+    {
+        this(type, new long[wordCount(maxSizeInBytes)]);
+    }
+
+    private BlockedBloomFilter(Type type, long[] words)
+    {
+        this.type = requireNonNull(type, "type is null");
+        this.words = requireNonNull(words, "words is null");
+        checkArgument(Integer.bitCount(words.length) == 1, "words length must be a power of two");
+        this.wordMask = words.length - 1;
+    }
+
+    private static int wordCount(long maxSizeInBytes)
+    {
+        checkArgument(maxSizeInBytes >= Long.BYTES, "maxSizeInBytes must be at least %s", Long.BYTES);
+        return Integer.highestOneBit(toIntExact(Math.min(maxSizeInBytes / Long.BYTES, MAX_WORDS)));
+    }
+
+    public Type getType()
+    {
+        return type;
+    }
+
+    public void put(Block block, int position)
+    {
+        if (block.isNull(position)) {
+            return;
+        }
+        long hash = mix(type.hash(block, position));
+        words[wordIndex(hash)] |= bitMask(hash);
+    }
+
+    public boolean mightContain(Block block, int position)
+    {
+        if (block.isNull(position)) {
+            return false;
+        }
+        long hash = mix(type.hash(block, position));
+        long mask = bitMask(hash);
+        return (words[wordIndex(hash)] & mask) == mask;
+    }
+
+    /**
+     * Returns a filter which may contain every value contained in either of the filters.
+     */
+    public BlockedBloomFilter union(BlockedBloomFilter other)
+    {
+        checkCompatible(other);
+        long[] result = new long[words.length];
+        for (int i = 0; i < words.length; i++) {
+            result[i] = words[i] | other.words[i];
+        }
+        return new BlockedBloomFilter(type, result);
+    }
+
+    /**
+     * Returns a filter which may contain every value contained in both of the filters.
+     */
+    public BlockedBloomFilter intersect(BlockedBloomFilter other)
+    {
+        checkCompatible(other);
+        long[] result = new long[words.length];
+        for (int i = 0; i < words.length; i++) {
+            result[i] = words[i] & other.words[i];
+        }
+        return new BlockedBloomFilter(type, result);
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(words);
+    }
+
+    private void checkCompatible(BlockedBloomFilter other)
+    {
+        checkArgument(type.equals(other.type), "Mismatched types: %s vs %s", type, other.type);
+        checkArgument(words.length == other.words.length, "Mismatched sizes: %s vs %s", words.length, other.words.length);
+    }
+
+    private int wordIndex(long hash)
+    {
+        return (int) (hash >>> WORD_INDEX_SHIFT) & wordMask;
+    }
+
+    private static long bitMask(long hash)
+    {
+        long mask = 0;
+        for (int i = 0; i < BITS_PER_VALUE; i++) {
+            mask |= 1L << ((hash >>> (i * BIT_INDEX_SIZE)) & BIT_INDEX_MASK);
+        }
+        return mask;
+    }
+
+    // finalization step of MurmurHash3, as type hashes are not necessarily well distributed
+    private static long mix(long hash)
+    {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("type", type)
+                .add("sizeInBytes", sizeOf(words))
+                .toString();
+    }
+}
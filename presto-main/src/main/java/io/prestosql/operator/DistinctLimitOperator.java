@@ -16,23 +16,32 @@ package io.prestosql.operator;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.type.Type;
+import io.prestosql.spiller.PartitioningSpillerFactory;
 import io.prestosql.sql.gen.JoinCompiler;
 import io.prestosql.sql.planner.plan.PlanNodeId;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Verify.verify;
 import static com.google.common.base.Verify.verifyNotNull;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Iterators.singletonIterator;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static io.airlift.concurrent.MoreFutures.checkSuccess;
 import static io.prestosql.SystemSessionProperties.isDictionaryAggregationEnabled;
-import static io.prestosql.operator.GroupByHash.createGroupByHash;
+import static io.prestosql.spi.type.BigintType.BIGINT;
 import static java.lang.Math.toIntExact;
+import static java.util.Collections.emptyIterator;
 import static java.util.Objects.requireNonNull;
 
 public class DistinctLimitOperator
@@ -49,6 +58,8 @@ public class DistinctLimitOperator
         private final Optional<Integer> hashChannel;
         private boolean closed;
         private final JoinCompiler joinCompiler;
+        private final boolean spillEnabled;
+        private final PartitioningSpillerFactory partitioningSpillerFactory;
 
         public DistinctLimitOperatorFactory(
                 int operatorId,
@@ -57,7 +68,9 @@ public class DistinctLimitOperator
                 List<Integer> distinctChannels,
                 long limit,
                 Optional<Integer> hashChannel,
-                JoinCompiler joinCompiler)
+                JoinCompiler joinCompiler,
+                boolean spillEnabled,
+                PartitioningSpillerFactory partitioningSpillerFactory)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -68,6 +81,8 @@ public class DistinctLimitOperator
             this.limit = limit;
             this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+            this.spillEnabled = spillEnabled;
+            this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
         }
 
         @Override
@@ -78,7 +93,7 @@ public class DistinctLimitOperator
             List<Type> distinctTypes = distinctChannels.stream()
                     .map(sourceTypes::get)
                     .collect(toImmutableList());
-            return new DistinctLimitOperator(operatorContext, distinctChannels, distinctTypes, limit, hashChannel, joinCompiler);
+            return new DistinctLimitOperator(operatorContext, distinctChannels, distinctTypes, limit, hashChannel, joinCompiler, spillEnabled, partitioningSpillerFactory);
         }
 
         @Override
@@ -90,47 +105,72 @@ public class DistinctLimitOperator
         @Override
         public OperatorFactory duplicate()
         {
-            return new DistinctLimitOperatorFactory(operatorId, planNodeId, sourceTypes, distinctChannels, limit, hashChannel, joinCompiler);
+            return new DistinctLimitOperatorFactory(operatorId, planNodeId, sourceTypes, distinctChannels, limit, hashChannel, joinCompiler, spillEnabled, partitioningSpillerFactory);
         }
     }
 
     private final OperatorContext operatorContext;
     private final LocalMemoryContext localUserMemoryContext;
+    private final LocalMemoryContext localRevocableMemoryContext;
+    private final List<Type> distinctTypes;
+    private final Optional<Integer> hashChannel;
+    private final JoinCompiler joinCompiler;
+    private final boolean spillEnabled;
+    private final PartitioningSpillerFactory partitioningSpillerFactory;
 
     private Page inputPage;
     private long remainingLimit;
 
     private boolean finishing;
 
-    private final List<Integer> outputChannels;
-    private final GroupByHash groupByHash;
+    private List<Integer> outputChannels;
+    private GroupByHash groupByHash;
     private long nextDistinctId;
 
     // for yield when memory is not available
     private GroupByIdBlock groupByIds;
     private Work<GroupByIdBlock> unfinishedWork;
 
-    public DistinctLimitOperator(OperatorContext operatorContext, List<Integer> distinctChannels, List<Type> distinctTypes, long limit, Optional<Integer> hashChannel, JoinCompiler joinCompiler)
+    // output of the input page which was pending when memory was revoked
+    private Page revokedOutputPage;
+
+    // input pages are spilled with only the output channels
+    private Optional<HashPartitionedSpiller> spiller = Optional.empty();
+    private ListenableFuture<?> spillInProgress = immediateFuture(null);
+    private Runnable finishMemoryRevoke = () -> {};
+
+    private Iterator<Page> unspilledGroups = emptyIterator();
+    private Iterator<Page> unspilledInput = emptyIterator();
+    private int nextUnspilledPartition;
+    private boolean restoringGroups;
+
+    public DistinctLimitOperator(
+            OperatorContext operatorContext,
+            List<Integer> distinctChannels,
+            List<Type> distinctTypes,
+            long limit,
+            Optional<Integer> hashChannel,
+            JoinCompiler joinCompiler,
+            boolean spillEnabled,
+            PartitioningSpillerFactory partitioningSpillerFactory)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
         this.localUserMemoryContext = operatorContext.localUserMemoryContext();
+        this.localRevocableMemoryContext = operatorContext.localRevocableMemoryContext();
         requireNonNull(distinctChannels, "distinctChannels is null");
         checkArgument(limit >= 0, "limit must be at least zero");
-        requireNonNull(hashChannel, "hashChannel is null");
+        this.distinctTypes = ImmutableList.copyOf(requireNonNull(distinctTypes, "distinctTypes is null"));
+        this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
+        this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+        this.spillEnabled = spillEnabled;
+        this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
 
         outputChannels = ImmutableList.<Integer>builder()
                 .addAll(distinctChannels)
                 .addAll(hashChannel.map(ImmutableList::of).orElse(ImmutableList.of()))
                 .build();
 
-        this.groupByHash = createGroupByHash(
-                distinctTypes,
-                Ints.toArray(distinctChannels),
-                hashChannel,
-                toIntExact(Math.min(limit, 10_000)),
-                isDictionaryAggregationEnabled(operatorContext.getSession()),
-                joinCompiler,
-                this::updateMemoryReservation);
+        this.groupByHash = createGroupByHash(distinctChannels, hashChannel, limit);
         remainingLimit = limit;
     }
 
@@ -149,19 +189,38 @@ public class DistinctLimitOperator
     @Override
     public boolean isFinished()
     {
-        return !hasUnfinishedInput() && (finishing || remainingLimit == 0);
+        if (hasUnfinishedInput() || revokedOutputPage != null) {
+            return false;
+        }
+        return (finishing && !hasUnspilledInput()) || remainingLimit == 0;
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        if (!spillInProgress.isDone()) {
+            return spillInProgress;
+        }
+        return NOT_BLOCKED;
     }
 
     @Override
     public boolean needsInput()
     {
-        return !finishing && remainingLimit > 0 && !hasUnfinishedInput();
+        return !finishing && remainingLimit > 0 && !hasUnfinishedInput() && revokedOutputPage == null && spillInProgress.isDone();
     }
 
     @Override
     public void addInput(Page page)
     {
         checkState(needsInput());
+        checkSuccess(spillInProgress, "spilling failed");
+
+        if (spiller.isPresent()) {
+            // the distinct values were spilled, so the page is processed after all input is received
+            spillInProgress = spiller.get().spillInput(singletonIterator(selectOutputChannels(page)));
+            return;
+        }
 
         inputPage = page;
         unfinishedWork = groupByHash.getGroupIds(page);
@@ -172,6 +231,16 @@ public class DistinctLimitOperator
     @Override
     public Page getOutput()
     {
+        if (revokedOutputPage != null) {
+            Page outputPage = revokedOutputPage;
+            revokedOutputPage = null;
+            return outputPage;
+        }
+
+        if (unfinishedWork == null && groupByIds == null && !unspillNextPage()) {
+            return null;
+        }
+
         if (unfinishedWork != null && !processUnfinishedWork()) {
             return null;
         }
@@ -180,6 +249,73 @@ public class DistinctLimitOperator
             return null;
         }
 
+        if (restoringGroups) {
+            // the previously spilled distinct values were already produced
+            nextDistinctId = groupByHash.getGroupCount();
+            groupByIds = null;
+            inputPage = null;
+            updateMemoryReservation();
+            return null;
+        }
+
+        Page result = produceDistinctOutput();
+        updateMemoryReservation();
+        return result;
+    }
+
+    @Override
+    public ListenableFuture<?> startMemoryRevoke()
+    {
+        checkSuccess(spillInProgress, "spilling failed");
+        if (spiller.isPresent() || localRevocableMemoryContext.getBytes() == 0) {
+            return immediateFuture(null);
+        }
+
+        if (unfinishedWork != null) {
+            // reservation of revocable memory never yields
+            verify(processUnfinishedWork());
+        }
+        if (groupByIds != null) {
+            revokedOutputPage = produceDistinctOutput();
+        }
+
+        if (!finishing && remainingLimit > 0) {
+            List<Type> spilledTypes = ImmutableList.<Type>builder()
+                    .addAll(distinctTypes)
+                    .addAll(hashChannel.map(channel -> ImmutableList.of(BIGINT)).orElse(ImmutableList.of()))
+                    .build();
+            spiller = Optional.of(new HashPartitionedSpiller(
+                    partitioningSpillerFactory,
+                    operatorContext,
+                    spilledTypes,
+                    getSpilledDistinctChannels(),
+                    getSpilledHashChannel()));
+            spillInProgress = spiller.get().spillGroups(groupByHash, Optional.empty());
+        }
+        // no input is left to be processed once finishing, so the hash can be released without spilling
+        finishMemoryRevoke = () -> {
+            groupByHash = null;
+            updateMemoryReservation();
+        };
+        return spillInProgress;
+    }
+
+    @Override
+    public void finishMemoryRevoke()
+    {
+        finishMemoryRevoke.run();
+        finishMemoryRevoke = () -> {};
+    }
+
+    @Override
+    public void close()
+    {
+        groupByHash = null;
+        spiller.ifPresent(HashPartitionedSpiller::close);
+    }
+
+    private Page produceDistinctOutput()
+    {
         verifyNotNull(inputPage);
         int distinctCount = 0;
         int[] distinctPositions = new int[inputPage.getPositionCount()];
@@ -199,11 +335,72 @@ public class DistinctLimitOperator
 
         groupByIds = null;
         inputPage = null;
-
-        updateMemoryReservation();
         return result;
     }
 
+    private boolean unspillNextPage()
+    {
+        if (!finishing || !spiller.isPresent() || !spillInProgress.isDone() || remainingLimit == 0) {
+            return false;
+        }
+        checkSuccess(spillInProgress, "spilling failed");
+
+        while (!unspilledGroups.hasNext() && !unspilledInput.hasNext()) {
+            if (nextUnspilledPartition == spiller.get().getPartitionCount()) {
+                groupByHash = null;
+                updateMemoryReservation();
+                return false;
+            }
+            // spilled pages contain only the output channels
+            groupByHash = createGroupByHash(getSpilledDistinctChannels(), getSpilledHashChannel(), remainingLimit);
+            outputChannels = IntStream.range(0, outputChannels.size()).boxed().collect(toImmutableList());
+            nextDistinctId = 0;
+            unspilledGroups = spiller.get().getGroupPages(nextUnspilledPartition);
+            unspilledInput = spiller.get().getInputPages(nextUnspilledPartition);
+            nextUnspilledPartition++;
+        }
+
+        restoringGroups = unspilledGroups.hasNext();
+        inputPage = restoringGroups ? unspilledGroups.next() : unspilledInput.next();
+        unfinishedWork = groupByHash.getGroupIds(inputPage);
+        return true;
+    }
+
+    private boolean hasUnspilledInput()
+    {
+        return spiller.isPresent() && (nextUnspilledPartition < spiller.get().getPartitionCount() || unspilledGroups.hasNext() || unspilledInput.hasNext());
+    }
+
+    private Page selectOutputChannels(Page page)
+    {
+        Block[] blocks = outputChannels.stream()
+                .map(page::getBlock)
+                .toArray(Block[]::new);
+        return new Page(page.getPositionCount(), blocks);
+    }
+
+    private List<Integer> getSpilledDistinctChannels()
+    {
+        return IntStream.range(0, distinctTypes.size()).boxed().collect(toImmutableList());
+    }
+
+    private Optional<Integer> getSpilledHashChannel()
+    {
+        return hashChannel.map(channel -> distinctTypes.size());
+    }
+
+    private GroupByHash createGroupByHash(List<Integer> distinctChannels, Optional<Integer> hashChannel, long expectedDistinctValues)
+    {
+        return GroupByHash.createGroupByHash(
+                distinctTypes,
+                Ints.toArray(distinctChannels),
+                hashChannel,
+                toIntExact(Math.min(expectedDistinctValues, 10_000)),
+                isDictionaryAggregationEnabled(operatorContext.getSession()),
+                joinCompiler,
+                this::updateMemoryReservation);
+    }
+
     private Page maskToDistinctOutputPositions(int distinctCount, int[] distinctPositions)
     {
         Page result = null;
@@ -243,9 +440,17 @@ public class DistinctLimitOperator
     // The following implementation is a hybrid model, where the push model is going to call the pull model causing reentrancy
     private boolean updateMemoryReservation()
     {
+        long estimatedSize = groupByHash == null ? 0 : groupByHash.getEstimatedSize();
+        if (spillEnabled && !spiller.isPresent()) {
+            // the hash can be spilled instead of waiting for memory
+            localRevocableMemoryContext.setBytes(estimatedSize);
+            return true;
+        }
+
+        localRevocableMemoryContext.setBytes(0);
         // Operator/driver will be blocked on memory after we call localUserMemoryContext.setBytes().
         // If memory is not available, once we return, this operator will be blocked until memory is available.
-        localUserMemoryContext.setBytes(groupByHash.getEstimatedSize());
+        localUserMemoryContext.setBytes(estimatedSize);
         // If memory is not available, inform the caller that we cannot proceed for allocation.
         return operatorContext.isWaitingForMemory().isDone();
     }
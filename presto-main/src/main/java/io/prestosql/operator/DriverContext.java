@@ -78,13 +78,15 @@ public class DriverContext
 
     private final List<OperatorContext> operatorContexts = new CopyOnWriteArrayList<>();
     private final Lifespan lifespan;
+    private final long splitWeight;
 
     public DriverContext(
             PipelineContext pipelineContext,
             Executor notificationExecutor,
             ScheduledExecutorService yieldExecutor,
             MemoryTrackingContext driverMemoryContext,
-            Lifespan lifespan)
+            Lifespan lifespan,
+            long splitWeight)
     {
         this.pipelineContext = requireNonNull(pipelineContext, "pipelineContext is null");
         this.notificationExecutor = requireNonNull(notificationExecutor, "notificationExecutor is null");
@@ -92,6 +94,8 @@ public class DriverContext
         this.driverMemoryContext = requireNonNull(driverMemoryContext, "driverMemoryContext is null");
         this.lifespan = requireNonNull(lifespan, "lifespan is null");
         this.yieldSignal = new DriverYieldSignal();
+        checkArgument(splitWeight >= 0, "splitWeight is negative");
+        this.splitWeight = splitWeight;
     }
 
     public TaskId getTaskId()
@@ -444,6 +448,14 @@ public class DriverContext
                 .collect(toList());
     }
 
+    /**
+     * Raw weight of the partitioned split of this driver, or zero if the driver has no partitioned split.
+     */
+    public long getSplitWeight()
+    {
+        return splitWeight;
+    }
+
     public Lifespan getLifespan()
     {
         return lifespan;
@@ -16,6 +16,8 @@ package io.prestosql.operator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Sets;
 import io.prestosql.execution.Lifespan;
+import io.prestosql.metadata.Split;
+import io.prestosql.operator.FragmentResultCacheManager.CachedResult;
 import io.prestosql.sql.planner.plan.PlanNodeId;
 
 import java.util.HashSet;
@@ -28,6 +30,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Iterables.getLast;
 import static java.util.Objects.requireNonNull;
 
 public class DriverFactory
@@ -39,12 +42,25 @@ public class DriverFactory
     private final Optional<PlanNodeId> sourceId;
     private final OptionalInt driverInstances;
     private final PipelineExecutionStrategy pipelineExecutionStrategy;
+    private final Optional<FragmentResultCacheContext> fragmentResultCacheContext;
 
     private boolean closed;
     private final Set<Lifespan> encounteredLifespans = new HashSet<>();
     private final Set<Lifespan> closedLifespans = new HashSet<>();
 
     public DriverFactory(int pipelineId, boolean inputDriver, boolean outputDriver, List<OperatorFactory> operatorFactories, OptionalInt driverInstances, PipelineExecutionStrategy pipelineExecutionStrategy)
+    {
+        this(pipelineId, inputDriver, outputDriver, operatorFactories, driverInstances, pipelineExecutionStrategy, Optional.empty());
+    }
+
+    public DriverFactory(
+            int pipelineId,
+            boolean inputDriver,
+            boolean outputDriver,
+            List<OperatorFactory> operatorFactories,
+            OptionalInt driverInstances,
+            PipelineExecutionStrategy pipelineExecutionStrategy,
+            Optional<FragmentResultCacheContext> fragmentResultCacheContext)
     {
         this.pipelineId = pipelineId;
         this.inputDriver = inputDriver;
@@ -61,6 +77,8 @@ public class DriverFactory
                 .collect(toImmutableList());
         checkArgument(sourceIds.size() <= 1, "Expected at most one source operator in driver factory, but found %s", sourceIds);
         this.sourceId = sourceIds.isEmpty() ? Optional.empty() : Optional.of(sourceIds.get(0));
+        this.fragmentResultCacheContext = requireNonNull(fragmentResultCacheContext, "fragmentResultCacheContext is null");
+        checkArgument(!fragmentResultCacheContext.isPresent() || (sourceId.isPresent() && outputDriver), "Only an output driver with a source can cache its results");
     }
 
     public int getPipelineId()
@@ -104,11 +122,26 @@ public class DriverFactory
     }
 
     public synchronized Driver createDriver(DriverContext driverContext)
+    {
+        return createDriver(driverContext, Optional.empty());
+    }
+
+    /**
+     * Creates a driver which will process the specified partitioned split. When the results
+     * of the pipeline for the split are cached, the driver only outputs the cached pages.
+     */
+    public synchronized Driver createDriver(DriverContext driverContext, Optional<Split> partitionedSplit)
     {
         checkState(!closed, "DriverFactory is already closed");
         requireNonNull(driverContext, "driverContext is null");
+        requireNonNull(partitionedSplit, "partitionedSplit is null");
         checkState(!closedLifespans.contains(driverContext.getLifespan()), "DriverFactory is already closed for driver group %s", driverContext.getLifespan());
         encounteredLifespans.add(driverContext.getLifespan());
+
+        if (fragmentResultCacheContext.isPresent() && partitionedSplit.isPresent()) {
+            return createFragmentResultCacheDriver(driverContext, fragmentResultCacheContext.get(), partitionedSplit.get());
+        }
+
         ImmutableList.Builder<Operator> operators = ImmutableList.builder();
         for (OperatorFactory operatorFactory : operatorFactories) {
             Operator operator = operatorFactory.createOperator(driverContext);
@@ -117,6 +150,25 @@ public class DriverFactory
         return Driver.createDriver(driverContext, operators.build());
     }
 
+    private Driver createFragmentResultCacheDriver(DriverContext driverContext, FragmentResultCacheContext cacheContext, Split split)
+    {
+        Optional<CachedResult> cachedResult = cacheContext.getCachedResult(split);
+        if (cachedResult.isPresent()) {
+            // the cached pages replace all the operators but the output operator
+            return Driver.createDriver(driverContext, ImmutableList.of(
+                    cacheContext.createReadOperator(driverContext, sourceId.get(), cachedResult.get()),
+                    getLast(operatorFactories).createOperator(driverContext)));
+        }
+
+        ImmutableList.Builder<Operator> operators = ImmutableList.builder();
+        for (OperatorFactory operatorFactory : operatorFactories.subList(0, operatorFactories.size() - 1)) {
+            operators.add(operatorFactory.createOperator(driverContext));
+        }
+        operators.add(cacheContext.createWriteOperator(driverContext, split));
+        operators.add(getLast(operatorFactories).createOperator(driverContext));
+        return Driver.createDriver(driverContext, operators.build());
+    }
+
     public synchronized void noMoreDrivers(Lifespan lifespan)
     {
         if (closedLifespans.contains(lifespan)) {
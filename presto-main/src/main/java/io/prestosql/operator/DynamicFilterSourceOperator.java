@@ -30,6 +30,7 @@ import io.prestosql.sql.planner.plan.PlanNodeId;
 import javax.annotation.Nullable;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Consumer;
 
@@ -41,7 +42,10 @@ import static java.util.stream.Collectors.toSet;
 /**
  * This operator acts as a simple "pass-through" pipe, while saving its input pages.
  * The collected pages' value are used for creating a run-time filtering constraint (for probe-side table scan in an inner join).
- * We support only small build-side pages (which should be the case when using "broadcast" join).
+ * For "broadcast" joins the constraint is applied locally, while for partitioned joins the per-task constraints
+ * are reported to the coordinator, which merges them and forwards the result to the probe-side stages.
+ * We support only small build-side pages: once the collected values exceed the configured limits,
+ * they are replaced by per-column bloom filters (if enabled), which are applied to the probe-side pages.
  */
 public class DynamicFilterSourceOperator
         implements Operator
@@ -68,9 +72,11 @@ public class DynamicFilterSourceOperator
         private final int operatorId;
         private final PlanNodeId planNodeId;
         private final Consumer<TupleDomain<String>> dynamicPredicateConsumer;
+        private final Consumer<Map<String, BlockedBloomFilter>> bloomFilterConsumer;
         private final List<Channel> channels;
         private final int maxFilterPositionsCount;
         private final DataSize maxFilterSize;
+        private final DataSize bloomFilterSize;
 
         private boolean closed;
 
@@ -78,13 +84,16 @@ public class DynamicFilterSourceOperator
                 int operatorId,
                 PlanNodeId planNodeId,
                 Consumer<TupleDomain<String>> dynamicPredicateConsumer,
+                Consumer<Map<String, BlockedBloomFilter>> bloomFilterConsumer,
                 List<Channel> channels,
                 int maxFilterPositionsCount,
-                DataSize maxFilterSize)
+                DataSize maxFilterSize,
+                DataSize bloomFilterSize)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
             this.dynamicPredicateConsumer = requireNonNull(dynamicPredicateConsumer, "dynamicPredicateConsumer is null");
+            this.bloomFilterConsumer = requireNonNull(bloomFilterConsumer, "bloomFilterConsumer is null");
             this.channels = requireNonNull(channels, "channels is null");
             verify(channels.stream().map(channel -> channel.filterId).collect(toSet()).size() == channels.size(),
                     "duplicate dynamic filters are not allowed");
@@ -92,6 +101,7 @@ public class DynamicFilterSourceOperator
                     "duplicate channel indices are not allowed");
             this.maxFilterPositionsCount = maxFilterPositionsCount;
             this.maxFilterSize = maxFilterSize;
+            this.bloomFilterSize = requireNonNull(bloomFilterSize, "bloomFilterSize is null");
         }
 
         @Override
@@ -101,10 +111,12 @@ public class DynamicFilterSourceOperator
             return new DynamicFilterSourceOperator(
                     driverContext.addOperatorContext(operatorId, planNodeId, DynamicFilterSourceOperator.class.getSimpleName()),
                     dynamicPredicateConsumer,
+                    bloomFilterConsumer,
                     channels,
                     planNodeId,
                     maxFilterPositionsCount,
-                    maxFilterSize);
+                    maxFilterSize,
+                    bloomFilterSize);
         }
 
         @Override
@@ -125,8 +137,10 @@ public class DynamicFilterSourceOperator
     private boolean finished;
     private Page current;
     private final Consumer<TupleDomain<String>> dynamicPredicateConsumer;
+    private final Consumer<Map<String, BlockedBloomFilter>> bloomFilterConsumer;
     private final int maxFilterPositionsCount;
     private final long maxFilterSizeInBytes;
+    private final long bloomFilterSizeInBytes;
 
     private final List<Channel> channels;
 
@@ -136,19 +150,27 @@ public class DynamicFilterSourceOperator
     @Nullable
     private TypedSet[] valueSets;
 
+    // Created if the predicate becomes too large (and bloom filters are enabled).
+    @Nullable
+    private BlockedBloomFilter[] bloomFilters;
+
     private DynamicFilterSourceOperator(
             OperatorContext context,
             Consumer<TupleDomain<String>> dynamicPredicateConsumer,
+            Consumer<Map<String, BlockedBloomFilter>> bloomFilterConsumer,
             List<Channel> channels,
             PlanNodeId planNodeId,
             int maxFilterPositionsCount,
-            DataSize maxFilterSize)
+            DataSize maxFilterSize,
+            DataSize bloomFilterSize)
     {
         this.context = requireNonNull(context, "context is null");
         this.maxFilterPositionsCount = maxFilterPositionsCount;
         this.maxFilterSizeInBytes = maxFilterSize.toBytes();
+        this.bloomFilterSizeInBytes = bloomFilterSize.toBytes();
 
         this.dynamicPredicateConsumer = requireNonNull(dynamicPredicateConsumer, "dynamicPredicateConsumer is null");
+        this.bloomFilterConsumer = requireNonNull(bloomFilterConsumer, "bloomFilterConsumer is null");
         this.channels = requireNonNull(channels, "channels is null");
 
         this.blockBuilders = new BlockBuilder[channels.size()];
@@ -183,6 +205,16 @@ public class DynamicFilterSourceOperator
     {
         verify(!finished, "DynamicFilterSourceOperator: addInput() may not be called after finish()");
         current = page;
+        if (bloomFilters != null) {
+            for (int channelIndex = 0; channelIndex < channels.size(); ++channelIndex) {
+                Block block = page.getBlock(channels.get(channelIndex).index);
+                BlockedBloomFilter bloomFilter = bloomFilters[channelIndex];
+                for (int position = 0; position < block.getPositionCount(); ++position) {
+                    bloomFilter.put(block, position);
+                }
+            }
+            return;
+        }
         if (valueSets == null) {
             return;  // the predicate became too large.
         }
@@ -208,8 +240,26 @@ public class DynamicFilterSourceOperator
 
     private void handleTooLargePredicate()
     {
-        // The resulting predicate is too large, allow all probe-side values to be read.
-        dynamicPredicateConsumer.accept(TupleDomain.all());
+        if (bloomFilterSizeInBytes > 0) {
+            // Keep collecting the values into bloom filters, starting with the values collected so far.
+            // Both the bloom filters and the (unconstrained) predicate are reported when the collection is over.
+            bloomFilters = new BlockedBloomFilter[channels.size()];
+            long bloomFiltersSizeInBytes = 0;
+            for (int channelIndex = 0; channelIndex < channels.size(); ++channelIndex) {
+                BlockedBloomFilter bloomFilter = new BlockedBloomFilter(channels.get(channelIndex).type, bloomFilterSizeInBytes);
+                BlockBuilder values = blockBuilders[channelIndex];
+                for (int position = 0; position < values.getPositionCount(); ++position) {
+                    bloomFilter.put(values, position);
+                }
+                bloomFilters[channelIndex] = bloomFilter;
+                bloomFiltersSizeInBytes += bloomFilter.getRetainedSizeInBytes();
+            }
+            context.localSystemMemoryContext().setBytes(bloomFiltersSizeInBytes);
+        }
+        else {
+            // The resulting predicate is too large, allow all probe-side values to be read.
+            dynamicPredicateConsumer.accept(TupleDomain.all());
+        }
         // Drop references to collected values.
         valueSets = null;
         blockBuilders = null;
@@ -231,6 +281,18 @@ public class DynamicFilterSourceOperator
             return;
         }
         finished = true;
+        if (bloomFilters != null) {
+            ImmutableMap.Builder<String, BlockedBloomFilter> bloomFiltersBuilder = ImmutableMap.builder();
+            for (int channelIndex = 0; channelIndex < channels.size(); ++channelIndex) {
+                bloomFiltersBuilder.put(channels.get(channelIndex).filterId, bloomFilters[channelIndex]);
+            }
+            bloomFilters = null;
+            context.localSystemMemoryContext().setBytes(0);
+            // The bloom filters must be reported before the predicate, which completes this partition.
+            bloomFilterConsumer.accept(bloomFiltersBuilder.build());
+            dynamicPredicateConsumer.accept(TupleDomain.all());
+            return;
+        }
         if (valueSets == null) {
             return; // the predicate became too large.
         }
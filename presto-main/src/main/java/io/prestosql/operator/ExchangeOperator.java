@@ -18,6 +18,7 @@ import io.prestosql.connector.CatalogName;
 import io.prestosql.execution.buffer.PagesSerde;
 import io.prestosql.execution.buffer.PagesSerdeFactory;
 import io.prestosql.execution.buffer.SerializedPage;
+import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.metadata.Split;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.connector.UpdatablePageSource;
@@ -93,6 +94,7 @@ public class ExchangeOperator
     private final PlanNodeId sourceId;
     private final ExchangeClient exchangeClient;
     private final PagesSerde serde;
+    private final LocalMemoryContext serdeMemoryContext;
 
     public ExchangeOperator(
             OperatorContext operatorContext,
@@ -104,6 +106,7 @@ public class ExchangeOperator
         this.sourceId = requireNonNull(sourceId, "sourceId is null");
         this.exchangeClient = requireNonNull(exchangeClient, "exchangeClient is null");
         this.serde = requireNonNull(serde, "serde is null");
+        this.serdeMemoryContext = operatorContext.newLocalSystemMemoryContext(ExchangeOperator.class.getSimpleName());
 
         operatorContext.setInfoSupplier(exchangeClient::getStatus);
     }
@@ -183,6 +186,7 @@ public class ExchangeOperator
         operatorContext.recordNetworkInput(page.getSizeInBytes(), page.getPositionCount());
 
         Page deserializedPage = serde.deserialize(page);
+        serdeMemoryContext.setBytes(serde.getRetainedSizeInBytes());
         operatorContext.recordProcessedInput(deserializedPage.getSizeInBytes(), page.getPositionCount());
 
         return deserializedPage;
@@ -192,5 +196,6 @@ public class ExchangeOperator
     public void close()
     {
         exchangeClient.close();
+        serdeMemoryContext.setBytes(0);
     }
 }
@@ -0,0 +1,127 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.NotNull;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.DAYS;
+
+public class FileFragmentResultCacheConfig
+{
+    private boolean enabled;
+    private Path baseDirectory;
+    private DataSize maxCacheSize = DataSize.of(100, GIGABYTE);
+    private DataSize maxEntrySize = DataSize.of(1, MEGABYTE);
+    private DataSize maxInFlightSize = DataSize.of(100, MEGABYTE);
+    private Duration cacheTtl = new Duration(2, DAYS);
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    @Config("fragment-result-cache.enabled")
+    @ConfigDescription("Cache the results of leaf plan fragments for splits over unchanged data")
+    public FileFragmentResultCacheConfig setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+        return this;
+    }
+
+    public Path getBaseDirectory()
+    {
+        return baseDirectory;
+    }
+
+    @Config("fragment-result-cache.base-directory")
+    @ConfigDescription("Local directory where cached fragment results are stored")
+    public FileFragmentResultCacheConfig setBaseDirectory(String baseDirectory)
+    {
+        this.baseDirectory = baseDirectory == null ? null : Paths.get(baseDirectory);
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxCacheSize()
+    {
+        return maxCacheSize;
+    }
+
+    @Config("fragment-result-cache.max-cache-size")
+    @ConfigDescription("Maximum size of the cached results on disk")
+    public FileFragmentResultCacheConfig setMaxCacheSize(DataSize maxCacheSize)
+    {
+        this.maxCacheSize = maxCacheSize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxEntrySize()
+    {
+        return maxEntrySize;
+    }
+
+    @Config("fragment-result-cache.max-entry-size")
+    @ConfigDescription("Results of a split larger than this are not cached")
+    public FileFragmentResultCacheConfig setMaxEntrySize(DataSize maxEntrySize)
+    {
+        this.maxEntrySize = maxEntrySize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxInFlightSize()
+    {
+        return maxInFlightSize;
+    }
+
+    @Config("fragment-result-cache.max-in-flight-size")
+    @ConfigDescription("Maximum size of the results held in memory while they are written to the cache")
+    public FileFragmentResultCacheConfig setMaxInFlightSize(DataSize maxInFlightSize)
+    {
+        this.maxInFlightSize = maxInFlightSize;
+        return this;
+    }
+
+    @NotNull
+    public Duration getCacheTtl()
+    {
+        return cacheTtl;
+    }
+
+    @Config("fragment-result-cache.cache-ttl")
+    @ConfigDescription("Time after its last use a cached result is evicted")
+    public FileFragmentResultCacheConfig setCacheTtl(Duration cacheTtl)
+    {
+        this.cacheTtl = cacheTtl;
+        return this;
+    }
+
+    @AssertTrue(message = "fragment-result-cache.base-directory must be set when fragment result caching is enabled")
+    public boolean isBaseDirectorySet()
+    {
+        return !enabled || baseDirectory != null;
+    }
+}
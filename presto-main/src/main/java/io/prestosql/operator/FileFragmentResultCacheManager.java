@@ -0,0 +1,498 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hasher;
+import io.airlift.json.JsonCodec;
+import io.airlift.log.Logger;
+import io.airlift.slice.InputStreamSliceInput;
+import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.SliceOutput;
+import io.prestosql.Session;
+import io.prestosql.execution.buffer.PagesSerde;
+import io.prestosql.execution.buffer.PagesSerdeFactory;
+import io.prestosql.metadata.Split;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.block.BlockEncodingSerde;
+import io.prestosql.sql.planner.plan.PlanNode;
+import org.weakref.jmx.Managed;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.concurrent.GuardedBy;
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.hash.Hashing.sha256;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.prestosql.execution.buffer.PagesSerdeUtil.readPages;
+import static io.prestosql.execution.buffer.PagesSerdeUtil.writePages;
+import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static java.lang.Math.min;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.delete;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.newDirectoryStream;
+import static java.nio.file.Files.newInputStream;
+import static java.nio.file.Files.newOutputStream;
+import static java.util.Objects.requireNonNull;
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Stores the cached results on local disk, one file per split, evicting the least
+ * recently used results when the cache grows over its maximum size.
+ */
+public class FileFragmentResultCacheManager
+        implements FragmentResultCacheManager
+{
+    private static final Logger log = Logger.get(FileFragmentResultCacheManager.class);
+
+    private static final String CACHE_FILE_SUFFIX = ".bin";
+    private static final String CACHE_FILE_GLOB = "*.bin";
+    private static final int BUFFER_SIZE = 4 * 1024;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final boolean enabled;
+    private final Path baseDirectory;
+    private final long maxEntrySizeInBytes;
+    private final long maxInFlightSizeInBytes;
+    private final JsonCodec<PlanNode> planCodec;
+    private final PagesSerdeFactory serdeFactory;
+    private final ExecutorService flushExecutor;
+    private final Cache<String, CacheEntry> cache;
+
+    private final AtomicLong inFlightBytes = new AtomicLong();
+    private final AtomicLong cacheSizeInBytes = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final AtomicLong cacheWrites = new AtomicLong();
+    private final AtomicLong cacheEvictions = new AtomicLong();
+
+    @Inject
+    public FileFragmentResultCacheManager(FileFragmentResultCacheConfig config, BlockEncodingSerde blockEncodingSerde, JsonCodec<PlanNode> planCodec)
+    {
+        this(config, blockEncodingSerde, planCodec, newSingleThreadExecutor(daemonThreadsNamed("fragment-result-cache-flusher-%s")));
+    }
+
+    @VisibleForTesting
+    FileFragmentResultCacheManager(FileFragmentResultCacheConfig config, BlockEncodingSerde blockEncodingSerde, JsonCodec<PlanNode> planCodec, ExecutorService flushExecutor)
+    {
+        requireNonNull(config, "config is null");
+        this.enabled = config.isEnabled();
+        this.baseDirectory = config.getBaseDirectory();
+        this.maxEntrySizeInBytes = config.getMaxEntrySize().toBytes();
+        this.maxInFlightSizeInBytes = config.getMaxInFlightSize().toBytes();
+        this.planCodec = requireNonNull(planCodec, "planCodec is null");
+        this.serdeFactory = new PagesSerdeFactory(requireNonNull(blockEncodingSerde, "blockEncodingSerde is null"), false);
+        this.flushExecutor = requireNonNull(flushExecutor, "flushExecutor is null");
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(config.getMaxCacheSize().toBytes())
+                .weigher((String key, CacheEntry entry) -> (int) min(entry.getSizeInBytes(), Integer.MAX_VALUE))
+                .expireAfterAccess(config.getCacheTtl().toMillis(), MILLISECONDS)
+                .removalListener(this::removeCacheFile)
+                .build();
+    }
+
+    @PostConstruct
+    public void initialize()
+    {
+        if (!enabled) {
+            return;
+        }
+        try {
+            createDirectories(baseDirectory);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not create fragment result cache directory " + baseDirectory, e);
+        }
+        // results cached before a restart are not indexed, so they can never be read
+        try (DirectoryStream<Path> stream = newDirectoryStream(baseDirectory, CACHE_FILE_GLOB)) {
+            for (Path file : stream) {
+                delete(file);
+            }
+        }
+        catch (IOException e) {
+            log.warn(e, "Error cleaning fragment result cache directory %s", baseDirectory);
+        }
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        flushExecutor.shutdownNow();
+    }
+
+    @Override
+    public Optional<String> getPlanKey(PlanNode plan, Session session)
+    {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        try {
+            JsonNode tree = OBJECT_MAPPER.readTree(planCodec.toJson(plan));
+            removeTransactions(tree);
+            Hasher hasher = sha256().newHasher()
+                    .putString(tree.toString(), UTF_8);
+            hashSessionState(hasher, session);
+            return Optional.of(hasher.hash().toString());
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn(e, "Could not compute fragment result cache key for plan node %s", plan.getId());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public long getMaxEntrySizeInBytes()
+    {
+        return maxEntrySizeInBytes;
+    }
+
+    @Override
+    public Optional<CachedResult> get(String planKey, Split split)
+    {
+        Optional<String> cacheKey = getCacheKey(planKey, split);
+        if (!cacheKey.isPresent()) {
+            return Optional.empty();
+        }
+        CacheEntry entry = cache.getIfPresent(cacheKey.get());
+        // the file is kept until the result is closed, even if the entry is evicted in the meantime
+        if (entry == null || !entry.retain()) {
+            cacheMisses.incrementAndGet();
+            return Optional.empty();
+        }
+        cacheHits.incrementAndGet();
+        return Optional.of(new FileCachedResult(cacheKey.get(), entry));
+    }
+
+    @Override
+    public void put(String planKey, Split split, List<Page> pages)
+    {
+        Optional<String> cacheKey = getCacheKey(planKey, split);
+        if (!cacheKey.isPresent()) {
+            return;
+        }
+        long sizeInBytes = pages.stream()
+                .mapToLong(Page::getRetainedSizeInBytes)
+                .sum();
+        if (sizeInBytes > maxEntrySizeInBytes) {
+            return;
+        }
+        if (inFlightBytes.addAndGet(sizeInBytes) > maxInFlightSizeInBytes) {
+            // drop the result rather than block the driver or buffer without bound
+            inFlightBytes.addAndGet(-sizeInBytes);
+            return;
+        }
+
+        List<Page> result = ImmutableList.copyOf(pages);
+        flushExecutor.execute(() -> {
+            try {
+                writeCacheFile(cacheKey.get(), result);
+            }
+            finally {
+                inFlightBytes.addAndGet(-sizeInBytes);
+            }
+        });
+    }
+
+    @VisibleForTesting
+    void invalidateAll()
+    {
+        cache.invalidateAll();
+    }
+
+    private void writeCacheFile(String cacheKey, List<Page> pages)
+    {
+        Path file = baseDirectory.resolve(randomUUID() + CACHE_FILE_SUFFIX);
+        PagesSerde serde = serdeFactory.createPagesSerde();
+        long fileSize;
+        try (SliceOutput output = new OutputStreamSliceOutput(newOutputStream(file), BUFFER_SIZE)) {
+            fileSize = writePages(serde, output, pages.iterator());
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn(e, "Could not write fragment result cache file %s", file);
+            deleteCacheFile(file);
+            return;
+        }
+        cacheSizeInBytes.addAndGet(fileSize);
+        cacheWrites.incrementAndGet();
+        cache.put(cacheKey, new CacheEntry(file, fileSize));
+    }
+
+    private void removeCacheFile(RemovalNotification<String, CacheEntry> notification)
+    {
+        CacheEntry entry = notification.getValue();
+        cacheSizeInBytes.addAndGet(-entry.getSizeInBytes());
+        if (notification.wasEvicted()) {
+            cacheEvictions.incrementAndGet();
+        }
+        entry.remove();
+    }
+
+    private static void deleteCacheFile(Path file)
+    {
+        try {
+            deleteIfExists(file);
+        }
+        catch (IOException e) {
+            log.warn(e, "Could not delete fragment result cache file %s", file);
+        }
+    }
+
+    private static Optional<String> getCacheKey(String planKey, Split split)
+    {
+        return split.getConnectorSplit().getSplitIdentity()
+                .map(splitIdentity -> planKey + "/" + split.getCatalogName() + "/" + splitIdentity);
+    }
+
+    private static void hashSessionState(Hasher hasher, Session session)
+    {
+        // session dependent functions, such as casts of timestamps, use the time zone and the locale of the session,
+        // and session properties, such as legacy_timestamp, may change the semantics of the plan
+        hashString(hasher, session.getTimeZoneKey().getId());
+        hashString(hasher, session.getLocale().toLanguageTag());
+        hashString(hasher, session.getUser());
+        hashProperties(hasher, session.getSystemProperties());
+        Map<String, Map<String, String>> connectorProperties = new TreeMap<>();
+        session.getConnectorProperties().forEach((catalogName, properties) -> connectorProperties.put(catalogName.getCatalogName(), properties));
+        hasher.putInt(connectorProperties.size());
+        connectorProperties.forEach((catalogName, properties) -> {
+            hashString(hasher, catalogName);
+            hashProperties(hasher, properties);
+        });
+    }
+
+    private static void hashProperties(Hasher hasher, Map<String, String> properties)
+    {
+        hasher.putInt(properties.size());
+        new TreeMap<>(properties).forEach((name, value) -> {
+            hashString(hasher, name);
+            hashString(hasher, value);
+        });
+    }
+
+    private static void hashString(Hasher hasher, String value)
+    {
+        hasher.putInt(value.length());
+        hasher.putString(value, UTF_8);
+    }
+
+    private static void removeTransactions(JsonNode node)
+    {
+        // transaction handles are different for every query reading the same table
+        if (node.isObject()) {
+            ((ObjectNode) node).remove("transaction");
+        }
+        node.forEach(FileFragmentResultCacheManager::removeTransactions);
+    }
+
+    @Managed
+    public long getCacheHits()
+    {
+        return cacheHits.get();
+    }
+
+    @Managed
+    public long getCacheMisses()
+    {
+        return cacheMisses.get();
+    }
+
+    @Managed
+    public long getCacheWrites()
+    {
+        return cacheWrites.get();
+    }
+
+    @Managed
+    public long getCacheEvictions()
+    {
+        return cacheEvictions.get();
+    }
+
+    @Managed
+    public long getCacheEntries()
+    {
+        return cache.size();
+    }
+
+    @Managed
+    public long getCacheSizeInBytes()
+    {
+        return cacheSizeInBytes.get();
+    }
+
+    @Managed
+    public long getInFlightBytes()
+    {
+        return inFlightBytes.get();
+    }
+
+    private class FileCachedResult
+            implements CachedResult
+    {
+        private final String cacheKey;
+        private final CacheEntry entry;
+
+        private InputStream input;
+        private Iterator<Page> pages;
+        private Page lastPage;
+        private boolean closed;
+
+        public FileCachedResult(String cacheKey, CacheEntry entry)
+        {
+            this.cacheKey = requireNonNull(cacheKey, "cacheKey is null");
+            this.entry = requireNonNull(entry, "entry is null");
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if (closed) {
+                return false;
+            }
+            try {
+                if (pages == null) {
+                    input = newInputStream(entry.getFile());
+                    pages = readPages(serdeFactory.createPagesSerde(), new InputStreamSliceInput(input, BUFFER_SIZE));
+                }
+                return pages.hasNext();
+            }
+            catch (IOException | RuntimeException e) {
+                cache.invalidate(cacheKey);
+                close();
+                throw new PrestoException(GENERIC_INTERNAL_ERROR, "Could not read fragment result cache file " + entry.getFile(), e);
+            }
+        }
+
+        @Override
+        public Page next()
+        {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastPage = pages.next();
+            return lastPage;
+        }
+
+        @Override
+        public long getRetainedSizeInBytes()
+        {
+            if (closed || input == null) {
+                return 0;
+            }
+            return BUFFER_SIZE + (lastPage == null ? 0 : lastPage.getRetainedSizeInBytes());
+        }
+
+        @Override
+        public void close()
+        {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lastPage = null;
+            try {
+                if (input != null) {
+                    input.close();
+                }
+            }
+            catch (IOException e) {
+                log.warn(e, "Could not close fragment result cache file %s", entry.getFile());
+            }
+            finally {
+                entry.release();
+            }
+        }
+    }
+
+    private static class CacheEntry
+    {
+        private final Path file;
+        private final long sizeInBytes;
+
+        @GuardedBy("this")
+        private int readers;
+        @GuardedBy("this")
+        private boolean removed;
+
+        public CacheEntry(Path file, long sizeInBytes)
+        {
+            this.file = requireNonNull(file, "file is null");
+            this.sizeInBytes = sizeInBytes;
+        }
+
+        public Path getFile()
+        {
+            return file;
+        }
+
+        public long getSizeInBytes()
+        {
+            return sizeInBytes;
+        }
+
+        public synchronized boolean retain()
+        {
+            if (removed) {
+                return false;
+            }
+            readers++;
+            return true;
+        }
+
+        public synchronized void release()
+        {
+            checkState(readers > 0, "entry is not retained");
+            readers--;
+            if (removed && readers == 0) {
+                deleteCacheFile(file);
+            }
+        }
+
+        public synchronized void remove()
+        {
+            removed = true;
+            if (readers == 0) {
+                deleteCacheFile(file);
+            }
+        }
+    }
+}
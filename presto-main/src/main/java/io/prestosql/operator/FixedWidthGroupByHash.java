@@ -0,0 +1,641 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import io.prestosql.array.IntBigArray;
+import io.prestosql.array.LongBigArray;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.type.DecimalType;
+import io.prestosql.spi.type.Type;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.stream.IntStream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static io.prestosql.spi.StandardErrorCode.GENERIC_INSUFFICIENT_RESOURCES;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.BooleanType.BOOLEAN;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.SmallintType.SMALLINT;
+import static io.prestosql.spi.type.TinyintType.TINYINT;
+import static io.prestosql.util.HashCollisionsEstimator.estimateNumberOfHashCollisions;
+import static it.unimi.dsi.fastutil.HashCommon.arraySize;
+import static it.unimi.dsi.fastutil.HashCommon.murmurHash3;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Group by hash for multiple fixed width columns, which packs the values of each row
+ * into at most two longs. The keys of a page are packed and hashed column by column
+ * before probing, and the probes only compare the packed longs of the groups.
+ */
+public class FixedWidthGroupByHash
+        implements GroupByHash
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(FixedWidthGroupByHash.class).instanceSize();
+
+    private static final float FILL_RATIO = 0.75f;
+    private static final int KEY_WORDS = 2;
+
+    private final List<Type> types;
+    private final List<Type> outputTypes;
+    private final int[] channels;
+    private final Optional<Integer> inputHashChannel;
+    private final InterpretedHashGenerator hashGenerator;
+
+    // location of the values of each column in the packed key
+    private final int[] columnWords;
+    private final int[] columnShifts;
+    private final int[] columnBits;
+    private final boolean[] booleanColumns;
+
+    private int hashCapacity;
+    private int maxFill;
+    private int mask;
+
+    // the hash table from packed keys to groupIds
+    private IntBigArray groupIds;
+
+    // reverse index from the groupId back to the packed key
+    private final LongBigArray firstKeysByGroupId;
+    private final LongBigArray secondKeysByGroupId;
+    private final IntBigArray nullsByGroupId;
+    private final LongBigArray rawHashesByGroupId;
+
+    private int nextGroupId;
+    private long hashCollisions;
+    private double expectedHashCollisions;
+
+    // reserve enough memory before rehash
+    private final UpdateMemory updateMemory;
+    private long preallocatedMemoryInBytes;
+    private long currentPageSizeInBytes;
+
+    public FixedWidthGroupByHash(List<? extends Type> hashTypes, int[] hashChannels, Optional<Integer> inputHashChannel, int expectedSize, UpdateMemory updateMemory)
+    {
+        this.types = ImmutableList.copyOf(requireNonNull(hashTypes, "hashTypes is null"));
+        this.channels = requireNonNull(hashChannels, "hashChannels is null").clone();
+        this.inputHashChannel = requireNonNull(inputHashChannel, "inputHashChannel is null");
+        checkArgument(types.size() == channels.length, "types and channels have different sizes");
+        checkArgument(isSupported(types), "types are not supported: %s", types);
+        checkArgument(expectedSize > 0, "expectedSize must be greater than zero");
+
+        ImmutableList.Builder<Type> outputTypes = ImmutableList.<Type>builder().addAll(types);
+        if (inputHashChannel.isPresent()) {
+            outputTypes.add(BIGINT);
+        }
+        this.outputTypes = outputTypes.build();
+        this.hashGenerator = new InterpretedHashGenerator(types, channels);
+
+        columnWords = new int[types.size()];
+        columnShifts = new int[types.size()];
+        columnBits = new int[types.size()];
+        booleanColumns = new boolean[types.size()];
+        int[] usedBits = new int[KEY_WORDS];
+        for (int column : columnsByDecreasingWidth(types)) {
+            Type type = types.get(column);
+            int bits = getBits(type).getAsInt();
+            // the widths are powers of two, so placing the widest columns first leaves no gaps
+            int word = usedBits[0] + bits <= Long.SIZE ? 0 : 1;
+            columnWords[column] = word;
+            columnShifts[column] = usedBits[word];
+            columnBits[column] = bits;
+            booleanColumns[column] = type.equals(BOOLEAN);
+            usedBits[word] += bits;
+        }
+
+        hashCapacity = arraySize(expectedSize, FILL_RATIO);
+
+        maxFill = calculateMaxFill(hashCapacity);
+        mask = hashCapacity - 1;
+        groupIds = new IntBigArray(-1);
+        groupIds.ensureCapacity(hashCapacity);
+
+        firstKeysByGroupId = new LongBigArray();
+        firstKeysByGroupId.ensureCapacity(maxFill);
+        secondKeysByGroupId = new LongBigArray();
+        secondKeysByGroupId.ensureCapacity(maxFill);
+        nullsByGroupId = new IntBigArray();
+        nullsByGroupId.ensureCapacity(maxFill);
+        rawHashesByGroupId = new LongBigArray();
+        rawHashesByGroupId.ensureCapacity(maxFill);
+
+        // This interface is used for actively reserving memory (push model) for rehash.
+        // The caller can also query memory usage on this object (pull model)
+        this.updateMemory = requireNonNull(updateMemory, "updateMemory is null");
+    }
+
+    /**
+     * Returns true if the values of the types can be packed into the keys of this hash.
+     */
+    public static boolean isSupported(List<? extends Type> types)
+    {
+        int[] usedBits = new int[KEY_WORDS];
+        for (int column : columnsByDecreasingWidth(types)) {
+            OptionalInt bits = getBits(types.get(column));
+            if (!bits.isPresent()) {
+                return false;
+            }
+            int word = usedBits[0] + bits.getAsInt() <= Long.SIZE ? 0 : 1;
+            usedBits[word] += bits.getAsInt();
+            if (usedBits[word] > Long.SIZE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] columnsByDecreasingWidth(List<? extends Type> types)
+    {
+        return IntStream.range(0, types.size())
+                .boxed()
+                .sorted(Comparator.comparingInt(column -> -getBits(types.get(column)).orElse(Long.SIZE + 1)))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private static OptionalInt getBits(Type type)
+    {
+        if (type.equals(BIGINT) || (type instanceof DecimalType && ((DecimalType) type).isShort())) {
+            return OptionalInt.of(Long.SIZE);
+        }
+        if (type.equals(INTEGER) || type.equals(DATE)) {
+            return OptionalInt.of(Integer.SIZE);
+        }
+        if (type.equals(SMALLINT)) {
+            return OptionalInt.of(Short.SIZE);
+        }
+        if (type.equals(TINYINT) || type.equals(BOOLEAN)) {
+            return OptionalInt.of(Byte.SIZE);
+        }
+        return OptionalInt.empty();
+    }
+
+    @Override
+    public long getEstimatedSize()
+    {
+        return INSTANCE_SIZE +
+                groupIds.sizeOf() +
+                firstKeysByGroupId.sizeOf() +
+                secondKeysByGroupId.sizeOf() +
+                nullsByGroupId.sizeOf() +
+                rawHashesByGroupId.sizeOf() +
+                preallocatedMemoryInBytes;
+    }
+
+    @Override
+    public long getHashCollisions()
+    {
+        return hashCollisions;
+    }
+
+    @Override
+    public double getExpectedHashCollisions()
+    {
+        return expectedHashCollisions + estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+    }
+
+    @Override
+    public List<Type> getTypes()
+    {
+        return outputTypes;
+    }
+
+    @Override
+    public int getGroupCount()
+    {
+        return nextGroupId;
+    }
+
+    @Override
+    public void appendValuesTo(int groupId, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        checkArgument(groupId >= 0, "groupId is negative");
+        long firstKey = firstKeysByGroupId.get(groupId);
+        long secondKey = secondKeysByGroupId.get(groupId);
+        int nulls = nullsByGroupId.get(groupId);
+        for (int column = 0; column < types.size(); column++) {
+            BlockBuilder blockBuilder = pageBuilder.getBlockBuilder(outputChannelOffset + column);
+            if ((nulls & (1 << column)) != 0) {
+                blockBuilder.appendNull();
+                continue;
+            }
+            long value = unpack(column, columnWords[column] == 0 ? firstKey : secondKey);
+            if (booleanColumns[column]) {
+                BOOLEAN.writeBoolean(blockBuilder, value != 0);
+            }
+            else {
+                types.get(column).writeLong(blockBuilder, value);
+            }
+        }
+
+        if (inputHashChannel.isPresent()) {
+            BIGINT.writeLong(pageBuilder.getBlockBuilder(outputChannelOffset + types.size()), rawHashesByGroupId.get(groupId));
+        }
+    }
+
+    @Override
+    public Work<?> addPage(Page page)
+    {
+        return new AddPageWork(packKeys(page));
+    }
+
+    @Override
+    public Work<GroupByIdBlock> getGroupIds(Page page)
+    {
+        return new GetGroupIdsWork(packKeys(page));
+    }
+
+    @Override
+    public boolean contains(int position, Page page, int[] hashChannels)
+    {
+        long[] keys = new long[KEY_WORDS];
+        int nulls = 0;
+        for (int column = 0; column < types.size(); column++) {
+            Block block = page.getBlock(hashChannels[column]);
+            if (block.isNull(position)) {
+                nulls |= 1 << column;
+            }
+            else {
+                keys[columnWords[column]] |= pack(column, block, position);
+            }
+        }
+        long firstKey = keys[0];
+        long secondKey = keys[1];
+
+        long hashPosition = hash(firstKey, secondKey, nulls) & mask;
+        // look for an empty slot or a slot containing this key
+        while (true) {
+            int groupId = groupIds.get(hashPosition);
+            if (groupId == -1) {
+                return false;
+            }
+            if (keyEquals(groupId, firstKey, secondKey, nulls)) {
+                return true;
+            }
+
+            // increment position and mask to handle wrap around
+            hashPosition = (hashPosition + 1) & mask;
+        }
+    }
+
+    @Override
+    public long getRawHash(int groupId)
+    {
+        return rawHashesByGroupId.get(groupId);
+    }
+
+    @VisibleForTesting
+    @Override
+    public int getCapacity()
+    {
+        return hashCapacity;
+    }
+
+    private PackedKeys packKeys(Page page)
+    {
+        int positionCount = page.getPositionCount();
+        long[] firstKeys = new long[positionCount];
+        long[] secondKeys = new long[positionCount];
+        int[] nulls = new int[positionCount];
+
+        // pack a column at a time, so that each loop only reads from a single block
+        for (int column = 0; column < types.size(); column++) {
+            Block block = page.getBlock(channels[column]);
+            long[] keys = columnWords[column] == 0 ? firstKeys : secondKeys;
+            int nullBit = 1 << column;
+            boolean mayHaveNull = block.mayHaveNull();
+            for (int position = 0; position < positionCount; position++) {
+                if (mayHaveNull && block.isNull(position)) {
+                    nulls[position] |= nullBit;
+                }
+                else {
+                    keys[position] |= pack(column, block, position);
+                }
+            }
+        }
+
+        long[] hashes = new long[positionCount];
+        for (int position = 0; position < positionCount; position++) {
+            hashes[position] = hash(firstKeys[position], secondKeys[position], nulls[position]);
+        }
+
+        PackedKeys packedKeys = new PackedKeys(page, firstKeys, secondKeys, nulls, hashes);
+        currentPageSizeInBytes = page.getRetainedSizeInBytes() + packedKeys.getSizeInBytes();
+        return packedKeys;
+    }
+
+    private long pack(int column, Block block, int position)
+    {
+        Type type = types.get(column);
+        long value = booleanColumns[column] ? (type.getBoolean(block, position) ? 1 : 0) : type.getLong(block, position);
+        int bits = columnBits[column];
+        if (bits < Long.SIZE) {
+            value &= (1L << bits) - 1;
+        }
+        return value << columnShifts[column];
+    }
+
+    private long unpack(int column, long key)
+    {
+        int unusedBits = Long.SIZE - columnBits[column];
+        // shift the value to the top of the long first to restore its sign
+        return (key << (unusedBits - columnShifts[column])) >> unusedBits;
+    }
+
+    private static long hash(long firstKey, long secondKey, int nulls)
+    {
+        return murmurHash3(murmurHash3(firstKey) ^ secondKey ^ nulls);
+    }
+
+    private boolean keyEquals(int groupId, long firstKey, long secondKey, int nulls)
+    {
+        return firstKeysByGroupId.get(groupId) == firstKey &&
+                secondKeysByGroupId.get(groupId) == secondKey &&
+                nullsByGroupId.get(groupId) == nulls;
+    }
+
+    private int putIfAbsent(int position, PackedKeys packedKeys)
+    {
+        long firstKey = packedKeys.getFirstKey(position);
+        long secondKey = packedKeys.getSecondKey(position);
+        int nulls = packedKeys.getNulls(position);
+        long hashPosition = packedKeys.getHash(position) & mask;
+
+        // look for an empty slot or a slot containing this key
+        while (true) {
+            int groupId = groupIds.get(hashPosition);
+            if (groupId == -1) {
+                break;
+            }
+
+            if (keyEquals(groupId, firstKey, secondKey, nulls)) {
+                return groupId;
+            }
+
+            // increment position and mask to handle wrap around
+            hashPosition = (hashPosition + 1) & mask;
+            hashCollisions++;
+        }
+
+        return addNewGroup(hashPosition, position, packedKeys);
+    }
+
+    private int addNewGroup(long hashPosition, int position, PackedKeys packedKeys)
+    {
+        // record group id in hash
+        int groupId = nextGroupId++;
+
+        firstKeysByGroupId.set(groupId, packedKeys.getFirstKey(position));
+        secondKeysByGroupId.set(groupId, packedKeys.getSecondKey(position));
+        nullsByGroupId.set(groupId, packedKeys.getNulls(position));
+        // the raw hash must match the hash of the other operators, so it is taken from the input or computed from the values
+        Page page = packedKeys.getPage();
+        long rawHash;
+        if (inputHashChannel.isPresent()) {
+            rawHash = BIGINT.getLong(page.getBlock(inputHashChannel.get()), position);
+        }
+        else {
+            rawHash = hashGenerator.hashPosition(position, page);
+        }
+        rawHashesByGroupId.set(groupId, rawHash);
+        groupIds.set(hashPosition, groupId);
+
+        // increase capacity, if necessary
+        if (needRehash()) {
+            tryRehash();
+        }
+        return groupId;
+    }
+
+    private boolean tryRehash()
+    {
+        long newCapacityLong = hashCapacity * 2L;
+        if (newCapacityLong > Integer.MAX_VALUE) {
+            throw new PrestoException(GENERIC_INSUFFICIENT_RESOURCES, "Size of hash table cannot exceed 1 billion entries");
+        }
+        int newCapacity = toIntExact(newCapacityLong);
+
+        // An estimate of how much extra memory is needed before we can go ahead and expand the hash table.
+        // This includes the new capacity for groupIds and the keys by groupId as well as the size of the current page
+        preallocatedMemoryInBytes = (newCapacity - hashCapacity) * (long) Integer.BYTES +
+                (calculateMaxFill(newCapacity) - maxFill) * (long) (Long.BYTES * 3 + Integer.BYTES) +
+                currentPageSizeInBytes;
+        if (!updateMemory.update()) {
+            // reserved memory but has exceeded the limit
+            return false;
+        }
+        preallocatedMemoryInBytes = 0;
+
+        expectedHashCollisions += estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+
+        int newMask = newCapacity - 1;
+        IntBigArray newGroupIds = new IntBigArray(-1);
+        newGroupIds.ensureCapacity(newCapacity);
+
+        for (int groupId = 0; groupId < nextGroupId; groupId++) {
+            // find an empty slot for the address
+            long hashPosition = hash(firstKeysByGroupId.get(groupId), secondKeysByGroupId.get(groupId), nullsByGroupId.get(groupId)) & newMask;
+            while (newGroupIds.get(hashPosition) != -1) {
+                hashPosition = (hashPosition + 1) & newMask;
+                hashCollisions++;
+            }
+
+            // record the mapping
+            newGroupIds.set(hashPosition, groupId);
+        }
+
+        mask = newMask;
+        hashCapacity = newCapacity;
+        maxFill = calculateMaxFill(hashCapacity);
+        groupIds = newGroupIds;
+
+        firstKeysByGroupId.ensureCapacity(maxFill);
+        secondKeysByGroupId.ensureCapacity(maxFill);
+        nullsByGroupId.ensureCapacity(maxFill);
+        rawHashesByGroupId.ensureCapacity(maxFill);
+        return true;
+    }
+
+    private boolean needRehash()
+    {
+        return nextGroupId >= maxFill;
+    }
+
+    private static int calculateMaxFill(int hashSize)
+    {
+        checkArgument(hashSize > 0, "hashSize must be greater than 0");
+        int maxFill = (int) Math.ceil(hashSize * FILL_RATIO);
+        if (maxFill == hashSize) {
+            maxFill--;
+        }
+        checkArgument(hashSize > maxFill, "hashSize must be larger than maxFill");
+        return maxFill;
+    }
+
+    private static class PackedKeys
+    {
+        private final Page page;
+        private final long[] firstKeys;
+        private final long[] secondKeys;
+        private final int[] nulls;
+        private final long[] hashes;
+
+        public PackedKeys(Page page, long[] firstKeys, long[] secondKeys, int[] nulls, long[] hashes)
+        {
+            this.page = requireNonNull(page, "page is null");
+            this.firstKeys = requireNonNull(firstKeys, "firstKeys is null");
+            this.secondKeys = requireNonNull(secondKeys, "secondKeys is null");
+            this.nulls = requireNonNull(nulls, "nulls is null");
+            this.hashes = requireNonNull(hashes, "hashes is null");
+        }
+
+        public Page getPage()
+        {
+            return page;
+        }
+
+        public int getPositionCount()
+        {
+            return page.getPositionCount();
+        }
+
+        public long getFirstKey(int position)
+        {
+            return firstKeys[position];
+        }
+
+        public long getSecondKey(int position)
+        {
+            return secondKeys[position];
+        }
+
+        public int getNulls(int position)
+        {
+            return nulls[position];
+        }
+
+        public long getHash(int position)
+        {
+            return hashes[position];
+        }
+
+        public long getSizeInBytes()
+        {
+            return getPositionCount() * (long) (Long.BYTES * 3 + Integer.BYTES);
+        }
+    }
+
+    private class AddPageWork
+            implements Work<Void>
+    {
+        private final PackedKeys packedKeys;
+
+        private int lastPosition;
+
+        public AddPageWork(PackedKeys packedKeys)
+        {
+            this.packedKeys = requireNonNull(packedKeys, "packedKeys is null");
+        }
+
+        @Override
+        public boolean process()
+        {
+            int positionCount = packedKeys.getPositionCount();
+            checkState(lastPosition < positionCount, "position count out of bound");
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                // get the group for the current row
+                putIfAbsent(lastPosition, packedKeys);
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public Void getResult()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class GetGroupIdsWork
+            implements Work<GroupByIdBlock>
+    {
+        private final BlockBuilder blockBuilder;
+        private final PackedKeys packedKeys;
+
+        private boolean finished;
+        private int lastPosition;
+
+        public GetGroupIdsWork(PackedKeys packedKeys)
+        {
+            this.packedKeys = requireNonNull(packedKeys, "packedKeys is null");
+            // we know the exact size required for the block
+            this.blockBuilder = BIGINT.createFixedSizeBlockBuilder(packedKeys.getPositionCount());
+        }
+
+        @Override
+        public boolean process()
+        {
+            int positionCount = packedKeys.getPositionCount();
+            checkState(lastPosition < positionCount, "position count out of bound");
+            checkState(!finished);
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                // output the group id for this row
+                BIGINT.writeLong(blockBuilder, putIfAbsent(lastPosition, packedKeys));
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public GroupByIdBlock getResult()
+        {
+            checkState(lastPosition == packedKeys.getPositionCount(), "process has not yet finished");
+            checkState(!finished, "result has produced");
+            finished = true;
+            return new GroupByIdBlock(nextGroupId, blockBuilder.build());
+        }
+    }
+}
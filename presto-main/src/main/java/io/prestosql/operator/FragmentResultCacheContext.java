@@ -0,0 +1,61 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import io.prestosql.metadata.Split;
+import io.prestosql.operator.FragmentResultCacheManager.CachedResult;
+import io.prestosql.sql.planner.plan.PlanNodeId;
+
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Caches the results of a pipeline which reads a single partitioned source and
+ * feeds the output operator of a leaf fragment.
+ */
+public class FragmentResultCacheContext
+{
+    private final FragmentResultCacheManager fragmentResultCacheManager;
+    private final String planKey;
+    private final int readOperatorId;
+    private final int writeOperatorId;
+    private final PlanNodeId planNodeId;
+
+    public FragmentResultCacheContext(FragmentResultCacheManager fragmentResultCacheManager, String planKey, int readOperatorId, int writeOperatorId, PlanNodeId planNodeId)
+    {
+        this.fragmentResultCacheManager = requireNonNull(fragmentResultCacheManager, "fragmentResultCacheManager is null");
+        this.planKey = requireNonNull(planKey, "planKey is null");
+        this.readOperatorId = readOperatorId;
+        this.writeOperatorId = writeOperatorId;
+        this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
+    }
+
+    public Optional<CachedResult> getCachedResult(Split split)
+    {
+        return fragmentResultCacheManager.get(planKey, split);
+    }
+
+    public Operator createReadOperator(DriverContext driverContext, PlanNodeId sourceId, CachedResult cachedResult)
+    {
+        OperatorContext operatorContext = driverContext.addOperatorContext(readOperatorId, sourceId, FragmentResultCacheReadOperator.class.getSimpleName());
+        return new FragmentResultCacheReadOperator(operatorContext, sourceId, cachedResult);
+    }
+
+    public Operator createWriteOperator(DriverContext driverContext, Split split)
+    {
+        OperatorContext operatorContext = driverContext.addOperatorContext(writeOperatorId, planNodeId, FragmentResultCacheWriteOperator.class.getSimpleName());
+        return new FragmentResultCacheWriteOperator(operatorContext, fragmentResultCacheManager, planKey, split);
+    }
+}
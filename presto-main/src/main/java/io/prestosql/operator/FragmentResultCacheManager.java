@@ -0,0 +1,62 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import io.prestosql.Session;
+import io.prestosql.metadata.Split;
+import io.prestosql.spi.Page;
+import io.prestosql.sql.planner.plan.PlanNode;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Caches the output pages of a leaf plan fragment for each split, so that
+ * queries running the same fragment over the same unchanged data can skip
+ * reading and processing the split.
+ */
+public interface FragmentResultCacheManager
+{
+    /**
+     * Returns the key under which the results of the plan fragment are cached,
+     * or empty if results are not cached. The key covers the session state which
+     * may affect the results, such as the time zone and the session properties.
+     */
+    Optional<String> getPlanKey(PlanNode plan, Session session);
+
+    long getMaxEntrySizeInBytes();
+
+    /**
+     * Returns the cached results of the split without reading them, so that
+     * looking up the cache never blocks.
+     */
+    Optional<CachedResult> get(String planKey, Split split);
+
+    void put(String planKey, Split split, List<Page> pages);
+
+    /**
+     * Pages of a cached result, read when they are iterated. The result must be
+     * closed to release the underlying storage.
+     */
+    interface CachedResult
+            extends Iterator<Page>, Closeable
+    {
+        long getRetainedSizeInBytes();
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.metadata.Split;
+import io.prestosql.operator.FragmentResultCacheManager.CachedResult;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.connector.UpdatablePageSource;
+import io.prestosql.sql.planner.plan.PlanNodeId;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Outputs the cached results of a split in place of the operators which would compute them.
+ */
+public class FragmentResultCacheReadOperator
+        implements SourceOperator
+{
+    private final OperatorContext operatorContext;
+    private final PlanNodeId sourceId;
+    private final CachedResult pages;
+    private final LocalMemoryContext systemMemoryContext;
+    private boolean finished;
+
+    public FragmentResultCacheReadOperator(OperatorContext operatorContext, PlanNodeId sourceId, CachedResult pages)
+    {
+        this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this.sourceId = requireNonNull(sourceId, "sourceId is null");
+        this.pages = requireNonNull(pages, "pages is null");
+        this.systemMemoryContext = operatorContext.newLocalSystemMemoryContext(FragmentResultCacheReadOperator.class.getSimpleName());
+    }
+
+    @Override
+    public OperatorContext getOperatorContext()
+    {
+        return operatorContext;
+    }
+
+    @Override
+    public PlanNodeId getSourceId()
+    {
+        return sourceId;
+    }
+
+    @Override
+    public Supplier<Optional<UpdatablePageSource>> addSplit(Split split)
+    {
+        // the results for the split are already cached
+        return Optional::empty;
+    }
+
+    @Override
+    public void noMoreSplits()
+    {
+    }
+
+    @Override
+    public void finish()
+    {
+        close();
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        if (!finished && !pages.hasNext()) {
+            close();
+        }
+        return finished;
+    }
+
+    @Override
+    public boolean needsInput()
+    {
+        return false;
+    }
+
+    @Override
+    public void addInput(Page page)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Page getOutput()
+    {
+        if (finished || !pages.hasNext()) {
+            return null;
+        }
+        Page page = pages.next();
+        systemMemoryContext.setBytes(pages.getRetainedSizeInBytes());
+        operatorContext.recordProcessedInput(page.getSizeInBytes(), page.getPositionCount());
+        return page;
+    }
+
+    @Override
+    public void close()
+    {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        pages.close();
+        systemMemoryContext.close();
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.metadata.Split;
+import io.prestosql.spi.Page;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Passes the pages through unchanged, keeping a copy of them to cache once all
+ * the results of the split have been produced.
+ */
+public class FragmentResultCacheWriteOperator
+        implements Operator
+{
+    private final OperatorContext operatorContext;
+    private final LocalMemoryContext memoryContext;
+    private final FragmentResultCacheManager fragmentResultCacheManager;
+    private final String planKey;
+    private final Split split;
+    private final long maxEntrySizeInBytes;
+
+    private final List<Page> result = new ArrayList<>();
+    private long resultSizeInBytes;
+    private boolean cacheable = true;
+
+    private Page page;
+    private boolean finishing;
+
+    public FragmentResultCacheWriteOperator(OperatorContext operatorContext, FragmentResultCacheManager fragmentResultCacheManager, String planKey, Split split)
+    {
+        this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this.memoryContext = operatorContext.localSystemMemoryContext();
+        this.fragmentResultCacheManager = requireNonNull(fragmentResultCacheManager, "fragmentResultCacheManager is null");
+        this.planKey = requireNonNull(planKey, "planKey is null");
+        this.split = requireNonNull(split, "split is null");
+        this.maxEntrySizeInBytes = fragmentResultCacheManager.getMaxEntrySizeInBytes();
+    }
+
+    @Override
+    public OperatorContext getOperatorContext()
+    {
+        return operatorContext;
+    }
+
+    @Override
+    public boolean needsInput()
+    {
+        return !finishing && page == null;
+    }
+
+    @Override
+    public void addInput(Page page)
+    {
+        checkState(needsInput(), "Operator is already finishing");
+        requireNonNull(page, "page is null");
+
+        // the page is cached after the page source is closed, so lazy blocks must be loaded now
+        page = page.getLoadedPage();
+        if (cacheable) {
+            resultSizeInBytes += page.getRetainedSizeInBytes();
+            if (resultSizeInBytes > maxEntrySizeInBytes) {
+                cacheable = false;
+                result.clear();
+                memoryContext.setBytes(0);
+            }
+            else {
+                result.add(page);
+                memoryContext.setBytes(resultSizeInBytes);
+            }
+        }
+        this.page = page;
+    }
+
+    @Override
+    public Page getOutput()
+    {
+        Page output = page;
+        page = null;
+        return output;
+    }
+
+    @Override
+    public void finish()
+    {
+        if (finishing) {
+            return;
+        }
+        finishing = true;
+        if (cacheable) {
+            fragmentResultCacheManager.put(planKey, split, result);
+        }
+        result.clear();
+        memoryContext.setBytes(0);
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return finishing && page == null;
+    }
+
+    @Override
+    public void close()
+    {
+        result.clear();
+        memoryContext.close();
+    }
+}
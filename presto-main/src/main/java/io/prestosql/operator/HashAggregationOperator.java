@@ -23,6 +23,8 @@ import io.prestosql.operator.aggregation.AccumulatorFactory;
 import io.prestosql.operator.aggregation.builder.HashAggregationBuilder;
 import io.prestosql.operator.aggregation.builder.InMemoryHashAggregationBuilder;
 import io.prestosql.operator.aggregation.builder.SpillableHashAggregationBuilder;
+import io.prestosql.operator.aggregation.partial.PartialAggregationController;
+import io.prestosql.operator.aggregation.partial.SkipAggregationBuilder;
 import io.prestosql.operator.scalar.CombineHashFunction;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
@@ -42,6 +44,7 @@ import static com.google.common.base.Verify.verify;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.operator.aggregation.builder.InMemoryHashAggregationBuilder.toTypes;
 import static io.prestosql.sql.planner.optimizations.HashGenerationOptimizer.INITIAL_HASH_VALUE;
+import static io.prestosql.sql.planner.plan.AggregationNode.Step.PARTIAL;
 import static io.prestosql.type.TypeUtils.NULL_HASH_CODE;
 import static java.util.Objects.requireNonNull;
 
@@ -66,6 +69,7 @@ public class HashAggregationOperator
 
         private final int expectedGroups;
         private final Optional<DataSize> maxPartialMemory;
+        private final Optional<PartialAggregationController> partialAggregationController;
         private final boolean spillEnabled;
         private final DataSize memoryLimitForMerge;
         private final DataSize memoryLimitForMergeWithMemory;
@@ -103,6 +107,7 @@ public class HashAggregationOperator
                     groupIdChannel,
                     expectedGroups,
                     maxPartialMemory,
+                    Optional.empty(),
                     false,
                     DataSize.of(0, MEGABYTE),
                     DataSize.of(0, MEGABYTE),
@@ -126,6 +131,7 @@ public class HashAggregationOperator
                 Optional<Integer> groupIdChannel,
                 int expectedGroups,
                 Optional<DataSize> maxPartialMemory,
+                Optional<PartialAggregationController> partialAggregationController,
                 boolean spillEnabled,
                 DataSize unspillMemoryLimit,
                 SpillerFactory spillerFactory,
@@ -144,6 +150,7 @@ public class HashAggregationOperator
                     groupIdChannel,
                     expectedGroups,
                     maxPartialMemory,
+                    partialAggregationController,
                     spillEnabled,
                     unspillMemoryLimit,
                     DataSize.succinctBytes((long) (unspillMemoryLimit.toBytes() * MERGE_WITH_MEMORY_RATIO)),
@@ -166,6 +173,7 @@ public class HashAggregationOperator
                 Optional<Integer> groupIdChannel,
                 int expectedGroups,
                 Optional<DataSize> maxPartialMemory,
+                Optional<PartialAggregationController> partialAggregationController,
                 boolean spillEnabled,
                 DataSize memoryLimitForMerge,
                 DataSize memoryLimitForMergeWithMemory,
@@ -185,6 +193,7 @@ public class HashAggregationOperator
             this.accumulatorFactories = ImmutableList.copyOf(accumulatorFactories);
             this.expectedGroups = expectedGroups;
             this.maxPartialMemory = requireNonNull(maxPartialMemory, "maxPartialMemory is null");
+            this.partialAggregationController = requireNonNull(partialAggregationController, "partialAggregationController is null");
             this.spillEnabled = spillEnabled;
             this.memoryLimitForMerge = requireNonNull(memoryLimitForMerge, "memoryLimitForMerge is null");
             this.memoryLimitForMergeWithMemory = requireNonNull(memoryLimitForMergeWithMemory, "memoryLimitForMergeWithMemory is null");
@@ -211,6 +220,7 @@ public class HashAggregationOperator
                     groupIdChannel,
                     expectedGroups,
                     maxPartialMemory,
+                    partialAggregationController,
                     spillEnabled,
                     memoryLimitForMerge,
                     memoryLimitForMergeWithMemory,
@@ -242,6 +252,7 @@ public class HashAggregationOperator
                     groupIdChannel,
                     expectedGroups,
                     maxPartialMemory,
+                    partialAggregationController.map(PartialAggregationController::duplicate),
                     spillEnabled,
                     memoryLimitForMerge,
                     memoryLimitForMergeWithMemory,
@@ -262,6 +273,7 @@ public class HashAggregationOperator
     private final Optional<Integer> groupIdChannel;
     private final int expectedGroups;
     private final Optional<DataSize> maxPartialMemory;
+    private final Optional<PartialAggregationController> partialAggregationController;
     private final boolean spillEnabled;
     private final DataSize memoryLimitForMerge;
     private final DataSize memoryLimitForMergeWithMemory;
@@ -279,6 +291,13 @@ public class HashAggregationOperator
     private boolean finishing;
     private boolean finished;
 
+    // statistics of the partial aggregation, reported to the partial aggregation controller
+    private long aggregationBuilderInputRows;
+    private boolean aggregationBuilderReported;
+    private long aggregatedRows;
+    private long uniqueRows;
+    private long skippedRows;
+
     // for yield when memory is not available
     private Work<?> unfinishedWork;
 
@@ -294,6 +313,7 @@ public class HashAggregationOperator
             Optional<Integer> groupIdChannel,
             int expectedGroups,
             Optional<DataSize> maxPartialMemory,
+            Optional<PartialAggregationController> partialAggregationController,
             boolean spillEnabled,
             DataSize memoryLimitForMerge,
             DataSize memoryLimitForMergeWithMemory,
@@ -316,6 +336,9 @@ public class HashAggregationOperator
         this.produceDefaultOutput = produceDefaultOutput;
         this.expectedGroups = expectedGroups;
         this.maxPartialMemory = requireNonNull(maxPartialMemory, "maxPartialMemory is null");
+        // partial aggregations with ORDER BY or DISTINCT cannot produce an intermediate state per row
+        this.partialAggregationController = requireNonNull(partialAggregationController, "partialAggregationController is null")
+                .filter(controller -> step == PARTIAL && !groupByChannels.isEmpty() && !hasOrderBy() && !hasDistinct());
         this.types = toTypes(groupByTypes, step, accumulatorFactories, hashChannel);
         this.spillEnabled = spillEnabled;
         this.memoryLimitForMerge = requireNonNull(memoryLimitForMerge, "memoryLimitForMerge is null");
@@ -356,7 +379,7 @@ public class HashAggregationOperator
         if (finishing || outputPages != null) {
             return false;
         }
-        else if (aggregationBuilder != null && aggregationBuilder.isFull()) {
+        else if (aggregationBuilder != null && (aggregationBuilder.isFull() || shouldFlushPartialAggregation())) {
             return false;
         }
         else {
@@ -372,7 +395,11 @@ public class HashAggregationOperator
         requireNonNull(page, "page is null");
         inputProcessed = true;
 
-        if (aggregationBuilder == null) {
+        if (aggregationBuilder == null && isPartialAggregationDisabled()) {
+            aggregationBuilder = new SkipAggregationBuilder(groupByChannels, hashChannel, accumulatorFactories, memoryContext);
+            operatorContext.setInfoSupplier(() -> new PartialAggregationInfo(aggregatedRows, uniqueRows, skippedRows));
+        }
+        else if (aggregationBuilder == null) {
             // TODO: We ignore spillEnabled here if any aggregate has ORDER BY clause or DISTINCT because they are not yet implemented for spilling.
             if (step.isOutputPartial() || !spillEnabled || hasOrderBy() || hasDistinct()) {
                 aggregationBuilder = new InMemoryHashAggregationBuilder(
@@ -422,6 +449,39 @@ public class HashAggregationOperator
             unfinishedWork = null;
         }
         aggregationBuilder.updateMemory();
+
+        if (aggregationBuilder instanceof SkipAggregationBuilder) {
+            skippedRows += page.getPositionCount();
+        }
+        else if (partialAggregationController.isPresent()) {
+            aggregationBuilderInputRows += page.getPositionCount();
+            if (aggregationBuilderInputRows >= partialAggregationController.get().getMinRows()) {
+                reportPartialAggregation();
+            }
+        }
+    }
+
+    private boolean isPartialAggregationDisabled()
+    {
+        return partialAggregationController.map(PartialAggregationController::isPartialAggregationDisabled).orElse(false);
+    }
+
+    private boolean shouldFlushPartialAggregation()
+    {
+        // flush the rows aggregated so far, so that the following rows can skip the aggregation
+        return aggregationBuilder instanceof InMemoryHashAggregationBuilder && isPartialAggregationDisabled();
+    }
+
+    private void reportPartialAggregation()
+    {
+        if (aggregationBuilderReported || !(aggregationBuilder instanceof InMemoryHashAggregationBuilder)) {
+            return;
+        }
+        aggregationBuilderReported = true;
+        long groupCount = ((InMemoryHashAggregationBuilder) aggregationBuilder).getGroupCount();
+        aggregatedRows += aggregationBuilderInputRows;
+        uniqueRows += groupCount;
+        partialAggregationController.get().onAggregation(aggregationBuilderInputRows, groupCount);
     }
 
     private boolean hasOrderBy()
@@ -482,8 +542,8 @@ public class HashAggregationOperator
                 }
             }
 
-            // only flush if we are finishing or the aggregation builder is full
-            if (!finishing && (aggregationBuilder == null || !aggregationBuilder.isFull())) {
+            // only flush if we are finishing, the aggregation builder is full or the partial aggregation got disabled
+            if (!finishing && (aggregationBuilder == null || !(aggregationBuilder.isFull() || shouldFlushPartialAggregation()))) {
                 return null;
             }
 
@@ -495,7 +555,13 @@ public class HashAggregationOperator
         }
 
         if (outputPages.isFinished()) {
-            closeAggregationBuilder();
+            if (aggregationBuilder instanceof SkipAggregationBuilder && !finishing) {
+                // keep skipping the aggregation with the same builder, so that its buffers are reused
+                outputPages = null;
+            }
+            else {
+                closeAggregationBuilder();
+            }
             return null;
         }
 
@@ -518,6 +584,11 @@ public class HashAggregationOperator
     {
         outputPages = null;
         if (aggregationBuilder != null) {
+            if (partialAggregationController.isPresent()) {
+                reportPartialAggregation();
+                aggregationBuilderInputRows = 0;
+                aggregationBuilderReported = false;
+            }
             aggregationBuilder.recordHashCollisions(hashCollisionsCounter);
             aggregationBuilder.close();
             // aggregationBuilder.close() will release all memory reserved in memory accounting.
@@ -0,0 +1,249 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Closer;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.prestosql.array.LongBigArray;
+import io.prestosql.operator.exchange.LocalPartitionGenerator;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.RunLengthEncodedBlock;
+import io.prestosql.spi.type.Type;
+import io.prestosql.spiller.PartitioningSpiller;
+import io.prestosql.spiller.PartitioningSpillerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.concurrent.MoreFutures.checkSuccess;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static java.util.Collections.emptyIterator;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Spills the pages of an operator which keeps state per group, partitioned by the hash of
+ * the grouping channels, so that each partition can be processed separately once all the
+ * input was received. The groups which were already in memory (optionally with a BIGINT state
+ * per group) and the input pages are spilled separately, but are partitioned the same way.
+ */
+class HashPartitionedSpiller
+        implements Closeable
+{
+    private static final int PARTITION_COUNT = 16;
+
+    private final PartitioningSpillerFactory spillerFactory;
+    private final OperatorContext operatorContext;
+    private final List<Type> inputTypes;
+    private final List<Integer> groupChannels;
+    private final Optional<Integer> hashChannel;
+    private final List<Type> groupTypes;
+    private final Closer closer = Closer.create();
+
+    private Optional<PartitioningSpiller> inputSpiller = Optional.empty();
+    private Optional<PartitioningSpiller> groupSpiller = Optional.empty();
+    private boolean groupsHaveState;
+
+    public HashPartitionedSpiller(
+            PartitioningSpillerFactory spillerFactory,
+            OperatorContext operatorContext,
+            List<Type> inputTypes,
+            List<Integer> groupChannels,
+            Optional<Integer> hashChannel)
+    {
+        this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
+        this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this.inputTypes = ImmutableList.copyOf(requireNonNull(inputTypes, "inputTypes is null"));
+        this.groupChannels = ImmutableList.copyOf(requireNonNull(groupChannels, "groupChannels is null"));
+        this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
+        checkArgument(!groupChannels.isEmpty(), "groupChannels is empty");
+        this.groupTypes = groupChannels.stream()
+                .map(inputTypes::get)
+                .collect(toImmutableList());
+    }
+
+    public int getPartitionCount()
+    {
+        return PARTITION_COUNT;
+    }
+
+    /**
+     * Spills the input pages. The returned future must be completed before spilling again.
+     */
+    public ListenableFuture<?> spillInput(Iterator<Page> pages)
+    {
+        if (!inputSpiller.isPresent()) {
+            inputSpiller = Optional.of(createSpiller(inputTypes, groupChannels));
+        }
+        return spill(inputSpiller.get(), pages);
+    }
+
+    /**
+     * Spills all the groups of the hash, which must have been built on the grouping channels
+     * of the input pages, followed by their state if present. The returned future must be
+     * completed before spilling again.
+     */
+    public ListenableFuture<?> spillGroups(GroupByHash groupByHash, Optional<LongBigArray> groupStates)
+    {
+        if (!groupSpiller.isPresent()) {
+            groupsHaveState = groupStates.isPresent();
+            ImmutableList.Builder<Type> types = ImmutableList.<Type>builder().addAll(groupByHash.getTypes());
+            if (groupsHaveState) {
+                types.add(BIGINT);
+            }
+            // the precomputed hash, if any, follows the group values
+            List<Integer> channels = IntStream.range(0, groupTypes.size()).boxed().collect(toImmutableList());
+            groupSpiller = Optional.of(createSpiller(types.build(), channels));
+        }
+        checkArgument(groupStates.isPresent() == groupsHaveState, "groups were previously spilled with a different state");
+        return spill(groupSpiller.get(), new GroupPagesIterator(groupByHash, groupStates));
+    }
+
+    public Iterator<Page> getInputPages(int partition)
+    {
+        return inputSpiller.map(spiller -> spiller.getSpilledPages(partition)).orElse(emptyIterator());
+    }
+
+    /**
+     * Returns the spilled groups of the partition in the layout of the input pages, followed
+     * by the BIGINT state channel if the groups were spilled with their state.
+     */
+    public Iterator<Page> getGroupPages(int partition)
+    {
+        if (!groupSpiller.isPresent()) {
+            return emptyIterator();
+        }
+        Iterator<Page> pages = groupSpiller.get().getSpilledPages(partition);
+        return new AbstractIterator<Page>()
+        {
+            @Override
+            protected Page computeNext()
+            {
+                if (!pages.hasNext()) {
+                    return endOfData();
+                }
+                return toInputLayout(pages.next());
+            }
+        };
+    }
+
+    private Page toInputLayout(Page groupPage)
+    {
+        int positionCount = groupPage.getPositionCount();
+        Block[] blocks = new Block[inputTypes.size() + (groupsHaveState ? 1 : 0)];
+        for (int channel = 0; channel < inputTypes.size(); channel++) {
+            blocks[channel] = RunLengthEncodedBlock.create(inputTypes.get(channel), null, positionCount);
+        }
+        int groupChannel = 0;
+        for (int channel : groupChannels) {
+            blocks[channel] = groupPage.getBlock(groupChannel++);
+        }
+        if (hashChannel.isPresent()) {
+            blocks[hashChannel.get()] = groupPage.getBlock(groupChannel++);
+        }
+        if (groupsHaveState) {
+            blocks[inputTypes.size()] = groupPage.getBlock(groupChannel);
+        }
+        return new Page(positionCount, blocks);
+    }
+
+    private PartitioningSpiller createSpiller(List<Type> types, List<Integer> partitionChannels)
+    {
+        // always hash the values, as the precomputed hash of the groups might differ from the one of the input
+        LocalPartitionGenerator partitionGenerator = new LocalPartitionGenerator(new InterpretedHashGenerator(groupTypes, partitionChannels), PARTITION_COUNT);
+        return closer.register(spillerFactory.create(
+                types,
+                partitionGenerator,
+                operatorContext.getSpillContext().newLocalSpillContext(),
+                operatorContext.newAggregateSystemMemoryContext()));
+    }
+
+    private static ListenableFuture<?> spill(PartitioningSpiller spiller, Iterator<Page> pages)
+    {
+        while (pages.hasNext()) {
+            ListenableFuture<?> future = spiller.partitionAndSpill(pages.next(), partition -> true).getSpillingFuture();
+            if (!future.isDone()) {
+                // the next page can only be spilled once the previous spill is finished
+                return Futures.transformAsync(future, ignored -> spill(spiller, pages), directExecutor());
+            }
+            checkSuccess(future, "spilling failed");
+        }
+        return immediateFuture(null);
+    }
+
+    @Override
+    public void close()
+    {
+        try {
+            closer.close();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class GroupPagesIterator
+            extends AbstractIterator<Page>
+    {
+        private final GroupByHash groupByHash;
+        private final Optional<LongBigArray> groupStates;
+        private final PageBuilder pageBuilder;
+        private final int stateChannel;
+        private int groupId;
+
+        public GroupPagesIterator(GroupByHash groupByHash, Optional<LongBigArray> groupStates)
+        {
+            this.groupByHash = requireNonNull(groupByHash, "groupByHash is null");
+            this.groupStates = requireNonNull(groupStates, "groupStates is null");
+            ImmutableList.Builder<Type> types = ImmutableList.<Type>builder().addAll(groupByHash.getTypes());
+            groupStates.ifPresent(states -> types.add(BIGINT));
+            this.pageBuilder = new PageBuilder(types.build());
+            this.stateChannel = groupByHash.getTypes().size();
+        }
+
+        @Override
+        protected Page computeNext()
+        {
+            if (groupId == groupByHash.getGroupCount()) {
+                return endOfData();
+            }
+            checkState(pageBuilder.isEmpty());
+            while (!pageBuilder.isFull() && groupId < groupByHash.getGroupCount()) {
+                pageBuilder.declarePosition();
+                groupByHash.appendValuesTo(groupId, pageBuilder, 0);
+                if (groupStates.isPresent()) {
+                    BIGINT.writeLong(pageBuilder.getBlockBuilder(stateChannel), groupStates.get().get(groupId));
+                }
+                groupId++;
+            }
+            Page page = pageBuilder.build();
+            pageBuilder.reset();
+            return page;
+        }
+    }
+}
@@ -16,6 +16,9 @@ package io.prestosql.operator;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
 
+import javax.annotation.Nullable;
+
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
@@ -39,7 +42,17 @@ public class JoinProbe
 
         public JoinProbe createJoinProbe(Page page)
         {
-            return new JoinProbe(probeOutputChannels, page, probeJoinChannels, probeHashChannel);
+            return new JoinProbe(probeOutputChannels, page, probeJoinChannels, probeHashChannel, null);
+        }
+
+        /**
+         * Creates a probe which looks up the positions of the page in batches, using the given buffers.
+         * The buffers must not be used by another probe until this probe is done.
+         */
+        public JoinProbe createJoinProbe(Page page, JoinProbeBuffers buffers)
+        {
+            buffers.ensureCapacity(page.getPositionCount(), probeHashChannel.isPresent());
+            return new JoinProbe(probeOutputChannels, page, probeJoinChannels, probeHashChannel, buffers);
         }
     }
 
@@ -49,10 +62,17 @@ public class JoinProbe
     private final Page page;
     private final Page probePage;
     private final Optional<Block> probeHashBlock;
+    // buffers of the batched lookup, or null if the positions are looked up one at a time
+    @Nullable
+    private final JoinProbeBuffers buffers;
 
     private int position = -1;
 
-    private JoinProbe(int[] probeOutputChannels, Page page, List<Integer> probeJoinChannels, OptionalInt probeHashChannel)
+    // lookup source which the join positions of the remaining positions were looked up in
+    @Nullable
+    private LookupSource joinPositionsLookupSource;
+
+    private JoinProbe(int[] probeOutputChannels, Page page, List<Integer> probeJoinChannels, OptionalInt probeHashChannel, @Nullable JoinProbeBuffers buffers)
     {
         this.probeOutputChannels = probeOutputChannels;
         this.positionCount = page.getPositionCount();
@@ -64,6 +84,7 @@ public class JoinProbe
         this.page = page;
         this.probePage = new Page(page.getPositionCount(), probeBlocks);
         this.probeHashBlock = probeHashChannel.isPresent() ? Optional.of(page.getBlock(probeHashChannel.getAsInt())) : Optional.empty();
+        this.buffers = buffers;
     }
 
     public int[] getOutputChannels()
@@ -79,7 +100,13 @@ public class JoinProbe
 
     public long getCurrentJoinPosition(LookupSource lookupSource)
     {
-        if (currentRowContainsNull()) {
+        if (buffers != null) {
+            if (lookupSource != joinPositionsLookupSource) {
+                lookupRemainingPositions(lookupSource);
+            }
+            return buffers.getJoinPositions()[position];
+        }
+        if (rowContainsNull(position)) {
             return -1;
         }
         if (probeHashBlock.isPresent()) {
@@ -99,7 +126,48 @@ public class JoinProbe
         return page;
     }
 
-    private boolean currentRowContainsNull()
+    /**
+     * Looks up the current and all the following positions of the page at once, so that the
+     * lookup source can work one column at a time and reorder the lookups, e.g. to probe the
+     * sub-tables of a radix partitioned hash one at a time.
+     */
+    private void lookupRemainingPositions(LookupSource lookupSource)
+    {
+        long[] joinPositions = buffers.getJoinPositions();
+        int[] positions = buffers.getLookupPositions();
+        int lookupPositionCount = 0;
+        for (int remainingPosition = position; remainingPosition < positionCount; remainingPosition++) {
+            positions[lookupPositionCount++] = remainingPosition;
+        }
+        Arrays.fill(joinPositions, position, positionCount, -1);
+
+        // rows with a null join value never match
+        for (Block probeBlock : probeBlocks) {
+            if (!probeBlock.mayHaveNull()) {
+                continue;
+            }
+            int nonNullPositionCount = 0;
+            for (int i = 0; i < lookupPositionCount; i++) {
+                if (!probeBlock.isNull(positions[i])) {
+                    positions[nonNullPositionCount++] = positions[i];
+                }
+            }
+            lookupPositionCount = nonNullPositionCount;
+        }
+
+        long[] rawHashes = null;
+        if (probeHashBlock.isPresent()) {
+            rawHashes = buffers.getRawHashes();
+            for (int i = 0; i < lookupPositionCount; i++) {
+                rawHashes[positions[i]] = BIGINT.getLong(probeHashBlock.get(), positions[i]);
+            }
+        }
+
+        lookupSource.getJoinPositions(positions, lookupPositionCount, probePage, page, rawHashes, joinPositions);
+        joinPositionsLookupSource = lookupSource;
+    }
+
+    private boolean rowContainsNull(int position)
     {
         for (Block probeBlock : probeBlocks) {
             if (probeBlock.isNull(position)) {
@@ -0,0 +1,65 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import org.openjdk.jol.info.ClassLayout;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import static io.airlift.slice.SizeOf.sizeOf;
+
+/**
+ * Arrays used by {@link JoinProbe} to look up a page at once, which are reused from page to page.
+ * They grow to the largest page probed, so they are owned by a single join operator.
+ */
+@NotThreadSafe
+public final class JoinProbeBuffers
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(JoinProbeBuffers.class).instanceSize();
+
+    private long[] joinPositions = new long[0];
+    private int[] lookupPositions = new int[0];
+    private long[] rawHashes = new long[0];
+
+    public void ensureCapacity(int positionCount, boolean hasRawHashes)
+    {
+        if (joinPositions.length < positionCount) {
+            joinPositions = new long[positionCount];
+            lookupPositions = new int[positionCount];
+        }
+        if (hasRawHashes && rawHashes.length < positionCount) {
+            rawHashes = new long[positionCount];
+        }
+    }
+
+    public long[] getJoinPositions()
+    {
+        return joinPositions;
+    }
+
+    public int[] getLookupPositions()
+    {
+        return lookupPositions;
+    }
+
+    public long[] getRawHashes()
+    {
+        return rawHashes;
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(joinPositions) + sizeOf(lookupPositions) + sizeOf(rawHashes);
+    }
+}
@@ -16,6 +16,7 @@ package io.prestosql.operator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.io.Closer;
 import com.google.common.util.concurrent.ListenableFuture;
+import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.memory.context.MemoryTrackingContext;
 import io.prestosql.operator.JoinProbe.JoinProbeFactory;
 import io.prestosql.operator.LookupJoinOperators.JoinType;
@@ -49,6 +50,7 @@ import static com.google.common.base.Verify.verifyNotNull;
 import static io.airlift.concurrent.MoreFutures.addSuccessCallback;
 import static io.airlift.concurrent.MoreFutures.checkSuccess;
 import static io.airlift.concurrent.MoreFutures.getDone;
+import static io.prestosql.SystemSessionProperties.isRadixPartitionedJoin;
 import static io.prestosql.operator.LookupJoinOperators.JoinType.FULL_OUTER;
 import static io.prestosql.operator.LookupJoinOperators.JoinType.PROBE_OUTER;
 import static io.prestosql.operator.Operator.NOT_BLOCKED;
@@ -92,6 +94,7 @@ public class LookupJoinOperator
                 hashGenerator,
                 partitioningSpillerFactory,
                 statisticsCounter,
+                isRadixPartitionedJoin(processorContext.getSession()),
                 processorContext.getDriverYieldSignal(),
                 processorContext.getSpillContext(),
                 processorContext.getMemoryTrackingContext());
@@ -148,6 +151,9 @@ public class LookupJoinOperator
         private final PartitioningSpillerFactory partitioningSpillerFactory;
 
         private final JoinStatisticsCounter statisticsCounter;
+        private final boolean batchedLookup;
+        private final JoinProbeBuffers probeBuffers = new JoinProbeBuffers();
+        private final LocalMemoryContext probeBuffersMemoryContext;
 
         private final LookupJoinPageBuilder pageBuilder;
 
@@ -196,6 +202,7 @@ public class LookupJoinOperator
                 HashGenerator hashGenerator,
                 PartitioningSpillerFactory partitioningSpillerFactory,
                 JoinStatisticsCounter statisticsCounter,
+                boolean batchedLookup,
                 DriverYieldSignal yieldSignal,
                 SpillContext spillContext,
                 MemoryTrackingContext memoryTrackingContext)
@@ -215,11 +222,13 @@ public class LookupJoinOperator
             this.lookupSourceProviderFuture = lookupSourceFactory.createLookupSourceProvider();
 
             this.statisticsCounter = statisticsCounter;
+            this.batchedLookup = batchedLookup;
 
             this.pageBuilder = new LookupJoinPageBuilder(buildOutputTypes);
             this.yieldSignal = requireNonNull(yieldSignal, "yieldSignal is null");
             this.spillContext = requireNonNull(spillContext, "spillContext is null");
             this.memoryTrackingContext = requireNonNull(memoryTrackingContext, "memoryTrackingContext is null");
+            this.probeBuffersMemoryContext = memoryTrackingContext.newSystemMemoryContext(LookupJoinOperator.class.getSimpleName());
         }
 
         private void finish()
@@ -298,7 +307,13 @@ public class LookupJoinOperator
 
             // create probe
             inputPageSpillEpoch = spillInfoSnapshot.getSpillEpoch();
-            probe = joinProbeFactory.createJoinProbe(page);
+            if (batchedLookup) {
+                probe = joinProbeFactory.createJoinProbe(page, probeBuffers);
+                probeBuffersMemoryContext.setBytes(probeBuffers.getRetainedSizeInBytes());
+            }
+            else {
+                probe = joinProbeFactory.createJoinProbe(page);
+            }
         }
 
         private boolean tryFetchLookupSourceProvider()
@@ -589,6 +604,7 @@ public class LookupJoinOperator
                 closer.register(afterClose::run);
 
                 closer.register(pageBuilder::reset);
+                closer.register(probeBuffersMemoryContext::close);
                 closer.register(() -> Optional.ofNullable(lookupSourceProvider).ifPresent(LookupSourceProvider::close));
                 spiller.ifPresent(closer::register);
             }
@@ -16,20 +16,28 @@ package io.prestosql.operator;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.type.Type;
+import io.prestosql.spiller.PartitioningSpillerFactory;
 import io.prestosql.sql.gen.JoinCompiler;
 import io.prestosql.sql.planner.plan.PlanNodeId;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Verify.verify;
+import static com.google.common.collect.Iterators.singletonIterator;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static io.airlift.concurrent.MoreFutures.checkSuccess;
 import static io.prestosql.spi.type.BooleanType.BOOLEAN;
+import static java.util.Collections.emptyIterator;
 import static java.util.Objects.requireNonNull;
 
 public class MarkDistinctOperator
@@ -44,6 +52,8 @@ public class MarkDistinctOperator
         private final List<Integer> markDistinctChannels;
         private final List<Type> types;
         private final JoinCompiler joinCompiler;
+        private final boolean spillEnabled;
+        private final PartitioningSpillerFactory partitioningSpillerFactory;
         private boolean closed;
 
         public MarkDistinctOperatorFactory(
@@ -52,7 +62,9 @@ public class MarkDistinctOperator
                 List<? extends Type> sourceTypes,
                 Collection<Integer> markDistinctChannels,
                 Optional<Integer> hashChannel,
-                JoinCompiler joinCompiler)
+                JoinCompiler joinCompiler,
+                boolean spillEnabled,
+                PartitioningSpillerFactory partitioningSpillerFactory)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -60,6 +72,8 @@ public class MarkDistinctOperator
             checkArgument(!markDistinctChannels.isEmpty(), "markDistinctChannels is empty");
             this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+            this.spillEnabled = spillEnabled;
+            this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
             this.types = ImmutableList.<Type>builder()
                     .addAll(sourceTypes)
                     .add(BOOLEAN)
@@ -71,7 +85,7 @@ public class MarkDistinctOperator
         {
             checkState(!closed, "Factory is already closed");
             OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, MarkDistinctOperator.class.getSimpleName());
-            return new MarkDistinctOperator(operatorContext, types, markDistinctChannels, hashChannel, joinCompiler);
+            return new MarkDistinctOperator(operatorContext, types, markDistinctChannels, hashChannel, joinCompiler, spillEnabled, partitioningSpillerFactory);
         }
 
         @Override
@@ -83,13 +97,22 @@ public class MarkDistinctOperator
         @Override
         public OperatorFactory duplicate()
         {
-            return new MarkDistinctOperatorFactory(operatorId, planNodeId, types.subList(0, types.size() - 1), markDistinctChannels, hashChannel, joinCompiler);
+            return new MarkDistinctOperatorFactory(operatorId, planNodeId, types.subList(0, types.size() - 1), markDistinctChannels, hashChannel, joinCompiler, spillEnabled, partitioningSpillerFactory);
         }
     }
 
     private final OperatorContext operatorContext;
-    private final MarkDistinctHash markDistinctHash;
+    private final List<Type> sourceTypes;
+    private final List<Integer> markDistinctChannels;
+    private final List<Type> distinctTypes;
+    private final Optional<Integer> hashChannel;
+    private final JoinCompiler joinCompiler;
+    private final boolean spillEnabled;
+    private final PartitioningSpillerFactory partitioningSpillerFactory;
     private final LocalMemoryContext localUserMemoryContext;
+    private final LocalMemoryContext localRevocableMemoryContext;
+
+    private MarkDistinctHash markDistinctHash;
 
     private Page inputPage;
     private boolean finishing;
@@ -97,19 +120,45 @@ public class MarkDistinctOperator
     // for yield when memory is not available
     private Work<Block> unfinishedWork;
 
-    public MarkDistinctOperator(OperatorContext operatorContext, List<Type> types, List<Integer> markDistinctChannels, Optional<Integer> hashChannel, JoinCompiler joinCompiler)
+    // output of the input page which was pending when memory was revoked
+    private Page revokedOutputPage;
+
+    private Optional<HashPartitionedSpiller> spiller = Optional.empty();
+    private ListenableFuture<?> spillInProgress = immediateFuture(null);
+    private Runnable finishMemoryRevoke = () -> {};
+
+    // distinct values already marked in the partition being unspilled
+    private Iterator<Page> unspilledGroups = emptyIterator();
+    private Iterator<Page> unspilledInput = emptyIterator();
+    private int nextUnspilledPartition;
+    private boolean restoringGroups;
+
+    public MarkDistinctOperator(
+            OperatorContext operatorContext,
+            List<Type> types,
+            List<Integer> markDistinctChannels,
+            Optional<Integer> hashChannel,
+            JoinCompiler joinCompiler,
+            boolean spillEnabled,
+            PartitioningSpillerFactory partitioningSpillerFactory)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
+        this.markDistinctChannels = ImmutableList.copyOf(requireNonNull(markDistinctChannels, "markDistinctChannels is null"));
+        this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+        this.spillEnabled = spillEnabled;
+        this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
 
-        requireNonNull(hashChannel, "hashChannel is null");
-        requireNonNull(markDistinctChannels, "markDistinctChannels is null");
-
+        // the last type is the output marker
+        this.sourceTypes = ImmutableList.copyOf(types.subList(0, types.size() - 1));
         ImmutableList.Builder<Type> distinctTypes = ImmutableList.builder();
         for (int channel : markDistinctChannels) {
             distinctTypes.add(types.get(channel));
         }
-        this.markDistinctHash = new MarkDistinctHash(operatorContext.getSession(), distinctTypes.build(), Ints.toArray(markDistinctChannels), hashChannel, joinCompiler, this::updateMemoryReservation);
+        this.distinctTypes = distinctTypes.build();
         this.localUserMemoryContext = operatorContext.localUserMemoryContext();
+        this.localRevocableMemoryContext = operatorContext.localRevocableMemoryContext();
+        this.markDistinctHash = createMarkDistinctHash();
     }
 
     @Override
@@ -127,13 +176,22 @@ public class MarkDistinctOperator
     @Override
     public boolean isFinished()
     {
-        return finishing && !hasUnfinishedInput();
+        return finishing && !hasUnfinishedInput() && revokedOutputPage == null && !hasUnspilledInput();
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        if (!spillInProgress.isDone()) {
+            return spillInProgress;
+        }
+        return NOT_BLOCKED;
     }
 
     @Override
     public boolean needsInput()
     {
-        return !finishing && !hasUnfinishedInput();
+        return !finishing && !hasUnfinishedInput() && revokedOutputPage == null && spillInProgress.isDone();
     }
 
     @Override
@@ -141,6 +199,13 @@ public class MarkDistinctOperator
     {
         requireNonNull(page, "page is null");
         checkState(needsInput());
+        checkSuccess(spillInProgress, "spilling failed");
+
+        if (spiller.isPresent()) {
+            // the distinct values were spilled, so the page is processed after all input is received
+            spillInProgress = spiller.get().spillInput(singletonIterator(page));
+            return;
+        }
 
         inputPage = page;
 
@@ -151,7 +216,13 @@ public class MarkDistinctOperator
     @Override
     public Page getOutput()
     {
-        if (unfinishedWork == null) {
+        if (revokedOutputPage != null) {
+            Page outputPage = revokedOutputPage;
+            revokedOutputPage = null;
+            return outputPage;
+        }
+
+        if (unfinishedWork == null && !unspillNextPage()) {
             return null;
         }
 
@@ -166,14 +237,95 @@ public class MarkDistinctOperator
         inputPage = null;
 
         updateMemoryReservation();
+        if (restoringGroups) {
+            // the rows of the previously spilled groups were already produced
+            return null;
+        }
         return outputPage;
     }
 
+    @Override
+    public ListenableFuture<?> startMemoryRevoke()
+    {
+        checkSuccess(spillInProgress, "spilling failed");
+        if (spiller.isPresent() || localRevocableMemoryContext.getBytes() == 0) {
+            return immediateFuture(null);
+        }
+
+        if (unfinishedWork != null) {
+            // reservation of revocable memory never yields
+            verify(unfinishedWork.process());
+            revokedOutputPage = inputPage.appendColumn(unfinishedWork.getResult());
+            unfinishedWork = null;
+            inputPage = null;
+        }
+
+        if (!finishing) {
+            spiller = Optional.of(new HashPartitionedSpiller(partitioningSpillerFactory, operatorContext, sourceTypes, markDistinctChannels, hashChannel));
+            spillInProgress = spiller.get().spillGroups(markDistinctHash.getGroupByHash(), Optional.empty());
+        }
+        // no input is left to be marked once finishing, so the hash can be released without spilling
+        finishMemoryRevoke = () -> {
+            markDistinctHash = null;
+            updateMemoryReservation();
+        };
+        return spillInProgress;
+    }
+
+    @Override
+    public void finishMemoryRevoke()
+    {
+        finishMemoryRevoke.run();
+        finishMemoryRevoke = () -> {};
+    }
+
+    @Override
+    public void close()
+    {
+        markDistinctHash = null;
+        spiller.ifPresent(HashPartitionedSpiller::close);
+    }
+
     private boolean hasUnfinishedInput()
     {
         return inputPage != null || unfinishedWork != null;
     }
 
+    private boolean hasUnspilledInput()
+    {
+        return spiller.isPresent() && (nextUnspilledPartition < spiller.get().getPartitionCount() || unspilledGroups.hasNext() || unspilledInput.hasNext());
+    }
+
+    private boolean unspillNextPage()
+    {
+        if (!finishing || !spiller.isPresent() || !spillInProgress.isDone()) {
+            return false;
+        }
+        checkSuccess(spillInProgress, "spilling failed");
+
+        while (!unspilledGroups.hasNext() && !unspilledInput.hasNext()) {
+            if (nextUnspilledPartition == spiller.get().getPartitionCount()) {
+                markDistinctHash = null;
+                updateMemoryReservation();
+                return false;
+            }
+            markDistinctHash = createMarkDistinctHash();
+            unspilledGroups = spiller.get().getGroupPages(nextUnspilledPartition);
+            unspilledInput = spiller.get().getInputPages(nextUnspilledPartition);
+            nextUnspilledPartition++;
+        }
+
+        restoringGroups = unspilledGroups.hasNext();
+        inputPage = restoringGroups ? unspilledGroups.next() : unspilledInput.next();
+        unfinishedWork = markDistinctHash.markDistinctRows(inputPage);
+        return true;
+    }
+
+    private MarkDistinctHash createMarkDistinctHash()
+    {
+        return new MarkDistinctHash(operatorContext.getSession(), distinctTypes, Ints.toArray(markDistinctChannels), hashChannel, joinCompiler, this::updateMemoryReservation);
+    }
+
     /**
      * Update memory usage.
      *
@@ -184,9 +336,17 @@ public class MarkDistinctOperator
     // The following implementation is a hybrid model, where the push model is going to call the pull model causing reentrancy
     private boolean updateMemoryReservation()
     {
+        long estimatedSize = markDistinctHash == null ? 0 : markDistinctHash.getEstimatedSize();
+        if (spillEnabled && !spiller.isPresent()) {
+            // the hash can be spilled instead of waiting for memory
+            localRevocableMemoryContext.setBytes(estimatedSize);
+            return true;
+        }
+
+        localRevocableMemoryContext.setBytes(0);
         // Operator/driver will be blocked on memory after we call localUserMemoryContext.setBytes().
         // If memory is not available, once we return, this operator will be blocked until memory is available.
-        localUserMemoryContext.setBytes(markDistinctHash.getEstimatedSize());
+        localUserMemoryContext.setBytes(estimatedSize);
         // If memory is not available, inform the caller that we cannot proceed for allocation.
         return operatorContext.isWaitingForMemory().isDone();
     }
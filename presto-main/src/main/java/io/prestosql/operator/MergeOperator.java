@@ -18,6 +18,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import io.prestosql.execution.buffer.PagesSerde;
 import io.prestosql.execution.buffer.PagesSerdeFactory;
+import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.metadata.Split;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.SortOrder;
@@ -116,6 +117,7 @@ public class MergeOperator
     private final PlanNodeId sourceId;
     private final ExchangeClientSupplier exchangeClientSupplier;
     private final PagesSerde pagesSerde;
+    private final LocalMemoryContext serdeMemoryContext;
     private final PageWithPositionComparator comparator;
     private final List<Integer> outputChannels;
     private final List<Type> outputTypes;
@@ -141,6 +143,7 @@ public class MergeOperator
         this.sourceId = requireNonNull(sourceId, "sourceId is null");
         this.exchangeClientSupplier = requireNonNull(exchangeClientSupplier, "exchangeClientSupplier is null");
         this.pagesSerde = requireNonNull(pagesSerde, "pagesSerde is null");
+        this.serdeMemoryContext = operatorContext.newLocalSystemMemoryContext(MergeOperator.class.getSimpleName());
         this.comparator = requireNonNull(comparator, "comparator is null");
         this.outputChannels = requireNonNull(outputChannels, "outputChannels is null");
         this.outputTypes = requireNonNull(outputTypes, "outputTypes is null");
@@ -166,7 +169,9 @@ public class MergeOperator
         pageProducers.add(exchangeClient.pages()
                 .map(serializedPage -> {
                     operatorContext.recordNetworkInput(serializedPage.getSizeInBytes(), serializedPage.getPositionCount());
-                    return pagesSerde.deserialize(serializedPage);
+                    Page page = pagesSerde.deserialize(serializedPage);
+                    serdeMemoryContext.setBytes(pagesSerde.getRetainedSizeInBytes());
+                    return page;
                 }));
 
         return Optional::empty;
@@ -248,6 +253,7 @@ public class MergeOperator
     {
         try {
             closer.close();
+            serdeMemoryContext.setBytes(0);
             closed = true;
         }
         catch (IOException e) {
@@ -0,0 +1,49 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import io.prestosql.Session;
+import io.prestosql.metadata.Split;
+import io.prestosql.spi.Page;
+import io.prestosql.sql.planner.plan.PlanNode;
+
+import java.util.List;
+import java.util.Optional;
+
+public class NoOpFragmentResultCacheManager
+        implements FragmentResultCacheManager
+{
+    @Override
+    public Optional<String> getPlanKey(PlanNode plan, Session session)
+    {
+        return Optional.empty();
+    }
+
+    @Override
+    public long getMaxEntrySizeInBytes()
+    {
+        return 0;
+    }
+
+    @Override
+    public Optional<CachedResult> get(String planKey, Split split)
+    {
+        return Optional.empty();
+    }
+
+    @Override
+    public void put(String planKey, Split split, List<Page> pages)
+    {
+    }
+}
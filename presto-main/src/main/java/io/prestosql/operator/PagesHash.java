@@ -20,6 +20,8 @@ import it.unimi.dsi.fastutil.HashCommon;
 import it.unimi.dsi.fastutil.longs.LongArrayList;
 import org.openjdk.jol.info.ClassLayout;
 
+import javax.annotation.Nullable;
+
 import java.util.Arrays;
 
 import static io.airlift.slice.SizeOf.sizeOf;
@@ -27,6 +29,7 @@ import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static io.prestosql.operator.SyntheticAddress.decodePosition;
 import static io.prestosql.operator.SyntheticAddress.decodeSliceIndex;
 import static io.prestosql.util.HashCollisionsEstimator.estimateNumberOfHashCollisions;
+import static java.lang.Integer.numberOfTrailingZeros;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
@@ -35,6 +38,7 @@ public final class PagesHash
 {
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(PagesHash.class).instanceSize();
     private static final DataSize CACHE_SIZE = DataSize.of(128, KILOBYTE);
+    private static final DataSize RADIX_PARTITION_SIZE = DataSize.of(256, KILOBYTE);
     private final LongArrayList addresses;
     private final PagesHashStrategy pagesHashStrategy;
 
@@ -43,6 +47,11 @@ public final class PagesHash
     private final int[] key;
     private final long size;
 
+    // number of top bits of the hash which select the sub-table of a radix partitioned hash, 0 when not partitioned
+    private final int partitionBits;
+    private final int partitionShift;
+    private final int partitionMask;
+
     // Native array of hashes for faster collisions resolution compared
     // to accessing values in blocks. We use bytes to reduce memory foot print
     // and there is no performance gain from storing full hashes
@@ -53,7 +62,8 @@ public final class PagesHash
     public PagesHash(
             LongArrayList addresses,
             PagesHashStrategy pagesHashStrategy,
-            PositionLinks.FactoryBuilder positionLinks)
+            PositionLinks.FactoryBuilder positionLinks,
+            boolean radixPartitioned)
     {
         this.addresses = requireNonNull(addresses, "addresses is null");
         this.pagesHashStrategy = requireNonNull(pagesHashStrategy, "pagesHashStrategy is null");
@@ -68,6 +78,33 @@ public final class PagesHash
 
         positionToHashes = new byte[addresses.size()];
 
+        // A radix partitioned hash is made of sub-tables of RADIX_PARTITION_SIZE, which are
+        // contiguous ranges of the key array selected by the top bits of the hash. Probing
+        // wraps around the whole key array, so a sub-table can overflow into the next one.
+        int partitionCount = 1;
+        if (radixPartitioned) {
+            partitionCount = Math.max(1, hashSize / (int) (RADIX_PARTITION_SIZE.toBytes() / Integer.BYTES));
+        }
+        partitionBits = numberOfTrailingZeros(partitionCount);
+        partitionShift = numberOfTrailingZeros(hashSize) - partitionBits;
+        partitionMask = (1 << partitionShift) - 1;
+
+        long hashCollisionsLocal;
+        if (partitionCount == 1) {
+            hashCollisionsLocal = indexPositions(positionLinks);
+        }
+        else {
+            hashCollisionsLocal = indexPositionsByPartition(positionLinks, partitionCount);
+        }
+
+        size = sizeOf(addresses.elements()) + pagesHashStrategy.getSizeInBytes() +
+                sizeOf(key) + sizeOf(positionToHashes);
+        hashCollisions = hashCollisionsLocal;
+        expectedHashCollisions = estimateNumberOfHashCollisions(addresses.size(), hashSize);
+    }
+
+    private long indexPositions(PositionLinks.FactoryBuilder positionLinks)
+    {
         // We will process addresses in batches, to save memory on array of hashes.
         int positionsInStep = Math.min(addresses.size() + 1, (int) CACHE_SIZE.toBytes() / Integer.SIZE);
         long[] positionToFullHashes = new long[positionsInStep];
@@ -95,33 +132,74 @@ public final class PagesHash
                     continue;
                 }
 
-                long hash = positionToFullHashes[position];
-                int pos = getHashPosition(hash, mask);
+                hashCollisionsLocal += indexPosition(realPosition, getHashPosition(positionToFullHashes[position]), positionLinks);
+            }
+        }
+        return hashCollisionsLocal;
+    }
+
+    private long indexPositionsByPartition(PositionLinks.FactoryBuilder positionLinks, int partitionCount)
+    {
+        int positionCount = addresses.size();
+        int[] positionToHashPositions = new int[positionCount];
+        int[] partitionOffsets = new int[partitionCount + 1];
+        for (int position = 0; position < positionCount; position++) {
+            if (isPositionNull(position)) {
+                positionToHashPositions[position] = -1;
+                continue;
+            }
+            long hash = readHashPosition(position);
+            positionToHashes[position] = (byte) hash;
+            int hashPosition = getHashPosition(hash);
+            positionToHashPositions[position] = hashPosition;
+            partitionOffsets[(hashPosition >>> partitionShift) + 1]++;
+        }
 
-                // look for an empty slot or a slot containing this key
-                while (key[pos] != -1) {
-                    int currentKey = key[pos];
-                    if (((byte) hash) == positionToHashes[currentKey] && positionEqualsPositionIgnoreNulls(currentKey, realPosition)) {
-                        // found a slot for this key
-                        // link the new key position to the current key position
-                        realPosition = positionLinks.link(realPosition, currentKey);
+        // Sort the positions by partition, keeping their order within a partition so
+        // that the position links are the same as with a single table. The sub-tables
+        // are then built one at a time, while they are in the cache.
+        for (int partition = 0; partition < partitionCount; partition++) {
+            partitionOffsets[partition + 1] += partitionOffsets[partition];
+        }
+        int[] positionsByPartition = new int[partitionOffsets[partitionCount]];
+        for (int position = 0; position < positionCount; position++) {
+            int hashPosition = positionToHashPositions[position];
+            if (hashPosition != -1) {
+                positionsByPartition[partitionOffsets[hashPosition >>> partitionShift]++] = position;
+            }
+        }
 
-                        // key[pos] updated outside of this loop
-                        break;
-                    }
-                    // increment position and mask to handler wrap around
-                    pos = (pos + 1) & mask;
-                    hashCollisionsLocal++;
-                }
+        long hashCollisionsLocal = 0;
+        for (int position : positionsByPartition) {
+            hashCollisionsLocal += indexPosition(position, positionToHashPositions[position], positionLinks);
+        }
+        return hashCollisionsLocal;
+    }
 
-                key[pos] = realPosition;
+    private int indexPosition(int position, int hashPosition, PositionLinks.FactoryBuilder positionLinks)
+    {
+        byte hash = positionToHashes[position];
+        int pos = hashPosition;
+        int hashCollisionsLocal = 0;
+
+        // look for an empty slot or a slot containing this key
+        while (key[pos] != -1) {
+            int currentKey = key[pos];
+            if (hash == positionToHashes[currentKey] && positionEqualsPositionIgnoreNulls(currentKey, position)) {
+                // found a slot for this key
+                // link the new key position to the current key position
+                position = positionLinks.link(position, currentKey);
+
+                // key[pos] updated outside of this loop
+                break;
             }
+            // increment position and mask to handler wrap around
+            pos = (pos + 1) & mask;
+            hashCollisionsLocal++;
         }
 
-        size = sizeOf(addresses.elements()) + pagesHashStrategy.getSizeInBytes() +
-                sizeOf(key) + sizeOf(positionToHashes);
-        hashCollisions = hashCollisionsLocal;
-        expectedHashCollisions = estimateNumberOfHashCollisions(addresses.size(), hashSize);
+        key[pos] = position;
+        return hashCollisionsLocal;
     }
 
     public final int getChannelCount()
@@ -156,7 +234,7 @@ public final class PagesHash
 
     public int getAddressIndex(int rightPosition, Page hashChannelsPage, long rawHash)
     {
-        int pos = getHashPosition(rawHash, mask);
+        int pos = getHashPosition(rawHash);
 
         while (key[pos] != -1) {
             if (positionEqualsCurrentRowIgnoreNulls(key[pos], (byte) rawHash, rightPosition, hashChannelsPage)) {
@@ -168,6 +246,97 @@ public final class PagesHash
         return -1;
     }
 
+    /**
+     * Looks up the given positions of the page, and stores the address index of {@code positions[i]}
+     * in {@code addressIndexes[positions[i]]}. The positions are looked up together: the hashes are
+     * computed and the candidate rows compared one column at a time. For a radix partitioned hash, the
+     * positions are grouped by sub-table, so that the sub-tables are probed one at a time.
+     */
+    public void getAddressIndexes(int[] positions, int positionCount, Page hashChannelsPage, @Nullable long[] rawHashes, long[] addressIndexes, PagesHashLookupBuffers buffers)
+    {
+        buffers.ensureCapacity(positionCount);
+        if (rawHashes == null) {
+            rawHashes = buffers.getRawHashes(hashChannelsPage.getPositionCount());
+            pagesHashStrategy.hashRows(positions, positionCount, hashChannelsPage, rawHashes);
+        }
+
+        // the positions which are still looked up, along with the next slot of the key array to check
+        int[] lookupPositions = buffers.getLookupPositions();
+        int[] slots = buffers.getSlots();
+        if (partitionBits == 0) {
+            for (int i = 0; i < positionCount; i++) {
+                int position = positions[i];
+                lookupPositions[i] = position;
+                slots[i] = getHashPosition(rawHashes[position]);
+            }
+        }
+        else {
+            // counting sort of the lookups by sub-table, the same way the positions are indexed
+            int partitionCount = 1 << partitionBits;
+            // the candidate arrays are only used once the lookups are ordered
+            int[] hashPositions = buffers.getCandidateBlockPositions();
+            int[] partitionOffsets = buffers.getPartitionOffsets(partitionCount + 1);
+            for (int i = 0; i < positionCount; i++) {
+                int hashPosition = getHashPosition(rawHashes[positions[i]]);
+                hashPositions[i] = hashPosition;
+                partitionOffsets[(hashPosition >>> partitionShift) + 1]++;
+            }
+            for (int partition = 0; partition < partitionCount; partition++) {
+                partitionOffsets[partition + 1] += partitionOffsets[partition];
+            }
+            for (int i = 0; i < positionCount; i++) {
+                int index = partitionOffsets[hashPositions[i] >>> partitionShift]++;
+                lookupPositions[index] = positions[i];
+                slots[index] = hashPositions[i];
+            }
+        }
+
+        int[] candidateBlockIndexes = buffers.getCandidateBlockIndexes();
+        int[] candidateBlockPositions = buffers.getCandidateBlockPositions();
+        boolean[] equal = buffers.getEqual();
+        int lookupCount = positionCount;
+        while (lookupCount > 0) {
+            // find the next key with the same hash for every lookup, the lookups without one have no match
+            int candidateCount = 0;
+            for (int i = 0; i < lookupCount; i++) {
+                int position = lookupPositions[i];
+                byte rawHash = (byte) rawHashes[position];
+                int pos = slots[i];
+                while (key[pos] != -1 && positionToHashes[key[pos]] != rawHash) {
+                    // increment position and mask to handler wrap around
+                    pos = (pos + 1) & mask;
+                }
+                if (key[pos] == -1) {
+                    addressIndexes[position] = -1;
+                    continue;
+                }
+
+                long pageAddress = addresses.getLong(key[pos]);
+                lookupPositions[candidateCount] = position;
+                slots[candidateCount] = pos;
+                candidateBlockIndexes[candidateCount] = decodeSliceIndex(pageAddress);
+                candidateBlockPositions[candidateCount] = decodePosition(pageAddress);
+                candidateCount++;
+            }
+
+            Arrays.fill(equal, 0, candidateCount, true);
+            pagesHashStrategy.positionsEqualRowsIgnoreNulls(candidateBlockIndexes, candidateBlockPositions, lookupPositions, candidateCount, hashChannelsPage, equal);
+
+            // the lookups whose candidate is not equal continue from the next slot
+            lookupCount = 0;
+            for (int i = 0; i < candidateCount; i++) {
+                if (equal[i]) {
+                    addressIndexes[lookupPositions[i]] = key[slots[i]];
+                }
+                else {
+                    lookupPositions[lookupCount] = lookupPositions[i];
+                    slots[lookupCount] = (slots[i] + 1) & mask;
+                    lookupCount++;
+                }
+            }
+        }
+    }
+
     public void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset)
     {
         long pageAddress = addresses.getLong(toIntExact(position));
@@ -221,7 +390,18 @@ public final class PagesHash
         return pagesHashStrategy.positionEqualsPositionIgnoreNulls(leftBlockIndex, leftBlockPosition, rightBlockIndex, rightBlockPosition);
     }
 
-    private static int getHashPosition(long rawHash, long mask)
+    private int getHashPosition(long rawHash)
+    {
+        long hash = avalanche(rawHash);
+        if (partitionBits == 0) {
+            return (int) (hash & mask);
+        }
+        // the top bits select the sub-table, and are independent of the low bits which select the slot within it
+        int partition = (int) (hash >>> (Long.SIZE - partitionBits));
+        return (partition << partitionShift) | (int) (hash & partitionMask);
+    }
+
+    private static long avalanche(long rawHash)
     {
         // Avalanches the bits of a long integer by applying the finalisation step of MurmurHash3.
         //
@@ -236,6 +416,6 @@ public final class PagesHash
         rawHash *= 0xc4ceb9fe1a85ec53L;
         rawHash ^= rawHash >>> 33;
 
-        return (int) (rawHash & mask);
+        return rawHash;
     }
 }
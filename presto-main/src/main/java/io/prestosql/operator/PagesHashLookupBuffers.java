@@ -0,0 +1,104 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import org.openjdk.jol.info.ClassLayout;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import java.util.Arrays;
+
+import static io.airlift.slice.SizeOf.sizeOf;
+
+/**
+ * Arrays used by {@link PagesHash#getAddressIndexes}, which are reused from page to page. They grow
+ * to the largest page looked up, so they are owned by a single lookup source.
+ */
+@NotThreadSafe
+public final class PagesHashLookupBuffers
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(PagesHashLookupBuffers.class).instanceSize();
+
+    private long[] rawHashes = new long[0];
+    private int[] lookupPositions = new int[0];
+    private int[] slots = new int[0];
+    private int[] candidateBlockIndexes = new int[0];
+    private int[] candidateBlockPositions = new int[0];
+    private boolean[] equal = new boolean[0];
+    private int[] partitionOffsets = new int[0];
+
+    public void ensureCapacity(int positionCount)
+    {
+        if (lookupPositions.length < positionCount) {
+            lookupPositions = new int[positionCount];
+            slots = new int[positionCount];
+            candidateBlockIndexes = new int[positionCount];
+            candidateBlockPositions = new int[positionCount];
+            equal = new boolean[positionCount];
+        }
+    }
+
+    public long[] getRawHashes(int positionCount)
+    {
+        if (rawHashes.length < positionCount) {
+            rawHashes = new long[positionCount];
+        }
+        return rawHashes;
+    }
+
+    public int[] getLookupPositions()
+    {
+        return lookupPositions;
+    }
+
+    public int[] getSlots()
+    {
+        return slots;
+    }
+
+    public int[] getCandidateBlockIndexes()
+    {
+        return candidateBlockIndexes;
+    }
+
+    public int[] getCandidateBlockPositions()
+    {
+        return candidateBlockPositions;
+    }
+
+    public boolean[] getEqual()
+    {
+        return equal;
+    }
+
+    /**
+     * Returns an array of at least the given size, with the first {@code size} elements set to zero.
+     */
+    public int[] getPartitionOffsets(int size)
+    {
+        if (partitionOffsets.length < size) {
+            partitionOffsets = new int[size];
+        }
+        else {
+            Arrays.fill(partitionOffsets, 0, size, 0);
+        }
+        return partitionOffsets;
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(rawHashes) + sizeOf(lookupPositions) + sizeOf(slots) + sizeOf(candidateBlockIndexes) +
+                sizeOf(candidateBlockPositions) + sizeOf(equal) + sizeOf(partitionOffsets);
+    }
+}
@@ -44,6 +44,13 @@ public interface PagesHashStrategy
      */
     long hashRow(int position, Page page);
 
+    /**
+     * Calculates the hash codes of the rows at the given positions in {@code page}, one column at a time,
+     * and stores the hash code of {@code positions[i]} in {@code hashes[positions[i]]}. Page must have the
+     * same number of Blocks as the hashed columns and each entry is expected to be the same type.
+     */
+    void hashRows(int[] positions, int positionCount, Page page, long[] hashes);
+
     /**
      * Compares the values in the specified pages. The values are compared positionally, so {@code leftPage}
      * and {@code rightPage} must have the same number of entries as the hashed columns and each entry
@@ -69,6 +76,17 @@ public interface PagesHashStrategy
      */
     boolean positionEqualsRowIgnoreNulls(int leftBlockIndex, int leftPosition, int rightPosition, Page rightPage);
 
+    /**
+     * Compares the hashed columns in this PagesHashStrategy at the left positions to the rows at the right positions
+     * in the specified page, one column at a time, and clears {@code equal[i]} when the i-th pair of positions is not
+     * equal. The pairs for which {@code equal[i]} is already false are not compared. The values are compared
+     * positionally, so {@code rightPage} must have the same number of entries as the hashed columns and each entry
+     * is expected to be the same type.
+     * <p>
+     * This method does not perform any null checks.
+     */
+    void positionsEqualRowsIgnoreNulls(int[] leftBlockIndexes, int[] leftPositions, int[] rightPositions, int positionCount, Page rightPage, boolean[] equal);
+
     /**
      * Compares the hashed columns in this PagesHashStrategy to the hashed columns in the Page. The
      * values are compared positionally, so {@code rightChannels} must have the same number of entries as
@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.prestosql.util.Mergeable;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Reported by partial aggregations which stopped aggregating because of poor row reduction.
+ */
+public class PartialAggregationInfo
+        implements Mergeable<PartialAggregationInfo>, OperatorInfo
+{
+    private final long aggregatedRows;
+    private final long uniqueRows;
+    private final long skippedRows;
+
+    @JsonCreator
+    public PartialAggregationInfo(
+            @JsonProperty("aggregatedRows") long aggregatedRows,
+            @JsonProperty("uniqueRows") long uniqueRows,
+            @JsonProperty("skippedRows") long skippedRows)
+    {
+        this.aggregatedRows = aggregatedRows;
+        this.uniqueRows = uniqueRows;
+        this.skippedRows = skippedRows;
+    }
+
+    /**
+     * Number of input rows which were aggregated before partial aggregation was disabled.
+     */
+    @JsonProperty
+    public long getAggregatedRows()
+    {
+        return aggregatedRows;
+    }
+
+    /**
+     * Number of groups produced from the aggregated rows.
+     */
+    @JsonProperty
+    public long getUniqueRows()
+    {
+        return uniqueRows;
+    }
+
+    /**
+     * Number of input rows which were passed through without being aggregated.
+     */
+    @JsonProperty
+    public long getSkippedRows()
+    {
+        return skippedRows;
+    }
+
+    @Override
+    public PartialAggregationInfo mergeWith(PartialAggregationInfo other)
+    {
+        return new PartialAggregationInfo(
+                aggregatedRows + other.getAggregatedRows(),
+                uniqueRows + other.getUniqueRows(),
+                skippedRows + other.getSkippedRows());
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("aggregatedRows", aggregatedRows)
+                .add("uniqueRows", uniqueRows)
+                .add("skippedRows", skippedRows)
+                .toString();
+    }
+}
@@ -34,6 +34,7 @@ import java.util.function.Supplier;
 
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.slice.SizeOf.sizeOf;
 import static java.lang.Integer.numberOfTrailingZeros;
 import static java.lang.Math.toIntExact;
 
@@ -84,6 +85,13 @@ public class PartitionedLookupSource
     @Nullable
     private final OuterPositionTracker outerPositionTracker;
 
+    // reused by getJoinPositions from page to page
+    private long[] rawHashes = new long[0];
+    private int[] positionToPartitions = new int[0];
+    private int[] positionsByPartition = new int[0];
+    private int[] partitionPositions = new int[0];
+    private final int[] partitionOffsets;
+
     private boolean closed;
 
     private PartitionedLookupSource(List<? extends LookupSource> lookupSources, List<Type> hashChannelTypes, Optional<OuterPositionTracker> outerPositionTracker)
@@ -101,6 +109,7 @@ public class PartitionedLookupSource
         this.partitionMask = lookupSources.size() - 1;
         this.shiftSize = numberOfTrailingZeros(lookupSources.size()) + 1;
         this.outerPositionTracker = outerPositionTracker.orElse(null);
+        this.partitionOffsets = new int[lookupSources.size() + 1];
     }
 
     @Override
@@ -126,7 +135,8 @@ public class PartitionedLookupSource
     @Override
     public long getInMemorySizeInBytes()
     {
-        return Arrays.stream(lookupSources).mapToLong(LookupSource::getInMemorySizeInBytes).sum();
+        return Arrays.stream(lookupSources).mapToLong(LookupSource::getInMemorySizeInBytes).sum() +
+                sizeOf(rawHashes) + sizeOf(positionToPartitions) + sizeOf(positionsByPartition) + sizeOf(partitionPositions) + sizeOf(partitionOffsets);
     }
 
     @Override
@@ -147,6 +157,58 @@ public class PartitionedLookupSource
         return encodePartitionedJoinPosition(partition, toIntExact(joinPosition));
     }
 
+    @Override
+    public void getJoinPositions(int[] positions, int positionCount, Page hashChannelsPage, Page allChannelsPage, @Nullable long[] rawHashes, long[] joinPositions)
+    {
+        if (rawHashes == null) {
+            if (this.rawHashes.length < hashChannelsPage.getPositionCount()) {
+                this.rawHashes = new long[hashChannelsPage.getPositionCount()];
+            }
+            rawHashes = this.rawHashes;
+            for (int i = 0; i < positionCount; i++) {
+                rawHashes[positions[i]] = partitionGenerator.getRawHash(hashChannelsPage, positions[i]);
+            }
+        }
+
+        if (positionToPartitions.length < positionCount) {
+            positionToPartitions = new int[positionCount];
+            positionsByPartition = new int[positionCount];
+            partitionPositions = new int[positionCount];
+        }
+
+        // counting sort of the positions by partition, keeping their order within a partition
+        Arrays.fill(partitionOffsets, 0);
+        for (int i = 0; i < positionCount; i++) {
+            int partition = partitionGenerator.getPartition(rawHashes[positions[i]]);
+            positionToPartitions[i] = partition;
+            partitionOffsets[partition + 1]++;
+        }
+        for (int partition = 0; partition < lookupSources.length; partition++) {
+            partitionOffsets[partition + 1] += partitionOffsets[partition];
+        }
+        for (int i = 0; i < positionCount; i++) {
+            positionsByPartition[partitionOffsets[positionToPartitions[i]]++] = positions[i];
+        }
+
+        // look the positions up one lookup source at a time, the offsets now point at the end of each partition
+        int partitionStart = 0;
+        for (int partition = 0; partition < lookupSources.length; partition++) {
+            int partitionEnd = partitionOffsets[partition];
+            int partitionPositionCount = partitionEnd - partitionStart;
+            if (partitionPositionCount > 0) {
+                System.arraycopy(positionsByPartition, partitionStart, partitionPositions, 0, partitionPositionCount);
+                lookupSources[partition].getJoinPositions(partitionPositions, partitionPositionCount, hashChannelsPage, allChannelsPage, rawHashes, joinPositions);
+                for (int i = 0; i < partitionPositionCount; i++) {
+                    int position = partitionPositions[i];
+                    if (joinPositions[position] >= 0) {
+                        joinPositions[position] = encodePartitionedJoinPosition(partition, toIntExact(joinPositions[position]));
+                    }
+                }
+            }
+            partitionStart = partitionEnd;
+        }
+    }
+
     @Override
     public long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
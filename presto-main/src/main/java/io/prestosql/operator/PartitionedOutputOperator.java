@@ -15,6 +15,7 @@ package io.prestosql.operator;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.units.DataSize;
 import io.prestosql.execution.buffer.OutputBuffer;
@@ -35,6 +36,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Function;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -283,7 +285,7 @@ public class PartitionedOutputOperator
         long partitionsSizeInBytes = partitionFunction.getSizeInBytes();
 
         // We also add partitionsInitialRetainedSize as an approximation of the object overhead of the partitions.
-        systemMemoryContext.setBytes(partitionsSizeInBytes + partitionsInitialRetainedSize);
+        systemMemoryContext.setBytes(partitionsSizeInBytes + partitionFunction.getSerdeRetainedSizeInBytes() + partitionsInitialRetainedSize);
     }
 
     @Override
@@ -305,6 +307,7 @@ public class PartitionedOutputOperator
         private final OptionalInt nullChannel; // when present, send the position to every partition if this channel is null.
         private final AtomicLong rowsAdded = new AtomicLong();
         private final AtomicLong pagesAdded = new AtomicLong();
+        private final AtomicLongArray partitionRowsAdded;
         private boolean hasAnyRowBeenReplicated;
         private OperatorContext operatorContext;
 
@@ -340,6 +343,7 @@ public class PartitionedOutputOperator
             for (int i = 0; i < partitionCount; i++) {
                 pageBuilders[i] = PageBuilder.withMaxPageSize(pageSize, sourceTypes);
             }
+            this.partitionRowsAdded = new AtomicLongArray(partitionCount);
         }
 
         public ListenableFuture<?> isFull()
@@ -358,6 +362,11 @@ public class PartitionedOutputOperator
             return sizeInBytes;
         }
 
+        public long getSerdeRetainedSizeInBytes()
+        {
+            return serde.getRetainedSizeInBytes();
+        }
+
         /**
          * This method can be expensive for complex types.
          */
@@ -372,7 +381,11 @@ public class PartitionedOutputOperator
 
         public PartitionedOutputInfo getInfo()
         {
-            return new PartitionedOutputInfo(rowsAdded.get(), pagesAdded.get(), outputBuffer.getPeakMemoryUsage());
+            long[] partitionRows = new long[partitionRowsAdded.length()];
+            for (int partition = 0; partition < partitionRows.length; partition++) {
+                partitionRows[partition] = partitionRowsAdded.get(partition);
+            }
+            return new PartitionedOutputInfo(rowsAdded.get(), pagesAdded.get(), outputBuffer.getPeakMemoryUsage(), partitionRows);
         }
 
         public void partitionPage(Page page)
@@ -440,6 +453,7 @@ public class PartitionedOutputOperator
                     outputBuffer.enqueue(partition, serializedPages);
                     pagesAdded.incrementAndGet();
                     rowsAdded.addAndGet(pagePartition.getPositionCount());
+                    partitionRowsAdded.addAndGet(partition, pagePartition.getPositionCount());
                 }
             }
         }
@@ -448,19 +462,32 @@ public class PartitionedOutputOperator
     public static class PartitionedOutputInfo
             implements Mergeable<PartitionedOutputInfo>, OperatorInfo
     {
+        // a partition with this many times the average number of rows is reported as a heavy hitter
+        private static final double HEAVY_HITTER_RATIO = 4.0;
+        // ignore partitions with a small share of the rows, which are only above the ratio due to hashing noise
+        private static final double HEAVY_HITTER_MIN_FRACTION = 0.01;
+
         private final long rowsAdded;
         private final long pagesAdded;
         private final long outputBufferPeakMemoryUsage;
+        private final long[] partitionRowsAdded;
+
+        public PartitionedOutputInfo(long rowsAdded, long pagesAdded, long outputBufferPeakMemoryUsage)
+        {
+            this(rowsAdded, pagesAdded, outputBufferPeakMemoryUsage, new long[0]);
+        }
 
         @JsonCreator
         public PartitionedOutputInfo(
                 @JsonProperty("rowsAdded") long rowsAdded,
                 @JsonProperty("pagesAdded") long pagesAdded,
-                @JsonProperty("outputBufferPeakMemoryUsage") long outputBufferPeakMemoryUsage)
+                @JsonProperty("outputBufferPeakMemoryUsage") long outputBufferPeakMemoryUsage,
+                @JsonProperty("partitionRowsAdded") long[] partitionRowsAdded)
         {
             this.rowsAdded = rowsAdded;
             this.pagesAdded = pagesAdded;
             this.outputBufferPeakMemoryUsage = outputBufferPeakMemoryUsage;
+            this.partitionRowsAdded = requireNonNull(partitionRowsAdded, "partitionRowsAdded is null");
         }
 
         @JsonProperty
@@ -481,13 +508,81 @@ public class PartitionedOutputOperator
             return outputBufferPeakMemoryUsage;
         }
 
+        /**
+         * Number of rows sent to each output partition, indexed by partition
+         */
+        @JsonProperty
+        public long[] getPartitionRowsAdded()
+        {
+            return partitionRowsAdded;
+        }
+
+        public long getMaxPartitionRowsAdded()
+        {
+            long max = 0;
+            for (long rows : partitionRowsAdded) {
+                max = max(max, rows);
+            }
+            return max;
+        }
+
+        /**
+         * Ratio of the number of rows in the largest partition to the average number of rows per partition.
+         * A value of 1 means the rows are evenly spread across the partitions.
+         */
+        public double getPartitionSkew()
+        {
+            long totalRows = getTotalPartitionRowsAdded();
+            if (totalRows == 0) {
+                return 1.0;
+            }
+            return getMaxPartitionRowsAdded() / ((double) totalRows / partitionRowsAdded.length);
+        }
+
+        /**
+         * Partitions which received many times more rows than the average partition.
+         * These partitions are typically caused by a few hot partitioning keys.
+         */
+        public List<Integer> getHeavyHitterPartitions()
+        {
+            long totalRows = getTotalPartitionRowsAdded();
+            if (totalRows == 0 || partitionRowsAdded.length < 2) {
+                return ImmutableList.of();
+            }
+            double threshold = Math.max(HEAVY_HITTER_RATIO * totalRows / partitionRowsAdded.length, HEAVY_HITTER_MIN_FRACTION * totalRows);
+            ImmutableList.Builder<Integer> heavyHitters = ImmutableList.builder();
+            for (int partition = 0; partition < partitionRowsAdded.length; partition++) {
+                if (partitionRowsAdded[partition] > threshold) {
+                    heavyHitters.add(partition);
+                }
+            }
+            return heavyHitters.build();
+        }
+
+        private long getTotalPartitionRowsAdded()
+        {
+            long totalRows = 0;
+            for (long rows : partitionRowsAdded) {
+                totalRows += rows;
+            }
+            return totalRows;
+        }
+
         @Override
         public PartitionedOutputInfo mergeWith(PartitionedOutputInfo other)
         {
+            long[] mergedPartitionRowsAdded = new long[max(partitionRowsAdded.length, other.partitionRowsAdded.length)];
+            for (int partition = 0; partition < partitionRowsAdded.length; partition++) {
+                mergedPartitionRowsAdded[partition] += partitionRowsAdded[partition];
+            }
+            for (int partition = 0; partition < other.partitionRowsAdded.length; partition++) {
+                mergedPartitionRowsAdded[partition] += other.partitionRowsAdded[partition];
+            }
             return new PartitionedOutputInfo(
                     rowsAdded + other.rowsAdded,
                     pagesAdded + other.pagesAdded,
-                    Math.max(outputBufferPeakMemoryUsage, other.outputBufferPeakMemoryUsage));
+                    Math.max(outputBufferPeakMemoryUsage, other.outputBufferPeakMemoryUsage),
+                    mergedPartitionRowsAdded);
         }
 
         @Override
@@ -503,6 +598,7 @@ public class PartitionedOutputOperator
                     .add("rowsAdded", rowsAdded)
                     .add("pagesAdded", pagesAdded)
                     .add("outputBufferPeakMemoryUsage", outputBufferPeakMemoryUsage)
+                    .add("partitionSkew", getPartitionSkew())
                     .toString();
         }
     }
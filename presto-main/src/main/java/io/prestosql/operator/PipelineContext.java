@@ -50,6 +50,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static io.airlift.units.DataSize.succinctBytes;
+import static java.lang.Math.max;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.stream.Collectors.toList;
@@ -69,7 +70,9 @@ public class PipelineContext
     private final List<DriverContext> drivers = new CopyOnWriteArrayList<>();
 
     private final AtomicInteger totalSplits = new AtomicInteger();
+    private final AtomicLong totalSplitsWeight = new AtomicLong();
     private final AtomicInteger completedDrivers = new AtomicInteger();
+    private final AtomicLong completedSplitsWeight = new AtomicLong();
 
     private final AtomicReference<DateTime> executionStartTime = new AtomicReference<>();
     private final AtomicReference<DateTime> lastExecutionStartTime = new AtomicReference<>();
@@ -150,12 +153,19 @@ public class PipelineContext
 
     public DriverContext addDriverContext(Lifespan lifespan)
     {
+        return addDriverContext(lifespan, 0);
+    }
+
+    public DriverContext addDriverContext(Lifespan lifespan, long splitWeight)
+    {
+        checkArgument(partitioned || splitWeight == 0, "Only partitioned splits should have weights");
         DriverContext driverContext = new DriverContext(
                 this,
                 notificationExecutor,
                 yieldExecutor,
                 pipelineMemoryContext.newMemoryTrackingContext(),
-                lifespan);
+                lifespan,
+                splitWeight);
         drivers.add(driverContext);
         return driverContext;
     }
@@ -165,10 +175,11 @@ public class PipelineContext
         return taskContext.getSession();
     }
 
-    public void splitsAdded(int count)
+    public void splitsAdded(int count, long weightSum)
     {
-        checkArgument(count >= 0);
+        checkArgument(count >= 0 && weightSum >= 0);
         totalSplits.addAndGet(count);
+        totalSplitsWeight.addAndGet(weightSum);
     }
 
     public void driverFinished(DriverContext driverContext)
@@ -185,6 +196,7 @@ public class PipelineContext
         DriverStats driverStats = driverContext.getDriverStats();
 
         completedDrivers.getAndIncrement();
+        completedSplitsWeight.getAndAdd(driverContext.getSplitWeight());
 
         queuedTime.add(driverStats.getQueuedTime().roundTo(NANOSECONDS));
         elapsedTime.add(driverStats.getElapsedTime().roundTo(NANOSECONDS));
@@ -319,7 +331,7 @@ public class PipelineContext
 
     public PipelineStatus getPipelineStatus()
     {
-        return getPipelineStatus(drivers.iterator(), totalSplits.get(), completedDrivers.get(), partitioned);
+        return getPipelineStatus(drivers.iterator(), totalSplits.get(), completedDrivers.get(), totalSplitsWeight.get(), completedSplitsWeight.get(), partitioned);
     }
 
     public PipelineStats getPipelineStats()
@@ -335,7 +347,7 @@ public class PipelineContext
         int completedDrivers = this.completedDrivers.get();
         List<DriverContext> driverContexts = ImmutableList.copyOf(this.drivers);
         int totalSplits = this.totalSplits.get();
-        PipelineStatus pipelineStatus = getPipelineStatus(driverContexts.iterator(), totalSplits, completedDrivers, partitioned);
+        PipelineStatus pipelineStatus = getPipelineStatus(driverContexts.iterator(), totalSplits, completedDrivers, totalSplitsWeight.get(), completedSplitsWeight.get(), partitioned);
 
         int totalDrivers = completedDrivers + driverContexts.size();
 
@@ -495,10 +507,18 @@ public class PipelineContext
         return pipelineMemoryContext;
     }
 
-    private static PipelineStatus getPipelineStatus(Iterator<DriverContext> driverContextsIterator, int totalSplits, int completedDrivers, boolean partitioned)
+    private static PipelineStatus getPipelineStatus(
+            Iterator<DriverContext> driverContextsIterator,
+            int totalSplits,
+            int completedDrivers,
+            long totalSplitsWeight,
+            long completedSplitsWeight,
+            boolean partitioned)
     {
         int runningDrivers = 0;
         int blockedDrivers = 0;
+        long runningSplitsWeight = 0;
+        long blockedSplitsWeight = 0;
         // When a split for a partitioned pipeline is delivered to a worker,
         // conceptually, the worker would have an additional driver.
         // The queuedDrivers field in PipelineStatus is supposed to represent this.
@@ -514,24 +534,37 @@ public class PipelineContext
             }
             else if (driverContext.isFullyBlocked()) {
                 blockedDrivers++;
+                blockedSplitsWeight += driverContext.getSplitWeight();
             }
             else {
                 runningDrivers++;
+                runningSplitsWeight += driverContext.getSplitWeight();
             }
         }
 
         int queuedDrivers;
+        long queuedSplitsWeight;
         if (partitioned) {
             queuedDrivers = totalSplits - runningDrivers - blockedDrivers - completedDrivers;
-            if (queuedDrivers < 0) {
+            queuedSplitsWeight = totalSplitsWeight - runningSplitsWeight - blockedSplitsWeight - completedSplitsWeight;
+            if (queuedDrivers < 0 || queuedSplitsWeight < 0) {
                 // It is possible to observe negative here because inputs to the above expression was not taken in a snapshot.
-                queuedDrivers = 0;
+                queuedDrivers = max(queuedDrivers, 0);
+                queuedSplitsWeight = max(queuedSplitsWeight, 0);
             }
         }
         else {
             queuedDrivers = physicallyQueuedDrivers;
+            queuedSplitsWeight = 0;
         }
 
-        return new PipelineStatus(queuedDrivers, runningDrivers, blockedDrivers, partitioned ? queuedDrivers : 0, partitioned ? runningDrivers : 0);
+        return new PipelineStatus(
+                queuedDrivers,
+                runningDrivers,
+                blockedDrivers,
+                partitioned ? queuedDrivers : 0,
+                partitioned ? runningDrivers : 0,
+                queuedSplitsWeight,
+                partitioned ? runningSplitsWeight : 0);
     }
 }
@@ -16,6 +16,7 @@ package io.prestosql.operator;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.prestosql.array.LongBigArray;
 import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.spi.Page;
@@ -23,10 +24,12 @@ import io.prestosql.spi.PageBuilder;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.type.Type;
+import io.prestosql.spiller.PartitioningSpillerFactory;
 import io.prestosql.sql.gen.JoinCompiler;
 import io.prestosql.sql.planner.plan.PlanNodeId;
 
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,9 +37,13 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.base.Verify.verifyNotNull;
+import static com.google.common.collect.Iterators.singletonIterator;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static io.airlift.concurrent.MoreFutures.checkSuccess;
 import static io.prestosql.SystemSessionProperties.isDictionaryAggregationEnabled;
 import static io.prestosql.operator.GroupByHash.createGroupByHash;
 import static io.prestosql.spi.type.BigintType.BIGINT;
+import static java.util.Collections.emptyIterator;
 import static java.util.Objects.requireNonNull;
 
 public class RowNumberOperator
@@ -56,6 +63,8 @@ public class RowNumberOperator
         private final int expectedPositions;
         private boolean closed;
         private final JoinCompiler joinCompiler;
+        private final boolean spillEnabled;
+        private final PartitioningSpillerFactory partitioningSpillerFactory;
 
         public RowNumberOperatorFactory(
                 int operatorId,
@@ -67,7 +76,9 @@ public class RowNumberOperator
                 Optional<Integer> maxRowsPerPartition,
                 Optional<Integer> hashChannel,
                 int expectedPositions,
-                JoinCompiler joinCompiler)
+                JoinCompiler joinCompiler,
+                boolean spillEnabled,
+                PartitioningSpillerFactory partitioningSpillerFactory)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -81,6 +92,8 @@ public class RowNumberOperator
             checkArgument(expectedPositions > 0, "expectedPositions < 0");
             this.expectedPositions = expectedPositions;
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+            this.spillEnabled = spillEnabled;
+            this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
         }
 
         @Override
@@ -98,7 +111,9 @@ public class RowNumberOperator
                     maxRowsPerPartition,
                     hashChannel,
                     expectedPositions,
-                    joinCompiler);
+                    joinCompiler,
+                    spillEnabled,
+                    partitioningSpillerFactory);
         }
 
         @Override
@@ -110,22 +125,31 @@ public class RowNumberOperator
         @Override
         public OperatorFactory duplicate()
         {
-            return new RowNumberOperatorFactory(operatorId, planNodeId, sourceTypes, outputChannels, partitionChannels, partitionTypes, maxRowsPerPartition, hashChannel, expectedPositions, joinCompiler);
+            return new RowNumberOperatorFactory(operatorId, planNodeId, sourceTypes, outputChannels, partitionChannels, partitionTypes, maxRowsPerPartition, hashChannel, expectedPositions, joinCompiler, spillEnabled, partitioningSpillerFactory);
         }
     }
 
     private final OperatorContext operatorContext;
     private final LocalMemoryContext localUserMemoryContext;
+    private final LocalMemoryContext localRevocableMemoryContext;
     private boolean finishing;
 
+    private final List<Type> sourceTypes;
     private final int[] outputChannels;
     private final List<Type> types;
+    private final List<Integer> partitionChannels;
+    private final List<Type> partitionTypes;
+    private final Optional<Integer> hashChannel;
+    private final int expectedPositions;
+    private final JoinCompiler joinCompiler;
+    private final boolean spillEnabled;
+    private final PartitioningSpillerFactory partitioningSpillerFactory;
 
     private GroupByIdBlock partitionIds;
-    private final Optional<GroupByHash> groupByHash;
+    private Optional<GroupByHash> groupByHash;
 
     private Page inputPage;
-    private final LongBigArray partitionRowCount;
+    private LongBigArray partitionRowCount;
 
     private final Optional<Integer> maxRowsPerPartition;
     // Only present if maxRowsPerPartition is present
@@ -134,6 +158,19 @@ public class RowNumberOperator
     // for yield when memory is not available
     private Work<GroupByIdBlock> unfinishedWork;
 
+    // output of the input page which was pending when memory was revoked
+    private Page revokedOutputPage;
+
+    // the partitions are spilled together with their row count
+    private Optional<HashPartitionedSpiller> spiller = Optional.empty();
+    private ListenableFuture<?> spillInProgress = immediateFuture(null);
+    private Runnable finishMemoryRevoke = () -> {};
+
+    private Iterator<Page> unspilledPartitions = emptyIterator();
+    private Iterator<Page> unspilledInput = emptyIterator();
+    private int nextUnspilledPartition;
+    private boolean restoringPartitions;
+
     public RowNumberOperator(
             OperatorContext operatorContext,
             List<Type> sourceTypes,
@@ -143,12 +180,24 @@ public class RowNumberOperator
             Optional<Integer> maxRowsPerPartition,
             Optional<Integer> hashChannel,
             int expectedPositions,
-            JoinCompiler joinCompiler)
+            JoinCompiler joinCompiler,
+            boolean spillEnabled,
+            PartitioningSpillerFactory partitioningSpillerFactory)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
         this.localUserMemoryContext = operatorContext.localUserMemoryContext();
+        this.localRevocableMemoryContext = operatorContext.localRevocableMemoryContext();
+        this.sourceTypes = ImmutableList.copyOf(requireNonNull(sourceTypes, "sourceTypes is null"));
         this.outputChannels = Ints.toArray(outputChannels);
         this.types = toTypes(sourceTypes, outputChannels);
+        this.partitionChannels = ImmutableList.copyOf(requireNonNull(partitionChannels, "partitionChannels is null"));
+        this.partitionTypes = ImmutableList.copyOf(requireNonNull(partitionTypes, "partitionTypes is null"));
+        this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
+        this.expectedPositions = expectedPositions;
+        this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+        // a single partition cannot be split when spilling
+        this.spillEnabled = spillEnabled && !partitionChannels.isEmpty();
+        this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
 
         this.maxRowsPerPartition = maxRowsPerPartition;
         if (maxRowsPerPartition.isPresent()) {
@@ -163,8 +212,7 @@ public class RowNumberOperator
             this.groupByHash = Optional.empty();
         }
         else {
-            int[] channels = Ints.toArray(partitionChannels);
-            this.groupByHash = Optional.of(createGroupByHash(partitionTypes, channels, hashChannel, expectedPositions, isDictionaryAggregationEnabled(operatorContext.getSession()), joinCompiler, this::updateMemoryReservation));
+            this.groupByHash = Optional.of(createPartitionHash());
         }
     }
 
@@ -190,7 +238,16 @@ public class RowNumberOperator
             return partitionRowCount.get(0) == maxRowsPerPartition.get();
         }
 
-        return finishing && !hasUnfinishedInput();
+        return finishing && !hasUnfinishedInput() && revokedOutputPage == null && !hasUnspilledInput();
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        if (!spillInProgress.isDone()) {
+            return spillInProgress;
+        }
+        return NOT_BLOCKED;
     }
 
     @Override
@@ -200,7 +257,7 @@ public class RowNumberOperator
             // Check if single partition is done
             return partitionRowCount.get(0) < maxRowsPerPartition.get() && !finishing && !hasUnfinishedInput();
         }
-        return !finishing && !hasUnfinishedInput();
+        return !finishing && !hasUnfinishedInput() && revokedOutputPage == null && spillInProgress.isDone();
     }
 
     @Override
@@ -209,6 +266,14 @@ public class RowNumberOperator
         checkState(!finishing, "Operator is already finishing");
         requireNonNull(page, "page is null");
         checkState(!hasUnfinishedInput());
+        checkSuccess(spillInProgress, "spilling failed");
+
+        if (spiller.isPresent()) {
+            // the partitions were spilled, so the page is processed after all input is received
+            spillInProgress = spiller.get().spillInput(singletonIterator(page));
+            return;
+        }
+
         inputPage = page;
         if (groupByHash.isPresent()) {
             unfinishedWork = groupByHash.get().getGroupIds(inputPage);
@@ -220,6 +285,16 @@ public class RowNumberOperator
     @Override
     public Page getOutput()
     {
+        if (revokedOutputPage != null) {
+            Page outputPage = revokedOutputPage;
+            revokedOutputPage = null;
+            return outputPage;
+        }
+
+        if (unfinishedWork == null && inputPage == null && !unspillNextPage()) {
+            return null;
+        }
+
         if (unfinishedWork != null && !processUnfinishedWork()) {
             return null;
         }
@@ -228,6 +303,62 @@ public class RowNumberOperator
             return null;
         }
 
+        if (restoringPartitions) {
+            restorePartitionRowCounts();
+            inputPage = null;
+            updateMemoryReservation();
+            return null;
+        }
+
+        Page outputPage = produceOutput();
+        updateMemoryReservation();
+        return outputPage;
+    }
+
+    @Override
+    public ListenableFuture<?> startMemoryRevoke()
+    {
+        checkSuccess(spillInProgress, "spilling failed");
+        if (spiller.isPresent() || localRevocableMemoryContext.getBytes() == 0) {
+            return immediateFuture(null);
+        }
+
+        if (unfinishedWork != null) {
+            // reservation of revocable memory never yields
+            verify(processUnfinishedWork());
+        }
+        if (inputPage != null) {
+            revokedOutputPage = produceOutput();
+        }
+
+        if (!finishing) {
+            spiller = Optional.of(new HashPartitionedSpiller(partitioningSpillerFactory, operatorContext, sourceTypes, partitionChannels, hashChannel));
+            spillInProgress = spiller.get().spillGroups(groupByHash.get(), Optional.of(partitionRowCount));
+        }
+        // no input is left to be numbered once finishing, so the partitions can be released without spilling
+        finishMemoryRevoke = () -> {
+            groupByHash = Optional.empty();
+            partitionRowCount = new LongBigArray(0);
+            updateMemoryReservation();
+        };
+        return spillInProgress;
+    }
+
+    @Override
+    public void finishMemoryRevoke()
+    {
+        finishMemoryRevoke.run();
+        finishMemoryRevoke = () -> {};
+    }
+
+    @Override
+    public void close()
+    {
+        spiller.ifPresent(HashPartitionedSpiller::close);
+    }
+
+    private Page produceOutput()
+    {
         Page outputPage;
         if (maxRowsPerPartition.isPresent()) {
             outputPage = getSelectedRows();
@@ -237,7 +368,6 @@ public class RowNumberOperator
         }
 
         inputPage = null;
-        updateMemoryReservation();
         return outputPage;
     }
 
@@ -246,6 +376,51 @@ public class RowNumberOperator
         return inputPage != null || unfinishedWork != null;
     }
 
+    private boolean hasUnspilledInput()
+    {
+        return spiller.isPresent() && (nextUnspilledPartition < spiller.get().getPartitionCount() || unspilledPartitions.hasNext() || unspilledInput.hasNext());
+    }
+
+    private boolean unspillNextPage()
+    {
+        if (!finishing || !spiller.isPresent() || !spillInProgress.isDone()) {
+            return false;
+        }
+        checkSuccess(spillInProgress, "spilling failed");
+
+        while (!unspilledPartitions.hasNext() && !unspilledInput.hasNext()) {
+            partitionRowCount = new LongBigArray(0);
+            if (nextUnspilledPartition == spiller.get().getPartitionCount()) {
+                groupByHash = Optional.empty();
+                updateMemoryReservation();
+                return false;
+            }
+            groupByHash = Optional.of(createPartitionHash());
+            unspilledPartitions = spiller.get().getGroupPages(nextUnspilledPartition);
+            unspilledInput = spiller.get().getInputPages(nextUnspilledPartition);
+            nextUnspilledPartition++;
+        }
+
+        restoringPartitions = unspilledPartitions.hasNext();
+        inputPage = restoringPartitions ? unspilledPartitions.next() : unspilledInput.next();
+        unfinishedWork = groupByHash.get().getGroupIds(inputPage);
+        return true;
+    }
+
+    private void restorePartitionRowCounts()
+    {
+        // the row count is in the last channel of the spilled partitions
+        Block rowCounts = inputPage.getBlock(inputPage.getChannelCount() - 1);
+        for (int position = 0; position < inputPage.getPositionCount(); position++) {
+            partitionRowCount.set(partitionIds.getGroupId(position), BIGINT.getLong(rowCounts, position));
+        }
+    }
+
+    private GroupByHash createPartitionHash()
+    {
+        return createGroupByHash(partitionTypes, Ints.toArray(partitionChannels), hashChannel, expectedPositions, isDictionaryAggregationEnabled(operatorContext.getSession()), joinCompiler, this::updateMemoryReservation);
+    }
+
     /**
      * Update memory usage.
      *
@@ -256,9 +431,16 @@ public class RowNumberOperator
     // The following implementation is a hybrid model, where the push model is going to call the pull model causing reentrancy
     private boolean updateMemoryReservation()
     {
+        long memorySizeInBytes = groupByHash.map(GroupByHash::getEstimatedSize).orElse(0L) + partitionRowCount.sizeOf();
+        if (spillEnabled && !spiller.isPresent()) {
+            // the partitions can be spilled instead of waiting for memory
+            localRevocableMemoryContext.setBytes(memorySizeInBytes);
+            return true;
+        }
+
+        localRevocableMemoryContext.setBytes(0);
         // Operator/driver will be blocked on memory after we call localUserMemoryContext.setBytes().
         // If memory is not available, once we return, this operator will be blocked until memory is available.
-        long memorySizeInBytes = groupByHash.map(GroupByHash::getEstimatedSize).orElse(0L) + partitionRowCount.sizeOf();
         localUserMemoryContext.setBytes(memorySizeInBytes);
         // If memory is not available, inform the caller that we cannot proceed for allocation.
         return operatorContext.isWaitingForMemory().isDone();
@@ -278,7 +460,7 @@ public class RowNumberOperator
 
     private boolean isSinglePartition()
     {
-        return !groupByHash.isPresent();
+        return partitionChannels.isEmpty();
     }
 
     private Page getRowsWithRowNumber()
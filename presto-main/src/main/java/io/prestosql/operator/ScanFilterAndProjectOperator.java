@@ -46,7 +46,9 @@ import javax.annotation.Nullable;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
@@ -77,6 +79,9 @@ public class ScanFilterAndProjectOperator
     private long readTimeNanos;
     private long dynamicFilterSplitsProcessed;
 
+    // reused by filterPage from page to page
+    private int[] bloomFilterPositions = new int[0];
+
     private ScanFilterAndProjectOperator(
             Session session,
             MemoryTrackingContext memoryTrackingContext,
@@ -88,6 +93,7 @@ public class ScanFilterAndProjectOperator
             TableHandle table,
             Iterable<ColumnHandle> columns,
             Supplier<TupleDomain<ColumnHandle>> dynamicFilter,
+            Supplier<Map<Integer, BlockedBloomFilter>> bloomFilters,
             Iterable<Type> types,
             DataSize minOutputPageSize,
             int minOutputPageRowCount,
@@ -103,6 +109,7 @@ public class ScanFilterAndProjectOperator
                         table,
                         columns,
                         dynamicFilter,
+                        bloomFilters,
                         types,
                         requireNonNull(memoryTrackingContext, "memoryTrackingContext is null").aggregateSystemMemoryContext(),
                         minOutputPageSize,
@@ -190,6 +197,7 @@ public class ScanFilterAndProjectOperator
         final TableHandle table;
         final List<ColumnHandle> columns;
         final Supplier<TupleDomain<ColumnHandle>> dynamicFilter;
+        final Supplier<Map<Integer, BlockedBloomFilter>> bloomFilters;
         final List<Type> types;
         final LocalMemoryContext memoryContext;
         final AggregatedMemoryContext localAggregatedMemoryContext;
@@ -208,6 +216,7 @@ public class ScanFilterAndProjectOperator
                 TableHandle table,
                 Iterable<ColumnHandle> columns,
                 Supplier<TupleDomain<ColumnHandle>> dynamicFilter,
+                Supplier<Map<Integer, BlockedBloomFilter>> bloomFilters,
                 Iterable<Type> types,
                 AggregatedMemoryContext aggregatedMemoryContext,
                 DataSize minOutputPageSize,
@@ -222,6 +231,7 @@ public class ScanFilterAndProjectOperator
             this.table = requireNonNull(table, "table is null");
             this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
             this.dynamicFilter = dynamicFilter;
+            this.bloomFilters = requireNonNull(bloomFilters, "bloomFilters is null");
             this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
             this.memoryContext = aggregatedMemoryContext.newLocalMemoryContext(ScanFilterAndProjectOperator.class.getSimpleName());
             this.localAggregatedMemoryContext = newSimpleAggregatedMemoryContext();
@@ -260,7 +270,7 @@ public class ScanFilterAndProjectOperator
             }
             else {
                 pageSource = source;
-                return ofResult(processPageSource());
+                return ofResult(processPageSource(bloomFilters.get()));
             }
         }
 
@@ -272,11 +282,12 @@ public class ScanFilterAndProjectOperator
                     .withProcessStateMonitor(state -> memoryContext.setBytes(localAggregatedMemoryContext.getBytes()));
         }
 
-        WorkProcessor<Page> processPageSource()
+        WorkProcessor<Page> processPageSource(Map<Integer, BlockedBloomFilter> splitBloomFilters)
         {
             return WorkProcessor
                     .create(new ConnectorPageSourceToPages(pageSourceMemoryContext))
                     .yielding(yieldSignal::isSet)
+                    .map(page -> filterPage(page, splitBloomFilters))
                     .flatMap(page -> pageProcessor.createWorkProcessor(
                             session.toConnectorSession(),
                             yieldSignal,
@@ -288,6 +299,41 @@ public class ScanFilterAndProjectOperator
         }
     }
 
+    /**
+     * Drops the rows which cannot match the dynamic filters' bloom filters.
+     * Only the blocks of the filtered channels are loaded here.
+     */
+    private Page filterPage(Page page, Map<Integer, BlockedBloomFilter> bloomFilters)
+    {
+        if (bloomFilters.isEmpty()) {
+            return page;
+        }
+        if (bloomFilterPositions.length < page.getPositionCount()) {
+            bloomFilterPositions = new int[page.getPositionCount()];
+        }
+        int[] positions = bloomFilterPositions;
+        int positionCount = 0;
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            positions[positionCount] = position;
+            positionCount += mightMatch(page, position, bloomFilters) ? 1 : 0;
+        }
+        if (positionCount == page.getPositionCount()) {
+            return page;
+        }
+        // the dictionary blocks of the filtered page keep the positions, so they cannot share the reused array
+        return page.getPositions(Arrays.copyOf(positions, positionCount), 0, positionCount);
+    }
+
+    private static boolean mightMatch(Page page, int position, Map<Integer, BlockedBloomFilter> bloomFilters)
+    {
+        for (Map.Entry<Integer, BlockedBloomFilter> entry : bloomFilters.entrySet()) {
+            if (!entry.getValue().mightContain(page.getBlock(entry.getKey()), position)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private class RecordCursorToPages
             implements WorkProcessor.Process<Page>
     {
@@ -408,6 +454,7 @@ public class ScanFilterAndProjectOperator
         private final TableHandle table;
         private final List<ColumnHandle> columns;
         private final Supplier<TupleDomain<ColumnHandle>> dynamicFilter;
+        private final Supplier<Map<Integer, BlockedBloomFilter>> bloomFilters;
         private final List<Type> types;
         private final DataSize minOutputPageSize;
         private final int minOutputPageRowCount;
@@ -423,6 +470,7 @@ public class ScanFilterAndProjectOperator
                 TableHandle table,
                 Iterable<ColumnHandle> columns,
                 Supplier<TupleDomain<ColumnHandle>> dynamicFilter,
+                Supplier<Map<Integer, BlockedBloomFilter>> bloomFilters,
                 List<Type> types,
                 DataSize minOutputPageSize,
                 int minOutputPageRowCount)
@@ -436,6 +484,7 @@ public class ScanFilterAndProjectOperator
             this.table = requireNonNull(table, "table is null");
             this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
             this.dynamicFilter = dynamicFilter;
+            this.bloomFilters = requireNonNull(bloomFilters, "bloomFilters is null");
             this.types = requireNonNull(types, "types is null");
             this.minOutputPageSize = requireNonNull(minOutputPageSize, "minOutputPageSize is null");
             this.minOutputPageRowCount = minOutputPageRowCount;
@@ -511,6 +560,7 @@ public class ScanFilterAndProjectOperator
                     table,
                     columns,
                     dynamicFilter,
+                    bloomFilters,
                     types,
                     minOutputPageSize,
                     minOutputPageRowCount,
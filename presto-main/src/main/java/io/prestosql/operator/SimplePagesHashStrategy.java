@@ -131,6 +131,22 @@ public class SimplePagesHashStrategy
         return result;
     }
 
+    @Override
+    public void hashRows(int[] positions, int positionCount, Page page, long[] hashes)
+    {
+        for (int i = 0; i < positionCount; i++) {
+            hashes[positions[i]] = 0;
+        }
+        for (int i = 0; i < hashChannels.size(); i++) {
+            Type type = types.get(hashChannels.get(i));
+            Block block = page.getBlock(i);
+            for (int j = 0; j < positionCount; j++) {
+                int position = positions[j];
+                hashes[position] = hashes[position] * 31 + TypeUtils.hashPosition(type, block, position);
+            }
+        }
+    }
+
     @Override
     public boolean rowEqualsRow(int leftPosition, Page leftPage, int rightPosition, Page rightPage)
     {
@@ -176,6 +192,22 @@ public class SimplePagesHashStrategy
         return true;
     }
 
+    @Override
+    public void positionsEqualRowsIgnoreNulls(int[] leftBlockIndexes, int[] leftPositions, int[] rightPositions, int positionCount, Page rightPage, boolean[] equal)
+    {
+        for (int i = 0; i < hashChannels.size(); i++) {
+            int hashChannel = hashChannels.get(i);
+            Type type = types.get(hashChannel);
+            List<Block> leftBlocks = channels.get(hashChannel);
+            Block rightBlock = rightPage.getBlock(i);
+            for (int j = 0; j < positionCount; j++) {
+                if (equal[j]) {
+                    equal[j] = type.equalTo(leftBlocks.get(leftBlockIndexes[j]), leftPositions[j], rightBlock, rightPositions[j]);
+                }
+            }
+        }
+    }
+
     @Override
     public boolean positionEqualsRow(int leftBlockIndex, int leftPosition, int rightPosition, Page page, int[] rightHashChannels)
     {
@@ -15,6 +15,7 @@ package io.prestosql.operator;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.AtomicDouble;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -24,6 +25,7 @@ import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.prestosql.Session;
 import io.prestosql.execution.Lifespan;
+import io.prestosql.execution.StateMachine.StateChangeListener;
 import io.prestosql.execution.TaskId;
 import io.prestosql.execution.TaskState;
 import io.prestosql.execution.TaskStateMachine;
@@ -32,12 +34,15 @@ import io.prestosql.memory.QueryContext;
 import io.prestosql.memory.QueryContextVisitor;
 import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.memory.context.MemoryTrackingContext;
+import io.prestosql.spi.predicate.Domain;
 import org.joda.time.DateTime;
 
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.OptionalInt;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -51,6 +56,7 @@ import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.Iterables.transform;
 import static com.google.common.collect.Sets.newConcurrentHashSet;
 import static io.airlift.units.DataSize.succinctBytes;
+import static io.prestosql.execution.TaskStatus.INITIAL_DYNAMIC_FILTERS_VERSION;
 import static java.lang.Math.max;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
@@ -101,6 +107,16 @@ public class TaskContext
 
     private final MemoryTrackingContext taskMemoryContext;
 
+    // dynamic filters collected by this task, which are consumed by other stages
+    @GuardedBy("this")
+    private final Map<String, Domain> dynamicFilterDomains = new HashMap<>();
+    @GuardedBy("this")
+    private long dynamicFiltersVersion = INITIAL_DYNAMIC_FILTERS_VERSION;
+
+    // dynamic filters merged by the coordinator from the tasks of other stages
+    @GuardedBy("this")
+    private final Map<String, Domain> remoteDynamicFilterDomains = new HashMap<>();
+
     public static TaskContext createTaskContext(
             QueryContext queryContext,
             TaskStateMachine taskStateMachine,
@@ -229,6 +245,11 @@ public class TaskContext
         return taskStateMachine.getState().isDone();
     }
 
+    public void addStateChangeListener(StateChangeListener<TaskState> stateChangeListener)
+    {
+        taskStateMachine.addStateChangeListener(stateChangeListener);
+    }
+
     public TaskState getState()
     {
         return taskStateMachine.getState();
@@ -265,6 +286,34 @@ public class TaskContext
         completedDriverGroups.add(driverGroup);
     }
 
+    public synchronized void collectDynamicFilterDomains(Map<String, Domain> dynamicFilterDomains)
+    {
+        if (!this.dynamicFilterDomains.entrySet().containsAll(dynamicFilterDomains.entrySet())) {
+            this.dynamicFilterDomains.putAll(dynamicFilterDomains);
+            dynamicFiltersVersion++;
+        }
+    }
+
+    public synchronized long getDynamicFiltersVersion()
+    {
+        return dynamicFiltersVersion;
+    }
+
+    public synchronized Map<String, Domain> getDynamicFilterDomains()
+    {
+        return ImmutableMap.copyOf(dynamicFilterDomains);
+    }
+
+    public synchronized void addRemoteDynamicFilterDomains(Map<String, Domain> remoteDynamicFilterDomains)
+    {
+        this.remoteDynamicFilterDomains.putAll(remoteDynamicFilterDomains);
+    }
+
+    public synchronized Map<String, Domain> getRemoteDynamicFilterDomains()
+    {
+        return ImmutableMap.copyOf(remoteDynamicFilterDomains);
+    }
+
     public List<PipelineContext> getPipelineContexts()
     {
         return pipelineContexts;
@@ -18,6 +18,7 @@ import io.prestosql.execution.buffer.OutputBuffer;
 import io.prestosql.execution.buffer.PagesSerde;
 import io.prestosql.execution.buffer.PagesSerdeFactory;
 import io.prestosql.execution.buffer.SerializedPage;
+import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.type.Type;
 import io.prestosql.sql.planner.plan.PlanNodeId;
@@ -91,6 +92,7 @@ public class TaskOutputOperator
     private final OutputBuffer outputBuffer;
     private final Function<Page, Page> pagePreprocessor;
     private final PagesSerde serde;
+    private final LocalMemoryContext systemMemoryContext;
     private boolean finished;
 
     public TaskOutputOperator(OperatorContext operatorContext, OutputBuffer outputBuffer, Function<Page, Page> pagePreprocessor, PagesSerdeFactory serdeFactory)
@@ -99,6 +101,7 @@ public class TaskOutputOperator
         this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
         this.pagePreprocessor = requireNonNull(pagePreprocessor, "pagePreprocessor is null");
         this.serde = requireNonNull(serdeFactory, "serdeFactory is null").createPagesSerde();
+        this.systemMemoryContext = operatorContext.newLocalSystemMemoryContext(TaskOutputOperator.class.getSimpleName());
     }
 
     @Override
@@ -147,6 +150,7 @@ public class TaskOutputOperator
                 .collect(toImmutableList());
 
         outputBuffer.enqueue(serializedPages);
+        systemMemoryContext.setBytes(serde.getRetainedSizeInBytes());
         operatorContext.recordOutput(page.getSizeInBytes(), page.getPositionCount());
     }
 
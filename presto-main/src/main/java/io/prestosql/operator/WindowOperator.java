@@ -498,10 +498,12 @@ public class WindowOperator
             implements Transformation<WindowPartition, Page>
     {
         final PageBuilder pageBuilder;
+        final LocalMemoryContext memoryContext;
 
         WindowPartitionsToOutputPages()
         {
             pageBuilder = new PageBuilder(outputTypes);
+            memoryContext = operatorContext.aggregateUserMemoryContext().newLocalMemoryContext(WindowPartitionsToOutputPages.class.getSimpleName());
         }
 
         @Override
@@ -509,6 +511,7 @@ public class WindowOperator
         {
             boolean finishing = partition == null;
             if (finishing) {
+                memoryContext.close();
                 if (pageBuilder.isEmpty()) {
                     return TransformationState.finished();
                 }
@@ -522,6 +525,7 @@ public class WindowOperator
             while (!pageBuilder.isFull() && partition.hasNext()) {
                 partition.processNextRow(pageBuilder);
             }
+            updateMemoryUsage();
             if (!pageBuilder.isFull()) {
                 return needsMoreData();
             }
@@ -530,6 +534,16 @@ public class WindowOperator
             pageBuilder.reset();
             return TransformationState.ofResult(page, !partition.hasNext());
         }
+
+        void updateMemoryUsage()
+        {
+            // window functions can retain per-partition state, e.g. the segment tree of an aggregation
+            long windowFunctionsSize = 0;
+            for (FramedWindowFunction windowFunction : windowFunctions) {
+                windowFunctionsSize += windowFunction.getEstimatedSize();
+            }
+            memoryContext.setBytes(windowFunctionsSize);
+        }
     }
 
     private class SpillablePagesToPagesIndexes
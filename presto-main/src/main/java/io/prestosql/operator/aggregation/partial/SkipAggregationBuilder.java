@@ -0,0 +1,171 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator.aggregation.partial;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.operator.CompletedWork;
+import io.prestosql.operator.GroupByIdBlock;
+import io.prestosql.operator.HashCollisionsCounter;
+import io.prestosql.operator.Work;
+import io.prestosql.operator.WorkProcessor;
+import io.prestosql.operator.aggregation.AccumulatorFactory;
+import io.prestosql.operator.aggregation.GroupedAccumulator;
+import io.prestosql.operator.aggregation.builder.HashAggregationBuilder;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.block.LongArrayBlock;
+
+import javax.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link HashAggregationBuilder} used by partial aggregations once they have been
+ * disabled by {@link PartialAggregationController}. Instead of grouping the rows, every
+ * input row is converted into its own intermediate aggregation state.
+ */
+public class SkipAggregationBuilder
+        implements HashAggregationBuilder
+{
+    private final List<Integer> groupByChannels;
+    private final Optional<Integer> hashChannel;
+    private final List<AccumulatorFactory> accumulatorFactories;
+    private final LocalMemoryContext memoryContext;
+
+    @Nullable
+    private Page currentPage;
+
+    // group ids of the rows, reused from page to page
+    private long[] groupIds = new long[0];
+
+    public SkipAggregationBuilder(
+            List<Integer> groupByChannels,
+            Optional<Integer> hashChannel,
+            List<AccumulatorFactory> accumulatorFactories,
+            LocalMemoryContext memoryContext)
+    {
+        this.groupByChannels = ImmutableList.copyOf(requireNonNull(groupByChannels, "groupByChannels is null"));
+        this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
+        this.accumulatorFactories = ImmutableList.copyOf(requireNonNull(accumulatorFactories, "accumulatorFactories is null"));
+        accumulatorFactories.forEach(factory -> checkArgument(!factory.hasOrderBy() && !factory.hasDistinct(), "ORDER BY and DISTINCT aggregations cannot skip partial aggregation"));
+        this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
+    }
+
+    @Override
+    public Work<?> processPage(Page page)
+    {
+        checkState(currentPage == null, "Previous page has not been processed");
+        currentPage = requireNonNull(page, "page is null");
+        return new CompletedWork<>(page);
+    }
+
+    @Override
+    public WorkProcessor<Page> buildResult()
+    {
+        if (currentPage == null) {
+            return WorkProcessor.of();
+        }
+
+        Page result = buildOutputPage(currentPage);
+        currentPage = null;
+        updateMemory();
+        return WorkProcessor.of(result);
+    }
+
+    @Override
+    public boolean isFull()
+    {
+        // every page is flushed as soon as it is added
+        return currentPage != null;
+    }
+
+    @Override
+    public void updateMemory()
+    {
+        // only the group ids are retained across pages
+        memoryContext.setBytes(sizeOf(groupIds));
+    }
+
+    @Override
+    public void recordHashCollisions(HashCollisionsCounter hashCollisionsCounter)
+    {
+        // no hash table is used
+    }
+
+    @Override
+    public void close() {}
+
+    @Override
+    public ListenableFuture<?> startMemoryRevoke()
+    {
+        return Futures.immediateFuture(null);
+    }
+
+    @Override
+    public void finishMemoryRevoke() {}
+
+    private Page buildOutputPage(Page page)
+    {
+        int positionCount = page.getPositionCount();
+        Block[] outputBlocks = new Block[groupByChannels.size() + (hashChannel.isPresent() ? 1 : 0) + accumulatorFactories.size()];
+        int outputChannel = 0;
+        for (int groupByChannel : groupByChannels) {
+            outputBlocks[outputChannel++] = page.getBlock(groupByChannel);
+        }
+        if (hashChannel.isPresent()) {
+            outputBlocks[outputChannel++] = page.getBlock(hashChannel.get());
+        }
+
+        // each row is a separate group
+        GroupByIdBlock groupIdsBlock = new GroupByIdBlock(positionCount, createSequenceBlock(positionCount));
+        // the accumulators are accounted until the whole page is built, as a grouped accumulator cannot be reset
+        long outputSizeInBytes = 0;
+        for (AccumulatorFactory accumulatorFactory : accumulatorFactories) {
+            GroupedAccumulator accumulator = accumulatorFactory.createGroupedAccumulator();
+            accumulator.addInput(groupIdsBlock, page);
+            memoryContext.setBytes(sizeOf(groupIds) + outputSizeInBytes + accumulator.getEstimatedSize());
+            BlockBuilder output = accumulator.getIntermediateType().createBlockBuilder(null, positionCount);
+            for (int position = 0; position < positionCount; position++) {
+                accumulator.evaluateIntermediate(position, output);
+            }
+            Block outputBlock = output.build();
+            outputSizeInBytes += outputBlock.getRetainedSizeInBytes();
+            outputBlocks[outputChannel++] = outputBlock;
+        }
+        return new Page(positionCount, outputBlocks);
+    }
+
+    private Block createSequenceBlock(int positionCount)
+    {
+        if (groupIds.length < positionCount) {
+            int previousLength = groupIds.length;
+            groupIds = Arrays.copyOf(groupIds, positionCount);
+            for (int position = previousLength; position < positionCount; position++) {
+                groupIds[position] = position;
+            }
+        }
+        return new LongArrayBlock(positionCount, Optional.empty(), groupIds);
+    }
+}
@@ -18,9 +18,15 @@ import io.prestosql.metadata.Signature;
 import io.prestosql.operator.aggregation.Accumulator;
 import io.prestosql.operator.aggregation.AccumulatorFactory;
 import io.prestosql.operator.aggregation.InternalAggregationFunction;
+import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.function.WindowFunction;
 import io.prestosql.spi.function.WindowIndex;
+import io.prestosql.spi.type.FixedWidthType;
+import io.prestosql.spi.type.RowType;
+import io.prestosql.spi.type.Type;
+
+import javax.annotation.Nullable;
 
 import java.util.List;
 import java.util.Optional;
@@ -32,29 +38,53 @@ import static java.util.Objects.requireNonNull;
 public class AggregateWindowFunction
         implements WindowFunction
 {
+    // Frames which have to be accumulated from scratch are evaluated using the segment tree if they have at least that many rows.
+    private static final int SEGMENT_TREE_MIN_FRAME_SIZE = 64;
+    private static final int SEGMENT_TREE_FANOUT = 16;
+
     private final List<Integer> argumentChannels;
     private final AccumulatorFactory accumulatorFactory;
     private final boolean accumulatorHasRemoveInput;
+    // The segment tree is only used when the size of the intermediate states does not depend on the number of rows
+    // they summarize. Otherwise (e.g. array_agg) every level of the tree would hold a copy of the whole partition.
+    private final boolean segmentTreeEnabled;
 
     private WindowIndex windowIndex;
     private Accumulator accumulator;
     private int currentStart;
     private int currentEnd;
 
+    // Intermediate states of the aggregation, built lazily for the current partition.
+    // Position i at level k summarizes the rows [i * FANOUT^(k+1), (i + 1) * FANOUT^(k+1)).
+    @Nullable
+    private List<Block> segmentTree;
+    private long segmentTreeRetainedSizeInBytes;
+
     private AggregateWindowFunction(InternalAggregationFunction function, List<Integer> argumentChannels)
     {
         this.argumentChannels = ImmutableList.copyOf(argumentChannels);
         this.accumulatorFactory = function.bind(createArgs(function), Optional.empty());
         this.accumulatorHasRemoveInput = accumulatorFactory.hasRemoveInput();
+        this.segmentTreeEnabled = isFixedWidth(function.getIntermediateType());
     }
 
     @Override
     public void reset(WindowIndex windowIndex)
     {
         this.windowIndex = windowIndex;
+        this.segmentTree = null;
+        this.segmentTreeRetainedSizeInBytes = 0;
         resetAccumulator();
     }
 
+    /**
+     * Returns the memory retained by the segment tree of the current partition.
+     */
+    public long getEstimatedSize()
+    {
+        return segmentTreeRetainedSizeInBytes;
+    }
+
     @Override
     public void processRow(BlockBuilder output, int peerGroupStart, int peerGroupEnd, int frameStart, int frameEnd)
     {
@@ -109,11 +139,90 @@ public class AggregateWindowFunction
 
         // We couldn't or didn't want to modify the accumulation: instead, discard the current accumulation and start fresh.
         resetAccumulator();
-        accumulate(frameStart, frameEnd);
+        if (segmentTreeEnabled && frameEnd - frameStart + 1 >= SEGMENT_TREE_MIN_FRAME_SIZE) {
+            // Combine the precomputed intermediate states, so that sliding frames take O(log(frame)) instead of O(frame)
+            accumulateSegments(-1, frameStart, frameEnd + 1);
+        }
+        else {
+            accumulate(frameStart, frameEnd);
+        }
         currentStart = frameStart;
         currentEnd = frameEnd;
     }
 
+    /**
+     * Accumulates the [start, end) range of the given segment tree level (-1 stands for the input rows).
+     * Unaligned ends are accumulated at the current level, and the aligned middle part at the next level.
+     * The parts are accumulated in order, as the result of some fixed-width aggregations depends on the input order
+     * (e.g. arbitrary, or min_by when keys are equal).
+     */
+    private void accumulateSegments(int level, int start, int end)
+    {
+        if (start >= end) {
+            return;
+        }
+        int alignedStart = min(roundUp(start), end);
+        int alignedEnd = max(end - end % SEGMENT_TREE_FANOUT, alignedStart);
+
+        accumulateLevel(level, start, alignedStart);
+        accumulateSegments(level + 1, alignedStart / SEGMENT_TREE_FANOUT, alignedEnd / SEGMENT_TREE_FANOUT);
+        accumulateLevel(level, alignedEnd, end);
+    }
+
+    private void accumulateLevel(int level, int start, int end)
+    {
+        if (start >= end) {
+            return;
+        }
+        if (level < 0) {
+            accumulate(start, end - 1);
+        }
+        else {
+            accumulator.addIntermediate(getSegmentTree().get(level).getRegion(start, end - start));
+        }
+    }
+
+    private List<Block> getSegmentTree()
+    {
+        if (segmentTree == null) {
+            ImmutableList.Builder<Block> levels = ImmutableList.builder();
+            Block previousLevel = null;
+            for (int size = windowIndex.size() / SEGMENT_TREE_FANOUT; size > 0; size /= SEGMENT_TREE_FANOUT) {
+                BlockBuilder level = accumulator.getIntermediateType().createBlockBuilder(null, size);
+                for (int position = 0; position < size; position++) {
+                    Accumulator segment = accumulatorFactory.createAccumulator();
+                    int start = position * SEGMENT_TREE_FANOUT;
+                    if (previousLevel == null) {
+                        segment.addInput(windowIndex, argumentChannels, start, start + SEGMENT_TREE_FANOUT - 1);
+                    }
+                    else {
+                        segment.addIntermediate(previousLevel.getRegion(start, SEGMENT_TREE_FANOUT));
+                    }
+                    segment.evaluateIntermediate(level);
+                }
+                previousLevel = level.build();
+                levels.add(previousLevel);
+                segmentTreeRetainedSizeInBytes += previousLevel.getRetainedSizeInBytes();
+            }
+            segmentTree = levels.build();
+        }
+        return segmentTree;
+    }
+
+    private static boolean isFixedWidth(Type type)
+    {
+        if (type instanceof RowType) {
+            return type.getTypeParameters().stream().allMatch(AggregateWindowFunction::isFixedWidth);
+        }
+        return type instanceof FixedWidthType;
+    }
+
+    private static int roundUp(int position)
+    {
+        int remainder = position % SEGMENT_TREE_FANOUT;
+        return remainder == 0 ? position : position + SEGMENT_TREE_FANOUT - remainder;
+    }
+
     private void accumulate(int start, int end)
     {
         accumulator.addInput(windowIndex, argumentChannels, start, end);
@@ -37,4 +37,12 @@ public final class FramedWindowFunction
     {
         return frame;
     }
+
+    public long getEstimatedSize()
+    {
+        if (function instanceof AggregateWindowFunction) {
+            return ((AggregateWindowFunction) function).getEstimatedSize();
+        }
+        return 0;
+    }
 }
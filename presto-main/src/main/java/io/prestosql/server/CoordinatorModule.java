@@ -88,6 +88,7 @@ import io.prestosql.execution.SqlQueryManager;
 import io.prestosql.execution.StartTransactionTask;
 import io.prestosql.execution.TaskInfo;
 import io.prestosql.execution.TaskManagerConfig;
+import io.prestosql.execution.TaskStatus;
 import io.prestosql.execution.UseTask;
 import io.prestosql.execution.resourcegroups.InternalResourceGroupManager;
 import io.prestosql.execution.resourcegroups.LegacyResourceGroupConfigurationManager;
@@ -109,6 +110,7 @@ import io.prestosql.metadata.CatalogManager;
 import io.prestosql.operator.ForScheduler;
 import io.prestosql.server.protocol.ExecutingStatementResource;
 import io.prestosql.server.remotetask.RemoteTaskStats;
+import io.prestosql.server.smile.SmileCodecFactory;
 import io.prestosql.server.ui.WorkerResource;
 import io.prestosql.spi.memory.ClusterMemoryPoolManager;
 import io.prestosql.spi.resourcegroups.QueryType;
@@ -175,6 +177,7 @@ import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.execution.DataDefinitionExecution.DataDefinitionExecutionFactory;
 import static io.prestosql.execution.QueryExecution.QueryExecutionFactory;
 import static io.prestosql.execution.SqlQueryExecution.SqlQueryExecutionFactory;
+import static io.prestosql.server.smile.SmileCodecBinder.smileCodecBinder;
 import static io.prestosql.util.StatementUtils.getAllQueryTypes;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
@@ -285,12 +288,18 @@ public class CoordinatorModule
 
         // execution scheduler
         jsonCodecBinder(binder).bindJsonCodec(TaskUpdateRequest.class);
+        binder.bind(SmileCodecFactory.class).in(Scopes.SINGLETON);
+        smileCodecBinder(binder).bindSmileCodec(TaskStatus.class);
+        smileCodecBinder(binder).bindSmileCodec(TaskInfo.class);
+        smileCodecBinder(binder).bindSmileCodec(TaskUpdateRequest.class);
         binder.bind(RemoteTaskFactory.class).to(HttpRemoteTaskFactory.class).in(Scopes.SINGLETON);
         newExporter(binder).export(RemoteTaskFactory.class).withGeneratedName();
 
         binder.bind(RemoteTaskStats.class).in(Scopes.SINGLETON);
         newExporter(binder).export(RemoteTaskStats.class).withGeneratedName();
 
+        binder.bind(DynamicFilterService.class).in(Scopes.SINGLETON);
+
         httpClientBinder(binder).bindHttpClient("scheduler", ForScheduler.class)
                 .withTracing()
                 .withFilter(GenerateTraceTokenRequestFilter.class)
@@ -0,0 +1,95 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server;
+
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.spi.QueryId;
+import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.sql.DynamicFilters.Descriptor;
+import io.prestosql.sql.planner.Symbol;
+import io.prestosql.sql.tree.SymbolReference;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Holds the dynamic filters which were collected on the coordinator for
+ * partitioned joins, so that they can be used during split enumeration.
+ */
+@ThreadSafe
+public class DynamicFilterService
+{
+    private final Map<QueryId, Map<String, Domain>> dynamicFilterSummaries = new ConcurrentHashMap<>();
+
+    public void registerQuery(QueryId queryId)
+    {
+        requireNonNull(queryId, "queryId is null");
+        dynamicFilterSummaries.putIfAbsent(queryId, new ConcurrentHashMap<>());
+    }
+
+    public void removeQuery(QueryId queryId)
+    {
+        requireNonNull(queryId, "queryId is null");
+        dynamicFilterSummaries.remove(queryId);
+    }
+
+    public void addDynamicFilterSummaries(QueryId queryId, Map<String, Domain> summaries)
+    {
+        requireNonNull(queryId, "queryId is null");
+        requireNonNull(summaries, "summaries is null");
+
+        Map<String, Domain> querySummaries = dynamicFilterSummaries.get(queryId);
+        if (querySummaries == null) {
+            // query is already done
+            return;
+        }
+        querySummaries.putAll(summaries);
+    }
+
+    public Supplier<TupleDomain<ColumnHandle>> createDynamicFilterSupplier(QueryId queryId, List<Descriptor> dynamicFilters, Map<Symbol, ColumnHandle> columnHandles)
+    {
+        requireNonNull(queryId, "queryId is null");
+        requireNonNull(dynamicFilters, "dynamicFilters is null");
+        requireNonNull(columnHandles, "columnHandles is null");
+
+        return () -> {
+            Map<String, Domain> summaries = dynamicFilterSummaries.get(queryId);
+            if (summaries == null || summaries.isEmpty()) {
+                return TupleDomain.all();
+            }
+
+            TupleDomain<ColumnHandle> result = TupleDomain.all();
+            for (Descriptor descriptor : dynamicFilters) {
+                Domain domain = summaries.get(descriptor.getId());
+                if (domain == null || !(descriptor.getInput() instanceof SymbolReference)) {
+                    continue;
+                }
+                ColumnHandle column = columnHandles.get(Symbol.from(descriptor.getInput()));
+                if (column == null) {
+                    continue;
+                }
+                result = result.intersect(TupleDomain.withColumnDomains(ImmutableMap.of(column, domain)));
+            }
+            return result;
+        };
+    }
+}
@@ -60,7 +60,7 @@ public final class ExpressionSerialization
         public Expression deserialize(JsonParser jsonParser, DeserializationContext deserializationContext)
                 throws IOException
         {
-            return rewriteIdentifiersToSymbolReferences(sqlParser.createExpression(jsonParser.readValueAs(String.class), new ParsingOptions()));
+            return rewriteIdentifiersToSymbolReferences(sqlParser.createExpression(deserializationContext.readValue(jsonParser, String.class), new ParsingOptions()));
         }
     }
 }
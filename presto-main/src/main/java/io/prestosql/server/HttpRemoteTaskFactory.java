@@ -35,6 +35,8 @@ import io.prestosql.metadata.Split;
 import io.prestosql.operator.ForScheduler;
 import io.prestosql.server.remotetask.HttpRemoteTask;
 import io.prestosql.server.remotetask.RemoteTaskStats;
+import io.prestosql.server.smile.Codec;
+import io.prestosql.server.smile.SmileCodec;
 import io.prestosql.sql.planner.PlanFragment;
 import io.prestosql.sql.planner.plan.PlanNodeId;
 import org.weakref.jmx.Managed;
@@ -50,6 +52,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.prestosql.server.smile.JsonCodecWrapper.wrapJsonCodec;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
@@ -59,12 +62,13 @@ public class HttpRemoteTaskFactory
 {
     private final HttpClient httpClient;
     private final LocationFactory locationFactory;
-    private final JsonCodec<TaskStatus> taskStatusCodec;
-    private final JsonCodec<TaskInfo> taskInfoCodec;
-    private final JsonCodec<TaskUpdateRequest> taskUpdateRequestCodec;
+    private final Codec<TaskStatus> taskStatusCodec;
+    private final Codec<TaskInfo> taskInfoCodec;
+    private final Codec<TaskUpdateRequest> taskUpdateRequestCodec;
     private final Duration maxErrorDuration;
     private final Duration taskStatusRefreshMaxWait;
     private final Duration taskInfoUpdateInterval;
+    private final int taskInfoMaxDeltaUpdates;
     private final ExecutorService coreExecutor;
     private final Executor executor;
     private final ThreadPoolExecutorMBean executorMBean;
@@ -76,21 +80,33 @@ public class HttpRemoteTaskFactory
     public HttpRemoteTaskFactory(
             QueryManagerConfig config,
             TaskManagerConfig taskConfig,
+            InternalCommunicationConfig internalCommunicationConfig,
             @ForScheduler HttpClient httpClient,
             LocationFactory locationFactory,
-            JsonCodec<TaskStatus> taskStatusCodec,
-            JsonCodec<TaskInfo> taskInfoCodec,
-            JsonCodec<TaskUpdateRequest> taskUpdateRequestCodec,
+            JsonCodec<TaskStatus> taskStatusJsonCodec,
+            SmileCodec<TaskStatus> taskStatusSmileCodec,
+            JsonCodec<TaskInfo> taskInfoJsonCodec,
+            SmileCodec<TaskInfo> taskInfoSmileCodec,
+            JsonCodec<TaskUpdateRequest> taskUpdateRequestJsonCodec,
+            SmileCodec<TaskUpdateRequest> taskUpdateRequestSmileCodec,
             RemoteTaskStats stats)
     {
         this.httpClient = httpClient;
         this.locationFactory = locationFactory;
-        this.taskStatusCodec = taskStatusCodec;
-        this.taskInfoCodec = taskInfoCodec;
-        this.taskUpdateRequestCodec = taskUpdateRequestCodec;
+        if (internalCommunicationConfig.isBinaryTransportEnabled()) {
+            this.taskStatusCodec = taskStatusSmileCodec;
+            this.taskInfoCodec = taskInfoSmileCodec;
+            this.taskUpdateRequestCodec = taskUpdateRequestSmileCodec;
+        }
+        else {
+            this.taskStatusCodec = wrapJsonCodec(taskStatusJsonCodec);
+            this.taskInfoCodec = wrapJsonCodec(taskInfoJsonCodec);
+            this.taskUpdateRequestCodec = wrapJsonCodec(taskUpdateRequestJsonCodec);
+        }
         this.maxErrorDuration = config.getRemoteTaskMaxErrorDuration();
         this.taskStatusRefreshMaxWait = taskConfig.getStatusRefreshMaxWait();
         this.taskInfoUpdateInterval = taskConfig.getInfoUpdateInterval();
+        this.taskInfoMaxDeltaUpdates = taskConfig.getInfoMaxDeltaUpdates();
         this.coreExecutor = newCachedThreadPool(daemonThreadsNamed("remote-task-callback-%s"));
         this.executor = new BoundedExecutor(coreExecutor, config.getRemoteTaskMaxCallbackThreads());
         this.executorMBean = new ThreadPoolExecutorMBean((ThreadPoolExecutor) coreExecutor);
@@ -142,6 +158,7 @@ public class HttpRemoteTaskFactory
                 maxErrorDuration,
                 taskStatusRefreshMaxWait,
                 taskInfoUpdateInterval,
+                taskInfoMaxDeltaUpdates,
                 summarizeTaskInfo,
                 taskStatusCodec,
                 taskInfoCodec,
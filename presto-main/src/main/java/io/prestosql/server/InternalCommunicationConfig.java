@@ -14,6 +14,7 @@
 package io.prestosql.server;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.configuration.ConfigSecuritySensitive;
 import io.airlift.configuration.DefunctConfig;
 
@@ -35,6 +36,7 @@ public class InternalCommunicationConfig
     private String keyStorePassword;
     private String trustStorePath;
     private String trustStorePassword;
+    private boolean binaryTransportEnabled;
 
     @NotNull
     public Optional<String> getSharedSecret()
@@ -112,6 +114,19 @@ public class InternalCommunicationConfig
         return this;
     }
 
+    public boolean isBinaryTransportEnabled()
+    {
+        return binaryTransportEnabled;
+    }
+
+    @Config("internal-communication.binary-transport.enabled")
+    @ConfigDescription("Exchange task status, task info and task updates with the workers in Smile instead of JSON")
+    public InternalCommunicationConfig setBinaryTransportEnabled(boolean binaryTransportEnabled)
+    {
+        this.binaryTransportEnabled = binaryTransportEnabled;
+        return this;
+    }
+
     @AssertTrue(message = "Internal shared secret is required when HTTPS is enabled for internal communications")
     public boolean isRequiredSharedSecretSet()
     {
@@ -82,7 +82,10 @@ import io.prestosql.metadata.TablePropertyManager;
 import io.prestosql.operator.ExchangeClientConfig;
 import io.prestosql.operator.ExchangeClientFactory;
 import io.prestosql.operator.ExchangeClientSupplier;
+import io.prestosql.operator.FileFragmentResultCacheConfig;
+import io.prestosql.operator.FileFragmentResultCacheManager;
 import io.prestosql.operator.ForExchange;
+import io.prestosql.operator.FragmentResultCacheManager;
 import io.prestosql.operator.LookupJoinOperators;
 import io.prestosql.operator.OperatorStats;
 import io.prestosql.operator.PagesIndex;
@@ -125,6 +128,7 @@ import io.prestosql.sql.planner.CompilerConfig;
 import io.prestosql.sql.planner.LocalExecutionPlanner;
 import io.prestosql.sql.planner.NodePartitioningManager;
 import io.prestosql.sql.planner.TypeAnalyzer;
+import io.prestosql.sql.planner.plan.PlanNode;
 import io.prestosql.sql.tree.Expression;
 import io.prestosql.transaction.TransactionManagerConfig;
 import io.prestosql.type.TypeDeserializer;
@@ -271,6 +275,11 @@ public class ServerMainModule
         binder.bind(MultilevelSplitQueue.class).in(Scopes.SINGLETON);
         newExporter(binder).export(MultilevelSplitQueue.class).withGeneratedName();
         binder.bind(LocalExecutionPlanner.class).in(Scopes.SINGLETON);
+        configBinder(binder).bindConfig(FileFragmentResultCacheConfig.class);
+        binder.bind(FileFragmentResultCacheManager.class).in(Scopes.SINGLETON);
+        binder.bind(FragmentResultCacheManager.class).to(FileFragmentResultCacheManager.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(FileFragmentResultCacheManager.class).withGeneratedName();
+        jsonCodecBinder(binder).bindJsonCodec(PlanNode.class);
         configBinder(binder).bindConfig(CompilerConfig.class);
         binder.bind(ExpressionCompiler.class).in(Scopes.SINGLETON);
         newExporter(binder).export(ExpressionCompiler.class).withGeneratedName();
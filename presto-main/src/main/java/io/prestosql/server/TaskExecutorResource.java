@@ -14,6 +14,7 @@
 package io.prestosql.server;
 
 import io.prestosql.execution.executor.TaskExecutor;
+import org.weakref.jmx.Managed;
 
 import javax.inject.Inject;
 import javax.ws.rs.GET;
@@ -41,4 +42,22 @@ public class TaskExecutorResource
     {
         return taskExecutor.getMaxActiveSplitsInfo();
     }
+
+    @Managed(description = "Largest share of the CPU time of the running queries used by a single query")
+    public double getMaxQueryCpuShare()
+    {
+        return taskExecutor.getQueryCpuShares().values().stream()
+                .mapToDouble(Double::doubleValue)
+                .max()
+                .orElse(0);
+    }
+
+    @Managed(description = "Smallest share of the CPU time of the running queries used by a single query")
+    public double getMinQueryCpuShare()
+    {
+        return taskExecutor.getQueryCpuShares().values().stream()
+                .mapToDouble(Double::doubleValue)
+                .min()
+                .orElse(0);
+    }
 }
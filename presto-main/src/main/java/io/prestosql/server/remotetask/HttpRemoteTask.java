@@ -16,25 +16,23 @@ package io.prestosql.server.remotetask;
 import com.google.common.base.Ticker;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.SetMultimap;
-import com.google.common.net.HttpHeaders;
-import com.google.common.net.MediaType;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.concurrent.SetThreadName;
-import io.airlift.http.client.FullJsonResponseHandler.JsonResponse;
 import io.airlift.http.client.HttpClient;
 import io.airlift.http.client.HttpUriBuilder;
 import io.airlift.http.client.Request;
-import io.airlift.json.JsonCodec;
 import io.airlift.log.Logger;
 import io.airlift.units.Duration;
 import io.prestosql.Session;
 import io.prestosql.execution.FutureStateChange;
 import io.prestosql.execution.Lifespan;
 import io.prestosql.execution.NodeTaskMap.PartitionedSplitCountTracker;
+import io.prestosql.execution.PartitionedSplitsInfo;
 import io.prestosql.execution.RemoteTask;
 import io.prestosql.execution.ScheduledSplit;
 import io.prestosql.execution.StateMachine.StateChangeListener;
@@ -49,6 +47,10 @@ import io.prestosql.execution.buffer.PageBufferInfo;
 import io.prestosql.metadata.Split;
 import io.prestosql.operator.TaskStats;
 import io.prestosql.server.TaskUpdateRequest;
+import io.prestosql.server.smile.Codec;
+import io.prestosql.server.smile.FullCodecResponseHandler.CodecResponse;
+import io.prestosql.spi.SplitWeight;
+import io.prestosql.spi.predicate.Domain;
 import io.prestosql.sql.planner.PlanFragment;
 import io.prestosql.sql.planner.plan.PlanNode;
 import io.prestosql.sql.planner.plan.PlanNodeId;
@@ -65,6 +67,7 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.OptionalLong;
 import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
@@ -80,8 +83,9 @@ import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.net.HttpHeaders.ACCEPT;
+import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
-import static io.airlift.http.client.FullJsonResponseHandler.createFullJsonResponseHandler;
 import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
 import static io.airlift.http.client.Request.Builder.prepareDelete;
 import static io.airlift.http.client.Request.Builder.preparePost;
@@ -91,7 +95,9 @@ import static io.prestosql.execution.TaskState.ABORTED;
 import static io.prestosql.execution.TaskState.FAILED;
 import static io.prestosql.execution.TaskStatus.failWith;
 import static io.prestosql.server.remotetask.RequestErrorTracker.logError;
+import static io.prestosql.server.smile.FullCodecResponseHandler.createFullCodecResponseHandler;
 import static io.prestosql.util.Failures.toFailure;
+import static java.lang.Math.addExact;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
@@ -125,8 +131,12 @@ public final class HttpRemoteTask
     @GuardedBy("this")
     private volatile int pendingSourceSplitCount;
     @GuardedBy("this")
+    private volatile long pendingSourceSplitsWeight;
+    @GuardedBy("this")
     private final SetMultimap<PlanNodeId, Lifespan> pendingNoMoreSplitsForLifespan = HashMultimap.create();
     @GuardedBy("this")
+    private final Map<String, Domain> pendingDynamicFilterDomains = new HashMap<>();
+    @GuardedBy("this")
     // The keys of this map represent all plan nodes that have "no more splits".
     // The boolean value of each entry represents whether the "no more splits" notification is pending delivery to workers.
     private final Map<PlanNodeId, Boolean> noMoreSplits = new HashMap<>();
@@ -136,7 +146,7 @@ public final class HttpRemoteTask
     @GuardedBy("this")
     private boolean splitQueueHasSpace = true;
     @GuardedBy("this")
-    private OptionalInt whenSplitQueueHasSpaceThreshold = OptionalInt.empty();
+    private OptionalLong whenSplitQueueHasSpaceThreshold = OptionalLong.empty();
 
     private final boolean summarizeTaskInfo;
 
@@ -144,8 +154,8 @@ public final class HttpRemoteTask
     private final Executor executor;
     private final ScheduledExecutorService errorScheduledExecutor;
 
-    private final JsonCodec<TaskInfo> taskInfoCodec;
-    private final JsonCodec<TaskUpdateRequest> taskUpdateRequestCodec;
+    private final Codec<TaskInfo> taskInfoCodec;
+    private final Codec<TaskUpdateRequest> taskUpdateRequestCodec;
 
     private final RequestErrorTracker updateErrorTracker;
 
@@ -172,10 +182,11 @@ public final class HttpRemoteTask
             Duration maxErrorDuration,
             Duration taskStatusRefreshMaxWait,
             Duration taskInfoUpdateInterval,
+            int taskInfoMaxDeltaUpdates,
             boolean summarizeTaskInfo,
-            JsonCodec<TaskStatus> taskStatusCodec,
-            JsonCodec<TaskInfo> taskInfoCodec,
-            JsonCodec<TaskUpdateRequest> taskUpdateRequestCodec,
+            Codec<TaskStatus> taskStatusCodec,
+            Codec<TaskInfo> taskInfoCodec,
+            Codec<TaskUpdateRequest> taskUpdateRequestCodec,
             PartitionedSplitCountTracker partitionedSplitCountTracker,
             RemoteTaskStats stats)
     {
@@ -215,10 +226,11 @@ public final class HttpRemoteTask
                 ScheduledSplit scheduledSplit = new ScheduledSplit(nextSplitId.getAndIncrement(), entry.getKey(), entry.getValue());
                 pendingSplits.put(entry.getKey(), scheduledSplit);
             }
-            pendingSourceSplitCount = planFragment.getPartitionedSources().stream()
-                    .filter(initialSplits::containsKey)
-                    .mapToInt(partitionedSource -> initialSplits.get(partitionedSource).size())
-                    .sum();
+            for (PlanNodeId partitionedSource : planFragment.getPartitionedSources()) {
+                Collection<Split> partitionedSplits = initialSplits.get(partitionedSource);
+                pendingSourceSplitCount += partitionedSplits.size();
+                pendingSourceSplitsWeight = addExact(pendingSourceSplitsWeight, SplitWeight.rawValueSum(partitionedSplits, Split::getSplitWeight));
+            }
 
             List<BufferInfo> bufferStates = outputBuffers.getBuffers()
                     .keySet().stream()
@@ -245,6 +257,7 @@ public final class HttpRemoteTask
                     taskInfoUpdateInterval,
                     taskInfoCodec,
                     maxErrorDuration,
+                    taskInfoMaxDeltaUpdates,
                     summarizeTaskInfo,
                     executor,
                     updateScheduledExecutor,
@@ -257,12 +270,12 @@ public final class HttpRemoteTask
                     cleanUpTask();
                 }
                 else {
-                    partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
+                    partitionedSplitCountTracker.setPartitionedSplits(getPartitionedSplitsInfo());
                     updateSplitQueueSpace();
                 }
             });
 
-            partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
+            partitionedSplitCountTracker.setPartitionedSplits(getPartitionedSplitsInfo());
             updateSplitQueueSpace();
         }
     }
@@ -320,14 +333,17 @@ public final class HttpRemoteTask
 
             checkState(!noMoreSplits.containsKey(sourceId), "noMoreSplits has already been set for %s", sourceId);
             int added = 0;
+            long addedWeight = 0;
             for (Split split : splits) {
                 if (pendingSplits.put(sourceId, new ScheduledSplit(nextSplitId.getAndIncrement(), sourceId, split))) {
                     added++;
+                    addedWeight = addExact(addedWeight, split.getSplitWeight().getRawValue());
                 }
             }
             if (planFragment.isPartitionedSources(sourceId)) {
                 pendingSourceSplitCount += added;
-                partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
+                pendingSourceSplitsWeight = addExact(pendingSourceSplitsWeight, addedWeight);
+                partitionedSplitCountTracker.setPartitionedSplits(getPartitionedSplitsInfo());
             }
             needsUpdate = true;
         }
@@ -375,29 +391,48 @@ public final class HttpRemoteTask
     }
 
     @Override
-    public int getPartitionedSplitCount()
+    public synchronized void addDynamicFilterDomains(Map<String, Domain> dynamicFilterDomains)
+    {
+        requireNonNull(dynamicFilterDomains, "dynamicFilterDomains is null");
+        if (getTaskStatus().getState().isDone() || dynamicFilterDomains.isEmpty()) {
+            return;
+        }
+
+        pendingDynamicFilterDomains.putAll(dynamicFilterDomains);
+        needsUpdate.set(true);
+        scheduleUpdate();
+    }
+
+    @Override
+    public PartitionedSplitsInfo getPartitionedSplitsInfo()
     {
         TaskStatus taskStatus = getTaskStatus();
         if (taskStatus.getState().isDone()) {
-            return 0;
+            return PartitionedSplitsInfo.forZeroSplits();
         }
-        return getPendingSourceSplitCount() + taskStatus.getQueuedPartitionedDrivers() + taskStatus.getRunningPartitionedDrivers();
+        PartitionedSplitsInfo unacknowledgedSplitsInfo = getUnacknowledgedPartitionedSplitsInfo();
+        return PartitionedSplitsInfo.forSplitCountAndWeightSum(
+                unacknowledgedSplitsInfo.getCount() + taskStatus.getQueuedPartitionedDrivers() + taskStatus.getRunningPartitionedDrivers(),
+                unacknowledgedSplitsInfo.getWeightSum() + taskStatus.getQueuedPartitionedSplitsWeight() + taskStatus.getRunningPartitionedSplitsWeight());
     }
 
     @Override
-    public int getQueuedPartitionedSplitCount()
+    public PartitionedSplitsInfo getQueuedPartitionedSplitsInfo()
     {
         TaskStatus taskStatus = getTaskStatus();
         if (taskStatus.getState().isDone()) {
-            return 0;
+            return PartitionedSplitsInfo.forZeroSplits();
         }
-        return getPendingSourceSplitCount() + taskStatus.getQueuedPartitionedDrivers();
+        PartitionedSplitsInfo unacknowledgedSplitsInfo = getUnacknowledgedPartitionedSplitsInfo();
+        return PartitionedSplitsInfo.forSplitCountAndWeightSum(
+                unacknowledgedSplitsInfo.getCount() + taskStatus.getQueuedPartitionedDrivers(),
+                unacknowledgedSplitsInfo.getWeightSum() + taskStatus.getQueuedPartitionedSplitsWeight());
     }
 
     @SuppressWarnings("FieldAccessNotGuarded")
-    private int getPendingSourceSplitCount()
+    private PartitionedSplitsInfo getUnacknowledgedPartitionedSplitsInfo()
     {
-        return pendingSourceSplitCount;
+        return PartitionedSplitsInfo.forSplitCountAndWeightSum(pendingSourceSplitCount, pendingSourceSplitsWeight);
     }
 
     @Override
@@ -415,13 +450,13 @@ public final class HttpRemoteTask
     }
 
     @Override
-    public synchronized ListenableFuture<?> whenSplitQueueHasSpace(int threshold)
+    public synchronized ListenableFuture<?> whenSplitQueueHasSpace(long weightThreshold)
     {
         if (whenSplitQueueHasSpaceThreshold.isPresent()) {
-            checkArgument(threshold == whenSplitQueueHasSpaceThreshold.getAsInt(), "Multiple split queue space notification thresholds not supported");
+            checkArgument(weightThreshold == whenSplitQueueHasSpaceThreshold.getAsLong(), "Multiple split queue space notification thresholds not supported");
         }
         else {
-            whenSplitQueueHasSpaceThreshold = OptionalInt.of(threshold);
+            whenSplitQueueHasSpaceThreshold = OptionalLong.of(weightThreshold);
             updateSplitQueueSpace();
         }
         if (splitQueueHasSpace) {
@@ -435,23 +470,28 @@ public final class HttpRemoteTask
         if (!whenSplitQueueHasSpaceThreshold.isPresent()) {
             return;
         }
-        splitQueueHasSpace = getQueuedPartitionedSplitCount() < whenSplitQueueHasSpaceThreshold.getAsInt();
+        splitQueueHasSpace = getQueuedPartitionedSplitsInfo().getWeightSum() < whenSplitQueueHasSpaceThreshold.getAsLong();
         if (splitQueueHasSpace) {
             whenSplitQueueHasSpace.complete(null, executor);
         }
     }
 
-    private synchronized void processTaskUpdate(TaskInfo newValue, List<TaskSource> sources)
+    private synchronized void processTaskUpdate(TaskInfo newValue, List<TaskSource> sources, Map<String, Domain> dynamicFilterDomains)
     {
         updateTaskInfo(newValue);
 
+        // remove acknowledged dynamic filters
+        dynamicFilterDomains.forEach(pendingDynamicFilterDomains::remove);
+
         // remove acknowledged splits, which frees memory
         for (TaskSource source : sources) {
             PlanNodeId planNodeId = source.getPlanNodeId();
             int removed = 0;
+            long removedWeight = 0;
             for (ScheduledSplit split : source.getSplits()) {
                 if (pendingSplits.remove(planNodeId, split)) {
                     removed++;
+                    removedWeight = addExact(removedWeight, split.getSplit().getSplitWeight().getRawValue());
                 }
             }
             if (source.isNoMoreSplits()) {
@@ -462,11 +502,12 @@ public final class HttpRemoteTask
             }
             if (planFragment.isPartitionedSources(planNodeId)) {
                 pendingSourceSplitCount -= removed;
+                pendingSourceSplitsWeight -= removedWeight;
             }
         }
         updateSplitQueueSpace();
 
-        partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
+        partitionedSplitCountTracker.setPartitionedSplits(getPartitionedSplitsInfo());
     }
 
     private void updateTaskInfo(TaskInfo taskInfo)
@@ -501,6 +542,7 @@ public final class HttpRemoteTask
         }
 
         List<TaskSource> sources = getSources();
+        Map<String, Domain> dynamicFilterDomains = ImmutableMap.copyOf(pendingDynamicFilterDomains);
 
         Optional<PlanFragment> fragment = sendPlan.get() ? Optional.of(planFragment) : Optional.empty();
         TaskUpdateRequest updateRequest = new TaskUpdateRequest(
@@ -509,22 +551,24 @@ public final class HttpRemoteTask
                 fragment,
                 sources,
                 outputBuffers.get(),
-                totalPartitions);
-        byte[] taskUpdateRequestJson = taskUpdateRequestCodec.toJsonBytes(updateRequest);
+                totalPartitions,
+                dynamicFilterDomains);
+        byte[] taskUpdateRequestBytes = taskUpdateRequestCodec.toBytes(updateRequest);
         if (fragment.isPresent()) {
-            stats.updateWithPlanBytes(taskUpdateRequestJson.length);
+            stats.updateWithPlanBytes(taskUpdateRequestBytes.length);
         }
 
         HttpUriBuilder uriBuilder = getHttpUriBuilder(taskStatus);
         Request request = preparePost()
                 .setUri(uriBuilder.build())
-                .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.JSON_UTF_8.toString())
-                .setBodyGenerator(createStaticBodyGenerator(taskUpdateRequestJson))
+                .setHeader(CONTENT_TYPE, taskUpdateRequestCodec.getMediaType().toString())
+                .setHeader(ACCEPT, taskInfoCodec.getMediaType().toString())
+                .setBodyGenerator(createStaticBodyGenerator(taskUpdateRequestBytes))
                 .build();
 
         updateErrorTracker.startRequest();
 
-        ListenableFuture<JsonResponse<TaskInfo>> future = httpClient.executeAsync(request, createFullJsonResponseHandler(taskInfoCodec));
+        ListenableFuture<CodecResponse<TaskInfo>> future = httpClient.executeAsync(request, createFullCodecResponseHandler(taskInfoCodec));
         currentRequest = future;
         currentRequestStartNanos = System.nanoTime();
 
@@ -532,7 +576,7 @@ public final class HttpRemoteTask
         // and does so without grabbing the instance lock.
         needsUpdate.set(false);
 
-        Futures.addCallback(future, new SimpleHttpResponseHandler<>(new UpdateResponseHandler(sources), request.getUri(), stats), executor);
+        Futures.addCallback(future, new SimpleHttpResponseHandler<>(new UpdateResponseHandler(sources, dynamicFilterDomains), request.getUri(), stats), executor);
     }
 
     private synchronized List<TaskSource> getSources()
@@ -572,6 +616,7 @@ public final class HttpRemoteTask
             HttpUriBuilder uriBuilder = getHttpUriBuilder(taskStatus).addParameter("abort", "false");
             Request request = prepareDelete()
                     .setUri(uriBuilder.build())
+                    .setHeader(ACCEPT, taskInfoCodec.getMediaType().toString())
                     .build();
             scheduleAsyncCleanupRequest(createCleanupBackoff(), request, "cancel");
         }
@@ -584,7 +629,8 @@ public final class HttpRemoteTask
         // clear pending splits to free memory
         pendingSplits.clear();
         pendingSourceSplitCount = 0;
-        partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
+        pendingSourceSplitsWeight = 0;
+        partitionedSplitCountTracker.setPartitionedSplits(getPartitionedSplitsInfo());
         splitQueueHasSpace = true;
         whenSplitQueueHasSpace.complete(null, executor);
 
@@ -602,6 +648,7 @@ public final class HttpRemoteTask
         HttpUriBuilder uriBuilder = getHttpUriBuilder(getTaskStatus());
         Request request = prepareDelete()
                 .setUri(uriBuilder.build())
+                .setHeader(ACCEPT, taskInfoCodec.getMediaType().toString())
                 .build();
 
         scheduleAsyncCleanupRequest(createCleanupBackoff(), request, "cleanup");
@@ -628,6 +675,7 @@ public final class HttpRemoteTask
             HttpUriBuilder uriBuilder = getHttpUriBuilder(getTaskStatus());
             Request request = prepareDelete()
                     .setUri(uriBuilder.build())
+                    .setHeader(ACCEPT, taskInfoCodec.getMediaType().toString())
                     .build();
             scheduleAsyncCleanupRequest(createCleanupBackoff(), request, "abort");
         }
@@ -645,10 +693,10 @@ public final class HttpRemoteTask
 
     private void doScheduleAsyncCleanupRequest(Backoff cleanupBackoff, Request request, String action)
     {
-        Futures.addCallback(httpClient.executeAsync(request, createFullJsonResponseHandler(taskInfoCodec)), new FutureCallback<JsonResponse<TaskInfo>>()
+        Futures.addCallback(httpClient.executeAsync(request, createFullCodecResponseHandler(taskInfoCodec)), new FutureCallback<CodecResponse<TaskInfo>>()
         {
             @Override
-            public void onSuccess(JsonResponse<TaskInfo> result)
+            public void onSuccess(CodecResponse<TaskInfo> result)
             {
                 try {
                     updateTaskInfo(result.getValue());
@@ -754,10 +802,12 @@ public final class HttpRemoteTask
             implements SimpleHttpResponseCallback<TaskInfo>
     {
         private final List<TaskSource> sources;
+        private final Map<String, Domain> dynamicFilterDomains;
 
-        private UpdateResponseHandler(List<TaskSource> sources)
+        private UpdateResponseHandler(List<TaskSource> sources, Map<String, Domain> dynamicFilterDomains)
         {
             this.sources = ImmutableList.copyOf(requireNonNull(sources, "sources is null"));
+            this.dynamicFilterDomains = ImmutableMap.copyOf(requireNonNull(dynamicFilterDomains, "dynamicFilterDomains is null"));
         }
 
         @Override
@@ -772,7 +822,7 @@ public final class HttpRemoteTask
                         currentRequestStartNanos = HttpRemoteTask.this.currentRequestStartNanos;
                     }
                     updateStats(currentRequestStartNanos);
-                    processTaskUpdate(value, sources);
+                    processTaskUpdate(value, sources, dynamicFilterDomains);
                     updateErrorTracker.requestSucceeded();
                 }
                 finally {
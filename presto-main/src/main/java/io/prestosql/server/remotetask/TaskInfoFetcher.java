@@ -16,22 +16,23 @@ package io.prestosql.server.remotetask;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.concurrent.SetThreadName;
-import io.airlift.http.client.FullJsonResponseHandler;
 import io.airlift.http.client.HttpClient;
 import io.airlift.http.client.HttpUriBuilder;
 import io.airlift.http.client.Request;
-import io.airlift.json.JsonCodec;
 import io.airlift.units.Duration;
 import io.prestosql.execution.StateMachine;
 import io.prestosql.execution.StateMachine.StateChangeListener;
 import io.prestosql.execution.TaskId;
 import io.prestosql.execution.TaskInfo;
 import io.prestosql.execution.TaskStatus;
+import io.prestosql.server.smile.Codec;
+import io.prestosql.server.smile.FullCodecResponseHandler.CodecResponse;
 
 import javax.annotation.concurrent.GuardedBy;
 
 import java.net.URI;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -39,12 +40,12 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
-import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
-import static com.google.common.net.MediaType.JSON_UTF_8;
-import static io.airlift.http.client.FullJsonResponseHandler.createFullJsonResponseHandler;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.net.HttpHeaders.ACCEPT;
 import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
 import static io.airlift.http.client.Request.Builder.prepareGet;
 import static io.airlift.units.Duration.nanosSince;
+import static io.prestosql.server.smile.FullCodecResponseHandler.createFullCodecResponseHandler;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
@@ -55,7 +56,7 @@ public class TaskInfoFetcher
     private final Consumer<Throwable> onFail;
     private final StateMachine<TaskInfo> taskInfo;
     private final StateMachine<Optional<TaskInfo>> finalTaskInfo;
-    private final JsonCodec<TaskInfo> taskInfoCodec;
+    private final Codec<TaskInfo> taskInfoCodec;
 
     private final long updateIntervalMillis;
     private final AtomicLong lastUpdateNanos = new AtomicLong();
@@ -65,8 +66,15 @@ public class TaskInfoFetcher
     private final HttpClient httpClient;
     private final RequestErrorTracker errorTracker;
 
+    private final int maxDeltaUpdates;
     private final boolean summarizeTaskInfo;
 
+    @GuardedBy("this")
+    private long pipelineStatsVersion;
+
+    @GuardedBy("this")
+    private int deltaUpdates;
+
     @GuardedBy("this")
     private final AtomicLong currentRequestStartNanos = new AtomicLong();
 
@@ -79,15 +87,16 @@ public class TaskInfoFetcher
     private ScheduledFuture<?> scheduledFuture;
 
     @GuardedBy("this")
-    private ListenableFuture<FullJsonResponseHandler.JsonResponse<TaskInfo>> future;
+    private ListenableFuture<CodecResponse<TaskInfo>> future;
 
     public TaskInfoFetcher(
             Consumer<Throwable> onFail,
             TaskInfo initialTask,
             HttpClient httpClient,
             Duration updateInterval,
-            JsonCodec<TaskInfo> taskInfoCodec,
+            Codec<TaskInfo> taskInfoCodec,
             Duration maxErrorDuration,
+            int maxDeltaUpdates,
             boolean summarizeTaskInfo,
             Executor executor,
             ScheduledExecutorService updateScheduledExecutor,
@@ -107,6 +116,8 @@ public class TaskInfoFetcher
         this.updateScheduledExecutor = requireNonNull(updateScheduledExecutor, "updateScheduledExecutor is null");
         this.errorTracker = new RequestErrorTracker(taskId, initialTask.getTaskStatus().getSelf(), maxErrorDuration, errorScheduledExecutor, "getting info for task");
 
+        checkArgument(maxDeltaUpdates >= 0, "maxDeltaUpdates is negative");
+        this.maxDeltaUpdates = maxDeltaUpdates;
         this.summarizeTaskInfo = summarizeTaskInfo;
 
         this.executor = requireNonNull(executor, "executor is null");
@@ -201,23 +212,38 @@ public class TaskInfoFetcher
         }
 
         HttpUriBuilder httpUriBuilder = uriBuilderFrom(taskStatus.getSelf());
-        URI uri = summarizeTaskInfo ? httpUriBuilder.addParameter("summarize").build() : httpUriBuilder.build();
+        if (summarizeTaskInfo) {
+            httpUriBuilder.addParameter("summarize");
+        }
+        else if (maxDeltaUpdates > 0) {
+            // the worker sends all the pipelines for a base version it does not know, and zero is never known
+            long baseVersion = (deltaUpdates < maxDeltaUpdates) ? pipelineStatsVersion : 0;
+            httpUriBuilder.addParameter("pipelineStatsBaseVersion", String.valueOf(baseVersion));
+        }
+        URI uri = httpUriBuilder.build();
         Request request = prepareGet()
                 .setUri(uri)
-                .setHeader(CONTENT_TYPE, JSON_UTF_8.toString())
+                .setHeader(ACCEPT, taskInfoCodec.getMediaType().toString())
                 .build();
 
         errorTracker.startRequest();
-        future = httpClient.executeAsync(request, createFullJsonResponseHandler(taskInfoCodec));
+        future = httpClient.executeAsync(request, createFullCodecResponseHandler(taskInfoCodec));
         currentRequestStartNanos.set(System.nanoTime());
         Futures.addCallback(future, new SimpleHttpResponseHandler<>(this, request.getUri(), stats), executor);
     }
 
     synchronized void updateTaskInfo(TaskInfo newValue)
     {
-        boolean updated = taskInfo.setIf(newValue, oldValue -> {
+        OptionalLong pipelineStatsBaseVersion = newValue.getPipelineStatsBaseVersion();
+        if (pipelineStatsBaseVersion.isPresent() && pipelineStatsBaseVersion.getAsLong() != pipelineStatsVersion) {
+            // the pipelines missing from the delta are unknown
+            return;
+        }
+        TaskInfo newTaskInfo = pipelineStatsBaseVersion.isPresent() ? getTaskInfo().mergePipelineStatsDelta(newValue) : newValue;
+
+        boolean updated = taskInfo.setIf(newTaskInfo, oldValue -> {
             TaskStatus oldTaskStatus = oldValue.getTaskStatus();
-            TaskStatus newTaskStatus = newValue.getTaskStatus();
+            TaskStatus newTaskStatus = newTaskInfo.getTaskStatus();
             if (oldTaskStatus.getState().isDone()) {
                 // never update if the task has reached a terminal state
                 return false;
@@ -226,8 +252,14 @@ public class TaskInfoFetcher
             return newTaskStatus.getVersion() >= oldTaskStatus.getVersion();
         });
 
-        if (updated && newValue.getTaskStatus().getState().isDone()) {
-            finalTaskInfo.compareAndSet(Optional.empty(), Optional.of(newValue));
+        // task update responses have no pipeline stats version, but as they are newer than the last version, deltas still apply to them
+        if (updated && newTaskInfo.getPipelineStatsVersion() > 0) {
+            pipelineStatsVersion = newTaskInfo.getPipelineStatsVersion();
+            deltaUpdates = pipelineStatsBaseVersion.isPresent() ? deltaUpdates + 1 : 0;
+        }
+
+        if (updated && newTaskInfo.getTaskStatus().getState().isDone()) {
+            finalTaskInfo.compareAndSet(Optional.empty(), Optional.of(newTaskInfo));
             stop();
         }
     }
@@ -0,0 +1,35 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server.smile;
+
+import com.google.common.net.MediaType;
+
+/**
+ * Encodes and decodes objects exchanged between the coordinator and the workers
+ * in the format identified by {@link #getMediaType()}.
+ */
+public interface Codec<T>
+{
+    MediaType getMediaType();
+
+    /**
+     * @throws IllegalArgumentException if the value cannot be encoded
+     */
+    byte[] toBytes(T value);
+
+    /**
+     * @throws IllegalArgumentException if the bytes cannot be decoded
+     */
+    T fromBytes(byte[] bytes);
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server.smile;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.net.MediaType;
+import io.airlift.http.client.Request;
+import io.airlift.http.client.Response;
+import io.airlift.http.client.ResponseHandler;
+
+import java.io.IOException;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static io.airlift.http.client.ResponseHandlerUtils.propagate;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Same as {@link io.airlift.http.client.FullJsonResponseHandler}, but decodes the response
+ * with any {@link Codec}. The response is only decoded when its content type matches the
+ * media type of the codec.
+ */
+public class FullCodecResponseHandler<T>
+        implements ResponseHandler<FullCodecResponseHandler.CodecResponse<T>, RuntimeException>
+{
+    private final Codec<T> codec;
+    private final MediaType mediaType;
+
+    public static <T> FullCodecResponseHandler<T> createFullCodecResponseHandler(Codec<T> codec)
+    {
+        return new FullCodecResponseHandler<>(codec);
+    }
+
+    private FullCodecResponseHandler(Codec<T> codec)
+    {
+        this.codec = requireNonNull(codec, "codec is null");
+        this.mediaType = codec.getMediaType().withoutParameters();
+    }
+
+    @Override
+    public CodecResponse<T> handleException(Request request, Exception exception)
+    {
+        throw propagate(request, exception);
+    }
+
+    @Override
+    public CodecResponse<T> handle(Request request, Response response)
+    {
+        byte[] bytes = readResponseBytes(response);
+        String contentType = response.getHeader(CONTENT_TYPE);
+        if ((contentType == null) || !MediaType.parse(contentType).is(mediaType)) {
+            return new CodecResponse<>(response.getStatusCode(), bytes);
+        }
+        return new CodecResponse<>(response.getStatusCode(), codec, bytes);
+    }
+
+    private static byte[] readResponseBytes(Response response)
+    {
+        try {
+            return ByteStreams.toByteArray(response.getInputStream());
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Error reading response from server", e);
+        }
+    }
+
+    public static class CodecResponse<T>
+    {
+        private final int statusCode;
+        private final boolean hasValue;
+        private final byte[] responseBytes;
+        private final T value;
+        private final IllegalArgumentException exception;
+
+        public CodecResponse(int statusCode, byte[] responseBytes)
+        {
+            this.statusCode = statusCode;
+            this.hasValue = false;
+            this.responseBytes = requireNonNull(responseBytes, "responseBytes is null");
+            this.value = null;
+            this.exception = null;
+        }
+
+        public CodecResponse(int statusCode, Codec<T> codec, byte[] responseBytes)
+        {
+            this.statusCode = statusCode;
+            this.responseBytes = requireNonNull(responseBytes, "responseBytes is null");
+
+            T value = null;
+            IllegalArgumentException exception = null;
+            try {
+                value = codec.fromBytes(responseBytes);
+            }
+            catch (IllegalArgumentException e) {
+                exception = new IllegalArgumentException("Unable to create " + codec.getMediaType() + " response from bytes", e);
+            }
+            this.hasValue = (exception == null);
+            this.value = value;
+            this.exception = exception;
+        }
+
+        public int getStatusCode()
+        {
+            return statusCode;
+        }
+
+        public boolean hasValue()
+        {
+            return hasValue;
+        }
+
+        public T getValue()
+        {
+            if (!hasValue) {
+                throw new IllegalStateException("Response does not contain a value", exception);
+            }
+            return value;
+        }
+
+        public int getResponseSize()
+        {
+            return responseBytes.length;
+        }
+
+        public String getResponseBody()
+        {
+            return new String(responseBytes, UTF_8);
+        }
+
+        public IllegalArgumentException getException()
+        {
+            return exception;
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("statusCode", statusCode)
+                    .add("hasValue", hasValue)
+                    .add("value", value)
+                    .toString();
+        }
+    }
+}
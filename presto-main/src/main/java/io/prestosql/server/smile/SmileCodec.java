@@ -0,0 +1,97 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server.smile;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.common.net.MediaType;
+import io.airlift.json.ObjectMapperProvider;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import static io.prestosql.PrestoMediaTypes.JACKSON_SMILE_TYPE;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Encodes objects in Smile, the binary form of JSON. The objects are mapped with the
+ * same {@link ObjectMapper} as their JSON form, so any object supported by a
+ * {@link io.airlift.json.JsonCodec} is supported by this codec too.
+ */
+public class SmileCodec<T>
+        implements Codec<T>
+{
+    private final Type type;
+    private final SmileFactory smileFactory;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    public static <T> SmileCodec<T> smileCodec(Class<T> type)
+    {
+        return new SmileCodec<>(new ObjectMapperProvider().get(), type);
+    }
+
+    SmileCodec(ObjectMapper mapper, Type type)
+    {
+        requireNonNull(mapper, "mapper is null");
+        this.type = requireNonNull(type, "type is null");
+        // the parsers need the mapper for the deserializers which read nested values through the parser
+        this.smileFactory = new SmileFactory(mapper);
+        JavaType javaType = mapper.getTypeFactory().constructType(type);
+        this.reader = mapper.readerFor(javaType);
+        this.writer = mapper.writerFor(javaType);
+    }
+
+    public Type getType()
+    {
+        return type;
+    }
+
+    @Override
+    public MediaType getMediaType()
+    {
+        return JACKSON_SMILE_TYPE;
+    }
+
+    @Override
+    public byte[] toBytes(T value)
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (JsonGenerator generator = smileFactory.createGenerator(output)) {
+            writer.writeValue(generator, value);
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException(format("%s could not be converted to Smile", value.getClass().getName()), e);
+        }
+        return output.toByteArray();
+    }
+
+    @Override
+    public T fromBytes(byte[] bytes)
+    {
+        try (JsonParser parser = smileFactory.createParser(bytes)) {
+            return reader.readValue(parser);
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException(format("Invalid Smile bytes for %s", type), e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server.smile;
+
+import com.google.inject.Binder;
+import com.google.inject.Key;
+import com.google.inject.Scopes;
+import com.google.inject.util.Types;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Binds {@code SmileCodec<T>} the same way {@link io.airlift.json.JsonCodecBinder} binds {@code JsonCodec<T>}.
+ */
+public final class SmileCodecBinder
+{
+    private final Binder binder;
+
+    public static SmileCodecBinder smileCodecBinder(Binder binder)
+    {
+        return new SmileCodecBinder(binder);
+    }
+
+    private SmileCodecBinder(Binder binder)
+    {
+        this.binder = requireNonNull(binder, "binder is null").skipSources(getClass());
+    }
+
+    @SuppressWarnings("unchecked")
+    public void bindSmileCodec(Class<?> type)
+    {
+        requireNonNull(type, "type is null");
+        Key<SmileCodec<?>> key = (Key<SmileCodec<?>>) Key.get(Types.newParameterizedType(SmileCodec.class, type));
+        binder.bind(key).toProvider(new SmileCodecProvider(type)).in(Scopes.SINGLETON);
+    }
+
+    private static class SmileCodecProvider
+            implements Provider<SmileCodec<?>>
+    {
+        private final Class<?> type;
+        private SmileCodecFactory smileCodecFactory;
+
+        public SmileCodecProvider(Class<?> type)
+        {
+            this.type = type;
+        }
+
+        @Inject
+        public void setSmileCodecFactory(SmileCodecFactory smileCodecFactory)
+        {
+            this.smileCodecFactory = smileCodecFactory;
+        }
+
+        @Override
+        public SmileCodec<?> get()
+        {
+            return smileCodecFactory.smileCodec(type);
+        }
+    }
+}
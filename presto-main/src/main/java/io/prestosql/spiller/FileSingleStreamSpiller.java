@@ -16,6 +16,7 @@ package io.prestosql.spiller;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
 import com.google.common.io.Closer;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -24,13 +25,13 @@ import io.airlift.slice.InputStreamSliceInput;
 import io.airlift.slice.OutputStreamSliceOutput;
 import io.airlift.slice.SliceOutput;
 import io.prestosql.execution.buffer.PagesSerde;
-import io.prestosql.execution.buffer.PagesSerdeUtil;
 import io.prestosql.execution.buffer.SerializedPage;
 import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.operator.SpillContext;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PrestoException;
 
+import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.NotThreadSafe;
 
 import java.io.Closeable;
@@ -39,15 +40,23 @@ import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static io.prestosql.execution.buffer.PagesSerdeUtil.readSerializedPages;
 import static io.prestosql.execution.buffer.PagesSerdeUtil.writeSerializedPage;
 import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_PREFIX;
 import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_SUFFIX;
+import static java.lang.Math.toIntExact;
 import static java.nio.file.StandardOpenOption.APPEND;
 import static java.util.Objects.requireNonNull;
 
@@ -58,7 +67,8 @@ public class FileSingleStreamSpiller
     @VisibleForTesting
     static final int BUFFER_SIZE = 4 * 1024;
 
-    private final FileHolder targetFile;
+    // pages are written to the files round-robin when spilling to more than one file
+    private final List<FileHolder> targetFiles;
     private final Closer closer = Closer.create();
     private final PagesSerde serde;
     private final SpillerStats spillerStats;
@@ -66,22 +76,35 @@ public class FileSingleStreamSpiller
     private final LocalMemoryContext memoryContext;
 
     private final ListeningExecutorService executor;
+    private final int readAheadPages;
 
     private boolean writable = true;
     private long spilledPagesInMemorySize;
+    private long spilledPagesCount;
     private ListenableFuture<?> spillInProgress = Futures.immediateFuture(null);
 
+    // the serde and the read ahead pages are used by the executor threads, which update the memory as well until the spiller is closed
+    private volatile long serdeRetainedSizeInBytes;
+    private final AtomicLong readAheadSizeInBytes = new AtomicLong();
+    @GuardedBy("this")
+    private boolean closed;
+
     public FileSingleStreamSpiller(
             PagesSerde serde,
             ListeningExecutorService executor,
-            Path spillPath,
+            List<Path> spillPaths,
             SpillerStats spillerStats,
             SpillContext spillContext,
             LocalMemoryContext memoryContext,
-            Optional<SpillCipher> spillCipher)
+            Optional<SpillCipher> spillCipher,
+            int readAheadPages)
     {
         this.serde = requireNonNull(serde, "serde is null");
         this.executor = requireNonNull(executor, "executor is null");
+        requireNonNull(spillPaths, "spillPaths is null");
+        checkArgument(!spillPaths.isEmpty(), "spillPaths is empty");
+        checkArgument(readAheadPages >= 0, "readAheadPages is negative");
+        this.readAheadPages = readAheadPages;
         this.spillerStats = requireNonNull(spillerStats, "spillerStats is null");
         this.localSpillContext = spillContext.newLocalSpillContext();
         this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
@@ -98,13 +121,17 @@ public class FileSingleStreamSpiller
         // This means we start accounting for the memory before the spiller thread allocates it, and we release the memory reservation
         // before/after the spiller thread allocates that memory -- -- whether before or after depends on whether writePages() is in the
         // middle of execution when close() is called (note that this applies to both readPages() and writePages() methods).
-        this.memoryContext.setBytes(BUFFER_SIZE);
+        this.memoryContext.setBytes(getBuffersSize(spillPaths.size()));
+        ImmutableList.Builder<FileHolder> targetFiles = ImmutableList.builder();
         try {
-            this.targetFile = closer.register(new FileHolder(Files.createTempFile(spillPath, SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX)));
+            for (Path spillPath : spillPaths) {
+                targetFiles.add(closer.register(new FileHolder(Files.createTempFile(spillPath, SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX))));
+            }
         }
         catch (IOException e) {
             throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to create spill file", e);
         }
+        this.targetFiles = targetFiles.build();
     }
 
     @Override
@@ -126,19 +153,29 @@ public class FileSingleStreamSpiller
     public Iterator<Page> getSpilledPages()
     {
         checkNoSpillInProgress();
-        return readPages();
+        Iterator<Page> pages = readPages();
+        if (readAheadPages == 0) {
+            return pages;
+        }
+        return new ReadAheadIterator(pages);
     }
 
     @Override
     public ListenableFuture<List<Page>> getAllSpilledPages()
     {
-        return executor.submit(() -> ImmutableList.copyOf(getSpilledPages()));
+        checkNoSpillInProgress();
+        // the pages are read on the executor already, so there is no need to read ahead
+        return executor.submit(() -> ImmutableList.copyOf(readPages()));
     }
 
     private void writePages(Iterator<Page> pageIterator)
     {
         checkState(writable, "Spilling no longer allowed. The spiller has been made non-writable on first read for subsequent reads to be consistent");
-        try (SliceOutput output = new OutputStreamSliceOutput(targetFile.newOutputStream(APPEND), BUFFER_SIZE)) {
+        try (Closer outputCloser = Closer.create()) {
+            List<SliceOutput> outputs = new ArrayList<>(targetFiles.size());
+            for (FileHolder targetFile : targetFiles) {
+                outputs.add(outputCloser.register(new OutputStreamSliceOutput(targetFile.newOutputStream(APPEND), BUFFER_SIZE)));
+            }
             while (pageIterator.hasNext()) {
                 Page page = pageIterator.next();
                 spilledPagesInMemorySize += page.getSizeInBytes();
@@ -146,8 +183,11 @@ public class FileSingleStreamSpiller
                 long pageSize = serializedPage.getSizeInBytes();
                 localSpillContext.updateBytes(pageSize);
                 spillerStats.addToTotalSpilledBytes(pageSize);
-                writeSerializedPage(output, serializedPage);
+                writeSerializedPage(outputs.get(toIntExact(spilledPagesCount % outputs.size())), serializedPage);
+                spilledPagesCount++;
             }
+            serdeRetainedSizeInBytes = serde.getRetainedSizeInBytes();
+            updateMemory();
         }
         catch (UncheckedIOException | IOException e) {
             throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to spill pages", e);
@@ -160,20 +200,48 @@ public class FileSingleStreamSpiller
         writable = false;
 
         try {
-            InputStream input = closer.register(targetFile.newInputStream());
-            Iterator<Page> pages = PagesSerdeUtil.readPages(serde, new InputStreamSliceInput(input, BUFFER_SIZE));
-            return closeWhenExhausted(pages, input);
+            Closer inputCloser = closer.register(Closer.create());
+            List<Iterator<SerializedPage>> stripes = new ArrayList<>(targetFiles.size());
+            for (FileHolder targetFile : targetFiles) {
+                InputStream input = inputCloser.register(targetFile.newInputStream());
+                stripes.add(readSerializedPages(new InputStreamSliceInput(input, BUFFER_SIZE)));
+            }
+            Iterator<Page> pages = Iterators.transform(interleave(stripes), this::deserialize);
+            return closeWhenExhausted(pages, inputCloser);
         }
         catch (IOException e) {
             throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to read spilled pages", e);
         }
     }
 
+    private Page deserialize(SerializedPage serializedPage)
+    {
+        Page page = serde.deserialize(serializedPage);
+        if (serdeRetainedSizeInBytes != serde.getRetainedSizeInBytes()) {
+            serdeRetainedSizeInBytes = serde.getRetainedSizeInBytes();
+            updateMemory();
+        }
+        return page;
+    }
+
+    private synchronized void updateMemory()
+    {
+        if (!closed) {
+            memoryContext.setBytes(getBuffersSize(targetFiles.size()) + serdeRetainedSizeInBytes + readAheadSizeInBytes.get());
+        }
+    }
+
+    private synchronized void releaseMemory()
+    {
+        closed = true;
+        memoryContext.setBytes(0);
+    }
+
     @Override
     public void close()
     {
         closer.register(localSpillContext);
-        closer.register(() -> memoryContext.setBytes(0));
+        closer.register(this::releaseMemory);
         try {
             closer.close();
         }
@@ -187,6 +255,34 @@ public class FileSingleStreamSpiller
         checkState(spillInProgress.isDone(), "spill in progress");
     }
 
+    private static long getBuffersSize(int fileCount)
+    {
+        return (long) BUFFER_SIZE * fileCount;
+    }
+
+    private static <T> Iterator<T> interleave(List<Iterator<T>> stripes)
+    {
+        if (stripes.size() == 1) {
+            return stripes.get(0);
+        }
+        return new AbstractIterator<T>()
+        {
+            private int nextStripe;
+
+            @Override
+            protected T computeNext()
+            {
+                // the pages were written round-robin, so the first exhausted stripe marks the end of the pages
+                Iterator<T> stripe = stripes.get(nextStripe);
+                if (!stripe.hasNext()) {
+                    return endOfData();
+                }
+                nextStripe = (nextStripe + 1) % stripes.size();
+                return stripe.next();
+            }
+        };
+    }
+
     private static <T> Iterator<T> closeWhenExhausted(Iterator<T> iterator, Closeable resource)
     {
         requireNonNull(iterator, "iterator is null");
@@ -210,4 +306,67 @@ public class FileSingleStreamSpiller
             }
         };
     }
+
+    /**
+     * Reads and deserializes up to {@code readAheadPages} pages on the executor while the
+     * returned pages are being processed. At most one read is in progress at any time, so
+     * the pages and the serde are only accessed by a single thread at once.
+     */
+    private class ReadAheadIterator
+            extends AbstractIterator<Page>
+    {
+        private final Iterator<Page> pages;
+        private final Queue<Page> bufferedPages = new ConcurrentLinkedQueue<>();
+
+        private ListenableFuture<?> readInProgress = Futures.immediateFuture(null);
+        private volatile boolean exhausted;
+
+        public ReadAheadIterator(Iterator<Page> pages)
+        {
+            this.pages = requireNonNull(pages, "pages is null");
+        }
+
+        @Override
+        protected Page computeNext()
+        {
+            if (bufferedPages.isEmpty() && !exhausted) {
+                scheduleRead();
+                getFutureValue(readInProgress);
+            }
+
+            Page page = bufferedPages.poll();
+            if (page == null) {
+                checkState(exhausted, "no pages were read");
+                updateMemory();
+                return endOfData();
+            }
+            readAheadSizeInBytes.addAndGet(-page.getRetainedSizeInBytes());
+            scheduleRead();
+            updateMemory();
+            return page;
+        }
+
+        private void scheduleRead()
+        {
+            if (exhausted || !readInProgress.isDone()) {
+                return;
+            }
+            // propagate the failure of the previous read
+            getFutureValue(readInProgress);
+            readInProgress = executor.submit(this::readPages);
+        }
+
+        private void readPages()
+        {
+            while (bufferedPages.size() < readAheadPages) {
+                if (!pages.hasNext()) {
+                    exhausted = true;
+                    return;
+                }
+                Page page = pages.next();
+                readAheadSizeInBytes.addAndGet(page.getRetainedSizeInBytes());
+                bufferedPages.add(page);
+            }
+        }
+    }
 }
@@ -42,6 +42,7 @@ import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.prestosql.spi.StandardErrorCode.OUT_OF_SPILL_SPACE;
@@ -77,6 +78,8 @@ public class FileSingleStreamSpillerFactory
     private final SpillerStats spillerStats;
     private final double maxUsedSpaceThreshold;
     private final boolean spillEncryptionEnabled;
+    private final int spillReadAheadPages;
+    private final boolean spillStripingEnabled;
     private int roundRobinIndex;
     private final LoadingCache<Path, Boolean> spillPathHealthCache;
 
@@ -92,7 +95,9 @@ public class FileSingleStreamSpillerFactory
                 requireNonNull(featuresConfig, "featuresConfig is null").getSpillerSpillPaths(),
                 requireNonNull(featuresConfig, "featuresConfig is null").getSpillMaxUsedSpaceThreshold(),
                 requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillCompressionEnabled(),
-                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillEncryptionEnabled());
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillEncryptionEnabled(),
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").getSpillReadAheadPages(),
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillStripingEnabled());
     }
 
     @VisibleForTesting
@@ -103,7 +108,9 @@ public class FileSingleStreamSpillerFactory
             List<Path> spillPaths,
             double maxUsedSpaceThreshold,
             boolean spillCompressionEnabled,
-            boolean spillEncryptionEnabled)
+            boolean spillEncryptionEnabled,
+            int spillReadAheadPages,
+            boolean spillStripingEnabled)
     {
         this.serdeFactory = new PagesSerdeFactory(blockEncodingSerde, spillCompressionEnabled);
         this.executor = requireNonNull(executor, "executor is null");
@@ -123,6 +130,9 @@ public class FileSingleStreamSpillerFactory
         });
         this.maxUsedSpaceThreshold = maxUsedSpaceThreshold;
         this.spillEncryptionEnabled = spillEncryptionEnabled;
+        checkArgument(spillReadAheadPages >= 0, "spillReadAheadPages is negative");
+        this.spillReadAheadPages = spillReadAheadPages;
+        this.spillStripingEnabled = spillStripingEnabled;
         this.roundRobinIndex = 0;
 
         this.spillPathHealthCache = CacheBuilder.newBuilder()
@@ -168,7 +178,26 @@ public class FileSingleStreamSpillerFactory
             spillCipher = Optional.of(new AesSpillCipher());
         }
         PagesSerde serde = serdeFactory.createPagesSerdeForSpill(spillCipher);
-        return new FileSingleStreamSpiller(serde, executor, getNextSpillPath(), spillerStats, spillContext, memoryContext, spillCipher);
+        return new FileSingleStreamSpiller(serde, executor, getNextSpillPaths(), spillerStats, spillContext, memoryContext, spillCipher, spillReadAheadPages);
+    }
+
+    private synchronized List<Path> getNextSpillPaths()
+    {
+        Path firstPath = getNextSpillPath();
+        if (!spillStripingEnabled) {
+            return ImmutableList.of(firstPath);
+        }
+
+        // stripe the spill over all the usable paths, starting with the next one in the round-robin order
+        ImmutableList.Builder<Path> paths = ImmutableList.<Path>builder().add(firstPath);
+        int firstPathIndex = spillPaths.indexOf(firstPath);
+        for (int i = 1; i < spillPaths.size(); i++) {
+            Path path = spillPaths.get((firstPathIndex + i) % spillPaths.size());
+            if (hasEnoughDiskSpace(path) && spillPathHealthCache.getUnchecked(path)) {
+                paths.add(path);
+            }
+        }
+        return paths.build();
     }
 
     private synchronized Path getNextSpillPath()
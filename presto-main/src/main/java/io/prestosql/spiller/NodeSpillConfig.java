@@ -14,9 +14,11 @@
 package io.prestosql.spiller;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.configuration.LegacyConfig;
 import io.airlift.units.DataSize;
 
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 public class NodeSpillConfig
@@ -26,6 +28,8 @@ public class NodeSpillConfig
 
     private boolean spillCompressionEnabled;
     private boolean spillEncryptionEnabled;
+    private int spillReadAheadPages;
+    private boolean spillStripingEnabled;
 
     @NotNull
     public DataSize getMaxSpillPerNode()
@@ -80,4 +84,31 @@ public class NodeSpillConfig
         this.spillEncryptionEnabled = spillEncryptionEnabled;
         return this;
     }
+
+    @Min(0)
+    public int getSpillReadAheadPages()
+    {
+        return spillReadAheadPages;
+    }
+
+    @Config("spill-read-ahead-pages")
+    @ConfigDescription("Number of spilled pages read and deserialized ahead of the operator reading them back")
+    public NodeSpillConfig setSpillReadAheadPages(int spillReadAheadPages)
+    {
+        this.spillReadAheadPages = spillReadAheadPages;
+        return this;
+    }
+
+    public boolean isSpillStripingEnabled()
+    {
+        return spillStripingEnabled;
+    }
+
+    @Config("spill-striping-enabled")
+    @ConfigDescription("Stripe each spill file across all the spill paths")
+    public NodeSpillConfig setSpillStripingEnabled(boolean spillStripingEnabled)
+    {
+        this.spillStripingEnabled = spillStripingEnabled;
+        return this;
+    }
 }
@@ -25,6 +25,10 @@ import io.prestosql.spi.function.TypeParameter;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.VarcharType;
 import io.prestosql.sql.planner.FunctionCallBuilder;
+import io.prestosql.sql.planner.plan.FilterNode;
+import io.prestosql.sql.planner.plan.JoinNode;
+import io.prestosql.sql.planner.plan.PlanNode;
+import io.prestosql.sql.planner.plan.TableScanNode;
 import io.prestosql.sql.tree.Expression;
 import io.prestosql.sql.tree.FunctionCall;
 import io.prestosql.sql.tree.QualifiedName;
@@ -34,12 +38,15 @@ import io.prestosql.sql.tree.SymbolReference;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static io.prestosql.spi.type.StandardTypes.BOOLEAN;
 import static io.prestosql.spi.type.StandardTypes.VARCHAR;
 import static io.prestosql.sql.ExpressionUtils.extractConjuncts;
+import static io.prestosql.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
 import static java.util.Objects.requireNonNull;
 
 public final class DynamicFilters
@@ -75,6 +82,46 @@ public final class DynamicFilters
         return new ExtractResult(staticConjuncts.build(), dynamicConjuncts.build());
     }
 
+    /**
+     * Returns IDs of the dynamic filters which are produced by join nodes in the given plan.
+     */
+    public static Set<String> getProducedDynamicFilters(PlanNode plan)
+    {
+        return searchFrom(plan)
+                .where(JoinNode.class::isInstance)
+                .<JoinNode>findAll()
+                .stream()
+                .flatMap(node -> node.getDynamicFilters().keySet().stream())
+                .collect(toImmutableSet());
+    }
+
+    /**
+     * Returns IDs of the dynamic filters which are consumed by table scans in the given plan.
+     */
+    public static Set<String> getConsumedDynamicFilters(PlanNode plan)
+    {
+        return searchFrom(plan)
+                .where(node -> node instanceof FilterNode && ((FilterNode) node).getSource() instanceof TableScanNode)
+                .<FilterNode>findAll()
+                .stream()
+                .flatMap(node -> extractDynamicFilters(node.getPredicate()).getDynamicConjuncts().stream())
+                .map(Descriptor::getId)
+                .collect(toImmutableSet());
+    }
+
+    /**
+     * Returns IDs of the dynamic filters which are produced in the given plan fragment, but consumed
+     * in a different one (e.g. in case of partitioned joins). Such filters have to be collected and merged
+     * by the coordinator before they can be used.
+     */
+    public static Set<String> getRemoteDynamicFilters(PlanNode fragmentRoot)
+    {
+        Set<String> consumedDynamicFilters = getConsumedDynamicFilters(fragmentRoot);
+        return getProducedDynamicFilters(fragmentRoot).stream()
+                .filter(filterId -> !consumedDynamicFilters.contains(filterId))
+                .collect(toImmutableSet());
+    }
+
     public static boolean isDynamicFilter(Expression expression)
     {
         return getDescriptor(expression).isPresent();
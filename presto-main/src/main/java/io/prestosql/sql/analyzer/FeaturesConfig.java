@@ -42,6 +42,7 @@ import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.sql.analyzer.RegexLibrary.JONI;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 @DefunctConfig({
         "deprecated.legacy-char-to-varchar-coercion",
@@ -74,6 +75,7 @@ public class FeaturesConfig
     private int concurrentLifespansPerTask;
     private boolean spatialJoinsEnabled = true;
     private boolean fastInequalityJoins = true;
+    private boolean radixPartitionedJoinsEnabled;
     private JoinReorderingStrategy joinReorderingStrategy = JoinReorderingStrategy.AUTOMATIC;
     private int maxReorderedJoins = 9;
     private boolean redistributeWrites = true;
@@ -103,6 +105,10 @@ public class FeaturesConfig
     private boolean spillEnabled;
     private boolean spillOrderBy = true;
     private boolean spillWindowOperator = true;
+    private boolean spillTopNRowNumber = true;
+    private boolean spillRowNumber = true;
+    private boolean spillMarkDistinct = true;
+    private boolean spillDistinctLimit = true;
     private DataSize aggregationOperatorUnspillMemoryLimit = DataSize.of(4, DataSize.Unit.MEGABYTE);
     private List<Path> spillerSpillPaths = ImmutableList.of();
     private int spillerThreads = 4;
@@ -130,6 +136,11 @@ public class FeaturesConfig
     private boolean enableDynamicFiltering = true;
     private int dynamicFilteringMaxPerDriverRowCount = 100;
     private DataSize dynamicFilteringMaxPerDriverSize = DataSize.of(10, KILOBYTE);
+    private DataSize dynamicFilteringBloomFilterSize = DataSize.ofBytes(0);
+    private Duration dynamicFilteringWaitTimeout = new Duration(0, SECONDS);
+    private boolean adaptivePartialAggregationEnabled;
+    private long adaptivePartialAggregationMinRows = 100_000;
+    private double adaptivePartialAggregationUniqueRowsRatioThreshold = 0.8;
 
     private DataSize filterAndProjectMinOutputPageSize = DataSize.of(500, KILOBYTE);
     private int filterAndProjectMinOutputPageRowCount = 256;
@@ -325,6 +336,19 @@ public class FeaturesConfig
         return fastInequalityJoins;
     }
 
+    public boolean isRadixPartitionedJoinsEnabled()
+    {
+        return radixPartitionedJoinsEnabled;
+    }
+
+    @Config("radix-partitioned-joins-enabled")
+    @ConfigDescription("Partition the hash tables of large joins into cache sized sub-tables and probe them one sub-table at a time")
+    public FeaturesConfig setRadixPartitionedJoinsEnabled(boolean radixPartitionedJoinsEnabled)
+    {
+        this.radixPartitionedJoinsEnabled = radixPartitionedJoinsEnabled;
+        return this;
+    }
+
     public JoinReorderingStrategy getJoinReorderingStrategy()
     {
         return joinReorderingStrategy;
@@ -563,6 +587,58 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isSpillTopNRowNumber()
+    {
+        return spillTopNRowNumber;
+    }
+
+    @Config("spill-topn-row-number")
+    @ConfigDescription("Spill in TopNRowNumber operator if spill-enabled is also set")
+    public FeaturesConfig setSpillTopNRowNumber(boolean spillTopNRowNumber)
+    {
+        this.spillTopNRowNumber = spillTopNRowNumber;
+        return this;
+    }
+
+    public boolean isSpillRowNumber()
+    {
+        return spillRowNumber;
+    }
+
+    @Config("spill-row-number")
+    @ConfigDescription("Spill in RowNumber operator if spill-enabled is also set")
+    public FeaturesConfig setSpillRowNumber(boolean spillRowNumber)
+    {
+        this.spillRowNumber = spillRowNumber;
+        return this;
+    }
+
+    public boolean isSpillMarkDistinct()
+    {
+        return spillMarkDistinct;
+    }
+
+    @Config("spill-mark-distinct")
+    @ConfigDescription("Spill in MarkDistinct operator if spill-enabled is also set")
+    public FeaturesConfig setSpillMarkDistinct(boolean spillMarkDistinct)
+    {
+        this.spillMarkDistinct = spillMarkDistinct;
+        return this;
+    }
+
+    public boolean isSpillDistinctLimit()
+    {
+        return spillDistinctLimit;
+    }
+
+    @Config("spill-distinct-limit")
+    @ConfigDescription("Spill in DistinctLimit operator if spill-enabled is also set")
+    public FeaturesConfig setSpillDistinctLimit(boolean spillDistinctLimit)
+    {
+        this.spillDistinctLimit = spillDistinctLimit;
+        return this;
+    }
+
     public boolean isIterativeOptimizerEnabled()
     {
         return iterativeOptimizerEnabled;
@@ -778,6 +854,76 @@ public class FeaturesConfig
         return this;
     }
 
+    @MaxDataSize("64MB")
+    public DataSize getDynamicFilteringBloomFilterSize()
+    {
+        return dynamicFilteringBloomFilterSize;
+    }
+
+    @Config("dynamic-filtering-bloom-filter-size")
+    @ConfigDescription("Size of the bloom filter collected per-driver once the build side exceeds the dynamic filtering limits (0 disables)")
+    public FeaturesConfig setDynamicFilteringBloomFilterSize(DataSize dynamicFilteringBloomFilterSize)
+    {
+        this.dynamicFilteringBloomFilterSize = dynamicFilteringBloomFilterSize;
+        return this;
+    }
+
+    @NotNull
+    public Duration getDynamicFilteringWaitTimeout()
+    {
+        return dynamicFilteringWaitTimeout;
+    }
+
+    @Config("dynamic-filtering-wait-timeout")
+    @ConfigDescription("Maximum time to delay scheduling of table scans in partitioned joins until the dynamic filters from the build side are collected")
+    public FeaturesConfig setDynamicFilteringWaitTimeout(Duration dynamicFilteringWaitTimeout)
+    {
+        this.dynamicFilteringWaitTimeout = dynamicFilteringWaitTimeout;
+        return this;
+    }
+
+    public boolean isAdaptivePartialAggregationEnabled()
+    {
+        return adaptivePartialAggregationEnabled;
+    }
+
+    @Config("adaptive-partial-aggregation.enabled")
+    @ConfigDescription("Disable partial aggregation when it does not reduce the number of rows enough")
+    public FeaturesConfig setAdaptivePartialAggregationEnabled(boolean adaptivePartialAggregationEnabled)
+    {
+        this.adaptivePartialAggregationEnabled = adaptivePartialAggregationEnabled;
+        return this;
+    }
+
+    @Min(0)
+    public long getAdaptivePartialAggregationMinRows()
+    {
+        return adaptivePartialAggregationMinRows;
+    }
+
+    @Config("adaptive-partial-aggregation.min-rows")
+    @ConfigDescription("Minimum number of rows processed by partial aggregation before deciding whether to disable it")
+    public FeaturesConfig setAdaptivePartialAggregationMinRows(long adaptivePartialAggregationMinRows)
+    {
+        this.adaptivePartialAggregationMinRows = adaptivePartialAggregationMinRows;
+        return this;
+    }
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    public double getAdaptivePartialAggregationUniqueRowsRatioThreshold()
+    {
+        return adaptivePartialAggregationUniqueRowsRatioThreshold;
+    }
+
+    @Config("adaptive-partial-aggregation.unique-rows-ratio-threshold")
+    @ConfigDescription("Disable partial aggregation when the ratio of unique rows to processed rows exceeds this threshold")
+    public FeaturesConfig setAdaptivePartialAggregationUniqueRowsRatioThreshold(double adaptivePartialAggregationUniqueRowsRatioThreshold)
+    {
+        this.adaptivePartialAggregationUniqueRowsRatioThreshold = adaptivePartialAggregationUniqueRowsRatioThreshold;
+        return this;
+    }
+
     public boolean isOptimizeMixedDistinctAggregations()
     {
         return optimizeMixedDistinctAggregations;
@@ -82,6 +82,7 @@ import static io.airlift.bytecode.expression.BytecodeExpressions.constantLong;
 import static io.airlift.bytecode.expression.BytecodeExpressions.constantNull;
 import static io.airlift.bytecode.expression.BytecodeExpressions.constantTrue;
 import static io.airlift.bytecode.expression.BytecodeExpressions.getStatic;
+import static io.airlift.bytecode.expression.BytecodeExpressions.lessThan;
 import static io.airlift.bytecode.expression.BytecodeExpressions.newInstance;
 import static io.airlift.bytecode.expression.BytecodeExpressions.notEqual;
 import static io.prestosql.sql.gen.InputReferenceCompiler.generateInputReference;
@@ -226,9 +227,11 @@ public class JoinCompiler
         generateAppendToMethod(classDefinition, callSiteBinder, types, outputChannels, channelFields);
         generateHashPositionMethod(classDefinition, callSiteBinder, joinChannelTypes, joinChannelFields, hashChannelField);
         generateHashRowMethod(classDefinition, callSiteBinder, joinChannelTypes);
+        generateHashRowsMethod(classDefinition, callSiteBinder, joinChannelTypes);
         generateRowEqualsRowMethod(classDefinition, callSiteBinder, joinChannelTypes);
         generatePositionEqualsRowMethod(classDefinition, callSiteBinder, joinChannelTypes, joinChannelFields, true);
         generatePositionEqualsRowMethod(classDefinition, callSiteBinder, joinChannelTypes, joinChannelFields, false);
+        generatePositionsEqualRowsIgnoreNullsMethod(classDefinition, callSiteBinder, joinChannelTypes, joinChannelFields);
         generatePositionNotDistinctFromRowWithPageMethod(classDefinition, callSiteBinder, joinChannelTypes, joinChannelFields);
         generatePositionEqualsRowWithPageMethod(classDefinition, callSiteBinder, joinChannelTypes, joinChannelFields);
         generatePositionEqualsPositionMethod(classDefinition, callSiteBinder, joinChannelTypes, joinChannelFields, true);
@@ -492,6 +495,59 @@ public class JoinCompiler
                 .retLong();
     }
 
+    private static void generateHashRowsMethod(ClassDefinition classDefinition, CallSiteBinder callSiteBinder, List<Type> joinChannelTypes)
+    {
+        Parameter positions = arg("positions", int[].class);
+        Parameter positionCount = arg("positionCount", int.class);
+        Parameter page = arg("page", Page.class);
+        Parameter hashes = arg("hashes", long[].class);
+        MethodDefinition hashRowsMethod = classDefinition.declareMethod(a(PUBLIC), "hashRows", type(void.class), positions, positionCount, page, hashes);
+
+        Scope scope = hashRowsMethod.getScope();
+        BytecodeBlock body = hashRowsMethod.getBody();
+        Variable index = scope.declareVariable(int.class, "index");
+        Variable position = scope.declareVariable(int.class, "position");
+        Variable block = scope.declareVariable(Block.class, "block");
+
+        if (joinChannelTypes.isEmpty()) {
+            body.append(new ForLoop()
+                    .initialize(index.set(constantInt(0)))
+                    .condition(lessThan(index, positionCount))
+                    .update(index.increment())
+                    .body(hashes.setElement(positions.getElement(index), constantLong(0L))));
+        }
+
+        // hash one column at a time, so that the type of the inner loop is constant
+        for (int channel = 0; channel < joinChannelTypes.size(); channel++) {
+            BytecodeExpression type = constantType(callSiteBinder, joinChannelTypes.get(channel));
+            body.append(block.set(page.invoke("getBlock", Block.class, constantInt(channel))));
+
+            BytecodeBlock loopBody = new BytecodeBlock()
+                    .append(position.set(positions.getElement(index)))
+                    .append(hashes)
+                    .append(position);
+            if (channel > 0) {
+                loopBody.append(hashes.getElement(position))
+                        .push(31L)
+                        .append(OpCode.LMUL)
+                        .append(typeHashCode(type, block, position))
+                        .append(OpCode.LADD);
+            }
+            else {
+                loopBody.append(typeHashCode(type, block, position));
+            }
+            loopBody.append(OpCode.LASTORE);
+
+            body.append(new ForLoop()
+                    .initialize(index.set(constantInt(0)))
+                    .condition(lessThan(index, positionCount))
+                    .update(index.increment())
+                    .body(loopBody));
+        }
+
+        body.ret();
+    }
+
     private static BytecodeNode typeHashCode(BytecodeExpression type, BytecodeExpression blockRef, BytecodeExpression blockPosition)
     {
         return new IfStatement()
@@ -601,6 +657,63 @@ public class JoinCompiler
                 .retInt();
     }
 
+    private static void generatePositionsEqualRowsIgnoreNullsMethod(
+            ClassDefinition classDefinition,
+            CallSiteBinder callSiteBinder,
+            List<Type> joinChannelTypes,
+            List<FieldDefinition> joinChannelFields)
+    {
+        Parameter leftBlockIndexes = arg("leftBlockIndexes", int[].class);
+        Parameter leftBlockPositions = arg("leftBlockPositions", int[].class);
+        Parameter rightPositions = arg("rightPositions", int[].class);
+        Parameter positionCount = arg("positionCount", int.class);
+        Parameter rightPage = arg("rightPage", Page.class);
+        Parameter equal = arg("equal", boolean[].class);
+        MethodDefinition positionsEqualRowsMethod = classDefinition.declareMethod(
+                a(PUBLIC),
+                "positionsEqualRowsIgnoreNulls",
+                type(void.class),
+                leftBlockIndexes,
+                leftBlockPositions,
+                rightPositions,
+                positionCount,
+                rightPage,
+                equal);
+
+        Variable thisVariable = positionsEqualRowsMethod.getThis();
+        Scope scope = positionsEqualRowsMethod.getScope();
+        BytecodeBlock body = positionsEqualRowsMethod.getBody();
+        Variable index = scope.declareVariable(int.class, "index");
+        Variable rightBlock = scope.declareVariable(Block.class, "rightBlock");
+
+        // compare one column at a time, so that the type of the inner loop is constant
+        for (int channel = 0; channel < joinChannelTypes.size(); channel++) {
+            BytecodeExpression type = constantType(callSiteBinder, joinChannelTypes.get(channel));
+            body.append(rightBlock.set(rightPage.invoke("getBlock", Block.class, constantInt(channel))));
+
+            BytecodeExpression leftBlock = thisVariable
+                    .getField(joinChannelFields.get(channel))
+                    .invoke("get", Object.class, leftBlockIndexes.getElement(index))
+                    .cast(Block.class);
+
+            body.append(new ForLoop()
+                    .initialize(index.set(constantInt(0)))
+                    .condition(lessThan(index, positionCount))
+                    .update(index.increment())
+                    .body(new IfStatement()
+                            .condition(equal.getElement(index))
+                            .ifTrue(equal.setElement(index, type.invoke(
+                                    "equalTo",
+                                    boolean.class,
+                                    leftBlock,
+                                    leftBlockPositions.getElement(index),
+                                    rightBlock,
+                                    rightPositions.getElement(index))))));
+        }
+
+        body.ret();
+    }
+
     private static void generatePositionEqualsRowWithPageMethod(
             ClassDefinition classDefinition,
             CallSiteBinder callSiteBinder,
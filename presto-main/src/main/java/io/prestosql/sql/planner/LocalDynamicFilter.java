@@ -15,12 +15,17 @@ package io.prestosql.sql.planner;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.log.Logger;
+import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.operator.BlockedBloomFilter;
+import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.spi.type.Type;
 import io.prestosql.sql.DynamicFilters;
 import io.prestosql.sql.planner.optimizations.PlanNodeSearcher;
 import io.prestosql.sql.planner.plan.FilterNode;
@@ -29,6 +34,7 @@ import io.prestosql.sql.planner.plan.PlanNode;
 import io.prestosql.sql.planner.plan.TableScanNode;
 import io.prestosql.sql.tree.SymbolReference;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -38,6 +44,8 @@ import java.util.function.Consumer;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static io.prestosql.spi.type.TypeUtils.writeNativeValue;
 import static io.prestosql.sql.DynamicFilters.Descriptor;
 import static io.prestosql.sql.DynamicFilters.extractDynamicFilters;
 import static java.util.Objects.requireNonNull;
@@ -53,27 +61,61 @@ public class LocalDynamicFilter
     // Mapping from dynamic filter ID to its build channel indices.
     private final Map<String, Integer> buildChannels;
 
+    // Mapping from dynamic filter ID to its type, for dynamic filters without a local probe-side consumer.
+    // These are consumed in a different stage (e.g. in case of a partitioned join) and are collected by the coordinator.
+    private final Map<String, Type> remoteFilterTypes;
+
     private final TypeProvider types;
 
     private final SettableFuture<Map<Symbol, Domain>> resultFuture;
+    private final SettableFuture<Map<String, Domain>> remoteResultFuture;
+    private final SettableFuture<Map<Symbol, BlockedBloomFilter>> bloomFilterResultFuture;
 
     // The resulting predicate for local dynamic filtering.
     private TupleDomain<String> result;
 
+    // The union of the partitions which were collected as discrete values (i.e. without bloom filters).
+    private TupleDomain<String> discreteResult;
+
+    // Bloom filters from the partitions which were too large to be collected as discrete values.
+    private final Map<String, BlockedBloomFilter> bloomFilters = new HashMap<>();
+
+    // Tracks the memory of the bloom filters while they are merged.
+    private final LocalMemoryContext bloomFiltersMemoryContext;
+
+    private boolean closed;
+
     // Number of partitions left to be processed.
     private int partitionsLeft;
 
     public LocalDynamicFilter(Multimap<String, Symbol> probeSymbols, Map<String, Integer> buildChannels, TypeProvider types, int partitionCount)
+    {
+        this(probeSymbols, buildChannels, ImmutableMap.of(), types, partitionCount, newSimpleAggregatedMemoryContext().newLocalMemoryContext(LocalDynamicFilter.class.getSimpleName()));
+    }
+
+    public LocalDynamicFilter(
+            Multimap<String, Symbol> probeSymbols,
+            Map<String, Integer> buildChannels,
+            Map<String, Type> remoteFilterTypes,
+            TypeProvider types,
+            int partitionCount,
+            LocalMemoryContext bloomFiltersMemoryContext)
     {
         this.probeSymbols = requireNonNull(probeSymbols, "probeSymbols is null");
         this.buildChannels = requireNonNull(buildChannels, "buildChannels is null");
-        verify(probeSymbols.keySet().equals(buildChannels.keySet()), "probeSymbols and buildChannels must have same keys");
+        this.remoteFilterTypes = ImmutableMap.copyOf(requireNonNull(remoteFilterTypes, "remoteFilterTypes is null"));
+        verify(buildChannels.keySet().containsAll(probeSymbols.keySet()), "probeSymbols keys must be contained in buildChannels");
+        verify(buildChannels.keySet().containsAll(this.remoteFilterTypes.keySet()), "remoteFilterTypes keys must be contained in buildChannels");
         this.types = requireNonNull(types, "types is null");
 
         this.resultFuture = SettableFuture.create();
+        this.remoteResultFuture = SettableFuture.create();
+        this.bloomFilterResultFuture = SettableFuture.create();
 
         this.result = TupleDomain.none();
+        this.discreteResult = TupleDomain.none();
         this.partitionsLeft = partitionCount;
+        this.bloomFiltersMemoryContext = requireNonNull(bloomFiltersMemoryContext, "bloomFiltersMemoryContext is null");
     }
 
     private synchronized void addPartition(TupleDomain<String> tupleDomain)
@@ -84,10 +126,113 @@ public class LocalDynamicFilter
         // NOTE: may result in a bit more relaxed constraint if there are multiple columns and multiple rows.
         // See the comment at TupleDomain::columnWiseUnion() for more details.
         result = TupleDomain.columnWiseUnion(result, tupleDomain);
+        if (!tupleDomain.isAll()) {
+            discreteResult = TupleDomain.columnWiseUnion(discreteResult, tupleDomain);
+        }
         if (partitionsLeft == 0) {
             // No more partitions are left to be processed.
             verify(resultFuture.set(convertTupleDomain(result)), "dynamic filter result is provided more than once");
+            verify(remoteResultFuture.set(convertRemoteTupleDomain(result)), "dynamic filter result is provided more than once");
+            verify(bloomFilterResultFuture.set(convertBloomFilters()), "dynamic filter result is provided more than once");
+            // the merged bloom filters are now tracked by their consumer
+            bloomFilters.clear();
+            if (!closed) {
+                bloomFiltersMemoryContext.setBytes(0);
+            }
+        }
+    }
+
+    private synchronized void addBloomFilters(Map<String, BlockedBloomFilter> partitionBloomFilters)
+    {
+        // Called by DynamicFilterSourceOperator instances which collected too many values, before their partition is added.
+        verify(partitionsLeft > 0);
+        if (closed) {
+            return;
         }
+        for (Map.Entry<String, BlockedBloomFilter> entry : partitionBloomFilters.entrySet()) {
+            bloomFilters.merge(entry.getKey(), entry.getValue(), BlockedBloomFilter::union);
+        }
+        bloomFiltersMemoryContext.setBytes(bloomFilters.values().stream()
+                .mapToLong(BlockedBloomFilter::getRetainedSizeInBytes)
+                .sum());
+    }
+
+    /**
+     * Drops the bloom filters which are still being merged and frees their memory, e.g. when the task fails
+     * before every partition is collected.
+     */
+    public synchronized void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        bloomFilters.clear();
+        bloomFiltersMemoryContext.close();
+    }
+
+    private Map<Symbol, BlockedBloomFilter> convertBloomFilters()
+    {
+        if (result.isNone() || bloomFilters.isEmpty()) {
+            return ImmutableMap.of();
+        }
+        // Bloom filters are applied only to local probe symbols, since they are not sent to the coordinator.
+        ImmutableMap.Builder<Symbol, BlockedBloomFilter> builder = ImmutableMap.builder();
+        for (Map.Entry<String, BlockedBloomFilter> entry : bloomFilters.entrySet()) {
+            String filterId = entry.getKey();
+            if (!probeSymbols.containsKey(filterId)) {
+                continue;
+            }
+            Optional<BlockedBloomFilter> bloomFilter = addDiscreteValues(entry.getValue(), filterId);
+            if (bloomFilter.isPresent()) {
+                for (Symbol probeSymbol : probeSymbols.get(filterId)) {
+                    builder.put(probeSymbol, bloomFilter.get());
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * The bloom filter has to contain the values of the partitions which were collected as
+     * discrete values as well, otherwise their matching probe-side rows would be dropped.
+     */
+    private Optional<BlockedBloomFilter> addDiscreteValues(BlockedBloomFilter bloomFilter, String filterId)
+    {
+        if (discreteResult.isNone()) {
+            return Optional.of(bloomFilter);
+        }
+        Domain domain = discreteResult.getDomains().get().get(filterId);
+        if (domain == null || !domain.getValues().isDiscreteSet()) {
+            return Optional.empty();
+        }
+        List<Object> values = domain.getValues().getDiscreteSet();
+        BlockBuilder blockBuilder = bloomFilter.getType().createBlockBuilder(null, values.size());
+        for (Object value : values) {
+            writeNativeValue(bloomFilter.getType(), blockBuilder, value);
+        }
+        for (int position = 0; position < blockBuilder.getPositionCount(); position++) {
+            bloomFilter.put(blockBuilder, position);
+        }
+        return Optional.of(bloomFilter);
+    }
+
+    private Map<String, Domain> convertRemoteTupleDomain(TupleDomain<String> result)
+    {
+        // Remote dynamic filters are reported even if they don't filter anything,
+        // so that the coordinator knows when collection is complete for this task.
+        ImmutableMap.Builder<String, Domain> builder = ImmutableMap.builder();
+        for (Map.Entry<String, Type> entry : remoteFilterTypes.entrySet()) {
+            String filterId = entry.getKey();
+            Type type = entry.getValue();
+            if (result.isNone()) {
+                builder.put(filterId, Domain.none(type));
+            }
+            else {
+                builder.put(filterId, result.getDomains().get().getOrDefault(filterId, Domain.all(type)));
+            }
+        }
+        return builder.build();
     }
 
     private Map<Symbol, Domain> convertTupleDomain(TupleDomain<String> result)
@@ -100,6 +245,7 @@ public class LocalDynamicFilter
         }
         // Convert the predicate to use probe symbols (instead dynamic filter IDs).
         // Note that in case of a probe-side union, a single dynamic filter may match multiple probe symbols.
+        // Remote dynamic filters have no local probe symbols, so they are skipped here.
         ImmutableMap.Builder<Symbol, Domain> builder = ImmutableMap.builder();
         for (Map.Entry<String, Domain> entry : result.getDomains().get().entrySet()) {
             Domain domain = entry.getValue();
@@ -112,6 +258,21 @@ public class LocalDynamicFilter
     }
 
     public static Optional<LocalDynamicFilter> create(JoinNode planNode, TypeProvider types, int partitionCount)
+    {
+        return create(planNode, ImmutableSet.of(), types, partitionCount, newSimpleAggregatedMemoryContext().newLocalMemoryContext(LocalDynamicFilter.class.getSimpleName()));
+    }
+
+    /**
+     * @param remoteDynamicFilters IDs of the dynamic filters which are consumed outside of the current plan fragment,
+     * and should be collected for the coordinator
+     * @param bloomFiltersMemoryContext tracks the memory of the bloom filters while they are merged
+     */
+    public static Optional<LocalDynamicFilter> create(
+            JoinNode planNode,
+            Set<String> remoteDynamicFilters,
+            TypeProvider types,
+            int partitionCount,
+            LocalMemoryContext bloomFiltersMemoryContext)
     {
         Set<String> joinDynamicFilters = planNode.getDynamicFilters().keySet();
         List<FilterNode> filterNodes = PlanNodeSearcher
@@ -138,8 +299,8 @@ public class LocalDynamicFilter
         Multimap<String, Symbol> probeSymbols = probeSymbolsBuilder.build();
         PlanNode buildNode = planNode.getRight();
         Map<String, Integer> buildChannels = planNode.getDynamicFilters().entrySet().stream()
-                // Skip build channels that don't match local probe dynamic filters.
-                .filter(entry -> probeSymbols.containsKey(entry.getKey()))
+                // Skip build channels that match neither local probe dynamic filters, nor dynamic filters consumed by other stages.
+                .filter(entry -> probeSymbols.containsKey(entry.getKey()) || remoteDynamicFilters.contains(entry.getKey()))
                 .collect(toImmutableMap(
                         // Dynamic filter ID
                         Map.Entry::getKey,
@@ -154,7 +315,10 @@ public class LocalDynamicFilter
         if (buildChannels.isEmpty()) {
             return Optional.empty();
         }
-        return Optional.of(new LocalDynamicFilter(probeSymbols, buildChannels, types, partitionCount));
+        Map<String, Type> remoteFilterTypes = planNode.getDynamicFilters().entrySet().stream()
+                .filter(entry -> !probeSymbols.containsKey(entry.getKey()) && remoteDynamicFilters.contains(entry.getKey()))
+                .collect(toImmutableMap(Map.Entry::getKey, entry -> types.get(entry.getValue())));
+        return Optional.of(new LocalDynamicFilter(probeSymbols, buildChannels, remoteFilterTypes, types, partitionCount, bloomFiltersMemoryContext));
     }
 
     private static boolean isFilterAboveTableScan(PlanNode node)
@@ -177,18 +341,35 @@ public class LocalDynamicFilter
         return resultFuture;
     }
 
+    public ListenableFuture<Map<String, Domain>> getRemoteResultFuture()
+    {
+        return remoteResultFuture;
+    }
+
+    public ListenableFuture<Map<Symbol, BlockedBloomFilter>> getBloomFilterResultFuture()
+    {
+        return bloomFilterResultFuture;
+    }
+
     public Consumer<TupleDomain<String>> getTupleDomainConsumer()
     {
         return this::addPartition;
     }
 
+    public Consumer<Map<String, BlockedBloomFilter>> getBloomFilterConsumer()
+    {
+        return this::addBloomFilters;
+    }
+
     @Override
     public String toString()
     {
         return toStringHelper(this)
                 .add("probeSymbols", probeSymbols)
                 .add("buildChannels", buildChannels)
+                .add("remoteFilterTypes", remoteFilterTypes)
                 .add("result", result)
+                .add("bloomFilters", bloomFilters)
                 .add("partitionsLeft", partitionsLeft)
                 .toString();
     }
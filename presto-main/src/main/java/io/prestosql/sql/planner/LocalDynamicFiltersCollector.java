@@ -13,6 +13,9 @@
  */
 package io.prestosql.sql.planner;
 
+import com.google.common.collect.Sets;
+import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.operator.BlockedBloomFilter;
 import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.predicate.TupleDomain;
 
@@ -24,6 +27,7 @@ import java.util.Map;
 import java.util.Set;
 
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static java.util.Objects.requireNonNull;
 
 @ThreadSafe
 class LocalDynamicFiltersCollector
@@ -35,6 +39,26 @@ class LocalDynamicFiltersCollector
     @GuardedBy("this")
     private Map<Symbol, Domain> dynamicFilterDomainsResult = new HashMap<>();
 
+    /**
+     * Bloom filters for dynamic filters whose build side was too large to be collected as a domain.
+     */
+    @GuardedBy("this")
+    private Map<Symbol, BlockedBloomFilter> bloomFiltersResult = new HashMap<>();
+
+    /**
+     * Tracks the memory of the bloom filters, which are kept until the task is done.
+     */
+    @GuardedBy("this")
+    private final LocalMemoryContext bloomFiltersMemoryContext;
+
+    @GuardedBy("this")
+    private boolean closed;
+
+    public LocalDynamicFiltersCollector(LocalMemoryContext bloomFiltersMemoryContext)
+    {
+        this.bloomFiltersMemoryContext = requireNonNull(bloomFiltersMemoryContext, "bloomFiltersMemoryContext is null");
+    }
+
     public synchronized TupleDomain<Symbol> getDynamicFilter(Set<Symbol> probeSymbols)
     {
         Map<Symbol, Domain> probeSymbolDomains = dynamicFilterDomainsResult.entrySet().stream()
@@ -49,4 +73,40 @@ class LocalDynamicFiltersCollector
             dynamicFilterDomainsResult.merge(entry.getKey(), entry.getValue(), Domain::intersect);
         }
     }
+
+    public synchronized Map<Symbol, BlockedBloomFilter> getBloomFilters(Set<Symbol> probeSymbols)
+    {
+        return bloomFiltersResult.entrySet().stream()
+                .filter(entry -> probeSymbols.contains(entry.getKey()))
+                .collect(toImmutableMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    public synchronized void addBloomFilters(Map<Symbol, BlockedBloomFilter> bloomFilters)
+    {
+        if (closed) {
+            return;
+        }
+        for (Map.Entry<Symbol, BlockedBloomFilter> entry : bloomFilters.entrySet()) {
+            bloomFiltersResult.merge(entry.getKey(), entry.getValue(), BlockedBloomFilter::intersect);
+        }
+        // a filter is shared by all the probe symbols of a dynamic filter
+        Set<BlockedBloomFilter> distinctBloomFilters = Sets.newIdentityHashSet();
+        distinctBloomFilters.addAll(bloomFiltersResult.values());
+        bloomFiltersMemoryContext.setBytes(distinctBloomFilters.stream()
+                .mapToLong(BlockedBloomFilter::getRetainedSizeInBytes)
+                .sum());
+    }
+
+    /**
+     * Drops the bloom filters and frees their memory, once the task is done.
+     */
+    public synchronized void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        bloomFiltersResult = new HashMap<>();
+        bloomFiltersMemoryContext.close();
+    }
 }
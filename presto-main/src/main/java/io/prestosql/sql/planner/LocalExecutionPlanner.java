@@ -36,12 +36,14 @@ import io.prestosql.execution.TaskManagerConfig;
 import io.prestosql.execution.buffer.OutputBuffer;
 import io.prestosql.execution.buffer.PagesSerdeFactory;
 import io.prestosql.index.IndexManager;
+import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.metadata.Metadata;
 import io.prestosql.metadata.ResolvedFunction;
 import io.prestosql.metadata.Signature;
 import io.prestosql.metadata.TableHandle;
 import io.prestosql.operator.AggregationOperator.AggregationOperatorFactory;
 import io.prestosql.operator.AssignUniqueIdOperator;
+import io.prestosql.operator.BlockedBloomFilter;
 import io.prestosql.operator.DeleteOperator.DeleteOperatorFactory;
 import io.prestosql.operator.DevNullOperator.DevNullOperatorFactory;
 import io.prestosql.operator.DriverFactory;
@@ -52,6 +54,8 @@ import io.prestosql.operator.ExchangeClientSupplier;
 import io.prestosql.operator.ExchangeOperator.ExchangeOperatorFactory;
 import io.prestosql.operator.ExplainAnalyzeOperator.ExplainAnalyzeOperatorFactory;
 import io.prestosql.operator.FilterAndProjectOperator;
+import io.prestosql.operator.FragmentResultCacheContext;
+import io.prestosql.operator.FragmentResultCacheManager;
 import io.prestosql.operator.GroupIdOperator;
 import io.prestosql.operator.HashAggregationOperator.HashAggregationOperatorFactory;
 import io.prestosql.operator.HashBuilderOperator.HashBuilderOperatorFactory;
@@ -101,6 +105,7 @@ import io.prestosql.operator.WorkProcessorPipelineSourceOperator;
 import io.prestosql.operator.aggregation.AccumulatorFactory;
 import io.prestosql.operator.aggregation.InternalAggregationFunction;
 import io.prestosql.operator.aggregation.LambdaProvider;
+import io.prestosql.operator.aggregation.partial.PartialAggregationController;
 import io.prestosql.operator.exchange.LocalExchange.LocalExchangeFactory;
 import io.prestosql.operator.exchange.LocalExchangeSinkOperator.LocalExchangeSinkOperatorFactory;
 import io.prestosql.operator.exchange.LocalExchangeSourceOperator.LocalExchangeSourceOperatorFactory;
@@ -124,6 +129,7 @@ import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ConnectorIndex;
 import io.prestosql.spi.connector.ConnectorSession;
 import io.prestosql.spi.connector.RecordSet;
+import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.predicate.NullableValue;
 import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.spi.type.Type;
@@ -141,6 +147,7 @@ import io.prestosql.sql.gen.JoinFilterFunctionCompiler.JoinFilterFunctionFactory
 import io.prestosql.sql.gen.OrderingCompiler;
 import io.prestosql.sql.gen.PageFunctionCompiler;
 import io.prestosql.sql.planner.optimizations.IndexJoinOptimizer;
+import io.prestosql.sql.planner.optimizations.PlanNodeSearcher;
 import io.prestosql.sql.planner.plan.AggregationNode;
 import io.prestosql.sql.planner.plan.AggregationNode.Aggregation;
 import io.prestosql.sql.planner.plan.AggregationNode.Step;
@@ -220,22 +227,31 @@ import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.DiscreteDomain.integers;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.collect.Range.closedOpen;
 import static io.airlift.concurrent.MoreFutures.addSuccessCallback;
+import static io.prestosql.SystemSessionProperties.getAdaptivePartialAggregationMinRows;
+import static io.prestosql.SystemSessionProperties.getAdaptivePartialAggregationUniqueRowsRatioThreshold;
 import static io.prestosql.SystemSessionProperties.getAggregationOperatorUnspillMemoryLimit;
+import static io.prestosql.SystemSessionProperties.getDynamicFilteringBloomFilterSize;
 import static io.prestosql.SystemSessionProperties.getDynamicFilteringMaxPerDriverRowCount;
 import static io.prestosql.SystemSessionProperties.getDynamicFilteringMaxPerDriverSize;
 import static io.prestosql.SystemSessionProperties.getFilterAndProjectMinOutputPageRowCount;
 import static io.prestosql.SystemSessionProperties.getFilterAndProjectMinOutputPageSize;
 import static io.prestosql.SystemSessionProperties.getTaskConcurrency;
 import static io.prestosql.SystemSessionProperties.getTaskWriterCount;
+import static io.prestosql.SystemSessionProperties.isAdaptivePartialAggregationEnabled;
 import static io.prestosql.SystemSessionProperties.isExchangeCompressionEnabled;
 import static io.prestosql.SystemSessionProperties.isLateMaterializationEnabled;
+import static io.prestosql.SystemSessionProperties.isSpillDistinctLimit;
 import static io.prestosql.SystemSessionProperties.isSpillEnabled;
+import static io.prestosql.SystemSessionProperties.isSpillMarkDistinct;
 import static io.prestosql.SystemSessionProperties.isSpillOrderBy;
+import static io.prestosql.SystemSessionProperties.isSpillRowNumber;
+import static io.prestosql.SystemSessionProperties.isSpillTopNRowNumber;
 import static io.prestosql.SystemSessionProperties.isSpillWindowOperator;
 import static io.prestosql.operator.DistinctLimitOperator.DistinctLimitOperatorFactory;
 import static io.prestosql.operator.NestedLoopBuildOperator.NestedLoopBuildOperatorFactory;
@@ -255,8 +271,11 @@ import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.TypeUtils.writeNativeValue;
 import static io.prestosql.spiller.PartitioningSpillerFactory.unsupportedPartitioningSpillerFactory;
 import static io.prestosql.sql.DynamicFilters.extractDynamicFilters;
+import static io.prestosql.sql.DynamicFilters.getRemoteDynamicFilters;
 import static io.prestosql.sql.ExpressionUtils.combineConjuncts;
+import static io.prestosql.sql.analyzer.ExpressionTreeUtils.extractExpressions;
 import static io.prestosql.sql.gen.LambdaBytecodeGenerator.compileLambdaProvider;
+import static io.prestosql.sql.planner.DeterminismEvaluator.isDeterministic;
 import static io.prestosql.sql.planner.ExpressionNodeInliner.replaceExpression;
 import static io.prestosql.sql.planner.SortExpressionExtractor.extractSortExpression;
 import static io.prestosql.sql.planner.SystemPartitioningHandle.COORDINATOR_DISTRIBUTION;
@@ -292,6 +311,8 @@ public class LocalExecutionPlanner
 {
     private static final Logger log = Logger.get(LocalExecutionPlanner.class);
 
+    private static final Set<String> QUERY_START_TIME_FUNCTIONS = ImmutableSet.of("current_date", "current_time", "current_timestamp", "now", "localtime", "localtimestamp");
+
     private final Metadata metadata;
     private final TypeAnalyzer typeAnalyzer;
     private final Optional<ExplainAnalyzeContext> explainAnalyzeContext;
@@ -315,6 +336,7 @@ public class LocalExecutionPlanner
     private final JoinCompiler joinCompiler;
     private final LookupJoinOperators lookupJoinOperators;
     private final OrderingCompiler orderingCompiler;
+    private final FragmentResultCacheManager fragmentResultCacheManager;
 
     @Inject
     public LocalExecutionPlanner(
@@ -337,7 +359,8 @@ public class LocalExecutionPlanner
             PagesIndex.Factory pagesIndexFactory,
             JoinCompiler joinCompiler,
             LookupJoinOperators lookupJoinOperators,
-            OrderingCompiler orderingCompiler)
+            OrderingCompiler orderingCompiler,
+            FragmentResultCacheManager fragmentResultCacheManager)
     {
         this.explainAnalyzeContext = requireNonNull(explainAnalyzeContext, "explainAnalyzeContext is null");
         this.pageSourceProvider = requireNonNull(pageSourceProvider, "pageSourceProvider is null");
@@ -362,6 +385,7 @@ public class LocalExecutionPlanner
         this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
         this.lookupJoinOperators = requireNonNull(lookupJoinOperators, "lookupJoinOperators is null");
         this.orderingCompiler = requireNonNull(orderingCompiler, "orderingCompiler is null");
+        this.fragmentResultCacheManager = requireNonNull(fragmentResultCacheManager, "fragmentResultCacheManager is null");
     }
 
     public LocalExecutionPlan plan(
@@ -458,7 +482,7 @@ public class LocalExecutionPlanner
         Session session = taskContext.getSession();
         LocalExecutionPlanContext context = new LocalExecutionPlanContext(taskContext, types);
 
-        PhysicalOperation physicalOperation = plan.accept(new Visitor(session, stageExecutionDescriptor), context);
+        PhysicalOperation physicalOperation = plan.accept(new Visitor(session, stageExecutionDescriptor, getRemoteDynamicFilters(plan)), context);
 
         Function<Page, Page> pagePreprocessor = enforceLayoutProcessor(outputLayout, physicalOperation.getLayout());
 
@@ -466,20 +490,33 @@ public class LocalExecutionPlanner
                 .map(types::get)
                 .collect(toImmutableList());
 
+        List<OperatorFactory> operatorFactories = ImmutableList.<OperatorFactory>builder()
+                .addAll(physicalOperation.getOperatorFactories())
+                .add(outputOperatorFactory.createOutputOperator(
+                        context.getNextOperatorId(),
+                        plan.getId(),
+                        outputTypes,
+                        pagePreprocessor,
+                        new PagesSerdeFactory(metadata.getBlockEncodingSerde(), isExchangeCompressionEnabled(session))))
+                .build();
+
+        Optional<FragmentResultCacheContext> fragmentResultCacheContext = Optional.empty();
+        // only a fragment planned as a single pipeline reading one partitioned source produces its results split by split
+        if (context.getDriverFactories().isEmpty() &&
+                partitionedSourceOrder.size() == 1 &&
+                !stageExecutionDescriptor.isStageGroupedExecution() &&
+                isFragmentResultCacheable(plan)) {
+            fragmentResultCacheContext = fragmentResultCacheManager.getPlanKey(plan, taskContext.getSession())
+                    .map(planKey -> new FragmentResultCacheContext(fragmentResultCacheManager, planKey, context.getNextOperatorId(), context.getNextOperatorId(), plan.getId()));
+        }
+
         context.addDriverFactory(
                 context.isInputDriver(),
                 true,
-                ImmutableList.<OperatorFactory>builder()
-                        .addAll(physicalOperation.getOperatorFactories())
-                        .add(outputOperatorFactory.createOutputOperator(
-                                context.getNextOperatorId(),
-                                plan.getId(),
-                                outputTypes,
-                                pagePreprocessor,
-                                new PagesSerdeFactory(metadata.getBlockEncodingSerde(), isExchangeCompressionEnabled(session))))
-                        .build(),
+                operatorFactories,
                 context.getDriverInstanceCount(),
-                physicalOperation.getPipelineExecutionStrategy());
+                physicalOperation.getPipelineExecutionStrategy(),
+                fragmentResultCacheContext);
 
         addLookupOuterDrivers(context);
 
@@ -494,6 +531,45 @@ public class LocalExecutionPlanner
         return new LocalExecutionPlan(context.getDriverFactories(), partitionedSourceOrder, stageExecutionDescriptor);
     }
 
+    private boolean isFragmentResultCacheable(PlanNode plan)
+    {
+        return PlanNodeSearcher.searchFrom(plan)
+                .where(node -> !isCacheableNode(node))
+                .findFirst()
+                .isEmpty();
+    }
+
+    private boolean isCacheableNode(PlanNode node)
+    {
+        // the results must only depend on the data read from the split
+        if (node instanceof TableScanNode) {
+            return true;
+        }
+        if (node instanceof FilterNode) {
+            Expression predicate = ((FilterNode) node).getPredicate();
+            return isCacheableExpression(predicate) && extractDynamicFilters(predicate).getDynamicConjuncts().isEmpty();
+        }
+        if (node instanceof ProjectNode) {
+            return ((ProjectNode) node).getAssignments().getExpressions().stream()
+                    .allMatch(this::isCacheableExpression);
+        }
+        if (node instanceof AggregationNode) {
+            return ((AggregationNode) node).getStep() == PARTIAL;
+        }
+        return false;
+    }
+
+    private boolean isCacheableExpression(Expression expression)
+    {
+        // the session state is part of the cache key, but the query start time is not
+        return isDeterministic(expression, metadata) &&
+                extractExpressions(ImmutableList.of(expression), FunctionCall.class).stream()
+                        .map(functionCall -> ResolvedFunction.fromQualifiedName(functionCall.getName()))
+                        .flatMap(Optional::stream)
+                        .map(function -> function.getSignature().getName())
+                        .noneMatch(QUERY_START_TIME_FUNCTIONS::contains);
+    }
+
     private static void addLookupOuterDrivers(LocalExecutionPlanContext context)
     {
         // For an outer join on the lookup side (RIGHT or FULL) add an additional
@@ -544,7 +620,19 @@ public class LocalExecutionPlanner
 
         public LocalExecutionPlanContext(TaskContext taskContext, TypeProvider types)
         {
-            this(taskContext, types, new ArrayList<>(), Optional.empty(), new LocalDynamicFiltersCollector(), new AtomicInteger(0));
+            this(
+                    taskContext,
+                    types,
+                    new ArrayList<>(),
+                    Optional.empty(),
+                    new LocalDynamicFiltersCollector(taskContext.getTaskMemoryContext().newSystemMemoryContext(LocalDynamicFiltersCollector.class.getSimpleName())),
+                    new AtomicInteger(0));
+            // the bloom filters are kept until the task is done
+            taskContext.addStateChangeListener(state -> {
+                if (state.isDone()) {
+                    dynamicFiltersCollector.close();
+                }
+            });
         }
 
         private LocalExecutionPlanContext(
@@ -564,6 +652,17 @@ public class LocalExecutionPlanner
         }
 
         public void addDriverFactory(boolean inputDriver, boolean outputDriver, List<OperatorFactory> operatorFactories, OptionalInt driverInstances, PipelineExecutionStrategy pipelineExecutionStrategy)
+        {
+            addDriverFactory(inputDriver, outputDriver, operatorFactories, driverInstances, pipelineExecutionStrategy, Optional.empty());
+        }
+
+        public void addDriverFactory(
+                boolean inputDriver,
+                boolean outputDriver,
+                List<OperatorFactory> operatorFactories,
+                OptionalInt driverInstances,
+                PipelineExecutionStrategy pipelineExecutionStrategy,
+                Optional<FragmentResultCacheContext> fragmentResultCacheContext)
         {
             if (pipelineExecutionStrategy == GROUPED_EXECUTION) {
                 OperatorFactory firstOperatorFactory = operatorFactories.get(0);
@@ -579,7 +678,7 @@ public class LocalExecutionPlanner
                 operatorFactories = WorkProcessorPipelineSourceOperator.convertOperators(getNextOperatorId(), operatorFactories);
             }
 
-            driverFactories.add(new DriverFactory(getNextPipelineId(), inputDriver, outputDriver, operatorFactories, driverInstances, pipelineExecutionStrategy));
+            driverFactories.add(new DriverFactory(getNextPipelineId(), inputDriver, outputDriver, operatorFactories, driverInstances, pipelineExecutionStrategy, fragmentResultCacheContext));
         }
 
         private List<DriverFactory> getDriverFactories()
@@ -592,6 +691,11 @@ public class LocalExecutionPlanner
             return taskContext.getSession();
         }
 
+        public TaskContext getTaskContext()
+        {
+            return taskContext;
+        }
+
         public StageId getStageId()
         {
             return taskContext.getTaskId().getStageId();
@@ -707,11 +811,14 @@ public class LocalExecutionPlanner
     {
         private final Session session;
         private final StageExecutionDescriptor stageExecutionDescriptor;
+        // dynamic filters produced in this plan fragment, but consumed by table scans in other stages
+        private final Set<String> remoteDynamicFilters;
 
-        private Visitor(Session session, StageExecutionDescriptor stageExecutionDescriptor)
+        private Visitor(Session session, StageExecutionDescriptor stageExecutionDescriptor, Set<String> remoteDynamicFilters)
         {
             this.session = session;
             this.stageExecutionDescriptor = stageExecutionDescriptor;
+            this.remoteDynamicFilters = ImmutableSet.copyOf(remoteDynamicFilters);
         }
 
         @Override
@@ -827,7 +934,9 @@ public class LocalExecutionPlanner
                     node.getMaxRowCountPerPartition(),
                     hashChannel,
                     10_000,
-                    joinCompiler);
+                    joinCompiler,
+                    isSpillEnabled(context.getSession()) && isSpillRowNumber(context.getSession()),
+                    partitioningSpillerFactory);
             return new PhysicalOperation(operatorFactory, outputMappings.build(), context, source);
         }
 
@@ -877,7 +986,9 @@ public class LocalExecutionPlanner
                     node.isPartial(),
                     hashChannel,
                     1000,
-                    joinCompiler);
+                    joinCompiler,
+                    isSpillEnabled(context.getSession()) && isSpillTopNRowNumber(context.getSession()),
+                    partitioningSpillerFactory);
 
             return new PhysicalOperation(operatorFactory, makeLayout(node), context, source);
         }
@@ -1056,7 +1167,9 @@ public class LocalExecutionPlanner
                     distinctChannels,
                     node.getLimit(),
                     hashChannel,
-                    joinCompiler);
+                    joinCompiler,
+                    isSpillEnabled(context.getSession()) && isSpillDistinctLimit(context.getSession()),
+                    partitioningSpillerFactory);
             return new PhysicalOperation(operatorFactory, makeLayout(node), context, source);
         }
 
@@ -1132,7 +1245,8 @@ public class LocalExecutionPlanner
 
             List<Integer> channels = getChannelsForSymbols(node.getDistinctSymbols(), source.getLayout());
             Optional<Integer> hashChannel = node.getHashSymbol().map(channelGetter(source));
-            MarkDistinctOperatorFactory operator = new MarkDistinctOperatorFactory(context.getNextOperatorId(), node.getId(), source.getTypes(), channels, hashChannel, joinCompiler);
+            boolean spillEnabled = isSpillEnabled(context.getSession()) && isSpillMarkDistinct(context.getSession());
+            MarkDistinctOperatorFactory operator = new MarkDistinctOperatorFactory(context.getNextOperatorId(), node.getId(), source.getTypes(), channels, hashChannel, joinCompiler, spillEnabled, partitioningSpillerFactory);
             return new PhysicalOperation(operator, makeLayout(node), context, source);
         }
 
@@ -1245,6 +1359,7 @@ public class LocalExecutionPlanner
                     .filter(expression -> sourceNode instanceof TableScanNode)
                     .map(expression -> getDynamicFilter((TableScanNode) sourceNode, expression, context))
                     .orElse(TupleDomain::all);
+            Supplier<Map<Integer, BlockedBloomFilter>> bloomFiltersSupplier = getBloomFilters(sourceNode, filterExpression, sourceLayout, context);
 
             List<Expression> projections = new ArrayList<>();
             for (Symbol symbol : outputSymbols) {
@@ -1276,6 +1391,7 @@ public class LocalExecutionPlanner
                             table,
                             columns,
                             dynamicFilterSupplier,
+                            bloomFiltersSupplier,
                             getTypes(projections, expressionTypes),
                             getFilterAndProjectMinOutputPageSize(session),
                             getFilterAndProjectMinOutputPageRowCount(session));
@@ -1348,12 +1464,49 @@ public class LocalExecutionPlanner
                 return TupleDomain::all;
             }
             log.debug("[TableScan] Dynamic filters: %s", dynamicFilters);
+            TaskContext taskContext = context.getTaskContext();
             return () -> {
                 TupleDomain<Symbol> predicate = context.getDynamicFiltersCollector().getDynamicFilter(tableScanNode.getAssignments().keySet());
-                return predicate.transform(tableScanNode.getAssignments()::get);
+                TupleDomain<Symbol> remotePredicate = getRemoteDynamicFilter(tableScanNode, dynamicFilters, taskContext.getRemoteDynamicFilterDomains());
+                return predicate.intersect(remotePredicate).transform(tableScanNode.getAssignments()::get);
             };
         }
 
+        private Supplier<Map<Integer, BlockedBloomFilter>> getBloomFilters(
+                PlanNode sourceNode,
+                Optional<Expression> filterExpression,
+                Map<Symbol, Integer> sourceLayout,
+                LocalExecutionPlanContext context)
+        {
+            if (!(sourceNode instanceof TableScanNode) || filterExpression.isEmpty() || extractDynamicFilters(filterExpression.get()).getDynamicConjuncts().isEmpty()) {
+                return ImmutableMap::of;
+            }
+            // Bloom filters are applied to the pages produced by the table scan, so they are keyed by input channel
+            Map<Symbol, Integer> layout = ImmutableMap.copyOf(sourceLayout);
+            return () -> context.getDynamicFiltersCollector().getBloomFilters(layout.keySet()).entrySet().stream()
+                    .collect(toImmutableMap(entry -> layout.get(entry.getKey()), Map.Entry::getValue));
+        }
+
+        private TupleDomain<Symbol> getRemoteDynamicFilter(TableScanNode tableScanNode, List<DynamicFilters.Descriptor> dynamicFilters, Map<String, Domain> remoteDomains)
+        {
+            if (remoteDomains.isEmpty()) {
+                return TupleDomain.all();
+            }
+            // Dynamic filters collected by the coordinator from the build side of a join in a different stage
+            ImmutableMap.Builder<Symbol, Domain> domains = ImmutableMap.builder();
+            for (DynamicFilters.Descriptor descriptor : dynamicFilters) {
+                Domain domain = remoteDomains.get(descriptor.getId());
+                if (domain == null || !(descriptor.getInput() instanceof SymbolReference)) {
+                    continue;
+                }
+                Symbol probeSymbol = Symbol.from(descriptor.getInput());
+                if (tableScanNode.getAssignments().containsKey(probeSymbol)) {
+                    domains.put(probeSymbol, domain);
+                }
+            }
+            return TupleDomain.withColumnDomains(domains.build());
+        }
+
         @Override
         public PhysicalOperation visitValues(ValuesNode node, LocalExecutionPlanContext context)
         {
@@ -2113,9 +2266,11 @@ public class LocalExecutionPlanner
                     context.getNextOperatorId(),
                     node.getId(),
                     dynamicFilter.getTupleDomainConsumer(),
+                    dynamicFilter.getBloomFilterConsumer(),
                     filterBuildChannels,
                     getDynamicFilteringMaxPerDriverRowCount(context.getSession()),
-                    getDynamicFilteringMaxPerDriverSize(context.getSession()));
+                    getDynamicFilteringMaxPerDriverSize(context.getSession()),
+                    getDynamicFilteringBloomFilterSize(context.getSession()));
         }
 
         private Optional<LocalDynamicFilter> createDynamicFilter(PhysicalOperation buildSource, JoinNode node, LocalExecutionPlanContext context, int partitionCount)
@@ -2128,12 +2283,22 @@ public class LocalExecutionPlanner
                     "Dynamic filtering cannot be used with grouped execution");
             log.debug("[Join] Dynamic filters: %s", node.getDynamicFilters());
             LocalDynamicFiltersCollector collector = context.getDynamicFiltersCollector();
+            TaskContext taskContext = context.getTaskContext();
+            LocalMemoryContext bloomFiltersMemoryContext = taskContext.getTaskMemoryContext().newSystemMemoryContext(LocalDynamicFilter.class.getSimpleName());
             return LocalDynamicFilter
-                    .create(node, context.getTypes(), partitionCount)
+                    .create(node, remoteDynamicFilters, context.getTypes(), partitionCount, bloomFiltersMemoryContext)
                     .map(filter -> {
+                        taskContext.addStateChangeListener(state -> {
+                            if (state.isDone()) {
+                                filter.close();
+                            }
+                        });
                         // Intersect dynamic filters' predicates when they become ready,
                         // in order to support multiple join nodes in the same plan fragment.
                         addSuccessCallback(filter.getResultFuture(), collector::addDynamicFilter);
+                        addSuccessCallback(filter.getBloomFilterResultFuture(), collector::addBloomFilters);
+                        // Dynamic filters consumed by other stages are merged on the coordinator.
+                        addSuccessCallback(filter.getRemoteResultFuture(), taskContext::collectDynamicFilterDomains);
                         return filter;
                     });
         }
@@ -2837,6 +3002,12 @@ public class LocalExecutionPlanner
             }
             else {
                 Optional<Integer> hashChannel = hashSymbol.map(channelGetter(source));
+                Optional<PartialAggregationController> partialAggregationController = Optional.empty();
+                if (step == PARTIAL && isAdaptivePartialAggregationEnabled(context.getSession())) {
+                    partialAggregationController = Optional.of(new PartialAggregationController(
+                            getAdaptivePartialAggregationMinRows(context.getSession()),
+                            getAdaptivePartialAggregationUniqueRowsRatioThreshold(context.getSession())));
+                }
                 return new HashAggregationOperatorFactory(
                         context.getNextOperatorId(),
                         planNodeId,
@@ -2850,6 +3021,7 @@ public class LocalExecutionPlanner
                         groupIdChannel,
                         expectedGroups,
                         maxPartialAggregationMemorySize,
+                        partialAggregationController,
                         spillEnabled,
                         unspillMemoryLimit,
                         spillerFactory,
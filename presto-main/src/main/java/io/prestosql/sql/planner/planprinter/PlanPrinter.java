@@ -30,6 +30,8 @@ import io.prestosql.execution.TableInfo;
 import io.prestosql.metadata.Metadata;
 import io.prestosql.metadata.ResolvedFunction;
 import io.prestosql.metadata.TableHandle;
+import io.prestosql.operator.OperatorStats;
+import io.prestosql.operator.PartitionedOutputOperator.PartitionedOutputInfo;
 import io.prestosql.operator.StageExecutionDescriptor;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.predicate.Domain;
@@ -129,8 +131,10 @@ import static io.prestosql.execution.StageInfo.getAllStages;
 import static io.prestosql.operator.StageExecutionDescriptor.ungroupedExecution;
 import static io.prestosql.sql.DynamicFilters.extractDynamicFilters;
 import static io.prestosql.sql.ExpressionUtils.combineConjunctsWithDuplicates;
+import static io.prestosql.sql.planner.SystemPartitioningHandle.FIXED_BROADCAST_DISTRIBUTION;
 import static io.prestosql.sql.planner.SystemPartitioningHandle.SINGLE_DISTRIBUTION;
 import static io.prestosql.sql.planner.planprinter.PlanNodeStatsSummarizer.aggregateStageStats;
+import static io.prestosql.sql.planner.planprinter.TextRenderer.formatAsDataSize;
 import static io.prestosql.sql.planner.planprinter.TextRenderer.formatDouble;
 import static io.prestosql.sql.planner.planprinter.TextRenderer.formatPositions;
 import static io.prestosql.sql.planner.planprinter.TextRenderer.indentString;
@@ -296,6 +300,34 @@ public class PlanPrinter
                             formatDouble(sdAmongTasks),
                             formatPositions(stageStats.getOutputPositions()),
                             stageStats.getOutputDataSize()));
+
+            Optional<PartitionedOutputInfo> partitionedOutputInfo = stageStats.getOperatorSummaries().stream()
+                    .map(OperatorStats::getInfo)
+                    .filter(PartitionedOutputInfo.class::isInstance)
+                    .map(PartitionedOutputInfo.class::cast)
+                    .reduce(PartitionedOutputInfo::mergeWith);
+            if (partitionedOutputInfo.isPresent() && partitionedOutputInfo.get().getPartitionRowsAdded().length > 1) {
+                PartitionedOutputInfo info = partitionedOutputInfo.get();
+                builder.append(indentString(1))
+                        .append(format("Output partition skew: %s, max rows per partition: %s",
+                                formatDouble(info.getPartitionSkew()),
+                                formatPositions(info.getMaxPartitionRowsAdded())));
+                List<Integer> heavyHitterPartitions = info.getHeavyHitterPartitions();
+                if (!heavyHitterPartitions.isEmpty()) {
+                    builder.append(format(", heavy hitter partitions: %s", heavyHitterPartitions));
+                }
+                builder.append("\n");
+            }
+
+            if (fragment.getPartitioningScheme().getPartitioning().getHandle().equals(FIXED_BROADCAST_DISTRIBUTION)) {
+                // the broadcast decision is made on the estimated size, so show how far off the estimate was
+                PlanNodeStatsEstimate estimate = fragment.getStatsAndCosts().getStats().getOrDefault(fragment.getRoot().getId(), PlanNodeStatsEstimate.unknown());
+                double estimatedSize = estimate.getOutputSizeInBytes(fragment.getPartitioningScheme().getOutputLayout(), TypeProvider.copyOf(fragment.getSymbols()));
+                builder.append(indentString(1))
+                        .append(format("Broadcast output: %s, estimated: %s\n",
+                                stageStats.getOutputDataSize(),
+                                formatAsDataSize(estimatedSize)));
+            }
         }
 
         PartitioningScheme partitioningScheme = fragment.getPartitioningScheme();
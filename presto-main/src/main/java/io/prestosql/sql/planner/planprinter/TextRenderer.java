@@ -295,7 +295,7 @@ public class TextRenderer
         return formatAsDataSize(value).replaceAll("B$", "");
     }
 
-    private static String formatAsDataSize(double value)
+    static String formatAsDataSize(double value)
     {
         if (isNaN(value)) {
             return "?";
@@ -37,7 +37,9 @@ import io.prestosql.metadata.InternalNode;
 import io.prestosql.metadata.Split;
 import io.prestosql.operator.TaskContext;
 import io.prestosql.operator.TaskStats;
+import io.prestosql.spi.SplitWeight;
 import io.prestosql.spi.memory.MemoryPoolId;
+import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spiller.SpillSpaceTracker;
 import io.prestosql.sql.planner.Partitioning;
 import io.prestosql.sql.planner.PartitioningScheme;
@@ -74,6 +76,7 @@ import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.SessionTestUtils.TEST_SESSION;
 import static io.prestosql.execution.StateMachine.StateChangeListener;
+import static io.prestosql.execution.TaskStatus.INITIAL_DYNAMIC_FILTERS_VERSION;
 import static io.prestosql.execution.buffer.OutputBuffers.BufferType.BROADCAST;
 import static io.prestosql.execution.buffer.OutputBuffers.createInitialEmptyOutputBuffers;
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
@@ -205,7 +208,7 @@ public class MockRemoteTaskFactory
             this.nodeId = requireNonNull(nodeId, "nodeId is null");
             splits.putAll(initialSplits);
             this.partitionedSplitCountTracker = requireNonNull(partitionedSplitCountTracker, "partitionedSplitCountTracker is null");
-            partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
+            partitionedSplitCountTracker.setPartitionedSplits(getPartitionedSplitsInfo());
             updateSplitQueueSpace();
         }
 
@@ -242,13 +245,17 @@ public class MockRemoteTaskFactory
                             failures,
                             0,
                             0,
+                            0,
+                            0,
                             false,
                             DataSize.ofBytes(0),
                             DataSize.ofBytes(0),
                             DataSize.ofBytes(0),
                             DataSize.ofBytes(0),
                             0,
-                            new Duration(0, MILLISECONDS)),
+                            new Duration(0, MILLISECONDS),
+                            INITIAL_DYNAMIC_FILTERS_VERSION,
+                            ImmutableMap.of()),
                     DateTime.now(),
                     outputBuffer.getInfo(),
                     ImmutableSet.of(),
@@ -270,18 +277,22 @@ public class MockRemoteTaskFactory
                     ImmutableList.of(),
                     stats.getQueuedPartitionedDrivers(),
                     stats.getRunningPartitionedDrivers(),
+                    SplitWeight.rawValueForStandardSplitCount(stats.getQueuedPartitionedDrivers()),
+                    SplitWeight.rawValueForStandardSplitCount(stats.getRunningPartitionedDrivers()),
                     false,
                     stats.getPhysicalWrittenDataSize(),
                     stats.getUserMemoryReservation(),
                     stats.getSystemMemoryReservation(),
                     stats.getRevocableMemoryReservation(),
                     0,
-                    new Duration(0, MILLISECONDS));
+                    new Duration(0, MILLISECONDS),
+                    taskContext.getDynamicFiltersVersion(),
+                    taskContext.getDynamicFilterDomains());
         }
 
         private synchronized void updateSplitQueueSpace()
         {
-            if (getQueuedPartitionedSplitCount() < 9) {
+            if (getQueuedPartitionedSplitsInfo().getCount() < 9) {
                 if (!whenSplitQueueHasSpace.isDone()) {
                     whenSplitQueueHasSpace.set(null);
                 }
@@ -309,7 +320,7 @@ public class MockRemoteTaskFactory
         public synchronized void clearSplits()
         {
             splits.clear();
-            partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
+            partitionedSplitCountTracker.setPartitionedSplits(getPartitionedSplitsInfo());
             runningDrivers = 0;
             updateSplitQueueSpace();
         }
@@ -337,7 +348,7 @@ public class MockRemoteTaskFactory
             synchronized (this) {
                 this.splits.putAll(splits);
             }
-            partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
+            partitionedSplitCountTracker.setPartitionedSplits(getPartitionedSplitsInfo());
             updateSplitQueueSpace();
         }
 
@@ -368,6 +379,12 @@ public class MockRemoteTaskFactory
             outputBuffer.setOutputBuffers(outputBuffers);
         }
 
+        @Override
+        public void addDynamicFilterDomains(Map<String, Domain> dynamicFilterDomains)
+        {
+            taskContext.addRemoteDynamicFilterDomains(dynamicFilterDomains);
+        }
+
         @Override
         public void addStateChangeListener(StateChangeListener<TaskStatus> stateChangeListener)
         {
@@ -388,7 +405,7 @@ public class MockRemoteTaskFactory
         }
 
         @Override
-        public synchronized ListenableFuture<?> whenSplitQueueHasSpace(int threshold)
+        public synchronized ListenableFuture<?> whenSplitQueueHasSpace(long weightThreshold)
         {
             return nonCancellationPropagating(whenSplitQueueHasSpace);
         }
@@ -407,28 +424,36 @@ public class MockRemoteTaskFactory
         }
 
         @Override
-        public int getPartitionedSplitCount()
+        public PartitionedSplitsInfo getPartitionedSplitsInfo()
         {
             if (taskStateMachine.getState().isDone()) {
-                return 0;
+                return PartitionedSplitsInfo.forZeroSplits();
             }
             synchronized (this) {
                 int count = 0;
+                long weight = 0;
                 for (PlanNodeId partitionedSource : fragment.getPartitionedSources()) {
                     Collection<Split> partitionedSplits = splits.get(partitionedSource);
                     count += partitionedSplits.size();
+                    weight += SplitWeight.rawValueSum(partitionedSplits, Split::getSplitWeight);
                 }
-                return count;
+                return PartitionedSplitsInfo.forSplitCountAndWeightSum(count, weight);
             }
         }
 
         @Override
-        public synchronized int getQueuedPartitionedSplitCount()
+        public synchronized PartitionedSplitsInfo getQueuedPartitionedSplitsInfo()
         {
             if (taskStateMachine.getState().isDone()) {
-                return 0;
+                return PartitionedSplitsInfo.forZeroSplits();
+            }
+            PartitionedSplitsInfo splitsInfo = getPartitionedSplitsInfo();
+            int queuedCount = splitsInfo.getCount() - runningDrivers;
+            if (queuedCount <= 0) {
+                return PartitionedSplitsInfo.forZeroSplits();
             }
-            return getPartitionedSplitCount() - runningDrivers;
+            // running splits are not tracked individually, so assume they have the average weight
+            return PartitionedSplitsInfo.forSplitCountAndWeightSum(queuedCount, splitsInfo.getWeightSum() * queuedCount / splitsInfo.getCount());
         }
     }
 }
@@ -323,7 +323,7 @@ public class TestNodeScheduler
         remoteTask1.abort();
         remoteTask2.abort();
 
-        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(newNode), 0);
+        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(newNode).getCount(), 0);
     }
 
     @Test
@@ -369,7 +369,7 @@ public class TestNodeScheduler
         for (RemoteTask task : tasks) {
             task.abort();
         }
-        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(newNode), 0);
+        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(newNode).getCount(), 0);
     }
 
     @Test
@@ -386,13 +386,13 @@ public class TestNodeScheduler
                 ImmutableList.of(new Split(CONNECTOR_ID, new TestSplitRemote(), Lifespan.taskWide())),
                 nodeTaskMap.createPartitionedSplitCountTracker(chosenNode, taskId));
         nodeTaskMap.addTask(chosenNode, remoteTask);
-        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(chosenNode), 1);
+        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(chosenNode).getCount(), 1);
         remoteTask.abort();
         MILLISECONDS.sleep(100); // Sleep until cache expires
-        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(chosenNode), 0);
+        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(chosenNode).getCount(), 0);
 
         remoteTask.abort();
-        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(chosenNode), 0);
+        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(chosenNode).getCount(), 0);
     }
 
     @Test
@@ -419,12 +419,12 @@ public class TestNodeScheduler
 
         nodeTaskMap.addTask(chosenNode, remoteTask1);
         nodeTaskMap.addTask(chosenNode, remoteTask2);
-        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(chosenNode), 3);
+        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(chosenNode).getCount(), 3);
 
         remoteTask1.abort();
-        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(chosenNode), 1);
+        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(chosenNode).getCount(), 1);
         remoteTask2.abort();
-        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(chosenNode), 0);
+        assertEquals(nodeTaskMap.getPartitionedSplitsOnNode(chosenNode).getCount(), 0);
     }
 
     @Test
@@ -708,6 +708,71 @@ public class TestNodeScheduler
         assertTrue(assignments3.isEmpty());
     }
 
+    @Test
+    public void testSoftAffinityScheduling()
+    {
+        setUpNodes();
+        UniformNodeSelectorFactory nodeSelectorFactory = new UniformNodeSelectorFactory(
+                nodeManager,
+                new NodeSchedulerConfig()
+                        .setMaxSplitsPerNode(20)
+                        .setIncludeCoordinator(false)
+                        .setMaxPendingSplitsPerTask(10)
+                        .setSoftAffinityScheduling(true),
+                nodeTaskMap);
+
+        Set<Split> splits = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            splits.add(new Split(CONNECTOR_ID, new TestSplitAffinity("file" + i), Lifespan.taskWide()));
+        }
+
+        // splits reading the same data are placed on the same node by every node selector
+        Map<String, InternalNode> firstPlacement = affinityPlacement(nodeSelectorFactory.createNodeSelector(Optional.of(CONNECTOR_ID)).computeAssignments(splits, ImmutableList.of()).getAssignments());
+        Map<String, InternalNode> secondPlacement = affinityPlacement(nodeSelectorFactory.createNodeSelector(Optional.of(CONNECTOR_ID)).computeAssignments(splits, ImmutableList.of()).getAssignments());
+        assertEquals(firstPlacement.size(), 30);
+        assertEquals(secondPlacement, firstPlacement);
+        assertEquals(nodeSelectorFactory.getPlacementCountersByName().get("affinity_hit").getTotalCount(), 60);
+        assertEquals(nodeSelectorFactory.getPlacementCountersByName().get("affinity_miss").getTotalCount(), 0);
+
+        // a new node only takes over keys from existing nodes
+        InternalNode newNode = new InternalNode("other4", URI.create("http://10.0.0.1:14"), NodeVersion.UNKNOWN, false);
+        nodeManager.addNode(CONNECTOR_ID, newNode);
+        Map<String, InternalNode> placementWithNewNode = affinityPlacement(nodeSelectorFactory.createNodeSelector(Optional.of(CONNECTOR_ID)).computeAssignments(splits, ImmutableList.of()).getAssignments());
+        for (Map.Entry<String, InternalNode> entry : placementWithNewNode.entrySet()) {
+            if (!entry.getValue().equals(newNode)) {
+                assertEquals(entry.getValue(), firstPlacement.get(entry.getKey()));
+            }
+        }
+
+        // max out the preferred node of a split, which is then scheduled on another node
+        Split split = new Split(CONNECTOR_ID, new TestSplitAffinity("file0"), Lifespan.taskWide());
+        InternalNode preferredNode = placementWithNewNode.get("file0");
+        ImmutableList.Builder<Split> initialSplits = ImmutableList.builder();
+        for (int i = 0; i < 20; i++) {
+            initialSplits.add(new Split(CONNECTOR_ID, new TestSplitRemote(), Lifespan.taskWide()));
+        }
+        MockRemoteTaskFactory remoteTaskFactory = new MockRemoteTaskFactory(remoteTaskExecutor, remoteTaskScheduledExecutor);
+        TaskId taskId = new TaskId("test", 1, 1);
+        RemoteTask remoteTask = remoteTaskFactory.createTableScanTask(taskId, preferredNode, initialSplits.build(), nodeTaskMap.createPartitionedSplitCountTracker(preferredNode, taskId));
+        nodeTaskMap.addTask(preferredNode, remoteTask);
+
+        Multimap<InternalNode, Split> assignments = nodeSelectorFactory.createNodeSelector(Optional.of(CONNECTOR_ID)).computeAssignments(ImmutableSet.of(split), ImmutableList.of()).getAssignments();
+        assertEquals(assignments.size(), 1);
+        assertFalse(assignments.containsKey(preferredNode));
+        assertEquals(nodeSelectorFactory.getPlacementCountersByName().get("affinity_miss").getTotalCount(), 1);
+
+        remoteTask.abort();
+    }
+
+    private static Map<String, InternalNode> affinityPlacement(Multimap<InternalNode, Split> assignments)
+    {
+        Map<String, InternalNode> placement = new HashMap<>();
+        for (Map.Entry<InternalNode, Split> entry : assignments.entries()) {
+            placement.put(entry.getValue().getAffinityKey().get(), entry.getKey());
+        }
+        return placement;
+    }
+
     private static class TestSplitLocal
             implements ConnectorSplit
     {
@@ -790,6 +855,41 @@ public class TestNodeScheduler
         }
     }
 
+    private static class TestSplitAffinity
+            implements ConnectorSplit
+    {
+        private final String affinityKey;
+
+        TestSplitAffinity(String affinityKey)
+        {
+            this.affinityKey = requireNonNull(affinityKey, "affinityKey is null");
+        }
+
+        @Override
+        public boolean isRemotelyAccessible()
+        {
+            return true;
+        }
+
+        @Override
+        public List<HostAddress> getAddresses()
+        {
+            return ImmutableList.of();
+        }
+
+        @Override
+        public Object getInfo()
+        {
+            return this;
+        }
+
+        @Override
+        public Optional<String> getAffinityKey()
+        {
+            return Optional.of(affinityKey);
+        }
+    }
+
     private static class TestNetworkTopology
             implements NetworkTopology
     {
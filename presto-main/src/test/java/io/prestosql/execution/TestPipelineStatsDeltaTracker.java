@@ -0,0 +1,145 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import io.airlift.json.ObjectMapperProvider;
+import io.prestosql.operator.PipelineStats;
+import io.prestosql.operator.TestPipelineStats;
+import io.prestosql.operator.TestTaskStats;
+import org.testng.annotations.Test;
+
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.prestosql.execution.TaskInfo.createInitialTask;
+import static io.prestosql.execution.TaskState.FINISHED;
+import static io.prestosql.execution.TaskStatus.failWith;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+public class TestPipelineStatsDeltaTracker
+{
+    private static final ObjectMapper MAPPER = new ObjectMapperProvider().get();
+
+    private static final PipelineStats PIPELINE_0 = pipelineStats(0, 1);
+    private static final PipelineStats PIPELINE_1 = pipelineStats(1, 1);
+
+    @Test
+    public void testDelta()
+    {
+        PipelineStatsDeltaTracker tracker = new PipelineStatsDeltaTracker();
+
+        // the first version always has all the pipelines
+        TaskInfo full = tracker.toDelta(taskInfo(PIPELINE_0, PIPELINE_1), 0);
+        assertEquals(full.getPipelineStatsVersion(), 1);
+        assertEquals(full.getPipelineStatsBaseVersion(), OptionalLong.empty());
+        assertEquals(pipelineIds(full), ImmutableList.of(0, 1));
+
+        // no pipeline made progress
+        TaskInfo delta = tracker.toDelta(taskInfo(PIPELINE_0, PIPELINE_1), 1);
+        assertEquals(delta.getPipelineStatsVersion(), 2);
+        assertEquals(delta.getPipelineStatsBaseVersion(), OptionalLong.of(1));
+        assertEquals(pipelineIds(delta), ImmutableList.of());
+
+        TaskInfo merged = full.mergePipelineStatsDelta(delta);
+        assertEquals(merged.getPipelineStatsVersion(), 2);
+        assertEquals(merged.getPipelineStatsBaseVersion(), OptionalLong.empty());
+        assertSame(merged.getStats().getPipelines().get(0), PIPELINE_0);
+        assertSame(merged.getStats().getPipelines().get(1), PIPELINE_1);
+
+        // pipeline 1 made progress, and pipeline 2 was created
+        PipelineStats progressedPipeline1 = pipelineStats(1, 2);
+        PipelineStats pipeline2 = pipelineStats(2, 1);
+        delta = tracker.toDelta(taskInfo(PIPELINE_0, progressedPipeline1, pipeline2), 2);
+        assertEquals(delta.getPipelineStatsVersion(), 3);
+        assertEquals(delta.getPipelineStatsBaseVersion(), OptionalLong.of(2));
+        assertEquals(pipelineIds(delta), ImmutableList.of(1, 2));
+
+        merged = merged.mergePipelineStatsDelta(delta);
+        assertEquals(merged.getPipelineStatsVersion(), 3);
+        assertEquals(pipelineIds(merged), ImmutableList.of(0, 1, 2));
+        assertSame(merged.getStats().getPipelines().get(0), PIPELINE_0);
+        assertSame(merged.getStats().getPipelines().get(1), progressedPipeline1);
+        assertSame(merged.getStats().getPipelines().get(2), pipeline2);
+    }
+
+    @Test
+    public void testUnknownBaseVersion()
+    {
+        PipelineStatsDeltaTracker tracker = new PipelineStatsDeltaTracker();
+        tracker.toDelta(taskInfo(PIPELINE_0, PIPELINE_1), 0);
+        tracker.toDelta(taskInfo(PIPELINE_0, PIPELINE_1), 1);
+
+        // only the last version is known
+        TaskInfo full = tracker.toDelta(taskInfo(PIPELINE_0, PIPELINE_1), 1);
+        assertEquals(full.getPipelineStatsVersion(), 3);
+        assertEquals(full.getPipelineStatsBaseVersion(), OptionalLong.empty());
+        assertEquals(pipelineIds(full), ImmutableList.of(0, 1));
+
+        full = tracker.toDelta(taskInfo(PIPELINE_0, PIPELINE_1), 5);
+        assertEquals(full.getPipelineStatsVersion(), 4);
+        assertEquals(full.getPipelineStatsBaseVersion(), OptionalLong.empty());
+        assertEquals(pipelineIds(full), ImmutableList.of(0, 1));
+    }
+
+    @Test
+    public void testFinalTaskInfo()
+    {
+        PipelineStatsDeltaTracker tracker = new PipelineStatsDeltaTracker();
+        tracker.toDelta(taskInfo(PIPELINE_0, PIPELINE_1), 0);
+
+        TaskInfo taskInfo = taskInfo(PIPELINE_0, PIPELINE_1);
+        TaskInfo finalTaskInfo = tracker.toDelta(taskInfo.withTaskStatus(failWith(taskInfo.getTaskStatus(), FINISHED, ImmutableList.of())), 1);
+        assertEquals(finalTaskInfo.getPipelineStatsVersion(), 2);
+        assertEquals(finalTaskInfo.getPipelineStatsBaseVersion(), OptionalLong.empty());
+        assertEquals(pipelineIds(finalTaskInfo), ImmutableList.of(0, 1));
+    }
+
+    private static TaskInfo taskInfo(PipelineStats... pipelines)
+    {
+        return createInitialTask(
+                new TaskId("query", 1, 2),
+                URI.create("http://localhost"),
+                "node",
+                ImmutableList.of(),
+                TestTaskStats.EXPECTED.withPipelines(ImmutableList.copyOf(pipelines)));
+    }
+
+    private static List<Integer> pipelineIds(TaskInfo taskInfo)
+    {
+        return taskInfo.getStats().getPipelines().stream()
+                .map(PipelineStats::getPipelineId)
+                .collect(toImmutableList());
+    }
+
+    private static PipelineStats pipelineStats(int pipelineId, int completedDrivers)
+    {
+        ObjectNode pipelineStats = MAPPER.valueToTree(TestPipelineStats.EXPECTED);
+        pipelineStats.put("pipelineId", pipelineId);
+        pipelineStats.put("completedDrivers", completedDrivers);
+        try {
+            return MAPPER.treeToValue(pipelineStats, PipelineStats.class);
+        }
+        catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
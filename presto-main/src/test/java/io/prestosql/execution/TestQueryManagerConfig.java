@@ -32,6 +32,7 @@ public class TestQueryManagerConfig
         assertRecordedDefaults(recordDefaults(QueryManagerConfig.class)
                 .setMinQueryExpireAge(new Duration(15, TimeUnit.MINUTES))
                 .setMaxQueryHistory(100)
+                .setPreparedStatementCacheSize(0)
                 .setMaxQueryLength(1_000_000)
                 .setMaxStageCount(100)
                 .setStageCountWarningThreshold(50)
@@ -60,6 +61,7 @@ public class TestQueryManagerConfig
                 .put("query.client.timeout", "10s")
                 .put("query.min-expire-age", "30s")
                 .put("query.max-history", "10")
+                .put("query.prepared-statement-cache-size", "1000")
                 .put("query.max-length", "10000")
                 .put("query.max-stage-count", "12345")
                 .put("query.stage-count-warning-threshold", "12300")
@@ -83,6 +85,7 @@ public class TestQueryManagerConfig
         QueryManagerConfig expected = new QueryManagerConfig()
                 .setMinQueryExpireAge(new Duration(30, TimeUnit.SECONDS))
                 .setMaxQueryHistory(10)
+                .setPreparedStatementCacheSize(1000)
                 .setMaxQueryLength(10000)
                 .setMaxStageCount(12345)
                 .setStageCountWarningThreshold(12300)
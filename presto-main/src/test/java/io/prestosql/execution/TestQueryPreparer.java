@@ -13,10 +13,12 @@
  */
 package io.prestosql.execution;
 
+import com.google.common.collect.ImmutableList;
 import io.prestosql.Session;
 import io.prestosql.execution.QueryPreparer.PreparedQuery;
 import io.prestosql.sql.parser.SqlParser;
 import io.prestosql.sql.tree.AllColumns;
+import io.prestosql.sql.tree.LongLiteral;
 import io.prestosql.sql.tree.QualifiedName;
 import org.testng.annotations.Test;
 
@@ -29,6 +31,8 @@ import static io.prestosql.sql.QueryUtil.table;
 import static io.prestosql.testing.TestingSession.testSessionBuilder;
 import static io.prestosql.testing.assertions.PrestoExceptionAssert.assertPrestoExceptionThrownBy;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
 
 public class TestQueryPreparer
 {
@@ -54,6 +58,24 @@ public class TestQueryPreparer
                 simpleQuery(selectList(new AllColumns()), table(QualifiedName.of("foo"))));
     }
 
+    @Test
+    public void testExecuteStatementCache()
+    {
+        QueryPreparer queryPreparer = new QueryPreparer(SQL_PARSER, 10);
+        Session session = testSessionBuilder()
+                .addPreparedStatement("my_query", "SELECT * FROM foo where col1 = ?")
+                .addPreparedStatement("other_query", "SELECT * FROM foo where col1 = ?")
+                .build();
+        PreparedQuery preparedQuery = queryPreparer.prepareQuery(session, "EXECUTE my_query USING 1");
+
+        // executions of the same statement text share the parsed statement, but not the parameters
+        PreparedQuery otherPreparedQuery = queryPreparer.prepareQuery(session, "EXECUTE other_query USING 2");
+        assertSame(otherPreparedQuery.getStatement(), preparedQuery.getStatement());
+        assertEquals(otherPreparedQuery.getParameters(), ImmutableList.of(new LongLiteral("2")));
+
+        assertNotSame(QUERY_PREPARER.prepareQuery(session, "EXECUTE my_query USING 1").getStatement(), preparedQuery.getStatement());
+    }
+
     @Test
     public void testExecuteStatementDoesNotExist()
     {
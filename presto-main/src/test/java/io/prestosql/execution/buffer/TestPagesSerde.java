@@ -22,16 +22,22 @@ import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.type.Type;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
 
 import static io.prestosql.execution.buffer.PagesSerdeUtil.readPages;
+import static io.prestosql.execution.buffer.PagesSerdeUtil.readSerializedPages;
 import static io.prestosql.execution.buffer.PagesSerdeUtil.writePages;
 import static io.prestosql.operator.PageAssertions.assertPageEquals;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestPagesSerde
 {
@@ -59,6 +65,68 @@ public class TestPagesSerde
         assertFalse(pageIterator.hasNext());
     }
 
+    @Test
+    public void testReadSerializedPagesFromStream()
+            throws IOException
+    {
+        PagesSerde serde = new TestingPagesSerdeFactory().createPagesSerde();
+        List<Type> types = ImmutableList.of(BIGINT, VARCHAR);
+        List<Page> expectedPages = ImmutableList.of(createPage(0, 10), createPage(10, 0), createPage(10, 1000));
+
+        DynamicSliceOutput sliceOutput = new DynamicSliceOutput(1024);
+        writePages(serde, sliceOutput, expectedPages.iterator());
+        byte[] bytes = sliceOutput.slice().getBytes();
+
+        List<SerializedPage> serializedPages = readSerializedPages(new ByteArrayInputStream(bytes));
+        assertEquals(serializedPages.size(), expectedPages.size());
+        for (int i = 0; i < expectedPages.size(); i++) {
+            assertPageEquals(types, serde.deserialize(serializedPages.get(i)), expectedPages.get(i));
+        }
+
+        assertEquals(readSerializedPages(new ByteArrayInputStream(new byte[0])), ImmutableList.of());
+        assertThatThrownBy(() -> readSerializedPages(new ByteArrayInputStream(bytes, 0, bytes.length - 1)))
+                .isInstanceOf(EOFException.class);
+        assertThatThrownBy(() -> readSerializedPages(new ByteArrayInputStream(bytes, 0, 5)))
+                .isInstanceOf(EOFException.class)
+                .hasMessage("Unexpected end of stream while reading serialized page header");
+    }
+
+    @Test
+    public void testBuffersReusedAcrossPages()
+    {
+        PagesSerde serde = new TestingPagesSerdeFactory().createPagesSerde();
+        List<Type> types = ImmutableList.of(BIGINT, VARCHAR);
+        Page firstPage = createPage(0, 1000);
+        Page secondPage = createPage(1000, 10);
+        assertEquals(serde.getRetainedSizeInBytes(), 0);
+
+        SerializedPage firstSerializedPage = serde.serialize(firstPage);
+        long retainedSize = serde.getRetainedSizeInBytes();
+        assertTrue(retainedSize > 0);
+
+        // serializing a smaller page reuses the buffers and must not affect the first serialized page
+        SerializedPage secondSerializedPage = serde.serialize(secondPage);
+        assertEquals(serde.getRetainedSizeInBytes(), retainedSize);
+        assertPageEquals(types, serde.deserialize(firstSerializedPage), firstPage);
+        assertPageEquals(types, serde.deserialize(secondSerializedPage), secondPage);
+
+        // the buffers of pages larger than the retained limit are released
+        Page largePage = createPage(0, 1_000_000);
+        assertPageEquals(types, serde.deserialize(serde.serialize(largePage)), largePage);
+        assertTrue(serde.getRetainedSizeInBytes() <= retainedSize);
+    }
+
+    private static Page createPage(int start, int positionCount)
+    {
+        BlockBuilder bigintBuilder = BIGINT.createBlockBuilder(null, positionCount);
+        BlockBuilder varcharBuilder = VARCHAR.createBlockBuilder(null, positionCount);
+        for (int value = start; value < start + positionCount; value++) {
+            BIGINT.writeLong(bigintBuilder, value);
+            VARCHAR.writeString(varcharBuilder, "value_" + value);
+        }
+        return new Page(bigintBuilder.build(), varcharBuilder.build());
+    }
+
     @Test
     public void testBigintSerializedSize()
     {
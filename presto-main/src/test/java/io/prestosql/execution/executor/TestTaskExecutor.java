@@ -21,6 +21,7 @@ import io.airlift.testing.TestingTicker;
 import io.airlift.units.Duration;
 import io.prestosql.execution.SplitRunner;
 import io.prestosql.execution.TaskId;
+import io.prestosql.spi.QueryId;
 import org.testng.annotations.Test;
 
 import java.util.Arrays;
@@ -41,6 +42,8 @@ import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 public class TestTaskExecutor
@@ -149,8 +152,8 @@ public class TestTaskExecutor
         ticker.increment(20, MILLISECONDS);
 
         try {
-            TaskHandle shortQuantaTaskHandle = taskExecutor.addTask(new TaskId("shortQuanta", 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty());
-            TaskHandle longQuantaTaskHandle = taskExecutor.addTask(new TaskId("longQuanta", 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty());
+            TaskHandle shortQuantaTaskHandle = taskExecutor.addTask(new TaskId("short_quanta", 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty());
+            TaskHandle longQuantaTaskHandle = taskExecutor.addTask(new TaskId("long_quanta", 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty());
 
             Phaser endQuantaPhaser = new Phaser();
 
@@ -174,6 +177,76 @@ public class TestTaskExecutor
         }
     }
 
+    @Test(invocationCount = 100)
+    public void testQueryWeightFairness()
+    {
+        TestingTicker ticker = new TestingTicker();
+        TaskExecutor taskExecutor = new TaskExecutor(1, 2, 3, 4, true, ticker);
+        taskExecutor.start();
+        ticker.increment(20, MILLISECONDS);
+
+        try {
+            TaskHandle lowWeightTaskHandle = taskExecutor.addTask(new TaskId("low_weight", 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty(), 1);
+            TaskHandle highWeightTaskHandle = taskExecutor.addTask(new TaskId("high_weight", 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty(), 3);
+            assertEquals(taskExecutor.getQueries(), 2);
+
+            Phaser endQuantaPhaser = new Phaser();
+
+            TestingJob lowWeightDriver = new TestingJob(ticker, new Phaser(), new Phaser(), endQuantaPhaser, 12, 10);
+            TestingJob highWeightDriver = new TestingJob(ticker, new Phaser(), new Phaser(), endQuantaPhaser, 12, 10);
+
+            taskExecutor.enqueueSplits(lowWeightTaskHandle, true, ImmutableList.of(lowWeightDriver));
+            taskExecutor.enqueueSplits(highWeightTaskHandle, true, ImmutableList.of(highWeightDriver));
+
+            for (int i = 0; i < 12; i++) {
+                endQuantaPhaser.arriveAndAwaitAdvance();
+            }
+
+            assertTrue(lowWeightDriver.getCompletedPhases() >= 2 && lowWeightDriver.getCompletedPhases() <= 4);
+            assertTrue(highWeightDriver.getCompletedPhases() >= 8 && highWeightDriver.getCompletedPhases() <= 10);
+
+            endQuantaPhaser.arriveAndDeregister();
+        }
+        finally {
+            taskExecutor.stop();
+        }
+    }
+
+    @Test
+    public void testIdleQueryExpiration()
+    {
+        TestingTicker ticker = new TestingTicker();
+        TaskExecutor taskExecutor = new TaskExecutor(1, 2, 3, 4, true, ticker);
+        taskExecutor.start();
+
+        try {
+            TaskHandle firstTaskHandle = taskExecutor.addTask(new TaskId("query", 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty(), 1);
+            QueryHandle queryHandle = firstTaskHandle.getQueryHandle();
+            queryHandle.addScheduledNanos(SECONDS.toNanos(10));
+            taskExecutor.removeTask(firstTaskHandle);
+            assertEquals(taskExecutor.getQueries(), 0);
+
+            // the scheduled time of the query is kept between its tasks
+            ticker.increment(30, SECONDS);
+            TaskHandle secondTaskHandle = taskExecutor.addTask(new TaskId("query", 1, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty(), 1);
+            assertSame(secondTaskHandle.getQueryHandle(), queryHandle);
+            assertEquals(secondTaskHandle.getQueryHandle().getScheduledNanos(), SECONDS.toNanos(10));
+            assertEquals(taskExecutor.getQueries(), 1);
+
+            // the query expires once it has no tasks for long enough
+            taskExecutor.removeTask(secondTaskHandle);
+            ticker.increment(2, MINUTES);
+            TaskHandle thirdTaskHandle = taskExecutor.addTask(new TaskId("query", 2, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty(), 1);
+            assertNotSame(thirdTaskHandle.getQueryHandle(), queryHandle);
+            assertEquals(thirdTaskHandle.getQueryHandle().getScheduledNanos(), 0);
+            assertEquals(taskExecutor.getQueries(), 1);
+            taskExecutor.removeTask(thirdTaskHandle);
+        }
+        finally {
+            taskExecutor.stop();
+        }
+    }
+
     @Test(invocationCount = 100)
     public void testLevelMovement()
     {
@@ -331,8 +404,8 @@ public class TestTaskExecutor
     public void testLevelContributionCap()
     {
         MultilevelSplitQueue splitQueue = new MultilevelSplitQueue(2);
-        TaskHandle handle0 = new TaskHandle(new TaskId("test0", 0, 0), splitQueue, () -> 1, 1, new Duration(1, SECONDS), OptionalInt.empty());
-        TaskHandle handle1 = new TaskHandle(new TaskId("test1", 0, 0), splitQueue, () -> 1, 1, new Duration(1, SECONDS), OptionalInt.empty());
+        TaskHandle handle0 = new TaskHandle(new TaskId("test0", 0, 0), new QueryHandle(new QueryId("test0"), 1, splitQueue), false, splitQueue, () -> 1, 1, new Duration(1, SECONDS), OptionalInt.empty());
+        TaskHandle handle1 = new TaskHandle(new TaskId("test1", 0, 0), new QueryHandle(new QueryId("test1"), 1, splitQueue), false, splitQueue, () -> 1, 1, new Duration(1, SECONDS), OptionalInt.empty());
 
         for (int i = 0; i < (LEVEL_THRESHOLD_SECONDS.length - 1); i++) {
             long levelAdvanceTime = SECONDS.toNanos(LEVEL_THRESHOLD_SECONDS[i + 1] - LEVEL_THRESHOLD_SECONDS[i]);
@@ -347,11 +420,45 @@ public class TestTaskExecutor
         }
     }
 
+    @Test
+    public void testQueryFairScheduling()
+    {
+        MultilevelSplitQueue splitQueue = new MultilevelSplitQueue(2);
+        QueryHandle query0 = new QueryHandle(new QueryId("query0"), 1, splitQueue);
+        QueryHandle query1 = new QueryHandle(new QueryId("query1"), 2, splitQueue);
+        TaskHandle handle0 = new TaskHandle(new TaskId("query0", 0, 0), query0, true, splitQueue, () -> 1, 1, new Duration(1, SECONDS), OptionalInt.empty());
+        TaskHandle handle1 = new TaskHandle(new TaskId("query0", 1, 0), query0, true, splitQueue, () -> 1, 1, new Duration(1, SECONDS), OptionalInt.empty());
+        TaskHandle handle2 = new TaskHandle(new TaskId("query1", 0, 0), query1, true, splitQueue, () -> 1, 1, new Duration(1, SECONDS), OptionalInt.empty());
+
+        long quantaNanos = MILLISECONDS.toNanos(100);
+        handle0.addScheduledNanos(quantaNanos);
+        handle1.addScheduledNanos(quantaNanos);
+
+        // tasks of a query share the priority of the query
+        assertEquals(handle0.getPriority().getLevelPriority(), 2 * quantaNanos);
+        assertEquals(handle1.getPriority().getLevelPriority(), 2 * quantaNanos);
+        assertEquals(handle0.getScheduledNanos(), quantaNanos);
+        assertEquals(query0.getScheduledNanos(), 2 * quantaNanos);
+
+        // a query with twice the weight accrues priority at half the rate
+        handle2.addScheduledNanos(2 * quantaNanos);
+        assertEquals(handle2.getPriority().getLevelPriority(), quantaNanos);
+        assertEquals(query1.getScheduledNanos(), 2 * quantaNanos);
+
+        // but the level is charged the actual scheduled time
+        assertEquals(splitQueue.getLevelScheduledTime(0), 4 * quantaNanos);
+
+        // and the query moves to the next level based on the actual scheduled time
+        handle2.addScheduledNanos(SECONDS.toNanos(1) - 2 * quantaNanos);
+        assertEquals(handle2.getPriority().getLevel(), 1);
+        assertEquals(handle0.getPriority().getLevel(), 0);
+    }
+
     @Test
     public void testUpdateLevelWithCap()
     {
         MultilevelSplitQueue splitQueue = new MultilevelSplitQueue(2);
-        TaskHandle handle0 = new TaskHandle(new TaskId("test0", 0, 0), splitQueue, () -> 1, 1, new Duration(1, SECONDS), OptionalInt.empty());
+        TaskHandle handle0 = new TaskHandle(new TaskId("test0", 0, 0), new QueryHandle(new QueryId("test0"), 1, splitQueue), false, splitQueue, () -> 1, 1, new Duration(1, SECONDS), OptionalInt.empty());
 
         long quantaNanos = MINUTES.toNanos(10);
         handle0.addScheduledNanos(quantaNanos);
@@ -63,7 +63,7 @@ public class TestFixedCountScheduler
                 (node, partition, totalPartitions) -> Optional.of(taskFactory.createTableScanTask(
                         new TaskId("test", 1, 1),
                         node, ImmutableList.of(),
-                        new PartitionedSplitCountTracker(delta -> {}))),
+                        new PartitionedSplitCountTracker(splitsInfo -> {}))),
                 generateRandomNodes(1));
 
         ScheduleResult result = nodeScheduler.schedule();
@@ -80,7 +80,7 @@ public class TestFixedCountScheduler
                 (node, partition, totalPartitions) -> Optional.of(taskFactory.createTableScanTask(
                         new TaskId("test", 1, 1),
                         node, ImmutableList.of(),
-                        new PartitionedSplitCountTracker(delta -> {}))),
+                        new PartitionedSplitCountTracker(splitsInfo -> {}))),
                 generateRandomNodes(5));
 
         ScheduleResult result = nodeScheduler.schedule();
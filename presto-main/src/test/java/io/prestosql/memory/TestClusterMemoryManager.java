@@ -0,0 +1,45 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.memory;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.spi.QueryId;
+import org.testng.annotations.Test;
+
+import static io.prestosql.memory.ClusterMemoryManager.chooseQueriesToRevoke;
+import static org.testng.Assert.assertEquals;
+
+public class TestClusterMemoryManager
+{
+    private static final QueryId QUERY_1 = new QueryId("query_1");
+    private static final QueryId QUERY_2 = new QueryId("query_2");
+    private static final QueryId QUERY_3 = new QueryId("query_3");
+
+    @Test
+    public void testChooseQueriesToRevoke()
+    {
+        ImmutableMap<QueryId, Long> revocableMemory = ImmutableMap.of(QUERY_1, 10L, QUERY_2, 30L, QUERY_3, 20L);
+
+        // the query with the most revocable memory is chosen first
+        assertEquals(chooseQueriesToRevoke(revocableMemory, 1), ImmutableList.of(QUERY_2));
+        assertEquals(chooseQueriesToRevoke(revocableMemory, 30), ImmutableList.of(QUERY_2));
+        assertEquals(chooseQueriesToRevoke(revocableMemory, 31), ImmutableList.of(QUERY_2, QUERY_3));
+        assertEquals(chooseQueriesToRevoke(revocableMemory, 1000), ImmutableList.of(QUERY_2, QUERY_3, QUERY_1));
+
+        // queries without revocable memory cannot help
+        assertEquals(chooseQueriesToRevoke(ImmutableMap.of(QUERY_1, 0L, QUERY_2, 5L), 1000), ImmutableList.of(QUERY_2));
+        assertEquals(chooseQueriesToRevoke(ImmutableMap.of(), 1000), ImmutableList.of());
+    }
+}
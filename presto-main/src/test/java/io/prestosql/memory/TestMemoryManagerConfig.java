@@ -37,6 +37,7 @@ public class TestMemoryManagerConfig
         assertRecordedDefaults(recordDefaults(MemoryManagerConfig.class)
                 .setLowMemoryKillerPolicy(TOTAL_RESERVATION_ON_BLOCKED_NODES)
                 .setKillOnOutOfMemoryDelay(new Duration(5, MINUTES))
+                .setLowMemoryRevokingEnabled(false)
                 .setMaxQueryMemory(DataSize.of(20, GIGABYTE))
                 .setMaxQueryTotalMemory(DataSize.of(40, GIGABYTE)));
     }
@@ -47,6 +48,7 @@ public class TestMemoryManagerConfig
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("query.low-memory-killer.policy", "none")
                 .put("query.low-memory-killer.delay", "20s")
+                .put("query.low-memory-revoking.enabled", "true")
                 .put("query.max-memory", "2GB")
                 .put("query.max-total-memory", "3GB")
                 .build();
@@ -54,6 +56,7 @@ public class TestMemoryManagerConfig
         MemoryManagerConfig expected = new MemoryManagerConfig()
                 .setLowMemoryKillerPolicy(NONE)
                 .setKillOnOutOfMemoryDelay(new Duration(20, SECONDS))
+                .setLowMemoryRevokingEnabled(true)
                 .setMaxQueryMemory(DataSize.of(2, GIGABYTE))
                 .setMaxQueryTotalMemory(DataSize.of(3, GIGABYTE));
 
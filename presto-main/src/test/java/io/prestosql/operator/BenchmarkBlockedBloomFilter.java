@@ -0,0 +1,145 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import io.airlift.units.DataSize;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Measures the per-row cost of building a dynamic filtering bloom filter (on the join build side)
+ * and of probing it (on the probe-side table scan).
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkBlockedBloomFilter
+{
+    private static final int POSITIONS = 1_000_000;
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({"1MB", "16MB"})
+        private String bloomFilterSize = "1MB";
+
+        private Block buildBlock;
+        private Block probeBlock;
+        private BlockedBloomFilter bloomFilter;
+
+        @Setup
+        public void setup()
+        {
+            buildBlock = createRandomBlock(POSITIONS);
+            probeBlock = createRandomBlock(POSITIONS);
+            bloomFilter = createBloomFilter();
+            for (int position = 0; position < buildBlock.getPositionCount(); position++) {
+                bloomFilter.put(buildBlock, position);
+            }
+        }
+
+        public BlockedBloomFilter createBloomFilter()
+        {
+            return new BlockedBloomFilter(BIGINT, DataSize.valueOf(bloomFilterSize).toBytes());
+        }
+
+        private static Block createRandomBlock(int positionCount)
+        {
+            BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, positionCount);
+            for (int position = 0; position < positionCount; position++) {
+                BIGINT.writeLong(blockBuilder, ThreadLocalRandom.current().nextLong());
+            }
+            return blockBuilder.build();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public BlockedBloomFilter build(BenchmarkData data)
+    {
+        BlockedBloomFilter bloomFilter = data.createBloomFilter();
+        Block block = data.buildBlock;
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            bloomFilter.put(block, position);
+        }
+        return bloomFilter;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int probe(BenchmarkData data)
+    {
+        BlockedBloomFilter bloomFilter = data.bloomFilter;
+        Block block = data.probeBlock;
+        int matches = 0;
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (bloomFilter.mightContain(block, position)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Test
+    public void testBenchmark()
+    {
+        BenchmarkData data = new BenchmarkData();
+        data.setup();
+
+        BlockedBloomFilter bloomFilter = build(data);
+        for (int position = 0; position < data.buildBlock.getPositionCount(); position++) {
+            assertTrue(bloomFilter.mightContain(data.buildBlock, position));
+        }
+        // random probe values are expected to be rejected most of the time
+        assertTrue(probe(data) < POSITIONS / 2);
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkBlockedBloomFilter.class.getSimpleName() + ".*")
+                .build();
+
+        new Runner(options).run();
+    }
+}
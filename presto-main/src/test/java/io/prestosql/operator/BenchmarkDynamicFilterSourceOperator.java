@@ -47,6 +47,7 @@ import java.util.concurrent.TimeUnit;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.prestosql.SessionTestUtils.TEST_SESSION;
+import static io.prestosql.SystemSessionProperties.getDynamicFilteringBloomFilterSize;
 import static io.prestosql.SystemSessionProperties.getDynamicFilteringMaxPerDriverRowCount;
 import static io.prestosql.SystemSessionProperties.getDynamicFilteringMaxPerDriverSize;
 import static io.prestosql.spi.type.BigintType.BIGINT;
@@ -86,9 +87,11 @@ public class BenchmarkDynamicFilterSourceOperator
                     1,
                     new PlanNodeId("joinNodeId"),
                     (tupleDomain -> {}),
+                    (bloomFilters -> {}),
                     ImmutableList.of(new DynamicFilterSourceOperator.Channel("0", BIGINT, 0)),
                     getDynamicFilteringMaxPerDriverRowCount(TEST_SESSION),
-                    getDynamicFilteringMaxPerDriverSize(TEST_SESSION));
+                    getDynamicFilteringMaxPerDriverSize(TEST_SESSION),
+                    getDynamicFilteringBloomFilterSize(TEST_SESSION));
         }
 
         @TearDown
@@ -0,0 +1,292 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.http.client.HttpClient;
+import io.airlift.http.client.jetty.JettyHttpClient;
+import io.airlift.http.server.HttpServerConfig;
+import io.airlift.http.server.HttpServerInfo;
+import io.airlift.http.server.testing.TestingHttpServer;
+import io.airlift.node.NodeInfo;
+import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.SliceOutput;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import io.prestosql.execution.StateMachine;
+import io.prestosql.execution.buffer.BufferResult;
+import io.prestosql.execution.buffer.OutputBuffer;
+import io.prestosql.execution.buffer.OutputBuffers.OutputBufferId;
+import io.prestosql.execution.buffer.PagesSerde;
+import io.prestosql.execution.buffer.PagesSerdeFactory;
+import io.prestosql.execution.buffer.PartitionedOutputBuffer;
+import io.prestosql.execution.buffer.SerializedPage;
+import io.prestosql.memory.context.SimpleLocalMemoryContext;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.BlockBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static io.airlift.concurrent.MoreFutures.tryGetFutureValue;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.prestosql.PrestoMediaTypes.PRESTO_PAGES;
+import static io.prestosql.client.PrestoHeaders.PRESTO_BUFFER_COMPLETE;
+import static io.prestosql.client.PrestoHeaders.PRESTO_MAX_SIZE;
+import static io.prestosql.client.PrestoHeaders.PRESTO_PAGE_NEXT_TOKEN;
+import static io.prestosql.client.PrestoHeaders.PRESTO_PAGE_TOKEN;
+import static io.prestosql.client.PrestoHeaders.PRESTO_TASK_INSTANCE_ID;
+import static io.prestosql.execution.buffer.BufferState.OPEN;
+import static io.prestosql.execution.buffer.BufferState.TERMINAL_BUFFER_STATES;
+import static io.prestosql.execution.buffer.OutputBuffers.BufferType.PARTITIONED;
+import static io.prestosql.execution.buffer.OutputBuffers.createInitialEmptyOutputBuffers;
+import static io.prestosql.execution.buffer.PagesSerdeUtil.writeSerializedPages;
+import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Measures the throughput of the exchange, from a producer {@link OutputBuffer}
+ * served over loopback HTTP to an {@link ExchangeClient} deserializing the pages.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(MILLISECONDS)
+@Fork(2)
+@Warmup(iterations = 10, time = 500, timeUnit = MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkExchangeClient
+{
+    @Benchmark
+    public long exchange(BenchmarkData data)
+    {
+        OutputBuffer buffer = data.createOutputBuffer();
+        ExchangeClient exchangeClient = data.createExchangeClient();
+        try {
+            long positions = 0;
+            while (!exchangeClient.isFinished()) {
+                SerializedPage serializedPage = exchangeClient.pollPage();
+                if (serializedPage == null) {
+                    getFutureValue(exchangeClient.isBlocked());
+                    continue;
+                }
+                positions += data.getPagesSerde().deserialize(serializedPage).getPositionCount();
+            }
+            return positions;
+        }
+        finally {
+            exchangeClient.close();
+            buffer.destroy();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        private static final OutputBufferId BUFFER_ID = new OutputBufferId(0);
+        private static final String TASK_INSTANCE_ID = "task-instance-id";
+        private static final int PAGE_COUNT = 1000;
+        private static final int POSITIONS_PER_PAGE = 1024;
+
+        @Param({"false", "true"})
+        private boolean compressed;
+
+        private final OutputBufferServlet servlet = new OutputBufferServlet();
+        private final ExecutorService executor = newCachedThreadPool(daemonThreadsNamed("test-executor-%s"));
+        private final ScheduledExecutorService scheduler = newScheduledThreadPool(4, daemonThreadsNamed("test-scheduler-%s"));
+
+        private PagesSerde pagesSerde;
+        private List<SerializedPage> serializedPages;
+        private TestingHttpServer server;
+        private HttpClient httpClient;
+
+        @Setup
+        public void setup()
+                throws Exception
+        {
+            pagesSerde = new PagesSerdeFactory(createTestMetadataManager().getBlockEncodingSerde(), compressed).createPagesSerde();
+            ImmutableList.Builder<SerializedPage> pages = ImmutableList.builder();
+            for (int i = 0; i < PAGE_COUNT; i++) {
+                pages.add(pagesSerde.serialize(createPage(i * POSITIONS_PER_PAGE)));
+            }
+            serializedPages = pages.build();
+
+            NodeInfo nodeInfo = new NodeInfo("test");
+            HttpServerConfig config = new HttpServerConfig()
+                    .setHttpPort(0)
+                    .setLogEnabled(false);
+            server = new TestingHttpServer(new HttpServerInfo(config, nodeInfo), nodeInfo, config, servlet, ImmutableMap.of());
+            server.start();
+            httpClient = new JettyHttpClient();
+        }
+
+        @TearDown
+        public void tearDown()
+                throws Exception
+        {
+            httpClient.close();
+            server.stop();
+            executor.shutdownNow();
+            scheduler.shutdownNow();
+        }
+
+        public PagesSerde getPagesSerde()
+        {
+            return pagesSerde;
+        }
+
+        public OutputBuffer createOutputBuffer()
+        {
+            PartitionedOutputBuffer buffer = new PartitionedOutputBuffer(
+                    TASK_INSTANCE_ID,
+                    new StateMachine<>("bufferState", scheduler, OPEN, TERMINAL_BUFFER_STATES),
+                    createInitialEmptyOutputBuffers(PARTITIONED)
+                            .withBuffer(BUFFER_ID, 0)
+                            .withNoMoreBufferIds(),
+                    DataSize.ofBytes(Long.MAX_VALUE), // don't let output buffer block
+                    () -> new SimpleLocalMemoryContext(newSimpleAggregatedMemoryContext(), "test"),
+                    scheduler);
+            buffer.enqueue(0, serializedPages);
+            buffer.setNoMorePages();
+            servlet.setBuffer(buffer);
+            return buffer;
+        }
+
+        public ExchangeClient createExchangeClient()
+        {
+            ExchangeClient exchangeClient = new ExchangeClient(
+                    DataSize.of(32, MEGABYTE),
+                    DataSize.of(16, MEGABYTE),
+                    3,
+                    new Duration(1, MINUTES),
+                    true,
+                    httpClient,
+                    scheduler,
+                    new SimpleLocalMemoryContext(newSimpleAggregatedMemoryContext(), "test"),
+                    executor);
+            exchangeClient.addLocation(server.getBaseUrl());
+            exchangeClient.noMoreLocations();
+            return exchangeClient;
+        }
+
+        private static Page createPage(int start)
+        {
+            BlockBuilder bigintBuilder = BIGINT.createBlockBuilder(null, POSITIONS_PER_PAGE);
+            BlockBuilder varcharBuilder = VARCHAR.createBlockBuilder(null, POSITIONS_PER_PAGE);
+            for (int value = start; value < start + POSITIONS_PER_PAGE; value++) {
+                BIGINT.writeLong(bigintBuilder, value);
+                VARCHAR.writeString(varcharBuilder, "value_" + value);
+            }
+            return new Page(bigintBuilder.build(), varcharBuilder.build());
+        }
+    }
+
+    /**
+     * Serves the pages of a single output buffer with the same protocol as the task resource.
+     */
+    private static class OutputBufferServlet
+            extends HttpServlet
+    {
+        private volatile OutputBuffer buffer;
+
+        public void setBuffer(OutputBuffer buffer)
+        {
+            this.buffer = buffer;
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response)
+                throws IOException
+        {
+            // path is /<token> or /<token>/acknowledge
+            List<String> path = Splitter.on('/').omitEmptyStrings().splitToList(request.getPathInfo());
+            long token = Long.parseLong(path.get(0));
+            if (path.size() == 2) {
+                buffer.acknowledge(BenchmarkData.BUFFER_ID, token);
+                response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+                return;
+            }
+
+            DataSize maxSize = DataSize.valueOf(request.getHeader(PRESTO_MAX_SIZE));
+            BufferResult result = tryGetFutureValue(buffer.get(BenchmarkData.BUFFER_ID, token, maxSize), 1, SECONDS)
+                    .orElseGet(() -> BufferResult.emptyResults(BenchmarkData.TASK_INSTANCE_ID, token, false));
+
+            response.setHeader(PRESTO_TASK_INSTANCE_ID, result.getTaskInstanceId());
+            response.setHeader(PRESTO_PAGE_TOKEN, String.valueOf(result.getToken()));
+            response.setHeader(PRESTO_PAGE_NEXT_TOKEN, String.valueOf(result.getNextToken()));
+            response.setHeader(PRESTO_BUFFER_COMPLETE, String.valueOf(result.isBufferComplete()));
+            if (result.isEmpty()) {
+                response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+                return;
+            }
+
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setHeader(CONTENT_TYPE, PRESTO_PAGES);
+            try (SliceOutput output = new OutputStreamSliceOutput(response.getOutputStream())) {
+                writeSerializedPages(output, result.getSerializedPages());
+            }
+        }
+
+        @Override
+        protected void doDelete(HttpServletRequest request, HttpServletResponse response)
+        {
+            buffer.abort(BenchmarkData.BUFFER_ID);
+            response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkExchangeClient.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -171,6 +171,7 @@ public class BenchmarkHashAndStreamingAggregationOperators
                     Optional.empty(),
                     100_000,
                     Optional.of(DataSize.of(16, MEGABYTE)),
+                    Optional.empty(),
                     false,
                     succinctBytes(8),
                     succinctBytes(Integer.MAX_VALUE),
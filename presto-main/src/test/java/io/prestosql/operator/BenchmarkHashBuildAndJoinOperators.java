@@ -18,6 +18,7 @@ import com.google.common.primitives.Ints;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.units.DataSize;
 import io.prestosql.RowPagesBuilder;
+import io.prestosql.Session;
 import io.prestosql.execution.Lifespan;
 import io.prestosql.operator.HashBuilderOperator.HashBuilderOperatorFactory;
 import io.prestosql.spi.Page;
@@ -56,6 +57,7 @@ import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.prestosql.RowPagesBuilder.rowPagesBuilder;
 import static io.prestosql.SessionTestUtils.TEST_SESSION;
+import static io.prestosql.SystemSessionProperties.RADIX_PARTITIONED_JOIN;
 import static io.prestosql.operator.JoinBridgeManager.lookupAllAtOnce;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
@@ -86,7 +88,6 @@ public class BenchmarkHashBuildAndJoinOperators
     public static class BuildContext
     {
         protected static final int ROWS_PER_PAGE = 1024;
-        protected static final int BUILD_ROWS_NUMBER = 8_000_000;
 
         @Param({"varchar", "bigint", "all"})
         protected String hashColumns = "bigint";
@@ -97,6 +98,13 @@ public class BenchmarkHashBuildAndJoinOperators
         @Param({"1", "5"})
         protected int buildRowsRepetition = 1;
 
+        // the hash tables of the larger builds are far bigger than the L3 cache
+        @Param({"100000", "8000000", "16000000"})
+        protected int buildRowsNumber = 8_000_000;
+
+        @Param({"false", "true"})
+        protected boolean radixPartitionedJoin;
+
         protected ExecutorService executor;
         protected ScheduledExecutorService scheduledExecutor;
         protected List<Page> buildPages;
@@ -128,7 +136,10 @@ public class BenchmarkHashBuildAndJoinOperators
 
         public TaskContext createTaskContext()
         {
-            return TestingTaskContext.createTaskContext(executor, scheduledExecutor, TEST_SESSION, DataSize.of(2, GIGABYTE));
+            Session session = Session.builder(TEST_SESSION)
+                    .setSystemProperty(RADIX_PARTITIONED_JOIN, String.valueOf(radixPartitionedJoin))
+                    .build();
+            return TestingTaskContext.createTaskContext(executor, scheduledExecutor, session, DataSize.of(4, GIGABYTE));
         }
 
         public OptionalInt getHashChannel()
@@ -155,10 +166,10 @@ public class BenchmarkHashBuildAndJoinOperators
         {
             RowPagesBuilder buildPagesBuilder = rowPagesBuilder(buildHashEnabled, hashChannels, ImmutableList.of(VARCHAR, BIGINT, BIGINT));
 
-            int maxValue = BUILD_ROWS_NUMBER / buildRowsRepetition + 40;
+            int maxValue = buildRowsNumber / buildRowsRepetition + 40;
             int rows = 0;
-            while (rows < BUILD_ROWS_NUMBER) {
-                int newRows = Math.min(BUILD_ROWS_NUMBER - rows, ROWS_PER_PAGE);
+            while (rows < buildRowsNumber) {
+                int newRows = Math.min(buildRowsNumber - rows, ROWS_PER_PAGE);
                 buildPagesBuilder.addSequencePage(newRows, (rows + 20) % maxValue, (rows + 30) % maxValue, (rows + 40) % maxValue);
                 buildPagesBuilder.pageBreak();
                 rows += newRows;
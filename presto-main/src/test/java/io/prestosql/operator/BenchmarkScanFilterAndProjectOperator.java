@@ -176,6 +176,7 @@ public class BenchmarkScanFilterAndProjectOperator
                     TEST_TABLE_HANDLE,
                     columnHandles,
                     TupleDomain::all,
+                    ImmutableMap::of,
                     types,
                     FILTER_AND_PROJECT_MIN_OUTPUT_PAGE_SIZE,
                     FILTER_AND_PROJECT_MIN_OUTPUT_PAGE_ROW_COUNT);
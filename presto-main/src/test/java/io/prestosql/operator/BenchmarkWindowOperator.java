@@ -17,10 +17,13 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
 import io.airlift.units.DataSize;
 import io.prestosql.RowPagesBuilder;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.operator.window.FrameInfo;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.block.SortOrder;
 import io.prestosql.spi.type.Type;
+import io.prestosql.sql.tree.QualifiedName;
 import io.prestosql.testing.TestingTaskContext;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
@@ -42,18 +45,26 @@ import org.testng.annotations.Test;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.prestosql.SessionTestUtils.TEST_SESSION;
+import static io.prestosql.block.BlockAssertions.createLongRepeatBlock;
 import static io.prestosql.block.BlockAssertions.createLongSequenceBlock;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.operator.BenchmarkWindowOperator.Context.ROWS_PER_PAGE;
 import static io.prestosql.operator.BenchmarkWindowOperator.Context.TOTAL_PAGES;
 import static io.prestosql.operator.TestWindowOperator.ROW_NUMBER;
 import static io.prestosql.operator.TestWindowOperator.createFactoryUnbounded;
+import static io.prestosql.operator.WindowFunctionDefinition.window;
 import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.sql.analyzer.TypeSignatureProvider.fromTypes;
+import static io.prestosql.sql.tree.FrameBound.Type.CURRENT_ROW;
+import static io.prestosql.sql.tree.FrameBound.Type.PRECEDING;
+import static io.prestosql.sql.tree.WindowFrame.Type.ROWS;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -227,13 +238,92 @@ public class BenchmarkWindowOperator
         }
     }
 
+    @State(Thread)
+    public static class SlidingFrameContext
+    {
+        private static final int ROWS_PER_PARTITION = 10_000;
+        private static final int PARTITIONS = 50;
+
+        @Param({"max", "sum"})
+        public String function = "max";
+
+        @Param({"10", "100", "1000"})
+        public int frameSize = 100;
+
+        private ExecutorService executor;
+        private ScheduledExecutorService scheduledExecutor;
+        private OperatorFactory operatorFactory;
+
+        private List<Page> pages;
+
+        @Setup
+        public void setup()
+        {
+            executor = newCachedThreadPool(daemonThreadsNamed("test-executor-%s"));
+            scheduledExecutor = newScheduledThreadPool(2, daemonThreadsNamed("test-scheduledExecutor-%s"));
+
+            // function(value) OVER (PARTITION BY partition ORDER BY value ROWS BETWEEN frameSize PRECEDING AND CURRENT ROW)
+            Metadata metadata = createTestMetadataManager();
+            FrameInfo frame = new FrameInfo(ROWS, PRECEDING, Optional.of(2), CURRENT_ROW, Optional.empty());
+            List<WindowFunctionDefinition> functions = ImmutableList.of(window(
+                    metadata.getWindowFunctionImplementation(metadata.resolveFunction(QualifiedName.of(function), fromTypes(BIGINT))),
+                    BIGINT,
+                    frame,
+                    false,
+                    1));
+            operatorFactory = createFactoryUnbounded(
+                    ImmutableList.of(BIGINT, BIGINT, BIGINT),
+                    Ints.asList(0, 1),
+                    functions,
+                    Ints.asList(0),
+                    Ints.asList(0),
+                    Ints.asList(1),
+                    ImmutableList.of(SortOrder.ASC_NULLS_LAST),
+                    1,
+                    new DummySpillerFactory(),
+                    false);
+
+            ImmutableList.Builder<Page> pages = ImmutableList.builder();
+            for (int partition = 0; partition < PARTITIONS; partition++) {
+                pages.add(new Page(
+                        createLongRepeatBlock(partition, ROWS_PER_PARTITION),
+                        createLongSequenceBlock(0, ROWS_PER_PARTITION),
+                        createLongRepeatBlock(frameSize, ROWS_PER_PARTITION)));
+            }
+            this.pages = pages.build();
+        }
+
+        @TearDown
+        public void cleanup()
+        {
+            executor.shutdownNow();
+            scheduledExecutor.shutdownNow();
+        }
+
+        public TaskContext createTaskContext()
+        {
+            return TestingTaskContext.createTaskContext(executor, scheduledExecutor, TEST_SESSION, DataSize.of(2, GIGABYTE));
+        }
+    }
+
     @Benchmark
     public List<Page> benchmark(BenchmarkWindowOperator.Context context)
     {
-        DriverContext driverContext = context.createTaskContext().addPipelineContext(0, true, true, false).addDriverContext();
-        Operator operator = context.getOperatorFactory().createOperator(driverContext);
+        return runOperator(context.createTaskContext(), context.getOperatorFactory(), context.getPages());
+    }
+
+    @Benchmark
+    public List<Page> benchmarkSlidingFrame(SlidingFrameContext context)
+    {
+        return runOperator(context.createTaskContext(), context.operatorFactory, context.pages);
+    }
 
-        Iterator<Page> input = context.getPages().iterator();
+    private static List<Page> runOperator(TaskContext taskContext, OperatorFactory operatorFactory, List<Page> pages)
+    {
+        DriverContext driverContext = taskContext.addPipelineContext(0, true, true, false).addDriverContext();
+        Operator operator = operatorFactory.createOperator(driverContext);
+
+        Iterator<Page> input = pages.iterator();
         ImmutableList.Builder<Page> outputPages = ImmutableList.builder();
 
         boolean finishing = false;
@@ -306,6 +396,27 @@ public class BenchmarkWindowOperator
         verify(10, 3, true);
     }
 
+    @Test
+    public void verifySlidingFrame()
+    {
+        SlidingFrameContext context = new SlidingFrameContext();
+        context.frameSize = 1000;
+        context.setup();
+
+        List<Page> outputPages = benchmarkSlidingFrame(context);
+        int rows = 0;
+        for (Page page : outputPages) {
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                // the frame ends at the current row, and values are increasing
+                assertEquals(BIGINT.getLong(page.getBlock(2), position), BIGINT.getLong(page.getBlock(1), position));
+                rows++;
+            }
+        }
+        assertEquals(rows, SlidingFrameContext.PARTITIONS * SlidingFrameContext.ROWS_PER_PARTITION);
+
+        context.cleanup();
+    }
+
     private void verify(
             int numberOfRowsPerPartition,
             int numberOfPreGroupedColumns,
@@ -0,0 +1,130 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import io.prestosql.spi.block.Block;
+import org.testng.annotations.Test;
+
+import static io.prestosql.block.BlockAssertions.createLongSequenceBlock;
+import static io.prestosql.block.BlockAssertions.createLongsBlock;
+import static io.prestosql.block.BlockAssertions.createStringsBlock;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestBlockedBloomFilter
+{
+    private static final long SIZE_IN_BYTES = 64 * 1024;
+
+    @Test
+    public void testContainsAddedValues()
+    {
+        BlockedBloomFilter bloomFilter = new BlockedBloomFilter(BIGINT, SIZE_IN_BYTES);
+        Block block = createLongSequenceBlock(0, 10_000);
+        putAll(bloomFilter, block);
+        assertContainsAll(bloomFilter, block);
+
+        // values which were not added are mostly rejected
+        assertTrue(countMatches(bloomFilter, createLongSequenceBlock(10_000, 20_000)) < 500);
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        BlockedBloomFilter bloomFilter = new BlockedBloomFilter(VARCHAR, SIZE_IN_BYTES);
+        assertEquals(countMatches(bloomFilter, createStringsBlock("a", "b", "c")), 0);
+    }
+
+    @Test
+    public void testNulls()
+    {
+        BlockedBloomFilter bloomFilter = new BlockedBloomFilter(BIGINT, SIZE_IN_BYTES);
+        Block block = createLongsBlock(1L, null, 3L);
+        putAll(bloomFilter, block);
+        assertTrue(bloomFilter.mightContain(block, 0));
+        assertFalse(bloomFilter.mightContain(block, 1));
+        assertTrue(bloomFilter.mightContain(block, 2));
+    }
+
+    @Test
+    public void testUnion()
+    {
+        BlockedBloomFilter first = new BlockedBloomFilter(BIGINT, SIZE_IN_BYTES);
+        BlockedBloomFilter second = new BlockedBloomFilter(BIGINT, SIZE_IN_BYTES);
+        Block firstBlock = createLongSequenceBlock(0, 1000);
+        Block secondBlock = createLongSequenceBlock(1000, 2000);
+        putAll(first, firstBlock);
+        putAll(second, secondBlock);
+
+        BlockedBloomFilter union = first.union(second);
+        assertContainsAll(union, firstBlock);
+        assertContainsAll(union, secondBlock);
+    }
+
+    @Test
+    public void testIntersect()
+    {
+        BlockedBloomFilter first = new BlockedBloomFilter(BIGINT, SIZE_IN_BYTES);
+        BlockedBloomFilter second = new BlockedBloomFilter(BIGINT, SIZE_IN_BYTES);
+        putAll(first, createLongSequenceBlock(0, 2000));
+        putAll(second, createLongSequenceBlock(1000, 3000));
+
+        BlockedBloomFilter intersection = first.intersect(second);
+        assertContainsAll(intersection, createLongSequenceBlock(1000, 2000));
+        assertTrue(countMatches(intersection, createLongSequenceBlock(0, 1000)) < 100);
+        assertTrue(countMatches(intersection, createLongSequenceBlock(2000, 3000)) < 100);
+    }
+
+    @Test
+    public void testSize()
+    {
+        // the size is rounded down to a power of two
+        BlockedBloomFilter bloomFilter = new BlockedBloomFilter(BIGINT, 3 * 1024);
+        BlockedBloomFilter expected = new BlockedBloomFilter(BIGINT, 2 * 1024);
+        assertEquals(bloomFilter.getRetainedSizeInBytes(), expected.getRetainedSizeInBytes());
+
+        assertThatThrownBy(() -> bloomFilter.union(new BlockedBloomFilter(BIGINT, 1024)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Mismatched sizes");
+        assertThatThrownBy(() -> bloomFilter.union(new BlockedBloomFilter(VARCHAR, 2 * 1024)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Mismatched types");
+    }
+
+    private static void putAll(BlockedBloomFilter bloomFilter, Block block)
+    {
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            bloomFilter.put(block, position);
+        }
+    }
+
+    private static void assertContainsAll(BlockedBloomFilter bloomFilter, Block block)
+    {
+        assertEquals(countMatches(bloomFilter, block), block.getPositionCount());
+    }
+
+    private static int countMatches(BlockedBloomFilter bloomFilter, Block block)
+    {
+        int matches = 0;
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (bloomFilter.mightContain(block, position)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+}
@@ -15,6 +15,7 @@ package io.prestosql.operator;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.predicate.Domain;
@@ -29,13 +30,16 @@ import org.testng.annotations.Test;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 
 import static com.google.common.base.Strings.repeat;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.SequencePageBuilder.createSequencePage;
 import static io.prestosql.SessionTestUtils.TEST_SESSION;
+import static io.prestosql.SystemSessionProperties.getDynamicFilteringBloomFilterSize;
 import static io.prestosql.SystemSessionProperties.getDynamicFilteringMaxPerDriverRowCount;
 import static io.prestosql.SystemSessionProperties.getDynamicFilteringMaxPerDriverSize;
 import static io.prestosql.block.BlockAssertions.createBooleansBlock;
@@ -55,6 +59,7 @@ import static io.prestosql.testing.assertions.Assert.assertEquals;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static java.util.stream.Collectors.toList;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestDynamicFilterSourceOperator
@@ -64,6 +69,7 @@ public class TestDynamicFilterSourceOperator
     private PipelineContext pipelineContext;
 
     private ImmutableList.Builder<TupleDomain<String>> partitions;
+    private ImmutableList.Builder<Map<String, BlockedBloomFilter>> bloomFilters;
 
     @BeforeMethod
     public void setUp()
@@ -74,6 +80,7 @@ public class TestDynamicFilterSourceOperator
                 .addPipelineContext(0, true, true, false);
 
         partitions = ImmutableList.builder();
+        bloomFilters = ImmutableList.builder();
     }
 
     @AfterMethod(alwaysRun = true)
@@ -93,14 +100,21 @@ public class TestDynamicFilterSourceOperator
     }
 
     private OperatorFactory createOperatorFactory(DynamicFilterSourceOperator.Channel... buildChannels)
+    {
+        return createOperatorFactory(getDynamicFilteringBloomFilterSize(TEST_SESSION), buildChannels);
+    }
+
+    private OperatorFactory createOperatorFactory(DataSize bloomFilterSize, DynamicFilterSourceOperator.Channel... buildChannels)
     {
         return new DynamicFilterSourceOperator.DynamicFilterSourceOperatorFactory(
                 0,
                 new PlanNodeId("PLAN_NODE_ID"),
                 this::consumePredicate,
+                this::consumeBloomFilters,
                 Arrays.stream(buildChannels).collect(toList()),
                 getDynamicFilteringMaxPerDriverRowCount(TEST_SESSION),
-                getDynamicFilteringMaxPerDriverSize(TEST_SESSION));
+                getDynamicFilteringMaxPerDriverSize(TEST_SESSION),
+                bloomFilterSize);
     }
 
     private void consumePredicate(TupleDomain<String> partitionPredicate)
@@ -108,6 +122,11 @@ public class TestDynamicFilterSourceOperator
         partitions.add(partitionPredicate);
     }
 
+    private void consumeBloomFilters(Map<String, BlockedBloomFilter> partitionBloomFilters)
+    {
+        bloomFilters.add(partitionBloomFilters);
+    }
+
     private Operator createOperator(OperatorFactory operatorFactory)
     {
         return operatorFactory.createOperator(pipelineContext.addDriverContext());
@@ -297,4 +316,46 @@ public class TestDynamicFilterSourceOperator
                 TupleDomain.withColumnDomains(ImmutableMap.of(
                         "0", Domain.create(ValueSet.of(BIGINT, 7L), false)))));
     }
+
+    @Test
+    public void testCollectTooMuchRowsBloomFilter()
+    {
+        final int maxRowCount = getDynamicFilteringMaxPerDriverRowCount(pipelineContext.getSession());
+        Page smallPage = new Page(createLongsBlock(-1, -2));
+        Page largePage = createSequencePage(ImmutableList.of(BIGINT), maxRowCount * 10);
+
+        OperatorFactory operatorFactory = createOperatorFactory(DataSize.of(1, MEGABYTE), channel(0, BIGINT));
+        verifyPassthrough(createOperator(operatorFactory),
+                ImmutableList.of(BIGINT),
+                smallPage, largePage);
+        operatorFactory.noMoreOperators();
+        assertEquals(partitions.build(), ImmutableList.of(TupleDomain.all()));
+
+        List<Map<String, BlockedBloomFilter>> actualBloomFilters = bloomFilters.build();
+        assertEquals(actualBloomFilters.size(), 1);
+        BlockedBloomFilter bloomFilter = actualBloomFilters.get(0).get("0");
+        assertEquals(bloomFilter.getType(), BIGINT);
+        // values collected both before and after exceeding the limits must be contained
+        for (Page page : ImmutableList.of(smallPage, largePage)) {
+            Block block = page.getBlock(0);
+            for (int position = 0; position < block.getPositionCount(); position++) {
+                assertTrue(bloomFilter.mightContain(block, position));
+            }
+        }
+    }
+
+    @Test
+    public void testCollectTooMuchRowsBloomFilterDisabled()
+    {
+        final int maxRowCount = getDynamicFilteringMaxPerDriverRowCount(pipelineContext.getSession());
+        Page largePage = createSequencePage(ImmutableList.of(BIGINT), maxRowCount + 1);
+
+        OperatorFactory operatorFactory = createOperatorFactory(DataSize.ofBytes(0), channel(0, BIGINT));
+        verifyPassthrough(createOperator(operatorFactory),
+                ImmutableList.of(BIGINT),
+                largePage);
+        operatorFactory.noMoreOperators();
+        assertEquals(partitions.build(), ImmutableList.of(TupleDomain.all()));
+        assertEquals(bloomFilters.build(), ImmutableList.of());
+    }
 }
@@ -0,0 +1,68 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static io.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
+import static io.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
+import static io.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.HOURS;
+
+public class TestFileFragmentResultCacheConfig
+{
+    @Test
+    public void testDefaults()
+    {
+        assertRecordedDefaults(recordDefaults(FileFragmentResultCacheConfig.class)
+                .setEnabled(false)
+                .setBaseDirectory(null)
+                .setMaxCacheSize(DataSize.of(100, GIGABYTE))
+                .setMaxEntrySize(DataSize.of(1, MEGABYTE))
+                .setMaxInFlightSize(DataSize.of(100, MEGABYTE))
+                .setCacheTtl(new Duration(2, DAYS)));
+    }
+
+    @Test
+    public void testExplicitPropertyMappings()
+    {
+        Map<String, String> properties = new ImmutableMap.Builder<String, String>()
+                .put("fragment-result-cache.enabled", "true")
+                .put("fragment-result-cache.base-directory", "/tmp/fragment-result-cache")
+                .put("fragment-result-cache.max-cache-size", "10GB")
+                .put("fragment-result-cache.max-entry-size", "512kB")
+                .put("fragment-result-cache.max-in-flight-size", "50MB")
+                .put("fragment-result-cache.cache-ttl", "1h")
+                .build();
+
+        FileFragmentResultCacheConfig expected = new FileFragmentResultCacheConfig()
+                .setEnabled(true)
+                .setBaseDirectory("/tmp/fragment-result-cache")
+                .setMaxCacheSize(DataSize.of(10, GIGABYTE))
+                .setMaxEntrySize(DataSize.of(512, KILOBYTE))
+                .setMaxInFlightSize(DataSize.of(50, MEGABYTE))
+                .setCacheTtl(new Duration(1, HOURS));
+
+        assertFullMapping(properties, expected);
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import io.prestosql.Session;
+import io.prestosql.connector.CatalogName;
+import io.prestosql.execution.Lifespan;
+import io.prestosql.metadata.Split;
+import io.prestosql.operator.FragmentResultCacheManager.CachedResult;
+import io.prestosql.spi.HostAddress;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.connector.ConnectorSplit;
+import io.prestosql.spi.type.Type;
+import io.prestosql.sql.planner.plan.PlanNode;
+import io.prestosql.sql.planner.plan.PlanNodeId;
+import io.prestosql.sql.planner.plan.ValuesNode;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static io.airlift.json.JsonCodec.jsonCodec;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.prestosql.SequencePageBuilder.createSequencePage;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.operator.PageAssertions.assertPageEquals;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.TimeZoneKey.getTimeZoneKey;
+import static io.prestosql.testing.TestingSession.testSessionBuilder;
+import static java.nio.file.Files.createTempDirectory;
+import static java.nio.file.Files.list;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestFileFragmentResultCacheManager
+{
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT);
+    private static final String PLAN_KEY = "plan";
+
+    private Path baseDirectory;
+
+    @BeforeMethod
+    public void setUp()
+            throws IOException
+    {
+        baseDirectory = createTempDirectory(getClass().getSimpleName());
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(baseDirectory, ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testPutAndGet()
+    {
+        FileFragmentResultCacheManager cacheManager = createCacheManager(DataSize.of(100, KILOBYTE));
+        Split split = createSplit("file-1");
+        List<Page> pages = ImmutableList.of(createSequencePage(TYPES, 100, 0), createSequencePage(TYPES, 50, 100));
+
+        assertFalse(cacheManager.get(PLAN_KEY, split).isPresent());
+        cacheManager.put(PLAN_KEY, split, pages);
+
+        assertCachedPages(cacheManager.get(PLAN_KEY, split), pages);
+
+        // results of other plans or other splits are not shared
+        assertFalse(cacheManager.get("other plan", split).isPresent());
+        assertFalse(cacheManager.get(PLAN_KEY, createSplit("file-2")).isPresent());
+
+        assertEquals(cacheManager.getCacheHits(), 1);
+        assertEquals(cacheManager.getCacheMisses(), 3);
+        assertEquals(cacheManager.getCacheWrites(), 1);
+        assertEquals(cacheManager.getCacheEntries(), 1);
+        assertTrue(cacheManager.getCacheSizeInBytes() > 0);
+        assertEquals(cacheManager.getInFlightBytes(), 0);
+    }
+
+    @Test
+    public void testUncacheableResults()
+    {
+        FileFragmentResultCacheManager cacheManager = createCacheManager(DataSize.of(1, KILOBYTE));
+
+        // too large to cache
+        Split split = createSplit("file-1");
+        cacheManager.put(PLAN_KEY, split, ImmutableList.of(createSequencePage(TYPES, 10_000, 0)));
+        assertFalse(cacheManager.get(PLAN_KEY, split).isPresent());
+
+        // the data read by the split may change
+        Split changingSplit = createSplit(null);
+        cacheManager.put(PLAN_KEY, changingSplit, ImmutableList.of(createSequencePage(TYPES, 10, 0)));
+        assertFalse(cacheManager.get(PLAN_KEY, changingSplit).isPresent());
+
+        assertEquals(cacheManager.getCacheWrites(), 0);
+        assertEquals(cacheManager.getCacheEntries(), 0);
+    }
+
+    @Test
+    public void testEvictionWhileReading()
+            throws IOException
+    {
+        FileFragmentResultCacheManager cacheManager = createCacheManager(DataSize.of(100, KILOBYTE));
+        Split split = createSplit("file-1");
+        List<Page> pages = ImmutableList.of(createSequencePage(TYPES, 100, 0));
+        cacheManager.put(PLAN_KEY, split, pages);
+
+        // the file is only read when the pages are
+        Optional<CachedResult> result = cacheManager.get(PLAN_KEY, split);
+        assertTrue(result.isPresent());
+        assertEquals(result.get().getRetainedSizeInBytes(), 0);
+
+        cacheManager.invalidateAll();
+        assertFalse(cacheManager.get(PLAN_KEY, split).isPresent());
+        assertEquals(countCacheFiles(), 1);
+
+        assertCachedPages(result, pages);
+        assertEquals(countCacheFiles(), 0);
+    }
+
+    @Test
+    public void testPlanKey()
+    {
+        PlanNode plan = new ValuesNode(new PlanNodeId("values"), ImmutableList.of(), ImmutableList.of());
+        PlanNode otherPlan = new ValuesNode(new PlanNodeId("other"), ImmutableList.of(), ImmutableList.of());
+        Session session = testSessionBuilder().build();
+
+        FileFragmentResultCacheManager cacheManager = createCacheManager(DataSize.of(1, KILOBYTE));
+        assertTrue(cacheManager.getPlanKey(plan, session).isPresent());
+        assertEquals(cacheManager.getPlanKey(plan, session), cacheManager.getPlanKey(plan, session));
+        assertNotEquals(cacheManager.getPlanKey(plan, session), cacheManager.getPlanKey(otherPlan, session));
+
+        Session otherSession = testSessionBuilder()
+                .setSystemProperty("legacy_timestamp", "false")
+                .build();
+        assertNotEquals(cacheManager.getPlanKey(plan, session), cacheManager.getPlanKey(plan, otherSession));
+
+        FileFragmentResultCacheManager disabledCacheManager = new FileFragmentResultCacheManager(
+                new FileFragmentResultCacheConfig(),
+                createTestMetadataManager().getBlockEncodingSerde(),
+                jsonCodec(PlanNode.class),
+                newDirectExecutorService());
+        assertFalse(disabledCacheManager.getPlanKey(plan, session).isPresent());
+    }
+
+    @Test
+    public void testTimeZones()
+    {
+        // the same fragment, such as a projection of CAST(timestamp AS date), computes different results in different time zones
+        PlanNode plan = new ValuesNode(new PlanNodeId("values"), ImmutableList.of(), ImmutableList.of());
+        Session losAngeles = testSessionBuilder()
+                .setTimeZoneKey(getTimeZoneKey("America/Los_Angeles"))
+                .build();
+        Session tokyo = testSessionBuilder()
+                .setTimeZoneKey(getTimeZoneKey("Asia/Tokyo"))
+                .build();
+
+        FileFragmentResultCacheManager cacheManager = createCacheManager(DataSize.of(100, KILOBYTE));
+        String losAngelesPlanKey = cacheManager.getPlanKey(plan, losAngeles).orElseThrow();
+        String tokyoPlanKey = cacheManager.getPlanKey(plan, tokyo).orElseThrow();
+        assertNotEquals(losAngelesPlanKey, tokyoPlanKey);
+
+        Split split = createSplit("file-1");
+        Instant timestamp = Instant.parse("2020-05-01T20:00:00Z");
+        List<Page> losAngelesPages = ImmutableList.of(createDatePage(timestamp, losAngeles));
+        List<Page> tokyoPages = ImmutableList.of(createDatePage(timestamp, tokyo));
+        assertNotEquals(DATE.getLong(losAngelesPages.get(0).getBlock(0), 0), DATE.getLong(tokyoPages.get(0).getBlock(0), 0));
+
+        cacheManager.put(losAngelesPlanKey, split, losAngelesPages);
+        assertFalse(cacheManager.get(tokyoPlanKey, split).isPresent());
+        cacheManager.put(tokyoPlanKey, split, tokyoPages);
+
+        assertCachedPages(DATE, cacheManager.get(losAngelesPlanKey, split), losAngelesPages);
+        assertCachedPages(DATE, cacheManager.get(tokyoPlanKey, split), tokyoPages);
+    }
+
+    private static Page createDatePage(Instant timestamp, Session session)
+    {
+        long days = timestamp.atZone(ZoneId.of(session.getTimeZoneKey().getId())).toLocalDate().toEpochDay();
+        BlockBuilder blockBuilder = DATE.createBlockBuilder(null, 1);
+        DATE.writeLong(blockBuilder, days);
+        return new Page(blockBuilder.build());
+    }
+
+    private static void assertCachedPages(Optional<CachedResult> result, List<Page> expectedPages)
+    {
+        assertCachedPages(BIGINT, result, expectedPages);
+    }
+
+    private static void assertCachedPages(Type type, Optional<CachedResult> result, List<Page> expectedPages)
+    {
+        assertTrue(result.isPresent());
+        List<Page> cachedPages;
+        try (CachedResult pages = result.get()) {
+            cachedPages = ImmutableList.copyOf(pages);
+        }
+        assertEquals(cachedPages.size(), expectedPages.size());
+        for (int i = 0; i < expectedPages.size(); i++) {
+            assertPageEquals(ImmutableList.of(type), cachedPages.get(i), expectedPages.get(i));
+        }
+    }
+
+    private long countCacheFiles()
+            throws IOException
+    {
+        try (Stream<Path> files = list(baseDirectory)) {
+            return files.count();
+        }
+    }
+
+    private FileFragmentResultCacheManager createCacheManager(DataSize maxEntrySize)
+    {
+        FileFragmentResultCacheConfig config = new FileFragmentResultCacheConfig()
+                .setEnabled(true)
+                .setBaseDirectory(baseDirectory.toString())
+                .setMaxEntrySize(maxEntrySize);
+        FileFragmentResultCacheManager cacheManager = new FileFragmentResultCacheManager(
+                config,
+                createTestMetadataManager().getBlockEncodingSerde(),
+                jsonCodec(PlanNode.class),
+                newDirectExecutorService());
+        cacheManager.initialize();
+        return cacheManager;
+    }
+
+    private static Split createSplit(String identity)
+    {
+        return new Split(new CatalogName("test"), new IdentifiedSplit(Optional.ofNullable(identity)), Lifespan.taskWide());
+    }
+
+    private static class IdentifiedSplit
+            implements ConnectorSplit
+    {
+        private final Optional<String> identity;
+
+        public IdentifiedSplit(Optional<String> identity)
+        {
+            this.identity = identity;
+        }
+
+        @Override
+        public boolean isRemotelyAccessible()
+        {
+            return true;
+        }
+
+        @Override
+        public List<HostAddress> getAddresses()
+        {
+            return ImmutableList.of();
+        }
+
+        @Override
+        public Object getInfo()
+        {
+            return this;
+        }
+
+        @Override
+        public Optional<String> getSplitIdentity()
+        {
+            return identity;
+        }
+    }
+}
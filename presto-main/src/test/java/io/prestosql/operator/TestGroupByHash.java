@@ -19,6 +19,7 @@ import io.prestosql.block.BlockAssertions;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
 import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.block.DictionaryBlock;
 import io.prestosql.spi.block.DictionaryId;
 import io.prestosql.spi.type.Type;
@@ -32,6 +33,7 @@ import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
@@ -43,7 +45,13 @@ import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.operator.GroupByHash.createGroupByHash;
 import static io.prestosql.spi.block.DictionaryId.randomDictionaryId;
 import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.BooleanType.BOOLEAN;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.DecimalType.createDecimalType;
 import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.SmallintType.SMALLINT;
+import static io.prestosql.spi.type.TinyintType.TINYINT;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static io.prestosql.type.TypeUtils.getHashBlock;
 import static org.testng.Assert.assertEquals;
@@ -441,4 +449,143 @@ public class TestGroupByHash
         assertEquals(currentQuota.get(), 10);
         assertEquals(currentQuota.get() / 3, yields);
     }
+
+    @Test
+    public void testFixedWidthGroupByHashSelection()
+    {
+        assertTrue(createGroupByHash(TEST_SESSION, ImmutableList.of(BIGINT, BIGINT), new int[] {0, 1}, Optional.empty(), 100, JOIN_COMPILER) instanceof FixedWidthGroupByHash);
+        assertTrue(createGroupByHash(TEST_SESSION, ImmutableList.of(BIGINT, INTEGER, SMALLINT, BOOLEAN), new int[] {0, 1, 2, 3}, Optional.of(4), 100, JOIN_COMPILER) instanceof FixedWidthGroupByHash);
+        // keys wider than 16 bytes or with variable width columns are not packed
+        assertTrue(createGroupByHash(TEST_SESSION, ImmutableList.of(BIGINT, BIGINT, INTEGER), new int[] {0, 1, 2}, Optional.empty(), 100, JOIN_COMPILER) instanceof MultiChannelGroupByHash);
+        assertTrue(createGroupByHash(TEST_SESSION, ImmutableList.of(BIGINT, VARCHAR), new int[] {0, 1}, Optional.empty(), 100, JOIN_COMPILER) instanceof MultiChannelGroupByHash);
+        assertTrue(createGroupByHash(TEST_SESSION, ImmutableList.of(BIGINT, createDecimalType(20, 2)), new int[] {0, 1}, Optional.empty(), 100, JOIN_COMPILER) instanceof MultiChannelGroupByHash);
+    }
+
+    @DataProvider
+    public Object[][] hashEnabled()
+    {
+        return new Object[][] {{true}, {false}};
+    }
+
+    @Test(dataProvider = "hashEnabled")
+    public void testFixedWidthGroupByHash(boolean hashEnabled)
+    {
+        assertFixedWidthGroupByHash(ImmutableList.of(BIGINT, INTEGER, SMALLINT, BOOLEAN), hashEnabled);
+        assertFixedWidthGroupByHash(ImmutableList.of(createDecimalType(10, 2), DATE, TINYINT), hashEnabled);
+    }
+
+    private static void assertFixedWidthGroupByHash(List<Type> types, boolean hashEnabled)
+    {
+        int positionCount = 10_000;
+        Block[] blocks = new Block[types.size()];
+        for (int channel = 0; channel < types.size(); channel++) {
+            Type type = types.get(channel);
+            BlockBuilder blockBuilder = type.createBlockBuilder(null, positionCount);
+            for (int position = 0; position < positionCount; position++) {
+                int value = ThreadLocalRandom.current().nextInt(-8, 8);
+                if (value == 0) {
+                    blockBuilder.appendNull();
+                }
+                else if (type.equals(BOOLEAN)) {
+                    type.writeBoolean(blockBuilder, value > 0);
+                }
+                else {
+                    type.writeLong(blockBuilder, value);
+                }
+            }
+            blocks[channel] = blockBuilder.build();
+        }
+        int[] hashChannels = IntStream.range(0, types.size()).toArray();
+        Optional<Integer> hashChannel = Optional.empty();
+        Page page = new Page(blocks);
+        if (hashEnabled) {
+            hashChannel = Optional.of(types.size());
+            page = page.appendColumn(getHashBlock(types, blocks));
+        }
+
+        GroupByHash fixedWidthGroupByHash = new FixedWidthGroupByHash(types, hashChannels, hashChannel, 1, UpdateMemory.NOOP);
+        GroupByHash multiChannelGroupByHash = new MultiChannelGroupByHash(types, hashChannels, hashChannel, 1, false, JOIN_COMPILER, UpdateMemory.NOOP);
+        Work<GroupByIdBlock> fixedWidthWork = fixedWidthGroupByHash.getGroupIds(page);
+        assertTrue(fixedWidthWork.process());
+        Work<GroupByIdBlock> multiChannelWork = multiChannelGroupByHash.getGroupIds(page);
+        assertTrue(multiChannelWork.process());
+
+        // the groups are numbered in the order of their first row, so both hashes must produce the same ids
+        BlockAssertions.assertBlockEquals(BIGINT, fixedWidthWork.getResult(), multiChannelWork.getResult());
+        assertEquals(fixedWidthGroupByHash.getGroupCount(), multiChannelGroupByHash.getGroupCount());
+        assertEquals(fixedWidthGroupByHash.getTypes(), multiChannelGroupByHash.getTypes());
+
+        PageBuilder fixedWidthPageBuilder = new PageBuilder(fixedWidthGroupByHash.getTypes());
+        PageBuilder multiChannelPageBuilder = new PageBuilder(multiChannelGroupByHash.getTypes());
+        for (int groupId = 0; groupId < fixedWidthGroupByHash.getGroupCount(); groupId++) {
+            assertEquals(fixedWidthGroupByHash.getRawHash(groupId), multiChannelGroupByHash.getRawHash(groupId));
+            fixedWidthPageBuilder.declarePosition();
+            fixedWidthGroupByHash.appendValuesTo(groupId, fixedWidthPageBuilder, 0);
+            multiChannelPageBuilder.declarePosition();
+            multiChannelGroupByHash.appendValuesTo(groupId, multiChannelPageBuilder, 0);
+        }
+        Page fixedWidthPage = fixedWidthPageBuilder.build();
+        Page multiChannelPage = multiChannelPageBuilder.build();
+        for (int channel = 0; channel < fixedWidthGroupByHash.getTypes().size(); channel++) {
+            BlockAssertions.assertBlockEquals(fixedWidthGroupByHash.getTypes().get(channel), fixedWidthPage.getBlock(channel), multiChannelPage.getBlock(channel));
+        }
+
+        for (int position = 0; position < positionCount; position++) {
+            assertTrue(fixedWidthGroupByHash.contains(position, page, hashChannels));
+        }
+        Block[] missingValueBlocks = new Block[types.size()];
+        for (int channel = 0; channel < types.size(); channel++) {
+            Type type = types.get(channel);
+            BlockBuilder blockBuilder = type.createBlockBuilder(null, 1);
+            if (type.equals(BOOLEAN)) {
+                type.writeBoolean(blockBuilder, true);
+            }
+            else {
+                type.writeLong(blockBuilder, 100);
+            }
+            missingValueBlocks[channel] = blockBuilder.build();
+        }
+        assertFalse(fixedWidthGroupByHash.contains(0, new Page(missingValueBlocks), hashChannels));
+    }
+
+    @Test
+    public void testFixedWidthGroupByHashMemoryReservationYield()
+    {
+        int length = 1_000_000;
+        Block valuesBlock = createLongSequenceBlock(0, length);
+        Block negatedValuesBlock = createLongSequenceBlock(-length + 1, 1);
+        Page page = new Page(valuesBlock, negatedValuesBlock);
+        AtomicInteger currentQuota = new AtomicInteger(0);
+        AtomicInteger allowedQuota = new AtomicInteger(3);
+        UpdateMemory updateMemory = () -> {
+            if (currentQuota.get() < allowedQuota.get()) {
+                currentQuota.getAndIncrement();
+                return true;
+            }
+            return false;
+        };
+        int yields = 0;
+
+        GroupByHash groupByHash = createGroupByHash(ImmutableList.of(BIGINT, BIGINT), new int[] {0, 1}, Optional.empty(), 1, false, JOIN_COMPILER, updateMemory);
+        assertTrue(groupByHash instanceof FixedWidthGroupByHash);
+        boolean finish = false;
+        Work<?> addPageWork = groupByHash.addPage(page);
+        while (!finish) {
+            finish = addPageWork.process();
+            if (!finish) {
+                assertEquals(currentQuota.get(), allowedQuota.get());
+                // assert if we are blocked, we are going to be blocked again without changing allowedQuota
+                assertFalse(addPageWork.process());
+                assertEquals(currentQuota.get(), allowedQuota.get());
+                yields++;
+                allowedQuota.getAndAdd(3);
+            }
+        }
+
+        // assert there is not anything missing
+        assertEquals(length, groupByHash.getGroupCount());
+        // the rehash count is 20 = log2(1_000_000 / 0.75)
+        assertEquals(currentQuota.get(), 20);
+        assertEquals(currentQuota.get() / 3, yields);
+    }
 }
@@ -27,6 +27,7 @@ import io.prestosql.operator.HashAggregationOperator.HashAggregationOperatorFact
 import io.prestosql.operator.aggregation.InternalAggregationFunction;
 import io.prestosql.operator.aggregation.builder.HashAggregationBuilder;
 import io.prestosql.operator.aggregation.builder.InMemoryHashAggregationBuilder;
+import io.prestosql.operator.aggregation.partial.PartialAggregationController;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.block.PageBuilderStatus;
@@ -58,6 +59,7 @@ import static com.google.common.util.concurrent.Futures.immediateFailedFuture;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.slice.SizeOf.SIZE_OF_DOUBLE;
 import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
+import static io.airlift.slice.SizeOf.sizeOf;
 import static io.airlift.testing.Assertions.assertEqualsIgnoreOrder;
 import static io.airlift.testing.Assertions.assertGreaterThan;
 import static io.airlift.units.DataSize.Unit.KILOBYTE;
@@ -87,6 +89,7 @@ import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
@@ -192,6 +195,7 @@ public class TestHashAggregationOperator
                 Optional.empty(),
                 100_000,
                 Optional.of(DataSize.of(16, MEGABYTE)),
+                Optional.empty(),
                 spillEnabled,
                 succinctBytes(memoryLimitForMerge),
                 succinctBytes(memoryLimitForMergeWithMemory),
@@ -249,6 +253,7 @@ public class TestHashAggregationOperator
                 groupIdChannel,
                 100_000,
                 Optional.of(DataSize.of(16, MEGABYTE)),
+                Optional.empty(),
                 spillEnabled,
                 succinctBytes(memoryLimitForMerge),
                 succinctBytes(memoryLimitForMergeWithMemory),
@@ -297,6 +302,7 @@ public class TestHashAggregationOperator
                 Optional.empty(),
                 100_000,
                 Optional.of(DataSize.of(16, MEGABYTE)),
+                Optional.empty(),
                 spillEnabled,
                 succinctBytes(memoryLimitForMerge),
                 succinctBytes(memoryLimitForMergeWithMemory),
@@ -379,6 +385,7 @@ public class TestHashAggregationOperator
                 Optional.empty(),
                 100_000,
                 Optional.of(DataSize.of(16, MEGABYTE)),
+                Optional.empty(),
                 spillEnabled,
                 succinctBytes(memoryLimitForMerge),
                 succinctBytes(memoryLimitForMergeWithMemory),
@@ -579,6 +586,140 @@ public class TestHashAggregationOperator
         assertEquals(driverContext.getMemoryUsage(), 0);
     }
 
+    @Test(dataProvider = "hashEnabled")
+    public void testAdaptivePartialAggregation(boolean hashEnabled)
+            throws Exception
+    {
+        List<Integer> hashChannels = Ints.asList(0);
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, hashChannels, BIGINT);
+        List<Page> input = rowPagesBuilder
+                .addSequencePage(8, 0)
+                .row(8L).row(8L).row(9L)
+                .build();
+
+        PartialAggregationController partialAggregationController = new PartialAggregationController(8, 0.5);
+        HashAggregationOperatorFactory operatorFactory = createPartialAggregationOperatorFactory(rowPagesBuilder.getHashChannel(), partialAggregationController);
+
+        DriverContext driverContext = createDriverContext();
+        try (Operator operator = operatorFactory.createOperator(driverContext)) {
+            List<Page> outputPages = toPages(operator, input.iterator());
+            if (hashEnabled) {
+                outputPages = dropChannel(outputPages, ImmutableList.of(1));
+            }
+
+            // rows after the first page are not aggregated anymore
+            MaterializedResult expected = resultBuilder(driverContext.getSession(), BIGINT, BIGINT)
+                    .row(0L, 0L).row(1L, 1L).row(2L, 2L).row(3L, 3L)
+                    .row(4L, 4L).row(5L, 5L).row(6L, 6L).row(7L, 7L)
+                    .row(8L, 8L).row(8L, 8L).row(9L, 9L)
+                    .build();
+            MaterializedResult actual = toMaterializedResult(driverContext.getSession(), expected.getTypes(), outputPages);
+            assertEqualsIgnoreOrder(actual.getMaterializedRows(), expected.getMaterializedRows());
+
+            assertTrue(partialAggregationController.isPartialAggregationDisabled());
+            OperatorInfo info = operator.getOperatorContext().getOperatorStats().getInfo();
+            assertThat(info).isInstanceOf(PartialAggregationInfo.class);
+            PartialAggregationInfo partialAggregationInfo = (PartialAggregationInfo) info;
+            assertEquals(partialAggregationInfo.getAggregatedRows(), 8);
+            assertEquals(partialAggregationInfo.getUniqueRows(), 8);
+            assertEquals(partialAggregationInfo.getSkippedRows(), 3);
+        }
+    }
+
+    @Test
+    public void testAdaptivePartialAggregationMemory()
+            throws Exception
+    {
+        List<Integer> hashChannels = Ints.asList(0);
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(false, hashChannels, BIGINT);
+        List<Page> input = rowPagesBuilder
+                .addSequencePage(8, 0)
+                .addSequencePage(100, 8)
+                .addSequencePage(10, 108)
+                .build();
+
+        PartialAggregationController partialAggregationController = new PartialAggregationController(8, 0.5);
+        HashAggregationOperatorFactory operatorFactory = createPartialAggregationOperatorFactory(Optional.empty(), partialAggregationController);
+
+        DriverContext driverContext = createDriverContext();
+        try (Operator operator = operatorFactory.createOperator(driverContext)) {
+            operator.addInput(input.get(0));
+            assertEquals(getOutputPositionCount(operator), 8);
+            assertTrue(partialAggregationController.isPartialAggregationDisabled());
+
+            // the group ids of the skipped rows are accounted, and reused by the following smaller page
+            operator.addInput(input.get(1));
+            assertEquals(getOutputPositionCount(operator), 100);
+            assertEquals(driverContext.getSystemMemoryUsage(), sizeOf(new long[100]));
+            operator.addInput(input.get(2));
+            assertEquals(getOutputPositionCount(operator), 10);
+            assertEquals(driverContext.getSystemMemoryUsage(), sizeOf(new long[100]));
+
+            operator.finish();
+            assertEquals(getOutputPositionCount(operator), 0);
+            assertTrue(operator.isFinished());
+            assertEquals(driverContext.getSystemMemoryUsage(), 0);
+        }
+    }
+
+    @Test
+    public void testAdaptivePartialAggregationWithGoodReduction()
+    {
+        List<Integer> hashChannels = Ints.asList(0);
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(false, hashChannels, BIGINT);
+        List<Page> input = rowPagesBuilder
+                .row(1L).row(1L).row(1L).row(2L)
+                .pageBreak()
+                .row(1L).row(2L).row(2L).row(2L)
+                .build();
+
+        PartialAggregationController partialAggregationController = new PartialAggregationController(4, 0.8);
+        HashAggregationOperatorFactory operatorFactory = createPartialAggregationOperatorFactory(Optional.empty(), partialAggregationController);
+
+        DriverContext driverContext = createDriverContext();
+        MaterializedResult expected = resultBuilder(driverContext.getSession(), BIGINT, BIGINT)
+                .row(1L, 1L)
+                .row(2L, 2L)
+                .build();
+        assertOperatorEqualsIgnoreOrder(operatorFactory, driverContext, input, expected);
+        assertFalse(partialAggregationController.isPartialAggregationDisabled());
+    }
+
+    private static int getOutputPositionCount(Operator operator)
+    {
+        int positionCount = 0;
+        while (!operator.needsInput() && !operator.isFinished()) {
+            Page output = operator.getOutput();
+            if (output != null) {
+                positionCount += output.getPositionCount();
+            }
+        }
+        return positionCount;
+    }
+
+    private HashAggregationOperatorFactory createPartialAggregationOperatorFactory(Optional<Integer> hashChannel, PartialAggregationController partialAggregationController)
+    {
+        return new HashAggregationOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(BIGINT),
+                Ints.asList(0),
+                ImmutableList.of(),
+                Step.PARTIAL,
+                false,
+                ImmutableList.of(LONG_MIN.bind(ImmutableList.of(0), Optional.empty())),
+                hashChannel,
+                Optional.empty(),
+                100_000,
+                Optional.of(DataSize.of(16, MEGABYTE)),
+                Optional.of(partialAggregationController),
+                false,
+                DataSize.of(0, MEGABYTE),
+                spillerFactory,
+                joinCompiler,
+                true);
+    }
+
     @Test
     public void testMergeWithMemorySpill()
     {
@@ -604,6 +745,7 @@ public class TestHashAggregationOperator
                 Optional.empty(),
                 1,
                 Optional.of(DataSize.of(16, MEGABYTE)),
+                Optional.empty(),
                 true,
                 DataSize.ofBytes(smallPagesSpillThresholdSize),
                 succinctBytes(Integer.MAX_VALUE),
@@ -660,6 +802,7 @@ public class TestHashAggregationOperator
                 Optional.empty(),
                 100_000,
                 Optional.of(DataSize.of(16, MEGABYTE)),
+                Optional.empty(),
                 true,
                 succinctBytes(8),
                 succinctBytes(Integer.MAX_VALUE),
@@ -22,6 +22,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.units.DataSize;
 import io.prestosql.ExceededMemoryLimitException;
 import io.prestosql.RowPagesBuilder;
+import io.prestosql.Session;
 import io.prestosql.execution.Lifespan;
 import io.prestosql.execution.TaskId;
 import io.prestosql.execution.TaskStateMachine;
@@ -80,6 +81,7 @@ import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.testing.Assertions.assertEqualsIgnoreOrder;
 import static io.prestosql.RowPagesBuilder.rowPagesBuilder;
 import static io.prestosql.SessionTestUtils.TEST_SESSION;
+import static io.prestosql.SystemSessionProperties.RADIX_PARTITIONED_JOIN;
 import static io.prestosql.operator.OperatorAssertion.assertOperatorEquals;
 import static io.prestosql.operator.OperatorAssertion.dropChannel;
 import static io.prestosql.operator.OperatorAssertion.without;
@@ -197,6 +199,53 @@ public class TestHashJoinOperator
         assertOperatorEquals(joinOperatorFactory, taskContext.addPipelineContext(0, true, true, false).addDriverContext(), probeInput, expected, true, getHashChannels(probePages, buildPages));
     }
 
+    @Test(dataProvider = "hashJoinTestValues")
+    public void testInnerJoinRadixPartitioned(boolean parallelBuild, boolean probeHashEnabled, boolean buildHashEnabled)
+    {
+        // enough rows for the hash tables to be split in several sub-tables, with most keys present twice
+        RowPagesBuilder buildPages = rowPagesBuilder(buildHashEnabled, Ints.asList(0), ImmutableList.of(BIGINT, BIGINT));
+        for (int page = 0; page < 40; page++) {
+            buildPages.addSequencePage(10_000, page * 5_000, page * 10_000);
+        }
+
+        RowPagesBuilder probePages = rowPagesBuilder(probeHashEnabled, Ints.asList(0), ImmutableList.of(BIGINT, BIGINT));
+        List<Page> probeInput = probePages
+                .addSequencePage(1000, -500, 0)
+                .row(null, 1L)
+                .addSequencePage(1000, 150_000, 0)
+                .addSequencePage(10_000, 199_000, 0)
+                .build();
+
+        // the radix partitioned join must produce the same rows in the same order
+        TaskContext taskContext = createTaskContext();
+        List<Page> expectedPages = OperatorAssertion.toPages(
+                createInnerJoin(parallelBuild, taskContext, buildPages, probePages),
+                taskContext.addPipelineContext(0, true, true, false).addDriverContext(),
+                probeInput);
+        List<Integer> hashChannels = getHashChannels(probePages, buildPages);
+        MaterializedResult expected = OperatorAssertion.toMaterializedResult(
+                taskContext.getSession(),
+                without(concat(probePages.getTypes(), buildPages.getTypes()), hashChannels),
+                dropChannel(expectedPages, hashChannels));
+        assertEquals(expected.getRowCount(), 500 + 2_000 + 7_000);
+
+        Session session = Session.builder(TEST_SESSION)
+                .setSystemProperty(RADIX_PARTITIONED_JOIN, "true")
+                .build();
+        taskContext = TestingTaskContext.createTaskContext(executor, scheduledExecutor, session);
+        OperatorFactory joinOperatorFactory = createInnerJoin(parallelBuild, taskContext, buildPages, probePages);
+        assertOperatorEquals(joinOperatorFactory, taskContext.addPipelineContext(0, true, true, false).addDriverContext(), probeInput, expected, true, hashChannels);
+    }
+
+    private OperatorFactory createInnerJoin(boolean parallelBuild, TaskContext taskContext, RowPagesBuilder buildPages, RowPagesBuilder probePages)
+    {
+        BuildSideSetup buildSideSetup = setupBuildSide(parallelBuild, taskContext, Ints.asList(0), buildPages, Optional.empty(), false, SINGLE_STREAM_SPILLER_FACTORY);
+        OperatorFactory joinOperatorFactory = innerJoinOperatorFactory(buildSideSetup.getLookupSourceFactoryManager(), probePages, PARTITIONING_SPILLER_FACTORY);
+        instantiateBuildDrivers(buildSideSetup, taskContext);
+        buildLookupSource(buildSideSetup);
+        return joinOperatorFactory;
+    }
+
     @Test
     public void testYield()
     {
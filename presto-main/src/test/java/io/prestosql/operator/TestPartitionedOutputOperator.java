@@ -20,6 +20,7 @@ import io.prestosql.execution.buffer.OutputBuffers;
 import io.prestosql.execution.buffer.PagesSerdeFactory;
 import io.prestosql.execution.buffer.PartitionedOutputBuffer;
 import io.prestosql.memory.context.SimpleLocalMemoryContext;
+import io.prestosql.operator.PartitionedOutputOperator.PartitionedOutputInfo;
 import io.prestosql.operator.exchange.LocalPartitionGenerator;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
@@ -31,6 +32,7 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
@@ -177,6 +179,37 @@ public class TestPartitionedOutputOperator
         assertEquals(operatorContext.getOutputPositions().getTotalCount(), PAGE_COUNT * PARTITION_COUNT * TESTING_PAGE_WITH_NULL_BLOCK.getPositionCount());
     }
 
+    @Test
+    public void testPartitionSkew()
+    {
+        PartitionedOutputOperator partitionedOutputOperator = createPartitionedOutputOperator(false);
+        for (int i = 0; i < PAGE_COUNT; i++) {
+            partitionedOutputOperator.addInput(TESTING_PAGE);
+        }
+        partitionedOutputOperator.finish();
+
+        PartitionedOutputInfo evenInfo = partitionedOutputOperator.getInfo();
+        assertEquals(evenInfo.getPartitionRowsAdded().length, PARTITION_COUNT);
+        assertEquals(Arrays.stream(evenInfo.getPartitionRowsAdded()).sum(), PAGE_COUNT * POSITIONS_PER_PAGE);
+        assertEquals(evenInfo.getHeavyHitterPartitions(), ImmutableList.of());
+
+        // all rows have the same value, so they are sent to a single partition
+        partitionedOutputOperator = createPartitionedOutputOperator(false);
+        for (int i = 0; i < PAGE_COUNT; i++) {
+            partitionedOutputOperator.addInput(new Page(TESTING_RLE_BLOCK));
+        }
+        partitionedOutputOperator.finish();
+
+        PartitionedOutputInfo skewedInfo = partitionedOutputOperator.getInfo();
+        assertEquals(skewedInfo.getMaxPartitionRowsAdded(), PAGE_COUNT * POSITIONS_PER_PAGE);
+        assertEquals(skewedInfo.getPartitionSkew(), (double) PARTITION_COUNT);
+        assertEquals(skewedInfo.getHeavyHitterPartitions().size(), 1);
+
+        PartitionedOutputInfo merged = evenInfo.mergeWith(skewedInfo);
+        assertEquals(merged.getRowsAdded(), 2 * PAGE_COUNT * POSITIONS_PER_PAGE);
+        assertEquals(merged.getHeavyHitterPartitions(), skewedInfo.getHeavyHitterPartitions());
+    }
+
     private PartitionedOutputOperator createPartitionedOutputOperator(boolean shouldReplicate)
     {
         PartitionFunction partitionFunction = new LocalPartitionGenerator(new InterpretedHashGenerator(ImmutableList.of(BIGINT), new int[] {0}), PARTITION_COUNT);
@@ -13,8 +13,10 @@
  */
 package io.prestosql.operator;
 
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
 import com.google.common.primitives.Ints;
 import io.prestosql.RowPagesBuilder;
@@ -22,6 +24,7 @@ import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.type.Type;
+import io.prestosql.spiller.GenericPartitioningSpillerFactory;
 import io.prestosql.sql.gen.JoinCompiler;
 import io.prestosql.sql.planner.plan.PlanNodeId;
 import io.prestosql.testing.MaterializedResult;
@@ -34,8 +37,11 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.testing.Assertions.assertEqualsIgnoreOrder;
 import static io.airlift.testing.Assertions.assertGreaterThan;
@@ -49,6 +55,7 @@ import static io.prestosql.operator.OperatorAssertion.toPages;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.DoubleType.DOUBLE;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static io.prestosql.spiller.PartitioningSpillerFactory.unsupportedPartitioningSpillerFactory;
 import static io.prestosql.testing.MaterializedResult.resultBuilder;
 import static io.prestosql.testing.TestingTaskContext.createTaskContext;
 import static java.util.concurrent.Executors.newCachedThreadPool;
@@ -125,7 +132,9 @@ public class TestRowNumberOperator
                 Optional.empty(),
                 Optional.empty(),
                 10,
-                joinCompiler);
+                joinCompiler,
+                false,
+                unsupportedPartitioningSpillerFactory());
 
         MaterializedResult expectedResult = resultBuilder(driverContext.getSession(), DOUBLE, BIGINT)
                 .row(0.3, 1L)
@@ -164,7 +173,9 @@ public class TestRowNumberOperator
                 Optional.empty(),
                 Optional.empty(),
                 1,
-                joinCompiler);
+                joinCompiler,
+                false,
+                unsupportedPartitioningSpillerFactory());
 
         // get result with yield; pick a relatively small buffer for partitionRowCount's memory usage
         GroupByHashYieldAssertion.GroupByHashYieldResult result = finishOperatorWithYieldingGroupByHash(input, type, operatorFactory, operator -> ((RowNumberOperator) operator).getCapacity(), 1_400_000);
@@ -182,6 +193,52 @@ public class TestRowNumberOperator
         assertEquals(count, 6_000 * 600);
     }
 
+    @Test(dataProvider = "hashEnabledValues")
+    public void testRowNumberPartitionedWithSpill(boolean hashEnabled)
+    {
+        DriverContext driverContext = getDriverContext();
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, Ints.asList(0), BIGINT, BIGINT);
+        for (int page = 0; page < 3; page++) {
+            for (long row = 0; row < 100; row++) {
+                rowPagesBuilder.row(row % 10, page * 100 + row);
+            }
+            rowPagesBuilder.pageBreak();
+        }
+        List<Page> input = rowPagesBuilder.build();
+
+        DummySingleStreamSpillerFactory spillerFactory = new DummySingleStreamSpillerFactory();
+        RowNumberOperator.RowNumberOperatorFactory operatorFactory = new RowNumberOperator.RowNumberOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                rowPagesBuilder.getTypes(),
+                IntStream.range(0, rowPagesBuilder.getTypes().size()).boxed().collect(toImmutableList()),
+                Ints.asList(0),
+                ImmutableList.of(BIGINT),
+                Optional.empty(),
+                rowPagesBuilder.getHashChannel(),
+                10,
+                joinCompiler,
+                true,
+                new GenericPartitioningSpillerFactory(spillerFactory));
+
+        List<Page> pages = toPages(operatorFactory, driverContext, input);
+        assertGreaterThan(spillerFactory.getSpillsCount(), 0L);
+
+        // every partition is numbered from 1 to 30, regardless of the order in which the rows were processed
+        SetMultimap<Long, Long> rowNumbers = HashMultimap.create();
+        for (Page page : pages) {
+            int rowNumberChannel = page.getChannelCount() - 1;
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                rowNumbers.put(BIGINT.getLong(page.getBlock(0), position), BIGINT.getLong(page.getBlock(rowNumberChannel), position));
+            }
+        }
+        assertEquals(rowNumbers.keySet().size(), 10);
+        for (long partition = 0; partition < 10; partition++) {
+            assertEquals(rowNumbers.get(partition), LongStream.rangeClosed(1, 30).boxed().collect(toImmutableSet()));
+        }
+        assertEquals(getRowNumberColumn(pages).getPositionCount(), 300);
+    }
+
     @Test(dataProvider = "hashEnabledValues")
     public void testRowNumberPartitioned(boolean hashEnabled)
     {
@@ -212,7 +269,9 @@ public class TestRowNumberOperator
                 Optional.of(10),
                 rowPagesBuilder.getHashChannel(),
                 10,
-                joinCompiler);
+                joinCompiler,
+                false,
+                unsupportedPartitioningSpillerFactory());
 
         MaterializedResult expectedPartition1 = resultBuilder(driverContext.getSession(), DOUBLE, BIGINT)
                 .row(0.3, 1L)
@@ -278,7 +337,9 @@ public class TestRowNumberOperator
                 Optional.of(3),
                 Optional.empty(),
                 10,
-                joinCompiler);
+                joinCompiler,
+                false,
+                unsupportedPartitioningSpillerFactory());
 
         MaterializedResult expectedPartition1 = resultBuilder(driverContext.getSession(), DOUBLE, BIGINT)
                 .row(0.3, 1L)
@@ -347,7 +408,9 @@ public class TestRowNumberOperator
                 Optional.of(3),
                 Optional.empty(),
                 10,
-                joinCompiler);
+                joinCompiler,
+                false,
+                unsupportedPartitioningSpillerFactory());
 
         MaterializedResult expectedRows = resultBuilder(driverContext.getSession(), DOUBLE, BIGINT, BIGINT)
                 .row(0.3, 1L)
@@ -14,6 +14,7 @@
 package io.prestosql.operator;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.airlift.units.DataSize;
 import io.prestosql.SequencePageBuilder;
 import io.prestosql.block.BlockAssertions;
@@ -46,6 +47,7 @@ import org.testng.annotations.Test;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Supplier;
@@ -111,6 +113,7 @@ public class TestScanFilterAndProjectOperator
                 TEST_TABLE_HANDLE,
                 ImmutableList.of(),
                 TupleDomain::all,
+                ImmutableMap::of,
                 ImmutableList.of(VARCHAR),
                 DataSize.ofBytes(0),
                 0);
@@ -126,6 +129,51 @@ public class TestScanFilterAndProjectOperator
         assertEquals(actual, expected);
     }
 
+    @Test
+    public void testPageSourceBloomFilter()
+    {
+        final Page input = SequencePageBuilder.createSequencePage(ImmutableList.of(BIGINT), 1000, 0);
+        DriverContext driverContext = newDriverContext();
+
+        // the build side contains only the first 100 values
+        BlockedBloomFilter bloomFilter = new BlockedBloomFilter(BIGINT, DataSize.of(64, KILOBYTE).toBytes());
+        Block buildValues = BlockAssertions.createLongSequenceBlock(0, 100);
+        for (int position = 0; position < buildValues.getPositionCount(); position++) {
+            bloomFilter.put(buildValues, position);
+        }
+
+        List<RowExpression> projections = ImmutableList.of(field(0, BIGINT));
+        Supplier<CursorProcessor> cursorProcessor = expressionCompiler.compileCursorProcessor(Optional.empty(), projections, "key");
+        Supplier<PageProcessor> pageProcessor = expressionCompiler.compilePageProcessor(Optional.empty(), projections);
+
+        ScanFilterAndProjectOperator.ScanFilterAndProjectOperatorFactory factory = new ScanFilterAndProjectOperator.ScanFilterAndProjectOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                new PlanNodeId("0"),
+                (session, split, table, columns, dynamicFilter) -> new FixedPageSource(ImmutableList.of(input)),
+                cursorProcessor,
+                pageProcessor,
+                TEST_TABLE_HANDLE,
+                ImmutableList.of(),
+                TupleDomain::all,
+                () -> ImmutableMap.of(0, bloomFilter),
+                ImmutableList.of(BIGINT),
+                DataSize.ofBytes(0),
+                0);
+
+        SourceOperator operator = factory.createOperator(driverContext);
+        operator.addSplit(new Split(new CatalogName("test"), TestingSplit.createLocalSplit(), Lifespan.taskWide()));
+        operator.noMoreSplits();
+
+        MaterializedResult actual = toMaterializedResult(driverContext.getSession(), ImmutableList.of(BIGINT), toPages(operator));
+        Set<Object> values = actual.getOnlyColumnAsSet();
+        // all the matching rows are kept, while most of the other rows are dropped
+        for (long value = 0; value < 100; value++) {
+            assertTrue(values.contains(value));
+        }
+        assertTrue(actual.getRowCount() < 200);
+    }
+
     @Test
     public void testPageSourceMergeOutput()
     {
@@ -155,6 +203,7 @@ public class TestScanFilterAndProjectOperator
                 TEST_TABLE_HANDLE,
                 ImmutableList.of(),
                 TupleDomain::all,
+                ImmutableMap::of,
                 ImmutableList.of(BIGINT),
                 DataSize.of(64, KILOBYTE),
                 2);
@@ -200,6 +249,7 @@ public class TestScanFilterAndProjectOperator
                 TEST_TABLE_HANDLE,
                 ImmutableList.of(),
                 TupleDomain::all,
+                ImmutableMap::of,
                 ImmutableList.of(BIGINT),
                 DataSize.ofBytes(0),
                 0);
@@ -235,6 +285,7 @@ public class TestScanFilterAndProjectOperator
                 TEST_TABLE_HANDLE,
                 ImmutableList.of(),
                 TupleDomain::all,
+                ImmutableMap::of,
                 ImmutableList.of(VARCHAR),
                 DataSize.ofBytes(0),
                 0);
@@ -288,6 +339,7 @@ public class TestScanFilterAndProjectOperator
                 TEST_TABLE_HANDLE,
                 ImmutableList.of(),
                 TupleDomain::all,
+                ImmutableMap::of,
                 ImmutableList.of(BIGINT),
                 DataSize.ofBytes(0),
                 0);
@@ -354,6 +406,7 @@ public class TestScanFilterAndProjectOperator
                 TEST_TABLE_HANDLE,
                 ImmutableList.of(),
                 TupleDomain::all,
+                ImmutableMap::of,
                 ImmutableList.of(BIGINT),
                 DataSize.ofBytes(0),
                 0);
@@ -14,7 +14,6 @@
 package io.prestosql.operator.spiller;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.util.concurrent.MoreExecutors;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
 import io.prestosql.spi.block.BlockEncodingSerde;
@@ -28,6 +27,7 @@ import io.prestosql.tpch.LineItem;
 import io.prestosql.tpch.LineItemGenerator;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
 import org.openjdk.jmh.annotations.Param;
@@ -44,12 +44,14 @@ import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.DoubleType.DOUBLE;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static io.prestosql.spi.type.VarcharType.createUnboundedVarcharType;
+import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 @State(Scope.Thread)
@@ -84,6 +86,44 @@ public class BenchmarkBinaryFileSpiller
         }
     }
 
+    @Benchmark
+    public long readThroughput(SpilledData data)
+    {
+        long bytes = 0;
+        for (Iterator<Page> spill : data.getSpiller().getSpills()) {
+            while (spill.hasNext()) {
+                bytes += spill.next().getSizeInBytes();
+            }
+        }
+        return bytes;
+    }
+
+    @State(Scope.Thread)
+    public static class SpilledData
+    {
+        private Spiller spiller;
+
+        // spilled pages can only be read once, so every invocation reads a new spill
+        @Setup(Level.Invocation)
+        public void setup(BenchmarkData data)
+                throws ExecutionException, InterruptedException
+        {
+            spiller = data.createSpiller();
+            spiller.spill(data.getPages().iterator()).get();
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown()
+        {
+            spiller.close();
+        }
+
+        public Spiller getSpiller()
+        {
+            return spiller;
+        }
+    }
+
     @State(Scope.Thread)
     public static class BenchmarkData
     {
@@ -101,6 +141,9 @@ public class BenchmarkBinaryFileSpiller
         @Param("true")
         private boolean encryptionEnabled;
 
+        @Param({"0", "4"})
+        private int readAheadPages;
+
         private List<Page> pages;
         private Spiller readSpiller;
 
@@ -112,13 +155,15 @@ public class BenchmarkBinaryFileSpiller
                 throws ExecutionException, InterruptedException
         {
             singleStreamSpillerFactory = new FileSingleStreamSpillerFactory(
-                    MoreExecutors.newDirectExecutorService(),
+                    listeningDecorator(newCachedThreadPool()),
                     BLOCK_ENCODING_SERDE,
                     spillerStats,
                     ImmutableList.of(SPILL_PATH),
                     1.0,
                     compressionEnabled,
-                    encryptionEnabled);
+                    encryptionEnabled,
+                    readAheadPages,
+                    false);
             spillerFactory = new GenericSpillerFactory(singleStreamSpillerFactory);
             pages = createInputPages();
             readSpiller = spillerFactory.create(TYPES, bytes -> {}, newSimpleAggregatedMemoryContext());
@@ -13,16 +13,30 @@
  */
 package io.prestosql.operator.window;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.metadata.ResolvedFunction;
+import io.prestosql.operator.PagesIndex;
+import io.prestosql.operator.aggregation.InternalAggregationFunction;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.type.ArrayType;
+import io.prestosql.sql.tree.QualifiedName;
 import io.prestosql.testing.MaterializedResult;
 import org.intellij.lang.annotations.Language;
 import org.testng.annotations.Test;
 
 import static io.prestosql.SessionTestUtils.TEST_SESSION;
+import static io.prestosql.block.BlockAssertions.createLongSequenceBlock;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.DoubleType.DOUBLE;
 import static io.prestosql.spi.type.IntegerType.INTEGER;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static io.prestosql.sql.analyzer.TypeSignatureProvider.fromTypes;
 import static io.prestosql.testing.MaterializedResult.resultBuilder;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class TestAggregateWindowFunction
         extends AbstractTestWindowFunction
@@ -595,4 +609,69 @@ public class TestAggregateWindowFunction
                         .row(null, null, null)
                         .build());
     }
+
+    @Test
+    public void testLargeSlidingFrames()
+    {
+        // frames which are large enough to be evaluated using partial aggregations
+        assertSlidingFrame("max", "ROWS BETWEEN 200 PRECEDING AND CURRENT ROW", "y BETWEEN x - 200 AND x");
+        assertSlidingFrame("min", "ROWS BETWEEN 100 PRECEDING AND 37 FOLLOWING", "y BETWEEN x - 100 AND x + 37");
+        assertSlidingFrame("bitwise_or_agg", "ROWS BETWEEN 500 FOLLOWING AND 650 FOLLOWING", "y BETWEEN x + 500 AND x + 650");
+        // input order has to be preserved
+        assertSlidingFrame("array_agg", "ROWS BETWEEN 300 PRECEDING AND 5 FOLLOWING", "y BETWEEN x - 300 AND x + 5", "ORDER BY y");
+    }
+
+    @Test
+    public void testSegmentTreeMemory()
+    {
+        PagesIndex pagesIndex = new PagesIndex.TestingFactory(false).newPagesIndex(ImmutableList.of(BIGINT), 2000);
+        pagesIndex.addPage(new Page(createLongSequenceBlock(0, 2000)));
+        PagesWindowIndex windowIndex = new PagesWindowIndex(pagesIndex, 0, 2000);
+
+        // the segment tree of fixed-width intermediate states is reported
+        AggregateWindowFunction max = createAggregateWindowFunction("max");
+        max.reset(windowIndex);
+        max.processRow(BIGINT.createBlockBuilder(null, 1), 0, 0, 500, 1000);
+        assertTrue(max.getEstimatedSize() > 0);
+        max.reset(windowIndex);
+        assertEquals(max.getEstimatedSize(), 0);
+
+        // variable-width intermediate states are not summarized in a segment tree
+        AggregateWindowFunction arrayAgg = createAggregateWindowFunction("array_agg");
+        arrayAgg.reset(windowIndex);
+        arrayAgg.processRow(new ArrayType(BIGINT).createBlockBuilder(null, 1), 0, 0, 500, 1000);
+        assertEquals(arrayAgg.getEstimatedSize(), 0);
+    }
+
+    private static AggregateWindowFunction createAggregateWindowFunction(String name)
+    {
+        Metadata metadata = createTestMetadataManager();
+        ResolvedFunction resolvedFunction = metadata.resolveFunction(QualifiedName.of(name), fromTypes(BIGINT));
+        InternalAggregationFunction function = metadata.getAggregateFunctionImplementation(resolvedFunction);
+        return (AggregateWindowFunction) AggregateWindowFunction.supplier(resolvedFunction.getSignature(), function)
+                .createWindowFunction(ImmutableList.of(0), false);
+    }
+
+    private void assertSlidingFrame(String function, String frame, String frameCondition)
+    {
+        assertSlidingFrame(function, frame, frameCondition, "");
+    }
+
+    private void assertSlidingFrame(String function, String frame, String frameCondition, String orderBy)
+    {
+        String values = "SELECT x, (x * 7919) % 1009 AS v FROM UNNEST(sequence(1, 2000)) t(x)";
+        MaterializedResult actual = queryRunner.execute(String.format(
+                "SELECT x, %s(v) OVER (ORDER BY x %s) FROM (%s)",
+                function,
+                frame,
+                values));
+        MaterializedResult expected = queryRunner.execute(String.format(
+                "SELECT x, (SELECT %s(v %s) FROM (%s) WHERE %s) FROM (%s)",
+                function,
+                orderBy,
+                values.replace("x", "y"),
+                frameCondition,
+                values));
+        assertEquals(ImmutableSet.copyOf(actual.getMaterializedRows()), ImmutableSet.copyOf(expected.getMaterializedRows()));
+    }
 }
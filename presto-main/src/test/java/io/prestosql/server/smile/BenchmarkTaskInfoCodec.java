@@ -0,0 +1,175 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server.smile;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import io.airlift.json.JsonCodec;
+import io.airlift.json.ObjectMapperProvider;
+import io.prestosql.execution.TaskId;
+import io.prestosql.execution.TaskInfo;
+import io.prestosql.operator.TaskStats;
+import io.prestosql.operator.TestOperatorStats;
+import io.prestosql.operator.TestPipelineStats;
+import io.prestosql.operator.TestTaskStats;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.testng.annotations.Test;
+
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import static io.prestosql.execution.TaskInfo.createInitialTask;
+import static io.prestosql.server.smile.JsonCodecWrapper.wrapJsonCodec;
+import static io.prestosql.server.smile.SmileCodec.smileCodec;
+import static java.lang.String.format;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Compares the cost of encoding and decoding a large {@link TaskInfo} with per operator
+ * stats, as exchanged between the coordinator and the workers, in JSON and in Smile.
+ * The serialized sizes are printed before the benchmark runs.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkTaskInfoCodec
+{
+    private static final int PIPELINES = 10;
+    private static final int OPERATORS_PER_PIPELINE = 10;
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({"json", "smile"})
+        private String encoding = "smile";
+
+        private Codec<TaskInfo> codec;
+        private TaskInfo taskInfo;
+        private byte[] bytes;
+
+        @Setup
+        public void setup()
+        {
+            codec = createCodec(encoding);
+            taskInfo = createTaskInfo();
+            bytes = codec.toBytes(taskInfo);
+        }
+    }
+
+    @Benchmark
+    public byte[] encode(BenchmarkData data)
+    {
+        return data.codec.toBytes(data.taskInfo);
+    }
+
+    @Benchmark
+    public TaskInfo decode(BenchmarkData data)
+    {
+        return data.codec.fromBytes(data.bytes);
+    }
+
+    private static Codec<TaskInfo> createCodec(String encoding)
+    {
+        switch (encoding) {
+            case "json":
+                return wrapJsonCodec(JsonCodec.jsonCodec(TaskInfo.class));
+            case "smile":
+                return smileCodec(TaskInfo.class);
+        }
+        throw new IllegalArgumentException("Unsupported encoding: " + encoding);
+    }
+
+    private static TaskInfo createTaskInfo()
+    {
+        // repeat the pipeline and operator stats of the tests to get the size of a task of a complex query
+        ObjectMapper mapper = new ObjectMapperProvider().get();
+        ObjectNode taskStats = mapper.valueToTree(TestTaskStats.EXPECTED);
+        ArrayNode pipelines = taskStats.putArray("pipelines");
+        for (int pipeline = 0; pipeline < PIPELINES; pipeline++) {
+            ObjectNode pipelineStats = mapper.valueToTree(TestPipelineStats.EXPECTED);
+            pipelineStats.put("pipelineId", pipeline);
+            ArrayNode operators = pipelineStats.putArray("operatorSummaries");
+            for (int operator = 0; operator < OPERATORS_PER_PIPELINE; operator++) {
+                ObjectNode operatorStats = mapper.valueToTree(TestOperatorStats.EXPECTED);
+                operatorStats.put("pipelineId", pipeline);
+                operatorStats.put("operatorId", operator);
+                operators.add(operatorStats);
+            }
+            pipelines.add(pipelineStats);
+        }
+
+        try {
+            return createInitialTask(
+                    new TaskId("query", 1, 2),
+                    URI.create("http://localhost:8080/v1/task/query.1.2"),
+                    "node",
+                    ImmutableList.of(),
+                    mapper.treeToValue(taskStats, TaskStats.class));
+        }
+        catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Test
+    public void testBenchmark()
+    {
+        JsonCodec<TaskInfo> jsonCodec = JsonCodec.jsonCodec(TaskInfo.class);
+        for (String encoding : ImmutableList.of("json", "smile")) {
+            BenchmarkData data = new BenchmarkData();
+            data.encoding = encoding;
+            data.setup();
+            assertEquals(jsonCodec.toJson(decode(data)), jsonCodec.toJson(data.taskInfo));
+            assertEquals(encode(data), data.bytes);
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        TaskInfo taskInfo = createTaskInfo();
+        for (String encoding : ImmutableList.of("json", "smile")) {
+            System.out.println(format("%s: %s bytes", encoding, createCodec(encoding).toBytes(taskInfo).length));
+        }
+
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkTaskInfoCodec.class.getSimpleName() + ".*")
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server.smile;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.json.JsonCodec;
+import io.prestosql.execution.TaskId;
+import io.prestosql.execution.TaskInfo;
+import io.prestosql.execution.TaskStatus;
+import io.prestosql.operator.TaskStats;
+import io.prestosql.operator.TestTaskStats;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+
+import static io.prestosql.execution.TaskInfo.createInitialTask;
+import static io.prestosql.operator.TestTaskStats.assertExpectedTaskStats;
+import static io.prestosql.server.smile.SmileCodec.smileCodec;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestSmileCodec
+{
+    @Test
+    public void testRoundTrip()
+    {
+        SmileCodec<TaskStats> codec = smileCodec(TaskStats.class);
+        assertExpectedTaskStats(codec.fromBytes(codec.toBytes(TestTaskStats.EXPECTED)));
+    }
+
+    @Test
+    public void testSameValueAsJson()
+    {
+        TaskInfo taskInfo = createInitialTask(new TaskId("query", 1, 2), URI.create("http://localhost"), "node", ImmutableList.of(), TestTaskStats.EXPECTED);
+        JsonCodec<TaskInfo> jsonCodec = JsonCodec.jsonCodec(TaskInfo.class);
+        SmileCodec<TaskInfo> smileCodec = smileCodec(TaskInfo.class);
+
+        byte[] smile = smileCodec.toBytes(taskInfo);
+        byte[] json = jsonCodec.toJsonBytes(taskInfo);
+        assertEquals(jsonCodec.toJson(smileCodec.fromBytes(smile)), jsonCodec.toJson(taskInfo));
+        assertTrue(smile.length < json.length, "Smile is not smaller than JSON");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "Invalid Smile bytes for .*TaskStatus.*")
+    public void testInvalidBytes()
+    {
+        // JSON is not valid Smile
+        smileCodec(TaskStatus.class).fromBytes(JsonCodec.jsonCodec(TaskStats.class).toJsonBytes(TestTaskStats.EXPECTED));
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spiller;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.compress.lz4.Lz4Compressor;
+import io.airlift.compress.lz4.Lz4Decompressor;
+import io.prestosql.execution.buffer.PagesSerde;
+import io.prestosql.execution.buffer.SerializedPage;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.type.Type;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.operator.PageAssertions.assertPageEquals;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+
+/**
+ * Measures the round trip of pages through {@link PagesSerde}, as done by the exchanges
+ * and the spill files. Run with the GC profiler to see the allocation rate per page.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkPagesSerde
+{
+    private static final int PAGES = 100;
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, VARCHAR);
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({"true", "false"})
+        private boolean compressed = true;
+
+        @Param({"true", "false"})
+        private boolean encrypted = true;
+
+        private List<Page> pages;
+        private List<SerializedPage> serializedPages;
+        private PagesSerde serde;
+        private Optional<SpillCipher> spillCipher;
+
+        @Setup
+        public void setup()
+        {
+            spillCipher = encrypted ? Optional.of(new AesSpillCipher()) : Optional.empty();
+            serde = new PagesSerde(
+                    createTestMetadataManager().getBlockEncodingSerde(),
+                    compressed ? Optional.of(new Lz4Compressor()) : Optional.empty(),
+                    compressed ? Optional.of(new Lz4Decompressor()) : Optional.empty(),
+                    spillCipher);
+
+            ImmutableList.Builder<Page> pages = ImmutableList.builder();
+            for (int i = 0; i < PAGES; i++) {
+                pages.add(createPage());
+            }
+            this.pages = pages.build();
+            serializedPages = this.pages.stream()
+                    .map(serde::serialize)
+                    .collect(ImmutableList.toImmutableList());
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            spillCipher.ifPresent(SpillCipher::close);
+        }
+
+        private static Page createPage()
+        {
+            PageBuilder pageBuilder = new PageBuilder(TYPES);
+            while (!pageBuilder.isFull()) {
+                pageBuilder.declarePosition();
+                // a small range of values, so that the pages can be compressed
+                int value = ThreadLocalRandom.current().nextInt(1000);
+                BIGINT.writeLong(pageBuilder.getBlockBuilder(0), value);
+                VARCHAR.writeSlice(pageBuilder.getBlockBuilder(1), utf8Slice("value_" + value));
+            }
+            return pageBuilder.build();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGES)
+    public long serialize(BenchmarkData data)
+    {
+        long size = 0;
+        for (Page page : data.pages) {
+            size += data.serde.serialize(page).getSizeInBytes();
+        }
+        return size;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGES)
+    public long deserialize(BenchmarkData data)
+    {
+        long positions = 0;
+        for (SerializedPage serializedPage : data.serializedPages) {
+            positions += data.serde.deserialize(serializedPage).getPositionCount();
+        }
+        return positions;
+    }
+
+    @Test
+    public void testBenchmark()
+    {
+        BenchmarkData data = new BenchmarkData();
+        data.setup();
+        try {
+            serialize(data);
+            deserialize(data);
+            for (int i = 0; i < PAGES; i++) {
+                assertPageEquals(TYPES, data.serde.deserialize(data.serializedPages.get(i)), data.pages.get(i));
+            }
+        }
+        finally {
+            data.tearDown();
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkPagesSerde.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -54,6 +54,7 @@ public class TestBinaryFileSpiller
     private SpillerStats spillerStats;
     private FileSingleStreamSpillerFactory singleStreamSpillerFactory;
     private SpillerFactory factory;
+    private PagesSerdeFactory pagesSerdeFactory;
     private PagesSerde pagesSerde;
     private AggregatedMemoryContext memoryContext;
 
@@ -68,7 +69,7 @@ public class TestBinaryFileSpiller
         NodeSpillConfig nodeSpillConfig = new NodeSpillConfig();
         singleStreamSpillerFactory = new FileSingleStreamSpillerFactory(metadata, spillerStats, featuresConfig, nodeSpillConfig);
         factory = new GenericSpillerFactory(singleStreamSpillerFactory);
-        PagesSerdeFactory pagesSerdeFactory = new PagesSerdeFactory(metadata.getBlockEncodingSerde(), nodeSpillConfig.isSpillCompressionEnabled());
+        pagesSerdeFactory = new PagesSerdeFactory(metadata.getBlockEncodingSerde(), nodeSpillConfig.isSpillCompressionEnabled());
         pagesSerde = pagesSerdeFactory.createPagesSerde();
         memoryContext = newSimpleAggregatedMemoryContext();
     }
@@ -135,18 +136,23 @@ public class TestBinaryFileSpiller
     {
         long spilledBytesBefore = spillerStats.getTotalSpilledBytes();
         long spilledBytes = 0;
+        long serdeRetainedBytes = 0;
 
         assertEquals(memoryContext.getBytes(), 0);
         for (List<Page> spill : spills) {
             spilledBytes += spill.stream()
                     .mapToLong(page -> pagesSerde.serialize(page).getSizeInBytes())
                     .sum();
+            // every spill is written by its own single stream spiller, which keeps the buffers of its serde
+            PagesSerde spillSerde = pagesSerdeFactory.createPagesSerde();
+            spill.forEach(spillSerde::serialize);
+            serdeRetainedBytes += spillSerde.getRetainedSizeInBytes();
             spiller.spill(spill.iterator()).get();
         }
         assertEquals(spillerStats.getTotalSpilledBytes() - spilledBytesBefore, spilledBytes);
         // At this point, the buffers should still be accounted for in the memory context, because
         // the spiller (FileSingleStreamSpiller) doesn't release its memory reservation until it's closed.
-        assertEquals(memoryContext.getBytes(), spills.length * FileSingleStreamSpiller.BUFFER_SIZE);
+        assertEquals(memoryContext.getBytes(), spills.length * FileSingleStreamSpiller.BUFFER_SIZE + serdeRetainedBytes);
 
         List<Iterator<Page>> actualSpills = spiller.getSpills();
         assertEquals(actualSpills.size(), spills.length);
@@ -19,6 +19,8 @@ import com.google.common.io.Files;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import io.airlift.slice.InputStreamSliceInput;
 import io.prestosql.execution.buffer.PageCodecMarker;
+import io.prestosql.execution.buffer.PagesSerde;
+import io.prestosql.execution.buffer.PagesSerdeFactory;
 import io.prestosql.execution.buffer.PagesSerdeUtil;
 import io.prestosql.execution.buffer.SerializedPage;
 import io.prestosql.memory.context.LocalMemoryContext;
@@ -31,6 +33,7 @@ import org.testng.annotations.Test;
 
 import java.io.File;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -38,6 +41,7 @@ import static com.google.common.io.MoreFiles.deleteRecursively;
 import static com.google.common.io.MoreFiles.listFiles;
 import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static io.prestosql.block.BlockAssertions.createLongSequenceBlock;
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.spi.type.BigintType.BIGINT;
@@ -47,6 +51,7 @@ import static java.lang.Double.doubleToLongBits;
 import static java.nio.file.Files.newInputStream;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
@@ -93,8 +98,66 @@ public class TestFileSingleStreamSpiller
         assertSpill(true, true);
     }
 
+    @Test
+    public void testSpillReadAhead()
+            throws Exception
+    {
+        assertSpill(false, false, 2);
+        assertSpill(true, true, 2);
+    }
+
+    @Test
+    public void testReadAheadPreservesOrder()
+            throws Exception
+    {
+        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                executor, // executor won't be closed, because we don't call destroy() on the spiller factory
+                createTestMetadataManager().getBlockEncodingSerde(),
+                new SpillerStats(),
+                ImmutableList.of(spillPath.toPath()),
+                1.0,
+                false,
+                false,
+                3,
+                false);
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+        SingleStreamSpiller spiller = spillerFactory.create(ImmutableList.of(BIGINT), bytes -> {}, memoryContext);
+
+        List<Page> pages = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            pages.add(new Page(createLongSequenceBlock(i * 10, (i + 1) * 10)));
+        }
+        spiller.spill(pages.iterator()).get();
+
+        // the buffers which the serde keeps for the next pages are accounted for
+        PagesSerde serde = new PagesSerdeFactory(createTestMetadataManager().getBlockEncodingSerde(), false).createPagesSerde();
+        pages.forEach(serde::serialize);
+        long buffersSize = FileSingleStreamSpiller.BUFFER_SIZE + serde.getRetainedSizeInBytes();
+        assertEquals(memoryContext.getBytes(), buffersSize);
+
+        Iterator<Page> spilledPages = spiller.getSpilledPages();
+        for (Page page : pages) {
+            assertTrue(spilledPages.hasNext());
+            PageAssertions.assertPageEquals(ImmutableList.of(BIGINT), spilledPages.next(), page);
+            // the pages which were read ahead are accounted for
+            assertTrue(memoryContext.getBytes() >= buffersSize);
+        }
+        assertFalse(spilledPages.hasNext());
+        assertEquals(memoryContext.getBytes(), buffersSize);
+
+        spiller.close();
+        assertEquals(listFiles(spillPath.toPath()).size(), 0);
+        assertEquals(memoryContext.getBytes(), 0);
+    }
+
     private void assertSpill(boolean compression, boolean encryption)
             throws Exception
+    {
+        assertSpill(compression, encryption, 0);
+    }
+
+    private void assertSpill(boolean compression, boolean encryption, int readAheadPages)
+            throws Exception
     {
         FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
                 executor, // executor won't be closed, because we don't call destroy() on the spiller factory
@@ -103,7 +166,9 @@ public class TestFileSingleStreamSpiller
                 ImmutableList.of(spillPath.toPath()),
                 1.0,
                 compression,
-                encryption);
+                encryption,
+                readAheadPages,
+                false);
         LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
         SingleStreamSpiller singleStreamSpiller = spillerFactory.create(TYPES, bytes -> {}, memoryContext);
         assertTrue(singleStreamSpiller instanceof FileSingleStreamSpiller);
@@ -116,6 +181,9 @@ public class TestFileSingleStreamSpiller
         spiller.spill(page).get();
         spiller.spill(Iterators.forArray(page, page, page)).get();
         assertEquals(listFiles(spillPath.toPath()).size(), 1);
+        // the serde buffers are accounted for as well
+        long buffersSize = memoryContext.getBytes();
+        assertTrue(buffersSize > FileSingleStreamSpiller.BUFFER_SIZE);
 
         // Assert the spill codec flags match the expected configuration
         try (InputStream is = newInputStream(listFiles(spillPath.toPath()).get(0))) {
@@ -131,7 +199,7 @@ public class TestFileSingleStreamSpiller
         // assertEquals(memoryContext.getBytes(), 0);
 
         Iterator<Page> spilledPagesIterator = spiller.getSpilledPages();
-        assertEquals(memoryContext.getBytes(), FileSingleStreamSpiller.BUFFER_SIZE);
+        assertTrue(memoryContext.getBytes() >= buffersSize);
         ImmutableList<Page> spilledPages = ImmutableList.copyOf(spilledPagesIterator);
         // The spillers release their memory reservations when they are closed, therefore at this point
         // they will have non-zero memory reservation.
@@ -38,8 +38,10 @@ import static com.google.common.io.MoreFiles.deleteRecursively;
 import static com.google.common.io.MoreFiles.listFiles;
 import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
 import static com.google.common.util.concurrent.Futures.getUnchecked;
+import static io.prestosql.block.BlockAssertions.createLongSequenceBlock;
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.operator.PageAssertions.assertPageEquals;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_PREFIX;
 import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_SUFFIX;
@@ -88,6 +90,8 @@ public class TestFileSingleStreamSpillerFactory
                 spillPaths,
                 1.0,
                 false,
+                false,
+                0,
                 false);
 
         assertEquals(listFiles(spillPath1.toPath()).size(), 0);
@@ -121,6 +125,8 @@ public class TestFileSingleStreamSpillerFactory
                 spillPaths,
                 1.0,
                 false,
+                false,
+                0,
                 false);
 
         assertEquals(listFiles(spillPath1.toPath()).size(), 0);
@@ -147,6 +153,46 @@ public class TestFileSingleStreamSpillerFactory
         assertEquals(listFiles(spillPath2.toPath()).size(), 0);
     }
 
+    @Test
+    public void testStripesSpillOverPaths()
+            throws Exception
+    {
+        List<Type> types = ImmutableList.of(BIGINT);
+        List<Path> spillPaths = ImmutableList.of(spillPath1.toPath(), spillPath2.toPath());
+        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                executor, // executor won't be closed, because we don't call destroy() on the spiller factory
+                blockEncodingSerde,
+                new SpillerStats(),
+                spillPaths,
+                1.0,
+                false,
+                false,
+                2,
+                true);
+
+        SingleStreamSpiller spiller = spillerFactory.create(types, bytes -> {}, newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"));
+        List<Page> pages = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            pages.add(new Page(createLongSequenceBlock(i, i + 3)));
+        }
+        getUnchecked(spiller.spill(pages.subList(0, 2).iterator()));
+        getUnchecked(spiller.spill(pages.subList(2, 5).iterator()));
+
+        // a single spill stream uses a file in every path
+        assertEquals(listFiles(spillPath1.toPath()).size(), 1);
+        assertEquals(listFiles(spillPath2.toPath()).size(), 1);
+
+        List<Page> spilledPages = ImmutableList.copyOf(spiller.getSpilledPages());
+        assertEquals(spilledPages.size(), pages.size());
+        for (int i = 0; i < pages.size(); i++) {
+            assertPageEquals(types, spilledPages.get(i), pages.get(i));
+        }
+
+        spiller.close();
+        assertEquals(listFiles(spillPath1.toPath()).size(), 0);
+        assertEquals(listFiles(spillPath2.toPath()).size(), 0);
+    }
+
     private Page buildPage()
     {
         BlockBuilder col1 = BIGINT.createBlockBuilder(null, 1);
@@ -166,6 +212,8 @@ public class TestFileSingleStreamSpillerFactory
                 spillPaths,
                 0.0,
                 false,
+                false,
+                0,
                 false);
 
         spillerFactory.create(types, bytes -> {}, newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"));
@@ -183,6 +231,8 @@ public class TestFileSingleStreamSpillerFactory
                 spillPaths,
                 1.0,
                 false,
+                false,
+                0,
                 false);
         spillerFactory.create(types, bytes -> {}, newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"));
     }
@@ -212,6 +262,8 @@ public class TestFileSingleStreamSpillerFactory
                 spillPaths,
                 1.0,
                 false,
+                false,
+                0,
                 false);
         spillerFactory.cleanupOldSpillFiles();
 
@@ -54,6 +54,7 @@ public class TestFeaturesConfig
                 .setDynamicScheduleForGroupedExecutionEnabled(false)
                 .setConcurrentLifespansPerTask(0)
                 .setFastInequalityJoins(true)
+                .setRadixPartitionedJoinsEnabled(false)
                 .setColocatedJoinsEnabled(false)
                 .setSpatialJoinsEnabled(true)
                 .setJoinReorderingStrategy(JoinReorderingStrategy.AUTOMATIC)
@@ -72,6 +73,10 @@ public class TestFeaturesConfig
                 .setSpillEnabled(false)
                 .setSpillOrderBy(true)
                 .setSpillWindowOperator(true)
+                .setSpillTopNRowNumber(true)
+                .setSpillRowNumber(true)
+                .setSpillMarkDistinct(true)
+                .setSpillDistinctLimit(true)
                 .setAggregationOperatorUnspillMemoryLimit(DataSize.valueOf("4MB"))
                 .setSpillerSpillPaths("")
                 .setSpillerThreads(4)
@@ -111,6 +116,11 @@ public class TestFeaturesConfig
                 .setEnableDynamicFiltering(true)
                 .setDynamicFilteringMaxPerDriverRowCount(100)
                 .setDynamicFilteringMaxPerDriverSize(DataSize.of(10, KILOBYTE))
+                .setDynamicFilteringBloomFilterSize(DataSize.ofBytes(0))
+                .setDynamicFilteringWaitTimeout(new Duration(0, SECONDS))
+                .setAdaptivePartialAggregationEnabled(false)
+                .setAdaptivePartialAggregationMinRows(100_000)
+                .setAdaptivePartialAggregationUniqueRowsRatioThreshold(0.8)
                 .setIgnoreDownstreamPreferences(false));
     }
 
@@ -135,6 +145,7 @@ public class TestFeaturesConfig
                 .put("dynamic-schedule-for-grouped-execution", "true")
                 .put("concurrent-lifespans-per-task", "1")
                 .put("fast-inequality-joins", "false")
+                .put("radix-partitioned-joins-enabled", "true")
                 .put("colocated-joins-enabled", "true")
                 .put("spatial-joins-enabled", "false")
                 .put("optimizer.join-reordering-strategy", "NONE")
@@ -157,6 +168,10 @@ public class TestFeaturesConfig
                 .put("spill-enabled", "true")
                 .put("spill-order-by", "false")
                 .put("spill-window-operator", "false")
+                .put("spill-topn-row-number", "false")
+                .put("spill-row-number", "false")
+                .put("spill-mark-distinct", "false")
+                .put("spill-distinct-limit", "false")
                 .put("aggregation-operator-unspill-memory-limit", "100MB")
                 .put("spiller-spill-path", "/tmp/custom/spill/path1,/tmp/custom/spill/path2")
                 .put("spiller-threads", "42")
@@ -185,6 +200,11 @@ public class TestFeaturesConfig
                 .put("enable-dynamic-filtering", "false")
                 .put("dynamic-filtering-max-per-driver-row-count", "256")
                 .put("dynamic-filtering-max-per-driver-size", "64kB")
+                .put("dynamic-filtering-bloom-filter-size", "4MB")
+                .put("dynamic-filtering-wait-timeout", "10s")
+                .put("adaptive-partial-aggregation.enabled", "true")
+                .put("adaptive-partial-aggregation.min-rows", "1000")
+                .put("adaptive-partial-aggregation.unique-rows-ratio-threshold", "0.5")
                 .put("optimizer.ignore-downstream-preferences", "true")
                 .build();
 
@@ -205,6 +225,7 @@ public class TestFeaturesConfig
                 .setDynamicScheduleForGroupedExecutionEnabled(true)
                 .setConcurrentLifespansPerTask(1)
                 .setFastInequalityJoins(false)
+                .setRadixPartitionedJoinsEnabled(true)
                 .setColocatedJoinsEnabled(true)
                 .setSpatialJoinsEnabled(false)
                 .setJoinReorderingStrategy(NONE)
@@ -227,6 +248,10 @@ public class TestFeaturesConfig
                 .setSpillEnabled(true)
                 .setSpillOrderBy(false)
                 .setSpillWindowOperator(false)
+                .setSpillTopNRowNumber(false)
+                .setSpillRowNumber(false)
+                .setSpillMarkDistinct(false)
+                .setSpillDistinctLimit(false)
                 .setAggregationOperatorUnspillMemoryLimit(DataSize.valueOf("100MB"))
                 .setSpillerSpillPaths("/tmp/custom/spill/path1,/tmp/custom/spill/path2")
                 .setSpillerThreads(42)
@@ -256,6 +281,11 @@ public class TestFeaturesConfig
                 .setEnableDynamicFiltering(false)
                 .setDynamicFilteringMaxPerDriverRowCount(256)
                 .setDynamicFilteringMaxPerDriverSize(DataSize.of(64, KILOBYTE))
+                .setDynamicFilteringBloomFilterSize(DataSize.of(4, MEGABYTE))
+                .setDynamicFilteringWaitTimeout(new Duration(10, SECONDS))
+                .setAdaptivePartialAggregationEnabled(true)
+                .setAdaptivePartialAggregationMinRows(1000)
+                .setAdaptivePartialAggregationUniqueRowsRatioThreshold(0.5)
                 .setIgnoreDownstreamPreferences(true);
         assertFullMapping(properties, expected);
     }
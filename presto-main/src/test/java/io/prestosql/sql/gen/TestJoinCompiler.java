@@ -253,6 +253,10 @@ public class TestJoinCompiler
                         assertEquals(hashStrategy.rowEqualsRow(leftBlockPosition, new Page(leftBlocks), rightPosition, new Page(rightBlocks)), expected);
                         assertEquals(hashStrategy.positionEqualsRowIgnoreNulls(leftBlockIndex, leftBlockPosition, rightPosition, new Page(rightBlocks)), expected);
                     }
+
+                    // the methods working on many rows at once must match the ones working on a single row
+                    assertRowsMethods(hashStrategy, expectedHashStrategy, leftBlockIndex, leftBlockPosition, new Page(rightBlocks));
+                    assertRowsMethods(expectedHashStrategy, expectedHashStrategy, leftBlockIndex, leftBlockPosition, new Page(rightBlocks));
                 }
 
                 // write position to output block
@@ -281,4 +285,28 @@ public class TestJoinCompiler
             }
         }
     }
+
+    private static void assertRowsMethods(PagesHashStrategy hashStrategy, PagesHashStrategy expectedHashStrategy, int leftBlockIndex, int leftBlockPosition, Page rightPage)
+    {
+        int positionCount = rightPage.getPositionCount();
+        int[] rightPositions = new int[positionCount];
+        int[] leftBlockIndexes = new int[positionCount];
+        int[] leftPositions = new int[positionCount];
+        boolean[] equal = new boolean[positionCount];
+        for (int position = 0; position < positionCount; position++) {
+            // visit the positions out of order
+            rightPositions[position] = positionCount - 1 - position;
+            leftBlockIndexes[position] = leftBlockIndex;
+            leftPositions[position] = leftBlockPosition;
+            equal[position] = true;
+        }
+
+        long[] hashes = new long[positionCount];
+        hashStrategy.hashRows(rightPositions, positionCount, rightPage, hashes);
+        hashStrategy.positionsEqualRowsIgnoreNulls(leftBlockIndexes, leftPositions, rightPositions, positionCount, rightPage, equal);
+        for (int i = 0; i < positionCount; i++) {
+            assertEquals(hashes[rightPositions[i]], expectedHashStrategy.hashRow(rightPositions[i], rightPage));
+            assertEquals(equal[i], expectedHashStrategy.positionEqualsRowIgnoreNulls(leftBlockIndex, leftBlockPosition, rightPositions[i], rightPage));
+        }
+    }
 }
@@ -13,12 +13,16 @@
  */
 package io.prestosql.sql.planner;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.io.Resources;
 import io.prestosql.Session;
+import io.prestosql.execution.QueryPreparer;
+import io.prestosql.execution.QueryPreparer.PreparedQuery;
 import io.prestosql.execution.warnings.WarningCollector;
 import io.prestosql.plugin.tpch.ColumnNaming;
 import io.prestosql.plugin.tpch.TpchConnectorFactory;
+import io.prestosql.sql.parser.SqlParser;
 import io.prestosql.testing.LocalQueryRunner;
 import io.prestosql.tpch.Customer;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -115,6 +119,44 @@ public class BenchmarkPlanner
         }
     }
 
+    @SuppressWarnings("FieldMayBeFinal")
+    @State(Scope.Benchmark)
+    public static class PreparedStatementData
+    {
+        // 0 parses the prepared statement on every execution, as without the cache
+        @Param({"0", "100"})
+        private String preparedStatementCacheSize = "100";
+
+        private QueryPreparer queryPreparer;
+        private List<String> executeStatements;
+        private Session session;
+
+        @Setup
+        public void setup()
+        {
+            BenchmarkData benchmarkData = new BenchmarkData();
+            Session.SessionBuilder sessionBuilder = testSessionBuilder();
+            ImmutableList.Builder<String> executeStatements = ImmutableList.builder();
+            for (int i = 1; i <= 22; i++) {
+                if (i != 15) {
+                    sessionBuilder.addPreparedStatement("q" + i, benchmarkData.readResource(format("/io/airlift/tpch/queries/q%d.sql", i)));
+                    executeStatements.add("EXECUTE q" + i);
+                }
+            }
+            session = sessionBuilder.build();
+            this.executeStatements = executeStatements.build();
+            queryPreparer = new QueryPreparer(new SqlParser(), Integer.parseInt(preparedStatementCacheSize));
+        }
+    }
+
+    @Benchmark
+    public List<PreparedQuery> prepareQueries(PreparedStatementData data)
+    {
+        return data.executeStatements.stream()
+                .map(statement -> data.queryPreparer.prepareQuery(data.session, statement))
+                .collect(toImmutableList());
+    }
+
     @Benchmark
     public List<Plan> planQueries(BenchmarkData benchmarkData)
     {
@@ -20,6 +20,9 @@ import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.prestosql.Session;
+import io.prestosql.memory.context.AggregatedMemoryContext;
+import io.prestosql.operator.BlockedBloomFilter;
+import io.prestosql.spi.block.Block;
 import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.sql.analyzer.FeaturesConfig.JoinDistributionType;
@@ -33,6 +36,7 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
 
@@ -41,11 +45,15 @@ import static io.prestosql.SystemSessionProperties.ENABLE_DYNAMIC_FILTERING;
 import static io.prestosql.SystemSessionProperties.FORCE_SINGLE_NODE_OUTPUT;
 import static io.prestosql.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
 import static io.prestosql.SystemSessionProperties.JOIN_REORDERING_STRATEGY;
+import static io.prestosql.block.BlockAssertions.createLongsBlock;
+import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.sql.DynamicFilters.getRemoteDynamicFilters;
 import static io.prestosql.sql.planner.LogicalPlanner.Stage.OPTIMIZED_AND_VALIDATED;
 import static io.prestosql.testing.assertions.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestLocalDynamicFilter
         extends BasePlanTest
@@ -125,6 +133,48 @@ public class TestLocalDynamicFilter
                 new Symbol("a"), Domain.multipleValues(INTEGER, ImmutableList.of(10L, 20L))));
     }
 
+    @Test
+    public void testBloomFilter()
+            throws ExecutionException, InterruptedException
+    {
+        AggregatedMemoryContext memoryContext = newSimpleAggregatedMemoryContext();
+        LocalDynamicFilter filter = new LocalDynamicFilter(
+                ImmutableMultimap.of("123", new Symbol("a")),
+                ImmutableMap.of("123", 0),
+                ImmutableMap.of(),
+                TypeProvider.copyOf(ImmutableMap.of(new Symbol("a"), BIGINT)),
+                3,
+                memoryContext.newLocalMemoryContext("test"));
+        Consumer<TupleDomain<String>> consumer = filter.getTupleDomainConsumer();
+        Consumer<Map<String, BlockedBloomFilter>> bloomFilterConsumer = filter.getBloomFilterConsumer();
+        ListenableFuture<Map<Symbol, Domain>> result = filter.getResultFuture();
+        ListenableFuture<Map<Symbol, BlockedBloomFilter>> bloomFilterResult = filter.getBloomFilterResultFuture();
+
+        // the first partition is small enough to be collected as discrete values
+        consumer.accept(TupleDomain.withColumnDomains(ImmutableMap.of(
+                "123", Domain.singleValue(BIGINT, 10L))));
+
+        // the other partitions are too large, so they report bloom filters and an unconstrained predicate
+        for (long value : new long[] {20L, 30L}) {
+            BlockedBloomFilter bloomFilter = new BlockedBloomFilter(BIGINT, 1024);
+            bloomFilter.put(createLongsBlock(value), 0);
+            bloomFilterConsumer.accept(ImmutableMap.of("123", bloomFilter));
+            assertFalse(bloomFilterResult.isDone());
+            // the merged filter is accounted while the partitions are collected
+            assertEquals(memoryContext.getBytes(), bloomFilter.getRetainedSizeInBytes());
+            consumer.accept(TupleDomain.all());
+        }
+        // and is then tracked by its consumer
+        assertEquals(memoryContext.getBytes(), 0);
+
+        assertEquals(result.get(), ImmutableMap.of());
+        BlockedBloomFilter bloomFilter = bloomFilterResult.get().get(new Symbol("a"));
+        Block probe = createLongsBlock(10L, 20L, 30L);
+        for (int position = 0; position < probe.getPositionCount(); position++) {
+            assertTrue(bloomFilter.mightContain(probe, position));
+        }
+    }
+
     @Test
     public void testNone()
             throws ExecutionException, InterruptedException
@@ -232,6 +282,45 @@ public class TestLocalDynamicFilter
         assertEquals(LocalDynamicFilter.create(joinNode, TypeProvider.copyOf(subplan.getFragment().getSymbols()), 1), Optional.empty());
     }
 
+    @Test
+    public void testCreateDistributedJoinWithRemoteDynamicFilter()
+            throws ExecutionException, InterruptedException
+    {
+        Session session = Session.builder(getQueryRunner().getDefaultSession())
+                .setSystemProperty(JOIN_DISTRIBUTION_TYPE, "PARTITIONED")
+                .build();
+        SubPlan subplan = subplan(
+                "SELECT count() FROM nation, region WHERE nation.regionkey = region.regionkey " +
+                        "AND region.comment = 'abc'",
+                OPTIMIZED_AND_VALIDATED,
+                false,
+                session);
+        PlanFragment joinFragment = subplan.getChildren().get(0).getFragment();
+        JoinNode joinNode = searchJoins(joinFragment).findOnlyElement();
+        Set<String> remoteDynamicFilters = getRemoteDynamicFilters(joinFragment.getRoot());
+        assertEquals(remoteDynamicFilters, joinNode.getDynamicFilters().keySet());
+
+        LocalDynamicFilter filter = LocalDynamicFilter.create(
+                joinNode,
+                remoteDynamicFilters,
+                TypeProvider.copyOf(joinFragment.getSymbols()),
+                2,
+                newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"))
+                .get();
+        String filterId = Iterables.getOnlyElement(filter.getBuildChannels().keySet());
+        ListenableFuture<Map<String, Domain>> result = filter.getRemoteResultFuture();
+
+        filter.getTupleDomainConsumer().accept(TupleDomain.withColumnDomains(ImmutableMap.of(
+                filterId, Domain.singleValue(BIGINT, 1L))));
+        assertFalse(result.isDone());
+        filter.getTupleDomainConsumer().accept(TupleDomain.withColumnDomains(ImmutableMap.of(
+                filterId, Domain.singleValue(BIGINT, 2L))));
+
+        assertEquals(result.get(), ImmutableMap.of(
+                filterId, Domain.multipleValues(BIGINT, ImmutableList.of(1L, 2L))));
+        assertEquals(filter.getResultFuture().get(), ImmutableMap.of());
+    }
+
     @Test
     public void testCreateMultipleCriteria()
             throws ExecutionException, InterruptedException
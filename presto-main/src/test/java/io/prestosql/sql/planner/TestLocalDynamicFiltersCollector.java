@@ -17,6 +17,8 @@ package io.prestosql.sql.planner;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import io.prestosql.memory.context.AggregatedMemoryContext;
+import io.prestosql.operator.BlockedBloomFilter;
 import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.predicate.TupleDomain;
 import org.testng.annotations.Test;
@@ -24,6 +26,8 @@ import org.testng.annotations.Test;
 import java.util.Map;
 import java.util.Set;
 
+import static io.prestosql.block.BlockAssertions.createLongsBlock;
+import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.testing.assertions.Assert.assertEquals;
 
@@ -35,7 +39,7 @@ public class TestLocalDynamicFiltersCollector
         Symbol symbol = new Symbol("symbol");
         Set<Symbol> probeSymbols = ImmutableSet.of(symbol);
 
-        LocalDynamicFiltersCollector collector = new LocalDynamicFiltersCollector();
+        LocalDynamicFiltersCollector collector = new LocalDynamicFiltersCollector(newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"));
         assertEquals(collector.getDynamicFilter(probeSymbols), TupleDomain.all());
 
         collector.addDynamicFilter(ImmutableMap.of());
@@ -59,7 +63,7 @@ public class TestLocalDynamicFiltersCollector
         Set<Symbol> probeSymbols1 = ImmutableSet.of(symbol1);
         Set<Symbol> probeSymbols2 = ImmutableSet.of(symbol2);
 
-        LocalDynamicFiltersCollector collector = new LocalDynamicFiltersCollector();
+        LocalDynamicFiltersCollector collector = new LocalDynamicFiltersCollector(newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"));
         assertEquals(collector.getDynamicFilter(probeSymbols1), TupleDomain.all());
         assertEquals(collector.getDynamicFilter(probeSymbols2), TupleDomain.all());
 
@@ -87,7 +91,7 @@ public class TestLocalDynamicFiltersCollector
         Set<Symbol> probeSymbols1 = ImmutableSet.of(symbol1);
         Set<Symbol> probeSymbols2 = ImmutableSet.of(symbol2);
 
-        LocalDynamicFiltersCollector collector = new LocalDynamicFiltersCollector();
+        LocalDynamicFiltersCollector collector = new LocalDynamicFiltersCollector(newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"));
         assertEquals(collector.getDynamicFilter(probeSymbols1), TupleDomain.all());
         assertEquals(collector.getDynamicFilter(probeSymbols2), TupleDomain.all());
 
@@ -105,6 +109,34 @@ public class TestLocalDynamicFiltersCollector
         assertEquals(collector.getDynamicFilter(ImmutableSet.of(symbol1, symbol2)), TupleDomain.none());
     }
 
+    @Test
+    public void testBloomFiltersMemory()
+    {
+        Symbol symbol1 = new Symbol("symbol1");
+        Symbol symbol2 = new Symbol("symbol2");
+        AggregatedMemoryContext memoryContext = newSimpleAggregatedMemoryContext();
+        LocalDynamicFiltersCollector collector = new LocalDynamicFiltersCollector(memoryContext.newLocalMemoryContext("test"));
+
+        // the probe symbols of a dynamic filter share its bloom filter
+        BlockedBloomFilter bloomFilter = new BlockedBloomFilter(BIGINT, 1024);
+        bloomFilter.put(createLongsBlock(1L), 0);
+        collector.addBloomFilters(ImmutableMap.of(symbol1, bloomFilter, symbol2, bloomFilter));
+        assertEquals(memoryContext.getBytes(), bloomFilter.getRetainedSizeInBytes());
+        assertEquals(collector.getBloomFilters(ImmutableSet.of(symbol1)), ImmutableMap.of(symbol1, bloomFilter));
+
+        // the intersection replaces the previous filter
+        collector.addBloomFilters(ImmutableMap.of(symbol1, new BlockedBloomFilter(BIGINT, 1024)));
+        assertEquals(memoryContext.getBytes(), 2 * bloomFilter.getRetainedSizeInBytes());
+
+        collector.close();
+        assertEquals(memoryContext.getBytes(), 0);
+        assertEquals(collector.getBloomFilters(ImmutableSet.of(symbol1, symbol2)), ImmutableMap.of());
+
+        // filters collected after the task is done are dropped
+        collector.addBloomFilters(ImmutableMap.of(symbol1, bloomFilter));
+        assertEquals(memoryContext.getBytes(), 0);
+    }
+
     private TupleDomain<Symbol> tupleDomain(Symbol symbol, Long... values)
     {
         return TupleDomain.withColumnDomains(ImmutableMap.of(symbol, Domain.multipleValues(BIGINT, ImmutableList.copyOf(values))));
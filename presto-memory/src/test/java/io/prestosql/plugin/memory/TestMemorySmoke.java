@@ -15,6 +15,7 @@ package io.prestosql.plugin.memory;
 
 import com.google.common.collect.ImmutableSet;
 import io.prestosql.Session;
+import io.prestosql.execution.QueryInfo;
 import io.prestosql.execution.QueryStats;
 import io.prestosql.metadata.QualifiedObjectName;
 import io.prestosql.operator.OperatorStats;
@@ -32,9 +33,11 @@ import java.util.List;
 import java.util.Set;
 
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static io.prestosql.SystemSessionProperties.DYNAMIC_FILTERING_WAIT_TIMEOUT;
 import static io.prestosql.SystemSessionProperties.ENABLE_DYNAMIC_FILTERING;
 import static io.prestosql.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
 import static io.prestosql.SystemSessionProperties.JOIN_REORDERING_STRATEGY;
+import static io.prestosql.execution.StageInfo.getAllStages;
 import static io.prestosql.testing.assertions.Assert.assertEquals;
 import static java.lang.String.format;
 import static org.testng.Assert.assertTrue;
@@ -138,6 +141,40 @@ public class TestMemorySmoke
         assertEquals(rowsRead, ImmutableSet.of(6L, buildSideRowsCount));
     }
 
+    @Test
+    public void testPartitionedJoinDynamicFiltering()
+    {
+        final long buildSideRowsCount = 15_000L;
+
+        Session session = Session.builder(getSession())
+                .setSystemProperty(ENABLE_DYNAMIC_FILTERING, "true")
+                .setSystemProperty(JOIN_DISTRIBUTION_TYPE, FeaturesConfig.JoinDistributionType.PARTITIONED.name())
+                .setSystemProperty(DYNAMIC_FILTERING_WAIT_TIMEOUT, "1m")
+                .build();
+        DistributedQueryRunner runner = (DistributedQueryRunner) getQueryRunner();
+        ResultWithQueryId<MaterializedResult> result = runner.executeWithQueryId(session, "SELECT * FROM lineitem JOIN orders " +
+                "ON lineitem.orderkey = orders.orderkey AND orders.comment = 'nstructions sleep furiously among '");
+        assertEquals(result.getResult().getRowCount(), 6);
+
+        // Build-side tasks report the dynamic filter to the coordinator
+        QueryInfo queryInfo = runner.getCoordinator().getQueryManager().getFullQueryInfo(result.getQueryId());
+        assertTrue(getAllStages(queryInfo.getOutputStage()).stream()
+                .flatMap(stage -> stage.getTasks().stream())
+                .anyMatch(task -> !task.getTaskStatus().getDynamicFilterDomains().isEmpty()));
+
+        // Probe-side is dynamically filtered, as its table scan is scheduled once the merged filter is collected:
+        Set<Long> rowsRead = queryInfo.getQueryStats().getOperatorSummaries()
+                .stream()
+                .filter(summary -> summary.getOperatorType().equals("ScanFilterAndProjectOperator"))
+                .map(OperatorStats::getInputPositions)
+                .collect(toImmutableSet());
+        assertEquals(rowsRead, ImmutableSet.of(6L, buildSideRowsCount));
+
+        result = runner.executeWithQueryId(session, "SELECT * FROM lineitem JOIN orders " +
+                "ON lineitem.orderkey = orders.orderkey AND orders.totalprice < 0");
+        assertEquals(result.getResult().getRowCount(), 0);
+    }
+
     @Test
     public void testJoinDynamicFilteringMultiJoin()
     {
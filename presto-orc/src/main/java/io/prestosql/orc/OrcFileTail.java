@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import io.airlift.slice.Slice;
+import io.prestosql.orc.metadata.Footer;
+import io.prestosql.orc.metadata.Metadata;
+import io.prestosql.orc.metadata.OrcType;
+import io.prestosql.orc.metadata.PostScript;
+import io.prestosql.orc.metadata.StripeInformation;
+import io.prestosql.orc.metadata.statistics.ColumnStatistics;
+import io.prestosql.orc.metadata.statistics.StripeStatistics;
+import org.openjdk.jol.info.ClassLayout;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The decoded tail of an ORC file: the post script, footer and metadata.
+ * These only depend on the file contents, so they can be reused by all
+ * readers of the same version of the file.
+ */
+public class OrcFileTail
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(OrcFileTail.class).instanceSize();
+    private static final int STRIPE_INFORMATION_INSTANCE_SIZE = ClassLayout.parseClass(StripeInformation.class).instanceSize();
+    private static final int ORC_TYPE_INSTANCE_SIZE = ClassLayout.parseClass(OrcType.class).instanceSize();
+
+    private final PostScript postScript;
+    private final Footer footer;
+    private final Metadata metadata;
+    private final long retainedSizeInBytes;
+
+    public OrcFileTail(PostScript postScript, Footer footer, Metadata metadata)
+    {
+        this.postScript = requireNonNull(postScript, "postScript is null");
+        this.footer = requireNonNull(footer, "footer is null");
+        this.metadata = requireNonNull(metadata, "metadata is null");
+        this.retainedSizeInBytes = INSTANCE_SIZE +
+                (long) footer.getStripes().size() * STRIPE_INFORMATION_INSTANCE_SIZE +
+                (long) footer.getTypes().size() * ORC_TYPE_INSTANCE_SIZE +
+                footer.getFileStats().map(stats -> stats.stream().mapToLong(ColumnStatistics::getRetainedSizeInBytes).sum()).orElse(0L) +
+                footer.getUserMetadata().values().stream().mapToLong(Slice::getRetainedSize).sum() +
+                metadata.getStripeStatsList().stream()
+                        .map(stats -> stats.map(StripeStatistics::getRetainedSizeInBytes))
+                        .mapToLong(stats -> stats.orElse(0L))
+                        .sum();
+    }
+
+    public PostScript getPostScript()
+    {
+        return postScript;
+    }
+
+    public Footer getFooter()
+    {
+        return footer;
+    }
+
+    public Metadata getMetadata()
+    {
+        return metadata;
+    }
+
+    /**
+     * Returns an estimate of the memory retained by the decoded tail.
+     */
+    public long getRetainedSizeInBytes()
+    {
+        return retainedSizeInBytes;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("postScript", postScript)
+                .add("footer", footer)
+                .add("retainedSizeInBytes", retainedSizeInBytes)
+                .toString();
+    }
+}
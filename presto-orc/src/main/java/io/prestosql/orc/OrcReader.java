@@ -74,6 +74,7 @@ public class OrcReader
     private final int bufferSize;
     private final CompressionKind compressionKind;
     private final Optional<OrcDecompressor> decompressor;
+    private final OrcFileTail fileTail;
     private final Footer footer;
     private final Metadata metadata;
     private final OrcColumn rootColumn;
@@ -83,12 +84,23 @@ public class OrcReader
     public OrcReader(OrcDataSource orcDataSource, OrcReaderOptions options)
             throws IOException
     {
-        this(orcDataSource, options, Optional.empty());
+        this(orcDataSource, options, Optional.empty(), Optional.empty());
+    }
+
+    /**
+     * Creates a reader using a previously read tail of the same file, which avoids reading
+     * and decoding the post script, footer and metadata again.
+     */
+    public OrcReader(OrcDataSource orcDataSource, OrcReaderOptions options, OrcFileTail fileTail)
+            throws IOException
+    {
+        this(orcDataSource, options, Optional.of(fileTail), Optional.empty());
     }
 
     private OrcReader(
             OrcDataSource orcDataSource,
             OrcReaderOptions options,
+            Optional<OrcFileTail> fileTail,
             Optional<OrcWriteValidation> writeValidation)
             throws IOException
     {
@@ -99,6 +111,41 @@ public class OrcReader
 
         this.writeValidation = requireNonNull(writeValidation, "writeValidation is null");
 
+        if (fileTail.isPresent()) {
+            this.fileTail = fileTail.get();
+        }
+        else {
+            this.fileTail = readFileTail(orcDataSource, metadataReader);
+        }
+        PostScript postScript = this.fileTail.getPostScript();
+        this.footer = this.fileTail.getFooter();
+        this.metadata = this.fileTail.getMetadata();
+
+        validateWrite(validation -> validation.getVersion().equals(postScript.getVersion()), "Unexpected version");
+
+        this.bufferSize = toIntExact(postScript.getCompressionBlockSize());
+
+        // check compression codec is supported
+        this.compressionKind = postScript.getCompression();
+        this.decompressor = createOrcDecompressor(orcDataSource.getId(), compressionKind, bufferSize);
+        validateWrite(validation -> validation.getCompression() == compressionKind, "Unexpected compression");
+
+        this.hiveWriterVersion = postScript.getHiveWriterVersion();
+
+        this.rootColumn = createOrcColumn("", "", new OrcColumnId(0), footer.getTypes(), orcDataSource.getId());
+
+        validateWrite(validation -> validation.getColumnNames().equals(getColumnNames()), "Unexpected column names");
+        validateWrite(validation -> validation.getRowGroupMaxRowCount() == footer.getRowsInRowGroup(), "Unexpected rows in group");
+        if (writeValidation.isPresent()) {
+            writeValidation.get().validateMetadata(orcDataSource.getId(), footer.getUserMetadata());
+            writeValidation.get().validateFileStatistics(orcDataSource.getId(), footer.getFileStats());
+            writeValidation.get().validateStripeStatistics(orcDataSource.getId(), footer.getStripes(), metadata.getStripeStatsList());
+        }
+    }
+
+    private static OrcFileTail readFileTail(OrcDataSource orcDataSource, ExceptionWrappingMetadataReader metadataReader)
+            throws IOException
+    {
         //
         // Read the file tail:
         //
@@ -138,16 +185,10 @@ public class OrcReader
 
         // verify this is a supported version
         checkOrcVersion(orcDataSource, postScript.getVersion());
-        validateWrite(validation -> validation.getVersion().equals(postScript.getVersion()), "Unexpected version");
-
-        this.bufferSize = toIntExact(postScript.getCompressionBlockSize());
 
         // check compression codec is supported
-        this.compressionKind = postScript.getCompression();
-        this.decompressor = createOrcDecompressor(orcDataSource.getId(), compressionKind, bufferSize);
-        validateWrite(validation -> validation.getCompression() == compressionKind, "Unexpected compression");
-
-        this.hiveWriterVersion = postScript.getHiveWriterVersion();
+        Optional<OrcDecompressor> decompressor = createOrcDecompressor(orcDataSource.getId(), postScript.getCompression(), toIntExact(postScript.getCompressionBlockSize()));
+        HiveWriterVersion hiveWriterVersion = postScript.getHiveWriterVersion();
 
         int footerSize = toIntExact(postScript.getFooterLength());
         int metadataSize = toIntExact(postScript.getMetadataLength());
@@ -165,29 +206,23 @@ public class OrcReader
         }
 
         // read metadata
+        Metadata metadata;
         Slice metadataSlice = completeFooterSlice.slice(0, metadataSize);
         try (InputStream metadataInputStream = new OrcInputStream(OrcChunkLoader.create(orcDataSource.getId(), metadataSlice, decompressor, newSimpleAggregatedMemoryContext()))) {
-            this.metadata = metadataReader.readMetadata(hiveWriterVersion, metadataInputStream);
+            metadata = metadataReader.readMetadata(hiveWriterVersion, metadataInputStream);
         }
 
         // read footer
+        Footer footer;
         Slice footerSlice = completeFooterSlice.slice(metadataSize, footerSize);
         try (InputStream footerInputStream = new OrcInputStream(OrcChunkLoader.create(orcDataSource.getId(), footerSlice, decompressor, newSimpleAggregatedMemoryContext()))) {
-            this.footer = metadataReader.readFooter(hiveWriterVersion, footerInputStream);
+            footer = metadataReader.readFooter(hiveWriterVersion, footerInputStream);
         }
         if (footer.getTypes().size() == 0) {
             throw new OrcCorruptionException(orcDataSource.getId(), "File has no columns");
         }
 
-        this.rootColumn = createOrcColumn("", "", new OrcColumnId(0), footer.getTypes(), orcDataSource.getId());
-
-        validateWrite(validation -> validation.getColumnNames().equals(getColumnNames()), "Unexpected column names");
-        validateWrite(validation -> validation.getRowGroupMaxRowCount() == footer.getRowsInRowGroup(), "Unexpected rows in group");
-        if (writeValidation.isPresent()) {
-            writeValidation.get().validateMetadata(orcDataSource.getId(), footer.getUserMetadata());
-            writeValidation.get().validateFileStatistics(orcDataSource.getId(), footer.getFileStats());
-            writeValidation.get().validateStripeStatistics(orcDataSource.getId(), footer.getStripes(), metadata.getStripeStatsList());
-        }
+        return new OrcFileTail(postScript, footer, metadata);
     }
 
     public List<String> getColumnNames()
@@ -195,6 +230,11 @@ public class OrcReader
         return footer.getTypes().get(ROOT_COLUMN).getFieldNames();
     }
 
+    public OrcFileTail getFileTail()
+    {
+        return fileTail;
+    }
+
     public Footer getFooter()
     {
         return footer;
@@ -373,7 +413,7 @@ public class OrcReader
             throws OrcCorruptionException
     {
         try {
-            OrcReader orcReader = new OrcReader(input, new OrcReaderOptions(), Optional.of(writeValidation));
+            OrcReader orcReader = new OrcReader(input, new OrcReaderOptions(), Optional.empty(), Optional.of(writeValidation));
             try (OrcRecordReader orcRecordReader = orcReader.createRecordReader(
                     orcReader.getRootColumn().getNestedColumns(),
                     readTypes,
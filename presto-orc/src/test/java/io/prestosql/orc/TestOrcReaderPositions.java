@@ -13,6 +13,7 @@
  */
 package io.prestosql.orc;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import io.airlift.slice.Slice;
@@ -43,10 +44,12 @@ import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
 import java.util.Map;
 
+import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static io.prestosql.orc.OrcReader.BATCH_SIZE_GROWTH_FACTOR;
 import static io.prestosql.orc.OrcReader.INITIAL_BATCH_SIZE;
 import static io.prestosql.orc.OrcReader.MAX_BATCH_SIZE;
 import static io.prestosql.orc.OrcTester.Format.ORC_12;
+import static io.prestosql.orc.OrcTester.HIVE_STORAGE_TIME_ZONE;
 import static io.prestosql.orc.OrcTester.READER_OPTIONS;
 import static io.prestosql.orc.OrcTester.createCustomOrcRecordReader;
 import static io.prestosql.orc.OrcTester.createOrcRecordWriter;
@@ -311,6 +314,42 @@ public class TestOrcReaderPositions
         }
     }
 
+    @Test
+    public void testReadWithFileTail()
+            throws Exception
+    {
+        try (TempFile tempFile = new TempFile()) {
+            createMultiStripeFile(tempFile.getFile());
+
+            OrcReader orcReader = new OrcReader(new FileOrcDataSource(tempFile.getFile(), READER_OPTIONS), READER_OPTIONS);
+            OrcFileTail fileTail = orcReader.getFileTail();
+            assertTrue(fileTail.getRetainedSizeInBytes() > 0);
+
+            // the tail of the file is not read again
+            TestingOrcDataSource orcDataSource = new TestingOrcDataSource(new FileOrcDataSource(tempFile.getFile(), READER_OPTIONS));
+            OrcReader cachedTailReader = new OrcReader(orcDataSource, READER_OPTIONS, fileTail);
+            assertEquals(orcDataSource.getReadCount(), 0);
+            assertEquals(cachedTailReader.getColumnNames(), orcReader.getColumnNames());
+            assertEquals(cachedTailReader.getFooter().getStripes().size(), 5);
+
+            try (OrcRecordReader reader = cachedTailReader.createRecordReader(
+                    cachedTailReader.getRootColumn().getNestedColumns(),
+                    ImmutableList.of(BIGINT),
+                    OrcPredicate.TRUE,
+                    HIVE_STORAGE_TIME_ZONE,
+                    newSimpleAggregatedMemoryContext(),
+                    MAX_BATCH_SIZE,
+                    RuntimeException::new)) {
+                for (int i = 0; i < 5; i++) {
+                    Page page = reader.nextPage().getLoadedPage();
+                    assertEquals(page.getPositionCount(), 20);
+                    assertCurrentBatch(page, i);
+                }
+                assertNull(reader.nextPage());
+            }
+        }
+    }
+
     @Test
     public void testBatchSizeGrowth()
             throws Exception
@@ -0,0 +1,122 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.function.Function;
+
+import static java.lang.Math.addExact;
+import static java.lang.Math.multiplyExact;
+
+/**
+ * The amount of work in a split, relative to a standard split. The scheduler
+ * budgets the splits of a node or task by their total weight, so a node can be
+ * assigned more splits which are smaller than a standard split.
+ * <p>
+ * Weights are represented as a number of hundredths of a standard split.
+ */
+public final class SplitWeight
+{
+    private static final long UNIT_VALUE = 100;
+    private static final int UNIT_SCALE = 2;
+    private static final SplitWeight STANDARD_WEIGHT = new SplitWeight(UNIT_VALUE);
+
+    private final long value;
+
+    private SplitWeight(long value)
+    {
+        this.value = value;
+    }
+
+    /**
+     * Returns the weight of the specified proportion of a standard split, which must be greater than zero.
+     * Proportions too small to be represented are rounded up to the smallest weight.
+     */
+    public static SplitWeight fromProportion(double weight)
+    {
+        if (!(weight > 0) || !Double.isFinite(weight)) {
+            throw new IllegalArgumentException("Invalid weight: " + weight);
+        }
+        // Must round up to avoid small weights rounding to 0
+        return fromRawValue((long) Math.ceil(weight * UNIT_VALUE));
+    }
+
+    @JsonCreator
+    public static SplitWeight fromRawValue(long value)
+    {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Invalid weight: " + value);
+        }
+        return value == UNIT_VALUE ? STANDARD_WEIGHT : new SplitWeight(value);
+    }
+
+    public static SplitWeight standard()
+    {
+        return STANDARD_WEIGHT;
+    }
+
+    /**
+     * Returns the raw weight of the specified number of standard splits.
+     */
+    public static long rawValueForStandardSplitCount(int splitCount)
+    {
+        if (splitCount < 0) {
+            throw new IllegalArgumentException("Invalid split count: " + splitCount);
+        }
+        return multiplyExact(splitCount, UNIT_VALUE);
+    }
+
+    public static <T> long rawValueSum(Collection<T> collection, Function<T, SplitWeight> getter)
+    {
+        long sum = 0;
+        for (T item : collection) {
+            sum = addExact(sum, getter.apply(item).getRawValue());
+        }
+        return sum;
+    }
+
+    @JsonValue
+    public long getRawValue()
+    {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        return value == ((SplitWeight) obj).value;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Long.hashCode(value);
+    }
+
+    @Override
+    public String toString()
+    {
+        return BigDecimal.valueOf(value, UNIT_SCALE).stripTrailingZeros().toPlainString();
+    }
+}
@@ -14,8 +14,10 @@
 package io.prestosql.spi.connector;
 
 import io.prestosql.spi.HostAddress;
+import io.prestosql.spi.SplitWeight;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ConnectorSplit
 {
@@ -24,4 +26,34 @@ public interface ConnectorSplit
     List<HostAddress> getAddresses();
 
     Object getInfo();
+
+    /**
+     * Returns the amount of work in this split, relative to a standard split. The
+     * weight must be the same on the coordinator and on the workers.
+     */
+    default SplitWeight getSplitWeight()
+    {
+        return SplitWeight.standard();
+    }
+
+    /**
+     * Returns an identifier of the data read by this split, which must be the same
+     * for every query reading the same unchanged data. Splits over data that may
+     * change in place return empty, and results computed from them are not cached.
+     */
+    default Optional<String> getSplitIdentity()
+    {
+        return Optional.empty();
+    }
+
+    /**
+     * Returns a key identifying the data read by this split for the purpose of node
+     * placement. When soft affinity scheduling is enabled, remotely accessible splits
+     * with the same key are preferably scheduled on the same node, so that node-local
+     * caches are reused across queries.
+     */
+    default Optional<String> getAffinityKey()
+    {
+        return Optional.empty();
+    }
 }
@@ -13,6 +13,10 @@
  */
 package io.prestosql.spi.connector;
 
+import io.prestosql.spi.predicate.TupleDomain;
+
+import java.util.function.Supplier;
+
 public interface ConnectorSplitManager
 {
     @Deprecated
@@ -34,6 +38,21 @@ public interface ConnectorSplitManager
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Returns splits for the table. The {@code dynamicFilter} supplies a constraint collected
+     * from the build side of a join while the query is running; it is {@link TupleDomain#all()}
+     * until the filter becomes available and can be consulted repeatedly during split enumeration.
+     */
+    default ConnectorSplitSource getSplits(
+            ConnectorTransactionHandle transaction,
+            ConnectorSession session,
+            ConnectorTableHandle table,
+            SplitSchedulingStrategy splitSchedulingStrategy,
+            Supplier<TupleDomain<ColumnHandle>> dynamicFilter)
+    {
+        return getSplits(transaction, session, table, splitSchedulingStrategy);
+    }
+
     enum SplitSchedulingStrategy
     {
         UNGROUPED_SCHEDULING,
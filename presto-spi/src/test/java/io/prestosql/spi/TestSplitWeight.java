@@ -0,0 +1,58 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi;
+
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.util.function.Function;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertThrows;
+
+public class TestSplitWeight
+{
+    @Test
+    public void testFromProportion()
+    {
+        assertSame(SplitWeight.fromProportion(1.0), SplitWeight.standard());
+        assertEquals(SplitWeight.fromProportion(0.5).getRawValue(), 50);
+        assertEquals(SplitWeight.fromProportion(2.0).getRawValue(), 200);
+        // small proportions round up
+        assertEquals(SplitWeight.fromProportion(0.000001).getRawValue(), 1);
+
+        assertThrows(IllegalArgumentException.class, () -> SplitWeight.fromProportion(0));
+        assertThrows(IllegalArgumentException.class, () -> SplitWeight.fromProportion(-1));
+        assertThrows(IllegalArgumentException.class, () -> SplitWeight.fromProportion(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> SplitWeight.fromProportion(Double.POSITIVE_INFINITY));
+        assertThrows(IllegalArgumentException.class, () -> SplitWeight.fromRawValue(0));
+    }
+
+    @Test
+    public void testSum()
+    {
+        assertEquals(SplitWeight.rawValueForStandardSplitCount(0), 0);
+        assertEquals(SplitWeight.rawValueForStandardSplitCount(3), 300);
+        assertEquals(SplitWeight.rawValueSum(ImmutableList.of(SplitWeight.standard(), SplitWeight.fromProportion(0.25)), Function.identity()), 125);
+    }
+
+    @Test
+    public void testToString()
+    {
+        assertEquals(SplitWeight.standard().toString(), "1");
+        assertEquals(SplitWeight.fromProportion(0.05).toString(), "0.05");
+        assertEquals(SplitWeight.fromProportion(1.5).toString(), "1.5");
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.tests;
+
+import io.prestosql.testing.AbstractTestAggregations;
+import io.prestosql.testing.QueryRunner;
+import io.prestosql.tests.tpch.TpchQueryRunnerBuilder;
+
+import static io.prestosql.SystemSessionProperties.ADAPTIVE_PARTIAL_AGGREGATION_ENABLED;
+import static io.prestosql.SystemSessionProperties.ADAPTIVE_PARTIAL_AGGREGATION_MIN_ROWS;
+import static io.prestosql.SystemSessionProperties.ADAPTIVE_PARTIAL_AGGREGATION_UNIQUE_ROWS_RATIO_THRESHOLD;
+
+public class TestAdaptivePartialAggregations
+        extends AbstractTestAggregations
+{
+    @Override
+    protected QueryRunner createQueryRunner()
+            throws Exception
+    {
+        // disable partial aggregations right after the first page
+        return TpchQueryRunnerBuilder.builder()
+                .amendSession(builder -> builder
+                        .setSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION_ENABLED, "true")
+                        .setSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION_MIN_ROWS, "0")
+                        .setSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION_UNIQUE_ROWS_RATIO_THRESHOLD, "0.0"))
+                .build();
+    }
+}
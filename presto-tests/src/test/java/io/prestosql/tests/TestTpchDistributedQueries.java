@@ -33,9 +33,12 @@ import org.testng.annotations.Test;
 import java.util.Optional;
 
 import static com.google.common.collect.Iterables.getOnlyElement;
+import static io.prestosql.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
+import static io.prestosql.SystemSessionProperties.JOIN_REORDERING_STRATEGY;
 import static io.prestosql.spi.predicate.Marker.Bound.EXACTLY;
 import static io.prestosql.spi.type.VarcharType.createVarcharType;
 import static io.prestosql.testing.TestingSession.testSessionBuilder;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.testng.Assert.assertEquals;
 
 public class TestTpchDistributedQueries
@@ -84,6 +87,23 @@ public class TestTpchDistributedQueries
                 new IoPlanPrinter.IoPlan(ImmutableSet.of(input), Optional.empty(), totalEstimate));
     }
 
+    @Test
+    public void testExplainAnalyzeBroadcastOutput()
+    {
+        Session session = Session.builder(getSession())
+                .setSystemProperty(JOIN_DISTRIBUTION_TYPE, "BROADCAST")
+                .setSystemProperty(JOIN_REORDERING_STRATEGY, "NONE")
+                .build();
+
+        // the size of nation is estimated from the connector statistics
+        String value = (String) computeActual(session, "EXPLAIN ANALYZE SELECT count(*) FROM orders o JOIN nation n ON o.custkey = n.nationkey").getOnlyValue();
+        assertThat(value).containsPattern("Broadcast output: \\S+B, estimated: [0-9.]+[kM]?B\n");
+
+        // the size after a LIKE filter is unknown
+        value = (String) computeActual(session, "EXPLAIN ANALYZE SELECT count(*) FROM orders o JOIN (SELECT * FROM nation WHERE name LIKE '%A%') n ON o.custkey = n.nationkey").getOnlyValue();
+        assertThat(value).containsPattern("Broadcast output: \\S+B, estimated: \\?\n");
+    }
+
     @Test
     public void testAnalyzePropertiesSystemTable()
     {